@@ -0,0 +1,12 @@
+package com.algocoach.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs (e.g. similarity matrix refresh)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
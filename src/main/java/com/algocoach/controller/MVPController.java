@@ -2,28 +2,60 @@ package com.algocoach.controller;
 
 import com.algocoach.annotation.RateLimited;
 import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.LeaderboardMetric;
 import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.ReviewSchedule;
 import com.algocoach.domain.User;
 import com.algocoach.domain.UserProgress;
+import com.algocoach.dto.BatchRecommendationRequest;
+import com.algocoach.dto.DueReview;
+import com.algocoach.dto.FacetCounts;
+import com.algocoach.dto.LeaderboardEntry;
+import com.algocoach.dto.LearningPath;
+import com.algocoach.dto.PracticeSet;
+import com.algocoach.dto.PracticeSetRequest;
+import com.algocoach.dto.ProblemPage;
+import com.algocoach.dto.ProblemSummary;
 import com.algocoach.exception.ResourceNotFoundException;
 import com.algocoach.exception.ValidationException;
 import com.algocoach.repository.ProblemRepository;
+import com.algocoach.service.ExperimentLog;
+import com.algocoach.service.LeaderboardService;
+import com.algocoach.service.LearningPathPlanner;
+import com.algocoach.service.PracticeSetGenerator;
+import com.algocoach.service.ProblemCatalogIndex;
+import com.algocoach.service.ProblemDiscoveryService;
 import com.algocoach.service.ProblemRecommendationService;
+import com.algocoach.service.RecommendationCache;
+import com.algocoach.service.RecommendationExperiment;
+import com.algocoach.service.ReviewScheduler;
+import com.algocoach.service.SkillRatingService;
+import com.algocoach.service.UserActivityService;
 import com.algocoach.service.UserProgressService;
 import com.algocoach.service.UserService;
+import com.algocoach.util.DailyActivity;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -32,9 +64,14 @@ import java.util.stream.Collectors;
 @Validated
 public class MVPController {
     
+    private static final long BATCH_TIMEOUT_MS = 60_000;
+    
     @Autowired
     private ProblemRecommendationService recommendationService;
     
+    @Autowired
+    private RecommendationCache recommendationCache;
+    
     @Autowired
     private UserProgressService progressService;
     
@@ -44,6 +81,36 @@ public class MVPController {
     @Autowired
     private ProblemRepository problemRepository;
     
+    @Autowired
+    private ProblemCatalogIndex catalogIndex;
+    
+    @Autowired
+    private ReviewScheduler reviewScheduler;
+    
+    @Autowired
+    private LeaderboardService leaderboards;
+    
+    @Autowired
+    private UserActivityService activityService;
+    
+    @Autowired
+    private ProblemDiscoveryService discoveryService;
+    
+    @Autowired
+    private SkillRatingService skillRatings;
+    
+    @Autowired
+    private PracticeSetGenerator practiceSetGenerator;
+    
+    @Autowired
+    private LearningPathPlanner learningPathPlanner;
+    
+    @Autowired
+    private RecommendationExperiment experiment;
+    
+    @Autowired
+    private ExperimentLog experimentLog;
+    
     /**
      * Get personalized problem recommendations for the current user
      */
@@ -53,10 +120,64 @@ public class MVPController {
             Authentication authentication,
             @RequestParam(defaultValue = "5") @Min(1) @Max(20) int limit) {
         User user = getCurrentUser(authentication);
-        List<Problem> recommendations = recommendationService.getRecommendedProblems(user, limit);
+        List<Problem> recommendations = recommendationCache.getRecommendations(user, limit);
+        logExposure(user, recommendations);
         return ResponseEntity.ok(Map.of("recommendations", recommendations));
     }
     
+    /**
+     * Get recommendations for a whole cohort of users (admins only, since it exposes
+     * other users' recommendations).
+     * Streams one JSON line per user (application/x-ndjson) as soon as it is computed.
+     */
+    @PostMapping(value = "/recommendations/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @RateLimited(value = 10) // 10 batch requests per minute
+    public ResponseBodyEmitter getBatchRecommendations(@Valid @RequestBody BatchRecommendationRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(BATCH_TIMEOUT_MS);
+        recommendationService.getRecommendedProblemsForUsers(request.getUserIds(), request.getLimit(),
+                (userId, recommendations) -> {
+                    try {
+                        // Results arrive from several pool threads; keep each line intact
+                        synchronized (emitter) {
+                            emitter.send(Map.of("userId", userId, "recommendations", recommendations),
+                                    MediaType.APPLICATION_JSON);
+                            emitter.send("\n", MediaType.TEXT_PLAIN);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        emitter.completeWithError(error);
+                    } else {
+                        emitter.complete();
+                    }
+                });
+        return emitter;
+    }
+    
+    /**
+     * Generate a practice set in one call, e.g. 10 unsolved problems over at least 3
+     * topics, 50% MEDIUM, 90 minutes in total. Unmet constraints are listed in the response.
+     */
+    @PostMapping("/practice-sets")
+    public ResponseEntity<Map<String, Object>> generatePracticeSet(
+            Authentication authentication,
+            @Valid @RequestBody PracticeSetRequest request) {
+        User user = getCurrentUser(authentication);
+        PracticeSet practiceSet = practiceSetGenerator.generate(user, request);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("problems", catalogIndex.resolve(practiceSet.problems().stream()
+                .map(ProblemSummary::id).collect(Collectors.toList())));
+        result.put("estimatedMinutes", practiceSet.estimatedMinutes());
+        result.put("topicCount", practiceSet.topicCount());
+        result.put("unmetConstraints", practiceSet.unmetConstraints());
+        return ResponseEntity.ok(result);
+    }
+    
     /**
      * Get problems by topic
      */
@@ -75,22 +196,49 @@ public class MVPController {
     }
     
     /**
-     * Get random problems for practice
+     * Get random unsolved problems for practice (weighted by acceptance rate on request,
+     * reproducible when a seed is given)
      */
     @GetMapping("/problems/random")
     public ResponseEntity<?> getRandomProblems(
             Authentication authentication,
             @RequestParam Difficulty difficulty,
-            @RequestParam(defaultValue = "3") int limit) {
+            @RequestParam(defaultValue = "3") @Min(1) @Max(20) int limit,
+            @RequestParam(defaultValue = "false") boolean weighted,
+            @RequestParam(required = false) Long seed) {
         try {
             User user = getCurrentUser(authentication);
-            List<Problem> problems = recommendationService.getRandomProblems(user, difficulty, limit);
+            List<Problem> problems = recommendationService.getRandomProblems(user, difficulty, limit, weighted, seed);
             return ResponseEntity.ok(Map.of("problems", problems));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
+    /**
+     * Problem counts per difficulty and topic for the current filters, optionally
+     * leaving out the problems the user has solved
+     */
+    @GetMapping("/problems/filters")
+    public ResponseEntity<?> getFilterCounts(
+            Authentication authentication,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String topic,
+            @RequestParam(defaultValue = "true") boolean hideSolved) {
+        User user = getCurrentUser(authentication);
+        Difficulty difficultyEnum = null;
+        if (difficulty != null) {
+            try {
+                difficultyEnum = Difficulty.valueOf(difficulty.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid difficulty level: " + difficulty));
+            }
+        }
+        FacetCounts counts = catalogIndex.facetCounts(difficultyEnum, topic,
+                hideSolved ? progressService.getProblemIds(user, ProgressStatus.SOLVED) : null);
+        return ResponseEntity.ok(counts);
+    }
+    
     /**
      * Get personalized problem discovery with advanced filtering
      */
@@ -100,17 +248,12 @@ public class MVPController {
             @RequestParam(required = false) String difficulty,
             @RequestParam(required = false) String topic,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(required = false) String cursor) {
         try {
             User user = getCurrentUser(authentication);
             
-            // Get user's solved problems to exclude them
-            List<UserProgress> solvedProblems = progressService.getSolvedProblems(user);
-            Set<Long> solvedProblemIds = solvedProblems.stream()
-                    .map(up -> up.getProblem().getId())
-                    .collect(Collectors.toSet());
-            
             // Get filtered problems
             Difficulty difficultyEnum = null;
             if (difficulty != null) {
@@ -121,44 +264,24 @@ public class MVPController {
                 }
             }
             
-            List<Problem> problems = problemRepository.findByFilters(difficultyEnum, topic, null);
-            
-            // Filter out solved problems
-            problems = problems.stream()
-                    .filter(p -> !solvedProblemIds.contains(p.getId()))
-                    .collect(Collectors.toList());
-            
-            // Apply sorting
-            if (sortBy != null) {
-                switch (sortBy.toLowerCase()) {
-                    case "difficulty":
-                        problems.sort((p1, p2) -> p1.getDifficulty().compareTo(p2.getDifficulty()));
-                        break;
-                    case "acceptance":
-                        problems.sort((p1, p2) -> Double.compare(p2.getAcceptanceRate(), p1.getAcceptanceRate()));
-                        break;
-                    case "title":
-                        problems.sort((p1, p2) -> p1.getTitle().compareToIgnoreCase(p2.getTitle()));
-                        break;
-                    default:
-                        // Default sort by acceptance rate (easiest first)
-                        problems.sort((p1, p2) -> Double.compare(p2.getAcceptanceRate(), p1.getAcceptanceRate()));
-                }
-            }
-            
-            // Apply pagination
-            int start = page * size;
-            int end = Math.min(start + size, problems.size());
-            List<Problem> paginatedProblems = problems.subList(start, end);
+            // Solved problems are excluded by the query itself
+            ProblemPage problems = discoveryService.discover(difficultyEnum, topic, sortBy, user.getId(),
+                    page, size, cursor);
             
             Map<String, Object> result = new HashMap<>();
-            result.put("problems", paginatedProblems);
-            result.put("totalCount", problems.size());
-            result.put("page", page);
+            result.put("problems", problems.problems());
             result.put("size", size);
-            result.put("totalPages", (int) Math.ceil((double) problems.size() / size));
-            result.put("hasNext", end < problems.size());
-            result.put("hasPrevious", page > 0);
+            // Offset pages only: keyset pages have neither a count nor a page number
+            if (problems.totalCount() != null) {
+                result.put("page", problems.page());
+                result.put("totalCount", problems.totalCount());
+                result.put("totalPages", (int) Math.ceil((double) problems.totalCount() / size));
+            }
+            result.put("hasNext", problems.hasNext());
+            result.put("hasPrevious", cursor != null || page > 0);
+            if (problems.nextCursor() != null) {
+                result.put("nextCursor", problems.nextCursor());
+            }
             result.put("filters", Map.of(
                 "difficulty", difficulty != null ? difficulty : "all",
                 "topic", topic != null ? topic : "all",
@@ -369,6 +492,119 @@ public class MVPController {
         }
     }
     
+    /**
+     * Get solved problems that are due for spaced-repetition review
+     */
+    @GetMapping("/reviews/due")
+    public ResponseEntity<Map<String, Object>> getDueReviews(
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+        User user = getCurrentUser(authentication);
+        List<DueReview> due = reviewScheduler.getDueReviews(user, LocalDateTime.now(), limit);
+        
+        Map<Long, Problem> problems = new HashMap<>();
+        for (Problem problem : catalogIndex.resolve(due.stream().map(DueReview::problemId).collect(Collectors.toList()))) {
+            problems.put(problem.getId(), problem);
+        }
+        List<Map<String, Object>> reviews = new ArrayList<>();
+        for (DueReview review : due) {
+            Problem problem = problems.get(review.problemId());
+            if (problem != null) {
+                reviews.add(Map.of("problem", problem, "dueAt", review.dueAt()));
+            }
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("reviews", reviews);
+        result.put("nextDueAt", reviewScheduler.getNextDueAt(user));
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Record a review of a solved problem (quality 0 = forgot ... 5 = perfect recall)
+     */
+    @PostMapping("/reviews/{problemId}")
+    public ResponseEntity<Map<String, Object>> recordReview(
+            Authentication authentication,
+            @PathVariable @Min(1) Long problemId,
+            @RequestParam @Min(0) @Max(5) int quality) {
+        User user = getCurrentUser(authentication);
+        Problem problem = getProblemById(problemId);
+        ReviewSchedule schedule = reviewScheduler.recordReview(user, problem, quality);
+        return ResponseEntity.ok(Map.of(
+            "message", "Review recorded",
+            "nextReviewAt", schedule.getDueAt(),
+            "intervalDays", schedule.getIntervalDays()
+        ));
+    }
+    
+    /**
+     * Get the user's skill rating per topic (unrated topics start at the initial rating)
+     */
+    @GetMapping("/ratings")
+    public ResponseEntity<Map<String, Object>> getRatings(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        Map<String, Object> result = new HashMap<>();
+        result.put("topicRatings", skillRatings.getTopicRatings(user));
+        result.put("initialRating", SkillRatingService.INITIAL_USER_RATING);
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Get the top users of a global or per-topic leaderboard, plus the current user's rank
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<Map<String, Object>> getLeaderboard(
+            Authentication authentication,
+            @RequestParam(defaultValue = "SOLVED") LeaderboardMetric metric,
+            @RequestParam(required = false) String topic,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        User user = getCurrentUser(authentication);
+        Map<String, Object> result = new HashMap<>();
+        result.put("metric", metric);
+        result.put("topic", topic);
+        result.put("entries", leaderboards.getTop(metric, topic, limit));
+        result.put("participants", leaderboards.size(metric, topic));
+        leaderboards.getRank(user, metric, topic).ifPresent(entry -> result.put("you", entry));
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Get the user's daily activity heatmap (problems started and solved per day,
+     * oldest day first) with the current and longest streaks
+     */
+    @GetMapping("/activity")
+    public ResponseEntity<Map<String, Object>> getActivity(
+            Authentication authentication,
+            @RequestParam(defaultValue = "365") @Min(1) @Max(366) int days) {
+        User user = getCurrentUser(authentication);
+        DailyActivity activity = activityService.getActivity(user);
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(days - 1);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("from", from);
+        result.put("to", today);
+        result.put("counts", activity.counts(from, today));
+        result.put("currentStreak", activity.currentStreak(today));
+        result.put("longestStreak", activity.longestStreak());
+        result.put("activeDays", activity.activeDays());
+        result.put("lastActiveDay", activity.lastActiveDay());
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Get the ordered topics the user still has to master to reach a target topic
+     * (the whole curriculum when no target is given)
+     */
+    @GetMapping("/learning-path")
+    public ResponseEntity<LearningPath> getLearningPath(
+            Authentication authentication,
+            @RequestParam(required = false) String target) {
+        User user = getCurrentUser(authentication);
+        return ResponseEntity.ok(learningPathPlanner.plan(user, target));
+    }
+    
     /**
      * Get MVP dashboard data
      */
@@ -378,7 +614,8 @@ public class MVPController {
             User user = getCurrentUser(authentication);
             
             // Get recommendations
-            List<Problem> recommendations = recommendationService.getRecommendedProblems(user, 3);
+            List<Problem> recommendations = recommendationCache.getRecommendations(user, 3);
+            logExposure(user, recommendations);
             
             // Get stats
             Map<String, Object> stats = recommendationService.getUserProgressStats(user);
@@ -392,8 +629,19 @@ public class MVPController {
                     .limit(5)
                     .toList();
             
+            // Next topics on the learning path (memoized per user)
+            List<LearningPath.Step> nextTopics = learningPathPlanner.plan(user, null).steps()
+                    .stream()
+                    .limit(3)
+                    .toList();
+            
+            // Global ranks, O(log n) each
+            Map<LeaderboardMetric, LeaderboardEntry> ranks = leaderboards.getGlobalRanks(user);
+            
             Map<String, Object> dashboard = new HashMap<>();
             dashboard.put("recommendations", recommendations);
+            dashboard.put("ranks", ranks);
+            dashboard.put("nextTopics", nextTopics);
             dashboard.put("stats", stats);
             dashboard.put("inProgress", inProgress);
             dashboard.put("recentlySolved", recentlySolved);
@@ -405,6 +653,11 @@ public class MVPController {
     }
     
     // Helper methods
+    private void logExposure(User user, List<Problem> recommendations) {
+        long[] problemIds = recommendations.stream().mapToLong(Problem::getId).toArray();
+        experimentLog.exposure(experiment.getName(), experiment.assign(user.getId()).name(), user.getId(), problemIds);
+    }
+    
     private User getCurrentUser(Authentication authentication) {
         String username = authentication.getName();
         return userService.getUserByUsername(username)
@@ -2,11 +2,28 @@ package com.algocoach.controller;
 
 import com.algocoach.domain.Difficulty;
 import com.algocoach.domain.Problem;
+import com.algocoach.dto.CatalogMetadata;
+import com.algocoach.dto.FacetCounts;
+import com.algocoach.dto.ProblemPage;
+import com.algocoach.dto.ProblemStatsView;
+import com.algocoach.dto.ProblemSummary;
 import com.algocoach.exception.ResourceNotFoundException;
 import com.algocoach.exception.ValidationException;
 import com.algocoach.repository.ProblemRepository;
+import com.algocoach.service.ProblemAutocompleteService;
+import com.algocoach.service.ProblemCatalogIndex;
+import com.algocoach.service.ProblemDiscoveryService;
+import com.algocoach.service.ProblemSearchIndex;
+import com.algocoach.service.ProblemStatsService;
+import com.algocoach.service.ProblemTextIndex;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -16,11 +33,30 @@ import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/problems")
+@Validated
 public class ProblemController {
     
     @Autowired
     private ProblemRepository problemRepository;
     
+    @Autowired
+    private ProblemCatalogIndex catalogIndex;
+    
+    @Autowired
+    private ProblemTextIndex textIndex;
+    
+    @Autowired
+    private ProblemStatsService problemStats;
+    
+    @Autowired
+    private ProblemDiscoveryService discoveryService;
+    
+    @Autowired
+    private ProblemSearchIndex searchIndex;
+    
+    @Autowired
+    private ProblemAutocompleteService autocompleteService;
+    
     @GetMapping
     public List<Problem> getAllProblems() {
         return problemRepository.findAll();
@@ -32,6 +68,32 @@ public class ProblemController {
                 .orElseThrow(() -> new ResourceNotFoundException("Problem", id.toString()));
     }
     
+    /**
+     * Platform statistics of a problem: attempts, solves, give-ups, average time and hints
+     */
+    @GetMapping("/{id}/stats")
+    public ProblemStatsView getProblemStats(@PathVariable Long id) {
+        if (catalogIndex.get(id).isEmpty()) {
+            throw new ResourceNotFoundException("Problem", id.toString());
+        }
+        return problemStats.getStats(id);
+    }
+    
+    /**
+     * Problems with the most similar text (title, topic, description, examples, constraints)
+     */
+    @GetMapping("/{id}/similar")
+    public List<Problem> getSimilarProblems(@PathVariable Long id,
+                                            @RequestParam(defaultValue = "5") int limit) {
+        if (catalogIndex.get(id).isEmpty()) {
+            throw new ResourceNotFoundException("Problem", id.toString());
+        }
+        if (limit < 1 || limit > 50) {
+            throw new ValidationException("Limit must be between 1 and 50");
+        }
+        return catalogIndex.resolve(textIndex.findSimilar(id, limit));
+    }
+    
     @GetMapping("/difficulty/{difficulty}")
     public List<Problem> getProblemsByDifficulty(@PathVariable String difficulty) {
         try {
@@ -47,10 +109,16 @@ public class ProblemController {
         return problemRepository.findByTopicIgnoreCase(topic);
     }
     
+    /**
+     * Full-text search over title, topic and description, most relevant first.
+     * Without a query, all problems matching the filters (by acceptance rate).
+     */
     @GetMapping("/search")
-    public List<Problem> searchProblems(@RequestParam(required = false) String difficulty,
+    public List<Problem> searchProblems(@RequestParam(required = false) String q,
+                                       @RequestParam(required = false) String difficulty,
                                        @RequestParam(required = false) String topic,
-                                       @RequestParam(required = false) String title) {
+                                       @RequestParam(required = false) String title,
+                                       @RequestParam(defaultValue = "20") int limit) {
         Difficulty difficultyEnum = null;
         if (difficulty != null) {
             try {
@@ -59,7 +127,30 @@ public class ProblemController {
                 throw new ValidationException("Invalid difficulty level: " + difficulty);
             }
         }
-        return problemRepository.findByFilters(difficultyEnum, topic, title);
+        if (limit < 1 || limit > 100) {
+            throw new ValidationException("Limit must be between 1 and 100");
+        }
+        // "title" is the older name of the query parameter
+        String query = q != null ? q : title;
+        if (query == null || query.isBlank()) {
+            return catalogIndex.resolve(catalogIndex.find(difficultyEnum, topic).stream()
+                    .limit(limit)
+                    .map(ProblemSummary::id)
+                    .collect(Collectors.toList()));
+        }
+        return catalogIndex.resolve(searchIndex.search(query, difficultyEnum, topic, limit));
+    }
+    
+    /**
+     * Title suggestions for a partially typed query, tolerating small typos
+     */
+    @GetMapping("/autocomplete")
+    public List<ProblemSummary> autocomplete(@RequestParam String q,
+                                             @RequestParam(defaultValue = "5") int limit) {
+        if (limit < 1 || limit > ProblemAutocompleteService.MAX_SUGGESTIONS) {
+            throw new ValidationException("Limit must be between 1 and " + ProblemAutocompleteService.MAX_SUGGESTIONS);
+        }
+        return autocompleteService.suggest(q, limit);
     }
     
     @GetMapping("/discover")
@@ -67,8 +158,9 @@ public class ProblemController {
             @RequestParam(required = false) String difficulty,
             @RequestParam(required = false) String topic,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(required = false) String cursor) {
         
         Difficulty difficultyEnum = null;
         if (difficulty != null) {
@@ -79,46 +171,31 @@ public class ProblemController {
             }
         }
         
-        List<Problem> problems = problemRepository.findByFilters(difficultyEnum, topic, null);
-        
-        // Apply sorting
-        if (sortBy != null) {
-            switch (sortBy.toLowerCase()) {
-                case "difficulty":
-                    problems.sort((p1, p2) -> p1.getDifficulty().compareTo(p2.getDifficulty()));
-                    break;
-                case "acceptance":
-                    problems.sort((p1, p2) -> Double.compare(p2.getAcceptanceRate(), p1.getAcceptanceRate()));
-                    break;
-                case "title":
-                    problems.sort((p1, p2) -> p1.getTitle().compareToIgnoreCase(p2.getTitle()));
-                    break;
-                default:
-                    // Default sort by acceptance rate (easiest first)
-                    problems.sort((p1, p2) -> Double.compare(p2.getAcceptanceRate(), p1.getAcceptanceRate()));
-            }
-        }
-        
-        // Apply pagination
-        int start = page * size;
-        int end = Math.min(start + size, problems.size());
-        List<Problem> paginatedProblems = problems.subList(start, end);
+        ProblemPage problems = discoveryService.discover(difficultyEnum, topic, sortBy, null, page, size, cursor);
         
         Map<String, Object> result = new HashMap<>();
-        result.put("problems", paginatedProblems);
-        result.put("totalCount", problems.size());
-        result.put("page", page);
+        result.put("problems", problems.problems());
         result.put("size", size);
-        result.put("totalPages", (int) Math.ceil((double) problems.size() / size));
-        result.put("hasNext", end < problems.size());
-        result.put("hasPrevious", page > 0);
+        // Offset pages only: keyset pages have neither a count nor a page number
+        if (problems.totalCount() != null) {
+            result.put("page", problems.page());
+            result.put("totalCount", problems.totalCount());
+            result.put("totalPages", (int) Math.ceil((double) problems.totalCount() / size));
+        }
+        result.put("hasNext", problems.hasNext());
+        result.put("hasPrevious", cursor != null || page > 0);
+        if (problems.nextCursor() != null) {
+            result.put("nextCursor", problems.nextCursor());
+        }
         
         return result;
     }
     
     @PostMapping
     public Problem createProblem(@RequestBody Problem problem) {
-        return problemRepository.save(problem);
+        Problem saved = problemRepository.save(problem);
+        catalogIndex.upsert(saved);
+        return saved;
     }
     
     @PutMapping("/{id}")
@@ -135,7 +212,9 @@ public class ProblemController {
         problem.setExamples(problemDetails.getExamples());
         problem.setConstraints(problemDetails.getConstraints());
         
-        return problemRepository.save(problem);
+        Problem saved = problemRepository.save(problem);
+        catalogIndex.upsert(saved);
+        return saved;
     }
     
     @DeleteMapping("/{id}")
@@ -143,28 +222,49 @@ public class ProblemController {
         Problem problem = problemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Problem", id.toString()));
         problemRepository.delete(problem);
+        catalogIndex.remove(id);
     }
     
+    /**
+     * Filter values, with problem counts per difficulty and topic for the optional current filters.
+     * Served from the catalog metadata of the current version, with an ETag tied to that
+     * version, so clients revalidating an unchanged catalog get a 304.
+     */
     @GetMapping("/filters")
-    public Map<String, Object> getAvailableFilters() {
-        Map<String, Object> filters = new HashMap<>();
-        
-        // Get all unique topics
-        List<String> topics = problemRepository.findAll().stream()
-                .map(Problem::getTopic)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
-        
-        // Get all difficulties
-        List<String> difficulties = Arrays.stream(Difficulty.values())
-                .map(Enum::name)
-                .collect(Collectors.toList());
+    public ResponseEntity<Map<String, Object>> getAvailableFilters(@RequestParam(required = false) String difficulty,
+                                                                   @RequestParam(required = false) String topic,
+                                                                   WebRequest request) {
+        Difficulty difficultyEnum = null;
+        if (difficulty != null) {
+            try {
+                difficultyEnum = Difficulty.valueOf(difficulty.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Invalid difficulty level: " + difficulty);
+            }
+        }
+        CatalogMetadata metadata = catalogIndex.metadata();
+        String eTag = "\"catalog-" + metadata.version() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         
-        filters.put("topics", topics);
-        filters.put("difficulties", difficulties);
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("version", metadata.version());
+        filters.put("topics", metadata.topics());
+        filters.put("difficulties", metadata.difficulties());
         filters.put("sortOptions", Arrays.asList("difficulty", "acceptance", "title"));
+        filters.put("problemCount", metadata.problemCount());
+        filters.put("acceptanceRate", Map.of("min", metadata.minAcceptanceRate(), "max", metadata.maxAcceptanceRate()));
+        if (difficultyEnum == null && topic == null) {
+            filters.put("counts", new FacetCounts(metadata.problemCount(), metadata.difficultyCounts(),
+                    metadata.topicCounts()));
+        } else {
+            filters.put("counts", catalogIndex.facetCounts(difficultyEnum, topic, null));
+        }
         
-        return filters;
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .body(filters);
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.algocoach.domain;
+
+/**
+ * What a leaderboard ranks users by
+ */
+public enum LeaderboardMetric {
+    SOLVED,
+    SCORE,
+    RATING
+}
@@ -0,0 +1,56 @@
+package com.algocoach.domain;
+
+import jakarta.persistence.*;
+
+/**
+ * Elo style difficulty rating of a problem, keyed by problem id. Problems without a
+ * row use a seed rating derived from difficulty and acceptance rate until their
+ * first solve or give-up.
+ */
+@Entity
+@Table(name = "problem_ratings")
+public class ProblemRating {
+    
+    @Id
+    @Column(name = "problem_id")
+    private Long problemId;
+    
+    @Column(nullable = false)
+    private double rating;
+    
+    @Column(nullable = false)
+    private int matches;
+    
+    // Default constructor
+    public ProblemRating() {}
+    
+    public ProblemRating(Long problemId, double rating) {
+        this.problemId = problemId;
+        this.rating = rating;
+    }
+    
+    // Getters and Setters
+    public Long getProblemId() {
+        return problemId;
+    }
+    
+    public void setProblemId(Long problemId) {
+        this.problemId = problemId;
+    }
+    
+    public double getRating() {
+        return rating;
+    }
+    
+    public void setRating(double rating) {
+        this.rating = rating;
+    }
+    
+    public int getMatches() {
+        return matches;
+    }
+    
+    public void setMatches(int matches) {
+        this.matches = matches;
+    }
+}
@@ -0,0 +1,92 @@
+package com.algocoach.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Platform totals of a problem (attempts, solves, give-ups, time and hints of
+ * solves), keyed by problem id. Written only by the periodic counter flush.
+ */
+@Entity
+@Table(name = "problem_stats")
+public class ProblemStats {
+    
+    @Id
+    @Column(name = "problem_id")
+    private Long problemId;
+    
+    @Column(nullable = false)
+    private long attempts;
+    
+    @Column(nullable = false)
+    private long solves;
+    
+    @Column(name = "give_ups", nullable = false)
+    private long giveUps;
+    
+    // Solves that reported a time, and their total minutes
+    @Column(name = "timed_solves", nullable = false)
+    private long timedSolves;
+    
+    @Column(name = "time_spent_minutes", nullable = false)
+    private long timeSpentMinutes;
+    
+    @Column(name = "hints_used", nullable = false)
+    private long hintsUsed;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public ProblemStats() {}
+    
+    public ProblemStats(Long problemId) {
+        this.problemId = problemId;
+    }
+    
+    /**
+     * Add counter deltas accumulated since the previous flush
+     */
+    public void add(long attempts, long solves, long giveUps, long timedSolves, long timeSpentMinutes, long hintsUsed) {
+        this.attempts += attempts;
+        this.solves += solves;
+        this.giveUps += giveUps;
+        this.timedSolves += timedSolves;
+        this.timeSpentMinutes += timeSpentMinutes;
+        this.hintsUsed += hintsUsed;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters
+    public Long getProblemId() {
+        return problemId;
+    }
+    
+    public long getAttempts() {
+        return attempts;
+    }
+    
+    public long getSolves() {
+        return solves;
+    }
+    
+    public long getGiveUps() {
+        return giveUps;
+    }
+    
+    public long getTimedSolves() {
+        return timedSolves;
+    }
+    
+    public long getTimeSpentMinutes() {
+        return timeSpentMinutes;
+    }
+    
+    public long getHintsUsed() {
+        return hintsUsed;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,116 @@
+package com.algocoach.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Spaced-repetition state of one solved problem for one user (SM-2 style):
+ * when it is next due, the current interval and the ease factor that grows or
+ * shrinks the interval after each review.
+ */
+@Entity
+@Table(name = "review_schedules",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "problem_id"}),
+       indexes = @Index(name = "idx_review_schedules_user_due", columnList = "user_id, due_at"))
+public class ReviewSchedule {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "problem_id", nullable = false)
+    private Problem problem;
+    
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+    
+    @Column(name = "interval_days", nullable = false)
+    private double intervalDays;
+    
+    @Column(name = "ease_factor", nullable = false)
+    private double easeFactor;
+    
+    @Column(nullable = false)
+    private int repetitions;
+    
+    @Column(name = "last_reviewed_at")
+    private LocalDateTime lastReviewedAt;
+    
+    // Default constructor
+    public ReviewSchedule() {}
+    
+    public ReviewSchedule(User user, Problem problem) {
+        this.user = user;
+        this.problem = problem;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
+    public Problem getProblem() {
+        return problem;
+    }
+    
+    public void setProblem(Problem problem) {
+        this.problem = problem;
+    }
+    
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+    
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+    
+    public double getIntervalDays() {
+        return intervalDays;
+    }
+    
+    public void setIntervalDays(double intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+    
+    public double getEaseFactor() {
+        return easeFactor;
+    }
+    
+    public void setEaseFactor(double easeFactor) {
+        this.easeFactor = easeFactor;
+    }
+    
+    public int getRepetitions() {
+        return repetitions;
+    }
+    
+    public void setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+    }
+    
+    public LocalDateTime getLastReviewedAt() {
+        return lastReviewedAt;
+    }
+    
+    public void setLastReviewedAt(LocalDateTime lastReviewedAt) {
+        this.lastReviewedAt = lastReviewedAt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.algocoach.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+/**
+ * Solved count, confidence sum and latest solve of one topic, stored in {@link UserSkillAggregate}
+ */
+@Embeddable
+public class TopicSkill {
+    
+    @Column(name = "solved_count", nullable = false)
+    private long solvedCount;
+    
+    @Column(name = "confidence_sum", nullable = false)
+    private double confidenceSum;
+    
+    @Column(name = "last_solved_at")
+    private LocalDateTime lastSolvedAt;
+    
+    public TopicSkill() {}
+    
+    public long getSolvedCount() {
+        return solvedCount;
+    }
+    
+    public void setSolvedCount(long solvedCount) {
+        this.solvedCount = solvedCount;
+    }
+    
+    public double getConfidenceSum() {
+        return confidenceSum;
+    }
+    
+    public void setConfidenceSum(double confidenceSum) {
+        this.confidenceSum = confidenceSum;
+    }
+    
+    public LocalDateTime getLastSolvedAt() {
+        return lastSolvedAt;
+    }
+    
+    public void setLastSolvedAt(LocalDateTime lastSolvedAt) {
+        this.lastSolvedAt = lastSolvedAt;
+    }
+}
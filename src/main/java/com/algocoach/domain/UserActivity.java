@@ -0,0 +1,57 @@
+package com.algocoach.domain;
+
+import com.algocoach.util.DailyActivity;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Daily activity rollup of a user (problems started and solved per day), stored as
+ * one serialized {@link DailyActivity} so reading a year of history is a single row.
+ */
+@Entity
+@Table(name = "user_activity")
+public class UserActivity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user;
+    
+    @Column(name = "series", nullable = false, length = 65536)
+    private byte[] series;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public UserActivity() {}
+    
+    public UserActivity(User user, DailyActivity activity) {
+        this.user = user;
+        setActivity(activity);
+    }
+    
+    public DailyActivity getActivity() {
+        return DailyActivity.fromBytes(series);
+    }
+    
+    public void setActivity(DailyActivity activity) {
+        this.series = activity.toBytes();
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,191 @@
+package com.algocoach.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals of a user's progress: solved count and confidence sum per difficulty
+ * and per topic, plus the number of problems in progress. Kept in sync on every
+ * progress change so stats and skill analysis never have to scan user_progress.
+ */
+@Entity
+@Table(name = "user_skill_aggregates")
+public class UserSkillAggregate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user;
+    
+    @Column(name = "easy_solved", nullable = false)
+    private long easySolved;
+    
+    @Column(name = "medium_solved", nullable = false)
+    private long mediumSolved;
+    
+    @Column(name = "hard_solved", nullable = false)
+    private long hardSolved;
+    
+    @Column(name = "easy_confidence_sum", nullable = false)
+    private double easyConfidenceSum;
+    
+    @Column(name = "medium_confidence_sum", nullable = false)
+    private double mediumConfidenceSum;
+    
+    @Column(name = "hard_confidence_sum", nullable = false)
+    private double hardConfidenceSum;
+    
+    @Column(name = "in_progress_count", nullable = false)
+    private long inProgressCount;
+    
+    @ElementCollection
+    @CollectionTable(name = "user_topic_skills", joinColumns = @JoinColumn(name = "aggregate_id"))
+    @MapKeyColumn(name = "topic")
+    private Map<String, TopicSkill> topics = new HashMap<>();
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public UserSkillAggregate() {}
+    
+    public UserSkillAggregate(User user) {
+        this.user = user;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Count a newly solved problem
+     */
+    public void addSolved(Difficulty difficulty, String topic, double confidenceScore, LocalDateTime solvedAt) {
+        addSolvedTotals(difficulty, topic, 1, confidenceScore, solvedAt);
+    }
+    
+    /**
+     * Add several solved problems of one difficulty and topic at once (rebuilds from grouped totals)
+     */
+    public void addSolvedTotals(Difficulty difficulty, String topic, long solvedCount, double confidenceSum,
+                                LocalDateTime lastSolvedAt) {
+        adjustDifficulty(difficulty, solvedCount, confidenceSum);
+        TopicSkill skill = topics.computeIfAbsent(topic, t -> new TopicSkill());
+        skill.setSolvedCount(skill.getSolvedCount() + solvedCount);
+        skill.setConfidenceSum(skill.getConfidenceSum() + confidenceSum);
+        if (lastSolvedAt != null && (skill.getLastSolvedAt() == null || lastSolvedAt.isAfter(skill.getLastSolvedAt()))) {
+            skill.setLastSolvedAt(lastSolvedAt);
+        }
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Undo {@link #addSolved} for a problem that is no longer solved (or is being re-scored).
+     * The topic's last solve time is kept, as older solves are not tracked.
+     */
+    public void removeSolved(Difficulty difficulty, String topic, double confidenceScore) {
+        adjustDifficulty(difficulty, -1, -confidenceScore);
+        TopicSkill skill = topics.get(topic);
+        if (skill != null) {
+            if (skill.getSolvedCount() <= 1) {
+                topics.remove(topic);
+            } else {
+                skill.setSolvedCount(skill.getSolvedCount() - 1);
+                skill.setConfidenceSum(skill.getConfidenceSum() - confidenceScore);
+            }
+        }
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public void adjustInProgress(int delta) {
+        inProgressCount = Math.max(0, inProgressCount + delta);
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Reset every total before recomputing them from user_progress
+     */
+    public void clear() {
+        easySolved = mediumSolved = hardSolved = 0;
+        easyConfidenceSum = mediumConfidenceSum = hardConfidenceSum = 0.0;
+        inProgressCount = 0;
+        topics.clear();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    private void adjustDifficulty(Difficulty difficulty, long countDelta, double confidenceDelta) {
+        switch (difficulty) {
+            case EASY -> {
+                easySolved = Math.max(0, easySolved + countDelta);
+                easyConfidenceSum += confidenceDelta;
+            }
+            case MEDIUM -> {
+                mediumSolved = Math.max(0, mediumSolved + countDelta);
+                mediumConfidenceSum += confidenceDelta;
+            }
+            case HARD -> {
+                hardSolved = Math.max(0, hardSolved + countDelta);
+                hardConfidenceSum += confidenceDelta;
+            }
+        }
+    }
+    
+    public long getSolvedCount(Difficulty difficulty) {
+        return switch (difficulty) {
+            case EASY -> easySolved;
+            case MEDIUM -> mediumSolved;
+            case HARD -> hardSolved;
+        };
+    }
+    
+    public double getConfidenceSum(Difficulty difficulty) {
+        return switch (difficulty) {
+            case EASY -> easyConfidenceSum;
+            case MEDIUM -> mediumConfidenceSum;
+            case HARD -> hardConfidenceSum;
+        };
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
+    public long getInProgressCount() {
+        return inProgressCount;
+    }
+    
+    public void setInProgressCount(long inProgressCount) {
+        this.inProgressCount = inProgressCount;
+    }
+    
+    public Map<String, TopicSkill> getTopics() {
+        return topics;
+    }
+    
+    public void setTopics(Map<String, TopicSkill> topics) {
+        this.topics = topics;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
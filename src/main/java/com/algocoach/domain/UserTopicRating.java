@@ -0,0 +1,93 @@
+package com.algocoach.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Elo style skill rating of a user in one topic, moved after every solve or give-up
+ * against the rating of the problem. {@code matches} shrinks the update step as the
+ * rating settles.
+ */
+@Entity
+@Table(name = "user_topic_ratings",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "topic"}))
+public class UserTopicRating {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false)
+    private String topic;
+    
+    @Column(nullable = false)
+    private double rating;
+    
+    @Column(nullable = false)
+    private int matches;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public UserTopicRating() {}
+    
+    public UserTopicRating(User user, String topic, double rating) {
+        this.user = user;
+        this.topic = topic;
+        this.rating = rating;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
+    public String getTopic() {
+        return topic;
+    }
+    
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+    
+    public double getRating() {
+        return rating;
+    }
+    
+    public void setRating(double rating) {
+        this.rating = rating;
+    }
+    
+    public int getMatches() {
+        return matches;
+    }
+    
+    public void setMatches(int matches) {
+        this.matches = matches;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.algocoach.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchRecommendationRequest {
+    
+    @NotEmpty(message = "At least one user id is required")
+    @Size(max = 1000, message = "At most 1000 user ids per batch")
+    private List<Long> userIds;
+    
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 20, message = "Limit must be at most 20")
+    private int limit = 5;
+    
+    public BatchRecommendationRequest() {}
+    
+    public BatchRecommendationRequest(List<Long> userIds, int limit) {
+        this.userIds = userIds;
+        this.limit = limit;
+    }
+    
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+    
+    public void setUserIds(List<Long> userIds) {
+        this.userIds = userIds;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,13 @@
+package com.algocoach.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter metadata of one catalog version: distinct topics (display names,
+ * alphabetically), difficulties, problem counts and the acceptance rate range
+ * (0 for an empty catalog).
+ */
+public record CatalogMetadata(long version, List<String> topics, List<String> difficulties, int problemCount,
+                              Map<String, Integer> difficultyCounts, Map<String, Integer> topicCounts,
+                              double minAcceptanceRate, double maxAcceptanceRate) {}
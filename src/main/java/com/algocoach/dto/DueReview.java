@@ -0,0 +1,8 @@
+package com.algocoach.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A solved problem that is due for spaced-repetition review
+ */
+public record DueReview(long problemId, LocalDateTime dueAt) {}
@@ -0,0 +1,10 @@
+package com.algocoach.dto;
+
+import java.util.Map;
+
+/**
+ * Problem counts for a filter combination. {@code difficulties} apply the topic filter
+ * only and {@code topics} the difficulty filter only, so each shows what picking that
+ * value would give; {@code matching} applies both.
+ */
+public record FacetCounts(int matching, Map<String, Integer> difficulties, Map<String, Integer> topics) {}
@@ -0,0 +1,6 @@
+package com.algocoach.dto;
+
+/**
+ * A user's place on a leaderboard (rank 1 is best, ties share a rank)
+ */
+public record LeaderboardEntry(int rank, long userId, String username, int score) {}
@@ -0,0 +1,15 @@
+package com.algocoach.dto;
+
+import java.util.List;
+
+/**
+ * Topics a user still has to master to reach a target topic (null target: the whole
+ * curriculum), prerequisites first
+ */
+public record LearningPath(String targetTopic, int masteryThreshold, List<Step> steps) {
+
+    /**
+     * One topic to work on, with the user's solved count and its direct prerequisites
+     */
+    public record Step(String topic, long solved, List<String> prerequisites) {}
+}
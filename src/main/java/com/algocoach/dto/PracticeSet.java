@@ -0,0 +1,10 @@
+package com.algocoach.dto;
+
+import java.util.List;
+
+/**
+ * A generated practice set with its estimated total time and the request
+ * constraints it could not meet (empty when all were met)
+ */
+public record PracticeSet(List<ProblemSummary> problems, int estimatedMinutes, int topicCount,
+                          List<String> unmetConstraints) {}
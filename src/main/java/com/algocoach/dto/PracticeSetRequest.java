@@ -0,0 +1,81 @@
+package com.algocoach.dto;
+
+import com.algocoach.domain.Difficulty;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class PracticeSetRequest {
+    
+    @Min(value = 1, message = "Size must be at least 1")
+    @Max(value = 50, message = "Size must be at most 50")
+    private int size = 10;
+    
+    @Min(value = 0, message = "Minimum topics cannot be negative")
+    @Max(value = 50, message = "Minimum topics must be at most 50")
+    private int minTopics = 1;
+    
+    // Share of the set per difficulty in percent; the rest may be any difficulty
+    private Map<Difficulty, Integer> difficultyPercent = new EnumMap<>(Difficulty.class);
+    
+    @Min(value = 1, message = "Total minutes must be at least 1")
+    private Integer maxMinutes;
+    
+    // Leave out problems the user solved or has in progress
+    private boolean excludeSolved = true;
+    
+    // Same seed, catalog and progress give the same set
+    private Long seed;
+    
+    public PracticeSetRequest() {}
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public int getMinTopics() {
+        return minTopics;
+    }
+    
+    public void setMinTopics(int minTopics) {
+        this.minTopics = minTopics;
+    }
+    
+    public Map<Difficulty, Integer> getDifficultyPercent() {
+        return difficultyPercent;
+    }
+    
+    public void setDifficultyPercent(Map<Difficulty, Integer> difficultyPercent) {
+        this.difficultyPercent = difficultyPercent;
+    }
+    
+    public Integer getMaxMinutes() {
+        return maxMinutes;
+    }
+    
+    public void setMaxMinutes(Integer maxMinutes) {
+        this.maxMinutes = maxMinutes;
+    }
+    
+    public boolean isExcludeSolved() {
+        return excludeSolved;
+    }
+    
+    public void setExcludeSolved(boolean excludeSolved) {
+        this.excludeSolved = excludeSolved;
+    }
+    
+    public Long getSeed() {
+        return seed;
+    }
+    
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,13 @@
+package com.algocoach.dto;
+
+import com.algocoach.domain.Problem;
+
+import java.util.List;
+
+/**
+ * One page of discovered problems. {@code totalCount} and {@code page} are null for
+ * keyset pages (no count is run, and a cursor has no page number); {@code nextCursor}
+ * continues after the last problem, null on the last page.
+ */
+public record ProblemPage(List<Problem> problems, Long totalCount, Integer page, int size,
+                          boolean hasNext, String nextCursor) {}
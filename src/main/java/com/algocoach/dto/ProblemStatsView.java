@@ -0,0 +1,9 @@
+package com.algocoach.dto;
+
+/**
+ * Live platform statistics of a problem (flushed totals plus pending counters).
+ * {@code solveRate} is solves over solves plus give-ups; rates and averages are 0
+ * while there is no data.
+ */
+public record ProblemStatsView(long problemId, long attempts, long solves, long giveUps,
+                               double solveRate, double averageTimeMinutes, double averageHints) {}
@@ -0,0 +1,21 @@
+package com.algocoach.dto;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+
+/**
+ * Compact, read-only view of a problem used by the in-memory catalog index.
+ * Leaves out the TEXT columns (description, examples, constraints).
+ */
+public record ProblemSummary(long id, String title, Difficulty difficulty, String topic, double acceptanceRate) {
+
+    public static ProblemSummary from(Problem problem) {
+        return new ProblemSummary(
+            problem.getId(),
+            problem.getTitle(),
+            problem.getDifficulty(),
+            problem.getTopic(),
+            problem.getAcceptanceRate() != null ? problem.getAcceptanceRate() : 0.0
+        );
+    }
+}
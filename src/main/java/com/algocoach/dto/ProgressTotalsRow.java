@@ -0,0 +1,14 @@
+package com.algocoach.dto;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.ProgressStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one user grouped by status, difficulty and topic: row count, summed
+ * confidence (null counted as 0) and the latest solve in the group.
+ */
+public record ProgressTotalsRow(ProgressStatus status, Difficulty difficulty, String topic, Long count,
+                                Double confidenceSum, LocalDateTime lastSolvedAt) {
+}
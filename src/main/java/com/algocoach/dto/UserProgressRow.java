@@ -0,0 +1,14 @@
+package com.algocoach.dto;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.ProgressStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of a progress row joined with its problem's difficulty and topic,
+ * so callers never touch lazily loaded {@code UserProgress}/{@code Problem} entities.
+ */
+public record UserProgressRow(Long userId, Long problemId, ProgressStatus status, Difficulty difficulty,
+                              String topic, Double confidenceScore, LocalDateTime solvedAt) {
+}
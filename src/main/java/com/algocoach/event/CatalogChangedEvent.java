@@ -0,0 +1,67 @@
+package com.algocoach.event;
+
+import com.algocoach.dto.ProblemSummary;
+
+import java.util.Objects;
+
+/**
+ * Published by {@link com.algocoach.service.ProblemCatalogIndex} whenever a new catalog
+ * snapshot becomes visible (initial load, create, update or delete of a problem).
+ */
+public class CatalogChangedEvent {
+
+    /**
+     * Id of the changed problem, or null when the whole catalog was reloaded
+     */
+    private final Long problemId;
+
+    private final ProblemSummary previous;
+    private final ProblemSummary current;
+
+    /**
+     * A reload of the whole catalog
+     */
+    public CatalogChangedEvent() {
+        this(null, null, null);
+    }
+
+    public CatalogChangedEvent(Long problemId, ProblemSummary previous, ProblemSummary current) {
+        this.problemId = problemId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Long getProblemId() {
+        return problemId;
+    }
+
+    public boolean isFullReload() {
+        return problemId == null;
+    }
+
+    /**
+     * The problem before the change, or null if it was created (or on a full reload)
+     */
+    public ProblemSummary getPrevious() {
+        return previous;
+    }
+
+    /**
+     * The problem after the change, or null if it was deleted (or on a full reload)
+     */
+    public ProblemSummary getCurrent() {
+        return current;
+    }
+
+    /**
+     * Whether the change can affect difficulty or topic totals: a full reload, a created
+     * or deleted problem, or an update of its difficulty or topic
+     */
+    public boolean isClassificationChange() {
+        if (previous == null || current == null) {
+            return true;
+        }
+        return previous.difficulty() != current.difficulty()
+                || !Objects.equals(previous.topic(), current.topic());
+    }
+}
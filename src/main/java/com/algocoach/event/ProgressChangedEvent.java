@@ -0,0 +1,73 @@
+package com.algocoach.event;
+
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+
+/**
+ * Published by {@link com.algocoach.service.UserProgressService} after a user's progress
+ * on a problem was saved, inside the saving transaction. Listeners run in one of two phases:
+ * <ul>
+ * <li>{@code @EventListener}s (activity, review schedules, skill ratings) run right away in
+ * that transaction. They may write rows that must commit or roll back with the progress,
+ * but must not publish the change to shared in-memory state, since it may still roll back.</li>
+ * <li>{@code @TransactionalEventListener}s (bitmaps, recommendation cache, stats, leaderboards,
+ * similarity indexes, learning paths, experiment log) run once the transaction committed, so
+ * anything they read sees the change. The transaction is finished: they must not write
+ * through it, and should hand database work to their own transaction or a background
+ * thread. {@link com.algocoach.service.ProgressBitmapStore} runs first so the others read
+ * updated bitmaps.</li>
+ * </ul>
+ * Both phases run synchronously on the publishing thread.
+ */
+public class ProgressChangedEvent {
+
+    private final User user;
+    private final Long problemId;
+    private final ProgressStatus previousStatus;
+    private final int previousAttempts;
+    private final UserProgress progress;
+
+    public ProgressChangedEvent(User user, Long problemId, ProgressStatus previousStatus, int previousAttempts,
+                                UserProgress progress) {
+        this.user = user;
+        this.problemId = problemId;
+        this.previousStatus = previousStatus;
+        this.previousAttempts = previousAttempts;
+        this.progress = progress;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Long getProblemId() {
+        return problemId;
+    }
+
+    /**
+     * Status before the change, or null if the progress row was just created
+     */
+    public ProgressStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public ProgressStatus getStatus() {
+        return progress.getStatus();
+    }
+
+    public UserProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Attempts the change added (a new progress row starts with one)
+     */
+    public int getAttemptsAdded() {
+        return progress.getAttemptsCount() - previousAttempts;
+    }
+
+    public boolean isStatusChange() {
+        return previousStatus != progress.getStatus();
+    }
+}
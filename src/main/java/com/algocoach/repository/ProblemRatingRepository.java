@@ -0,0 +1,20 @@
+package com.algocoach.repository;
+
+import com.algocoach.domain.ProblemRating;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProblemRatingRepository extends JpaRepository<ProblemRating, Long> {
+    
+    // Row lock serializing concurrent matches on the same problem
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ProblemRating r WHERE r.problemId = :problemId")
+    Optional<ProblemRating> findByIdForUpdate(@Param("problemId") Long problemId);
+}
@@ -2,12 +2,18 @@ package com.algocoach.repository;
 
 import com.algocoach.domain.Difficulty;
 import com.algocoach.domain.Problem;
+import com.algocoach.dto.ProblemSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProblemRepository extends JpaRepository<Problem, Long> {
@@ -16,16 +22,6 @@ public interface ProblemRepository extends JpaRepository<Problem, Long> {
     
     List<Problem> findByTopicIgnoreCase(String topic);
     
-    List<Problem> findByTitleContainingIgnoreCase(String title);
-    
-    @Query("SELECT p FROM Problem p WHERE " +
-           "(:difficulty IS NULL OR p.difficulty = :difficulty) AND " +
-           "(:topic IS NULL OR LOWER(p.topic) = LOWER(:topic)) AND " +
-           "(:title IS NULL OR LOWER(p.title) LIKE LOWER(CONCAT('%', :title, '%')))")
-    List<Problem> findByFilters(@Param("difficulty") Difficulty difficulty,
-                               @Param("topic") String topic,
-                               @Param("title") String title);
-    
     List<Problem> findByLeetcodeId(Long leetcodeId);
     
     long countByDifficulty(Difficulty difficulty);
@@ -38,18 +34,71 @@ public interface ProblemRepository extends JpaRepository<Problem, Long> {
     // Find problems by difficulty and topic combination
     List<Problem> findByDifficultyAndTopicIgnoreCase(Difficulty difficulty, String topic);
     
-    // Get random problems by difficulty
-    @Query(value = "SELECT * FROM problem WHERE difficulty = :difficulty ORDER BY RANDOM() LIMIT :limit", nativeQuery = true)
-    List<Problem> findRandomByDifficulty(@Param("difficulty") String difficulty, @Param("limit") int limit);
-    
     // Find problems with specific difficulty levels
     List<Problem> findByDifficultyIn(List<Difficulty> difficulties);
     
-    // Count total problems
-    @Query("SELECT COUNT(p) FROM Problem p")
-    long getTotalProblemCount();
+    // Row lock serializing the creation of a problem's first per-problem rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Problem p WHERE p.id = :id")
+    Optional<Problem> findByIdForUpdate(@Param("id") Long id);
+    
+    // Discovery pages: optional difficulty/topic filters, optional exclusion of a user's
+    // solved problems, one query per sort order. Pass the last row's sort key and id
+    // to continue after it (keyset), or nulls and an offset Pageable.
+    String DISCOVER_FILTERS = "(:difficulty IS NULL OR p.difficulty = :difficulty) AND " +
+            "(:topic IS NULL OR LOWER(p.topic) = LOWER(:topic)) AND " +
+            "(:excludeSolvedBy IS NULL OR NOT EXISTS (SELECT 1 FROM UserProgress up " +
+            "WHERE up.user.id = :excludeSolvedBy AND up.problem = p AND up.status = 'SOLVED'))";
+    
+    String DIFFICULTY_RANK = "CASE p.difficulty WHEN 'EASY' THEN 0 WHEN 'MEDIUM' THEN 1 ELSE 2 END";
+    
+    @Query("SELECT p FROM Problem p WHERE " + DISCOVER_FILTERS +
+           " AND (:afterId IS NULL OR p.id > :afterId) ORDER BY p.id")
+    Slice<Problem> findDiscoverPageById(@Param("difficulty") Difficulty difficulty,
+                                        @Param("topic") String topic,
+                                        @Param("excludeSolvedBy") Long excludeSolvedBy,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+    
+    @Query("SELECT p FROM Problem p WHERE " + DISCOVER_FILTERS +
+           " AND (:afterId IS NULL OR COALESCE(p.acceptanceRate, 0.0) < :afterRate OR " +
+           "(COALESCE(p.acceptanceRate, 0.0) = :afterRate AND p.id > :afterId)) " +
+           "ORDER BY COALESCE(p.acceptanceRate, 0.0) DESC, p.id")
+    Slice<Problem> findDiscoverPageByAcceptance(@Param("difficulty") Difficulty difficulty,
+                                                @Param("topic") String topic,
+                                                @Param("excludeSolvedBy") Long excludeSolvedBy,
+                                                @Param("afterRate") Double afterRate,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+    
+    @Query("SELECT p FROM Problem p WHERE " + DISCOVER_FILTERS +
+           " AND (:afterId IS NULL OR LOWER(p.title) > :afterTitle OR " +
+           "(LOWER(p.title) = :afterTitle AND p.id > :afterId)) " +
+           "ORDER BY LOWER(p.title), p.id")
+    Slice<Problem> findDiscoverPageByTitle(@Param("difficulty") Difficulty difficulty,
+                                           @Param("topic") String topic,
+                                           @Param("excludeSolvedBy") Long excludeSolvedBy,
+                                           @Param("afterTitle") String afterTitle,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+    
+    @Query("SELECT p FROM Problem p WHERE " + DISCOVER_FILTERS +
+           " AND (:afterId IS NULL OR " + DIFFICULTY_RANK + " > :afterRank OR " +
+           "(" + DIFFICULTY_RANK + " = :afterRank AND p.id > :afterId)) " +
+           "ORDER BY " + DIFFICULTY_RANK + ", p.id")
+    Slice<Problem> findDiscoverPageByDifficulty(@Param("difficulty") Difficulty difficulty,
+                                                @Param("topic") String topic,
+                                                @Param("excludeSolvedBy") Long excludeSolvedBy,
+                                                @Param("afterRank") Integer afterRank,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+    
+    @Query("SELECT COUNT(p) FROM Problem p WHERE " + DISCOVER_FILTERS)
+    long countDiscover(@Param("difficulty") Difficulty difficulty,
+                       @Param("topic") String topic,
+                       @Param("excludeSolvedBy") Long excludeSolvedBy);
     
-    // Find problems by partial title match (case insensitive)
-    @Query("SELECT p FROM Problem p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Problem> findByTitleKeyword(@Param("keyword") String keyword);
+    // Load the catalog without the TEXT columns (used to build the in-memory index)
+    @Query("SELECT new com.algocoach.dto.ProblemSummary(p.id, p.title, p.difficulty, p.topic, COALESCE(p.acceptanceRate, 0.0)) FROM Problem p")
+    List<ProblemSummary> findAllSummaries();
 }
@@ -0,0 +1,9 @@
+package com.algocoach.repository;
+
+import com.algocoach.domain.ProblemStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProblemStatsRepository extends JpaRepository<ProblemStats, Long> {
+}
@@ -0,0 +1,30 @@
+package com.algocoach.repository;
+
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ReviewSchedule;
+import com.algocoach.domain.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReviewScheduleRepository extends JpaRepository<ReviewSchedule, Long> {
+    
+    Optional<ReviewSchedule> findByUserAndProblem(User user, Problem problem);
+    
+    // Problem id and due time pairs of a user, without loading entities
+    @Query("SELECT r.problem.id, r.dueAt FROM ReviewSchedule r WHERE r.user = :user")
+    List<Object[]> findDueTimesByUser(@Param("user") User user);
+    
+    // Solved problems that have no review schedule yet (solved before scheduling existed), one-time backfill
+    @Query("SELECT up.user, up.problem, up.confidenceScore, up.solvedAt FROM UserProgress up WHERE up.status = 'SOLVED' " +
+           "AND NOT EXISTS (SELECT r FROM ReviewSchedule r WHERE r.user = up.user AND r.problem = up.problem)")
+    List<Object[]> findUnscheduledSolved(Pageable pageable);
+    
+    void deleteByUserAndProblem(User user, Problem problem);
+}
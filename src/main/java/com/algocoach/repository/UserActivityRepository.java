@@ -0,0 +1,23 @@
+package com.algocoach.repository;
+
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserActivity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserActivityRepository extends JpaRepository<UserActivity, Long> {
+    
+    Optional<UserActivity> findByUser(User user);
+    
+    // Row lock serializing concurrent activity updates of the same user
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM UserActivity a WHERE a.user = :user")
+    Optional<UserActivity> findByUserForUpdate(@Param("user") User user);
+}
@@ -3,11 +3,15 @@ package com.algocoach.repository;
 import com.algocoach.domain.ProgressStatus;
 import com.algocoach.domain.User;
 import com.algocoach.domain.UserProgress;
+import com.algocoach.dto.ProgressTotalsRow;
+import com.algocoach.dto.UserProgressRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,22 +27,51 @@ public interface UserProgressRepository extends JpaRepository<UserProgress, Long
     @Query("SELECT up FROM UserProgress up WHERE up.user = :user AND up.status = 'SOLVED' ORDER BY up.solvedAt DESC")
     List<UserProgress> findSolvedProblemsByUser(@Param("user") User user);
     
-    @Query("SELECT COUNT(up) FROM UserProgress up WHERE up.user = :user AND up.status = 'SOLVED'")
-    long countSolvedProblemsByUser(@Param("user") User user);
-    
-    @Query("SELECT COUNT(up) FROM UserProgress up WHERE up.user = :user AND up.status = 'IN_PROGRESS'")
-    long countInProgressProblemsByUser(@Param("user") User user);
-    
-    @Query("SELECT up.problem.difficulty, COUNT(up) FROM UserProgress up WHERE up.user = :user AND up.status = 'SOLVED' GROUP BY up.problem.difficulty")
-    List<Object[]> countSolvedProblemsByDifficulty(@Param("user") User user);
-    
-    @Query("SELECT up.problem.topic, COUNT(up) FROM UserProgress up WHERE up.user = :user AND up.status = 'SOLVED' GROUP BY up.problem.topic")
-    List<Object[]> countSolvedProblemsByTopic(@Param("user") User user);
-    
     boolean existsByUserAndProblemAndStatus(User user, com.algocoach.domain.Problem problem, ProgressStatus status);
     
     @Query("SELECT up FROM UserProgress up WHERE up.user = :user AND up.status = 'NOT_STARTED' ORDER BY up.problem.difficulty, up.problem.title")
     List<UserProgress> findNotStartedProblemsByUser(@Param("user") User user);
     
     List<UserProgress> findByUserAndIsBookmarkedTrue(User user);
+    
+    // Problem id and status pairs only, without loading UserProgress or Problem entities
+    @Query("SELECT up.problem.id, up.status FROM UserProgress up WHERE up.user.id = :userId")
+    List<Object[]> findProblemStatusesByUserId(@Param("userId") Long userId);
+    
+    // Solved and in-progress totals of a user by difficulty and topic, in one grouped statement
+    @Query("SELECT new com.algocoach.dto.ProgressTotalsRow(up.status, p.difficulty, p.topic, COUNT(up), " +
+           "SUM(COALESCE(up.confidenceScore, 0.0)), MAX(up.solvedAt)) " +
+           "FROM UserProgress up JOIN up.problem p WHERE up.user = :user AND up.status IN ('SOLVED', 'IN_PROGRESS') " +
+           "GROUP BY up.status, p.difficulty, p.topic")
+    List<ProgressTotalsRow> findProgressTotalsByUser(@Param("user") User user);
+    
+    // All progress rows of several users at once (batch recommendations)
+    @Query("SELECT new com.algocoach.dto.UserProgressRow(up.user.id, p.id, up.status, p.difficulty, p.topic, up.confidenceScore, up.solvedAt) " +
+           "FROM UserProgress up JOIN up.problem p WHERE up.user.id IN :userIds")
+    List<UserProgressRow> findProgressRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    // Users who solved a problem (their aggregates depend on its difficulty and topic)
+    @Query("SELECT up.user.id FROM UserProgress up WHERE up.problem.id = :problemId AND up.status = 'SOLVED'")
+    List<Long> findSolvedUserIdsByProblemId(@Param("problemId") Long problemId);
+    
+    // Start and solve timestamps of a user (building the daily activity rollup)
+    @Query("SELECT up.attemptedAt, up.solvedAt FROM UserProgress up WHERE up.user = :user")
+    List<Object[]> findActivityTimesByUser(@Param("user") User user);
+    
+    // Solved counts per (user id, topic, difficulty), for rebuilding leaderboards
+    @Query("SELECT up.user.id, p.topic, p.difficulty, COUNT(up) FROM UserProgress up JOIN up.problem p " +
+           "WHERE up.status = 'SOLVED' GROUP BY up.user.id, p.topic, p.difficulty")
+    List<Object[]> countSolvedByUserTopicAndDifficulty();
+    
+    // Solved counts per (topic, difficulty) of one user, for refreshing the user's leaderboard entries
+    @Query("SELECT p.topic, p.difficulty, COUNT(up) FROM UserProgress up JOIN up.problem p " +
+           "WHERE up.user.id = :userId AND up.status = 'SOLVED' GROUP BY p.topic, p.difficulty")
+    List<Object[]> countSolvedByTopicAndDifficulty(@Param("userId") Long userId);
+    
+    // Solved (user id, problem id) pairs in user order, streamed in keyset chunks one solved set at a time
+    @Query("SELECT up.user.id, up.problem.id FROM UserProgress up WHERE up.status = 'SOLVED' AND " +
+           "(up.user.id > :afterUserId OR (up.user.id = :afterUserId AND up.problem.id > :afterProblemId)) " +
+           "ORDER BY up.user.id, up.problem.id")
+    List<Object[]> findSolvedPairsByUserAfter(@Param("afterUserId") Long afterUserId,
+                                              @Param("afterProblemId") Long afterProblemId, Pageable pageable);
 }
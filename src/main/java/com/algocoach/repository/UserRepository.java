@@ -1,9 +1,15 @@
 package com.algocoach.repository;
 
 import com.algocoach.domain.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -24,4 +30,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countByIsActiveTrue();
     
     long countByIsActiveFalse();
+    
+    // Row lock serializing the creation of a user's first per-user rows (aggregates, ratings, activity)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+    
+    // User id and username pairs (leaderboard pages)
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id IN :ids")
+    List<Object[]> findUsernamesByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,31 @@
+package com.algocoach.repository;
+
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserSkillAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserSkillAggregateRepository extends JpaRepository<UserSkillAggregate, Long> {
+    
+    // Aggregate row with its topic totals in one query (read path)
+    @Query("SELECT a FROM UserSkillAggregate a LEFT JOIN FETCH a.topics WHERE a.user = :user")
+    Optional<UserSkillAggregate> findByUserWithTopics(@Param("user") User user);
+    
+    // Row lock serializing concurrent progress updates of the same user
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM UserSkillAggregate a WHERE a.user = :user")
+    Optional<UserSkillAggregate> findByUserForUpdate(@Param("user") User user);
+    
+    // Users that have no aggregate yet (backfill)
+    @Query("SELECT u FROM User u WHERE NOT EXISTS (SELECT a FROM UserSkillAggregate a WHERE a.user = u) ORDER BY u.id")
+    List<User> findUsersWithoutAggregate(Pageable pageable);
+}
@@ -0,0 +1,35 @@
+package com.algocoach.repository;
+
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserTopicRating;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserTopicRatingRepository extends JpaRepository<UserTopicRating, Long> {
+    
+    Optional<UserTopicRating> findByUserAndTopic(User user, String topic);
+    
+    // Row lock serializing concurrent matches of the same user in a topic
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM UserTopicRating r WHERE r.user = :user AND r.topic = :topic")
+    Optional<UserTopicRating> findByUserAndTopicForUpdate(@Param("user") User user, @Param("topic") String topic);
+    
+    List<UserTopicRating> findByUser(User user);
+    
+    // User id, topic and rating triples for many users (batch recommendations)
+    @Query("SELECT r.user.id, r.topic, r.rating FROM UserTopicRating r WHERE r.user.id IN :userIds")
+    List<Object[]> findRatingsByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    // User id, topic and rating triples of every user (leaderboard rebuild)
+    @Query("SELECT r.user.id, r.topic, r.rating FROM UserTopicRating r")
+    List<Object[]> findAllRatings();
+}
@@ -3,12 +3,16 @@ package com.algocoach.service;
 import com.algocoach.domain.User;
 import com.algocoach.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -16,6 +20,10 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    // Users granted ROLE_ADMIN (cohort-wide endpoints such as batch recommendations)
+    @Value("${security.admin-usernames:}")
+    private Set<String> adminUsernames;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsernameAndIsActiveTrue(username)
@@ -24,7 +32,9 @@ public class CustomUserDetailsService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getUsername())
                 .password(user.getPassword())
-                .authorities(new ArrayList<>()) // No roles for now, can be extended later
+                .authorities(adminUsernames.contains(user.getUsername())
+                        ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
+                        : new ArrayList<>())
                 .build();
     }
 }
@@ -0,0 +1,161 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.event.ProgressChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only log of experiment exposures and outcomes.
+ *
+ * Request threads only offer a small event object to a bounded queue; a single
+ * background thread drains it in batches, formats the lines and appends them to
+ * the log file with one flush per batch. When the queue is full events are dropped
+ * (and counted) rather than slowing requests down.
+ *
+ * Lines are tab separated:
+ * <pre>
+ * E  epochMillis  experiment  variant  userId  problemId,problemId,...
+ * O  epochMillis  userId  problemId  SOLVED|GAVE_UP
+ * </pre>
+ * Outcomes are logged for every user; {@link com.algocoach.tools.ExperimentReport}
+ * joins them to earlier exposures offline.
+ */
+@Service
+public class ExperimentLog {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExperimentLog.class);
+    
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final Path path;
+    private final Thread writer;
+    private final Counter dropped;
+    private volatile boolean running = true;
+    
+    public ExperimentLog(@Value("${experiment.log.path:logs/experiments.log}") String path,
+                         @Value("${experiment.log.queue-size:65536}") int queueSize,
+                         @Value("${experiment.log.batch-size:512}") int batchSize,
+                         MeterRegistry meterRegistry) {
+        this.path = Path.of(path);
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.dropped = Counter.builder("experiment.log.dropped")
+                .description("Experiment events dropped because the log queue was full").register(meterRegistry);
+        this.writer = new Thread(this::writeLoop, "experiment-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    /**
+     * Record that a user in a variant was shown the given problems
+     */
+    public void exposure(String experiment, String variant, long userId, long[] problemIds) {
+        offer(new Exposure(System.currentTimeMillis(), experiment, variant, userId, problemIds));
+    }
+    
+    /**
+     * Record a solve or give-up once it is committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        if (event.isStatusChange()
+                && (event.getStatus() == ProgressStatus.SOLVED || event.getStatus() == ProgressStatus.GAVE_UP)) {
+            offer(new Outcome(System.currentTimeMillis(), event.getUser().getId(), event.getProblemId(), event.getStatus()));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    
+    private void offer(Object event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+    
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot create experiment log directory for {}", path, e);
+        }
+        while (running || !queue.isEmpty()) {
+            try {
+                Object first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Shutdown: write what is left and stop
+                running = false;
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+    
+    private void write(List<Object> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Object event : batch) {
+                out.write(format(event));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to append {} experiment events to {}", batch.size(), path, e);
+        }
+    }
+    
+    private static String format(Object event) {
+        if (event instanceof Exposure exposure) {
+            StringBuilder line = new StringBuilder("E\t").append(exposure.timestamp)
+                    .append('\t').append(exposure.experiment)
+                    .append('\t').append(exposure.variant)
+                    .append('\t').append(exposure.userId).append('\t');
+            for (int i = 0; i < exposure.problemIds.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append(exposure.problemIds[i]);
+            }
+            return line.toString();
+        }
+        Outcome outcome = (Outcome) event;
+        return "O\t" + outcome.timestamp + '\t' + outcome.userId + '\t' + outcome.problemId + '\t' + outcome.status;
+    }
+    
+    private record Exposure(long timestamp, String experiment, String variant, long userId, long[] problemIds) {}
+    
+    private record Outcome(long timestamp, long userId, long problemId, ProgressStatus status) {}
+}
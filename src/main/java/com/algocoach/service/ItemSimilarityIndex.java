@@ -0,0 +1,249 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.util.LongIntHashMap;
+import com.algocoach.util.ProblemIdBitmap;
+import com.algocoach.util.SparseSimilarityMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Item-to-item collaborative filtering: problems are similar when the same users solved them.
+ *
+ * A background build streams every user's solved set from the {@link ProgressBitmapStore}
+ * (one user at a time), counts how many users solved each problem and each pair of
+ * problems, and publishes a cosine similarity matrix (co-solvers / sqrt(solvers(a) *
+ * solvers(b))) pruned to the strongest neighbors per problem. To keep the pair counts
+ * bounded, a user contributes pairs among at most {@code maxPairedSolves} of their solves
+ * (a fixed hash sample), and the weakest pairs are dropped whenever more than
+ * {@code maxPairs} are counted.
+ *
+ * New solves are queued after commit and folded in by the periodic refresh; a full
+ * rebuild runs every few refreshes to drop solves that were later undone. A solve that
+ * commits while a rebuild streams may be counted twice until the next rebuild.
+ */
+@Service
+public class ItemSimilarityIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ItemSimilarityIndex.class);
+    
+    @Autowired
+    private ProgressBitmapStore progressBitmaps;
+    
+    private final int chunkSize;
+    private final int maxNeighbors;
+    private final int minCoSolvers;
+    private final int fullRebuildEvery;
+    private final int maxPairedSolves;
+    private final int maxPairs;
+    
+    // Solves committed since they were last folded into the counts
+    private final Queue<Solve> pendingSolves = new ConcurrentLinkedQueue<>();
+    
+    // Build state, guarded by "this"
+    private Counts counts;
+    private int refreshesSinceRebuild;
+    
+    private volatile SparseSimilarityMatrix matrix = SparseSimilarityMatrix.EMPTY;
+    
+    public ItemSimilarityIndex(@Value("${recommendation.similarity.chunk-size:1000}") int chunkSize,
+                               @Value("${recommendation.similarity.max-neighbors:50}") int maxNeighbors,
+                               @Value("${recommendation.similarity.min-co-solvers:1}") int minCoSolvers,
+                               @Value("${recommendation.similarity.full-rebuild-every:12}") int fullRebuildEvery,
+                               @Value("${recommendation.similarity.max-paired-solves:200}") int maxPairedSolves,
+                               @Value("${recommendation.similarity.max-pairs:5000000}") int maxPairs) {
+        this.chunkSize = chunkSize;
+        this.maxNeighbors = maxNeighbors;
+        this.minCoSolvers = minCoSolvers;
+        this.fullRebuildEvery = fullRebuildEvery;
+        this.maxPairedSolves = maxPairedSolves;
+        this.maxPairs = maxPairs;
+    }
+    
+    /**
+     * Current similarity matrix; replaced atomically by every build
+     */
+    public SparseSimilarityMatrix getMatrix() {
+        return matrix;
+    }
+    
+    /**
+     * Initial build, off the startup thread; recommendations use an empty matrix until it is published
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        Thread thread = new Thread(this::rebuild, "item-similarity-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Build from every user's solved set
+     */
+    public synchronized void rebuild() {
+        Counts rebuilt = new Counts();
+        long[] solves = new long[1];
+        progressBitmaps.forEachSolvedSet(chunkSize, (userId, solved) -> {
+            rebuilt.addSolvedSet(userId, solved);
+            solves[0] += solved.cardinality();
+        });
+        counts = rebuilt;
+        drainPendingSolves();
+        refreshesSinceRebuild = 0;
+        publish();
+        logger.info("Built problem similarity matrix from {} solves: {} problems, {} neighbor entries",
+                solves[0], matrix.size(), matrix.nonZeros());
+    }
+    
+    /**
+     * Fold in the solves committed since the previous build
+     */
+    @Scheduled(fixedDelayString = "${recommendation.similarity.refresh-interval-ms:300000}",
+            initialDelayString = "${recommendation.similarity.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        if (counts == null || ++refreshesSinceRebuild >= fullRebuildEvery) {
+            rebuild();
+            return;
+        }
+        int solves = drainPendingSolves();
+        if (solves > 0) {
+            publish();
+            logger.debug("Added {} solves to problem similarity matrix", solves);
+        }
+    }
+    
+    // After commit, so the user's solved bitmap already includes the new solve
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        if (!event.isStatusChange() || event.getStatus() != ProgressStatus.SOLVED) {
+            return;
+        }
+        ProblemIdBitmap solved = progressBitmaps.get(event.getUser(), ProgressStatus.SOLVED);
+        pendingSolves.add(new Solve(event.getProblemId(), solved));
+    }
+    
+    private int drainPendingSolves() {
+        int drained = 0;
+        Solve solve;
+        while ((solve = pendingSolves.poll()) != null) {
+            counts.addSolve(solve.problemId(), solve.solved());
+            drained++;
+        }
+        return drained;
+    }
+    
+    private void publish() {
+        SparseSimilarityMatrix.Builder builder = new SparseSimilarityMatrix.Builder();
+        LongIntHashMap solverCounts = counts.solvers;
+        counts.pairs.forEach((key, coSolvers) -> {
+            if (coSolvers >= minCoSolvers) {
+                long first = key >>> 32;
+                long second = key & 0xFFFFFFFFL;
+                double norm = Math.sqrt((double) solverCounts.get(first) * solverCounts.get(second));
+                builder.add(first, second, (float) (coSolvers / norm));
+            }
+        });
+        matrix = builder.build(maxNeighbors);
+    }
+    
+    private static long pairKey(long problemId, long otherProblemId) {
+        return Math.min(problemId, otherProblemId) << 32 | Math.max(problemId, otherProblemId);
+    }
+    
+    /**
+     * A committed solve and the user's solved set including it
+     */
+    private record Solve(long problemId, ProblemIdBitmap solved) {
+    }
+    
+    /**
+     * Solver and co-solver counts of one build
+     */
+    private final class Counts {
+        final LongIntHashMap solvers = new LongIntHashMap();
+        final LongIntHashMap pairs = new LongIntHashMap();
+        // Pairs co-solved fewer times were dropped to stay within maxPairs
+        int pruneFloor;
+    
+        void addSolvedSet(long userId, ProblemIdBitmap solved) {
+            int[] ids = solved.toArray();
+            for (int id : ids) {
+                solvers.addTo(id, 1);
+            }
+            int[] paired = ids.length <= maxPairedSolves ? ids : sample(userId, ids, maxPairedSolves);
+            for (int i = 0; i < paired.length; i++) {
+                for (int j = i + 1; j < paired.length; j++) {
+                    pairs.addTo(pairKey(paired[i], paired[j]), 1);
+                }
+            }
+            prune();
+        }
+    
+        /**
+         * A new solve pairs with the user's other solves while the user is within the cap
+         */
+        void addSolve(long problemId, ProblemIdBitmap solved) {
+            solvers.addTo(problemId, 1);
+            if (solved.cardinality() <= maxPairedSolves) {
+                solved.forEach(other -> {
+                    if (other != problemId) {
+                        pairs.addTo(pairKey(problemId, other), 1);
+                    }
+                });
+            }
+            prune();
+        }
+    
+        /**
+         * Once over maxPairs, drop the weakest pairs until a quarter of the budget is free again
+         */
+        private void prune() {
+            if (pairs.size() <= maxPairs) {
+                return;
+            }
+            long[] weak = new long[pairs.size()];
+            while (pairs.size() > maxPairs - maxPairs / 4) {
+                int floor = ++pruneFloor;
+                int[] count = new int[1];
+                pairs.forEach((key, coSolvers) -> {
+                    if (coSolvers < floor) {
+                        weak[count[0]++] = key;
+                    }
+                });
+                for (int i = 0; i < count[0]; i++) {
+                    pairs.remove(weak[i]);
+                }
+            }
+            logger.debug("Pruned problem pairs co-solved fewer than {} times, {} left", pruneFloor, pairs.size());
+        }
+    }
+    
+    /**
+     * The {@code size} ids with the smallest hash of (user, id): a fixed, unbiased sample per user
+     */
+    private static int[] sample(long userId, int[] ids, int size) {
+        long[] ranked = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int hash = Long.hashCode((userId * 0x9E3779B97F4A7C15L + ids[i]) * 0xBF58476D1CE4E5B9L);
+            ranked[i] = (long) hash << 32 | i;
+        }
+        Arrays.sort(ranked);
+        int[] sampled = new int[size];
+        for (int i = 0; i < size; i++) {
+            sampled[i] = ids[(int) ranked[i]];
+        }
+        return sampled;
+    }
+}
@@ -0,0 +1,304 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.LeaderboardMetric;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.dto.LeaderboardEntry;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.repository.UserRepository;
+import com.algocoach.repository.UserTopicRatingRepository;
+import com.algocoach.util.ScoreRankIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Global and per-topic leaderboards by solved count, weighted score and rating.
+ *
+ * Every board is a {@link ScoreRankIndex}, so a user's rank and the top N are
+ * O(log n) Fenwick queries instead of sorting user_progress counts per request.
+ * Boards are built from two grouped queries once the catalog is loaded. After that a
+ * user's entries are replaced with totals read for that user whenever a progress
+ * change commits, and those of a problem's solvers (in the background) when its
+ * difficulty or topic changes. Refreshes write totals, not deltas, so replaying one
+ * never counts a solve twice. The global rating is the mean of the user's topic
+ * ratings; ratings are ranked rounded to whole points.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int USER_STRIPES = 64;
+
+    @Autowired
+    private UserProgressRepository userProgressRepository;
+
+    @Autowired
+    private UserTopicRatingRepository userRatingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Difficulty, Integer> difficultyWeights = new EnumMap<>(Difficulty.class);
+
+    // Guarded by "this"; keyed by boardKey(metric, topic)
+    private Map<String, ScoreRankIndex> boards = new HashMap<>();
+    // Guarded by "this"; users refreshed while a rebuild reads, non-null during rebuilds
+    private Set<Long> refreshedDuringRebuild;
+    private final Object rebuildLock = new Object();
+    // A user's refreshes run one at a time, so an older read never replaces a newer one
+    private final Object[] userLocks = new Object[USER_STRIPES];
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LeaderboardService(@Value("${leaderboard.score.easy-weight:1}") int easyWeight,
+                              @Value("${leaderboard.score.medium-weight:2}") int mediumWeight,
+                              @Value("${leaderboard.score.hard-weight:3}") int hardWeight) {
+        difficultyWeights.put(Difficulty.EASY, easyWeight);
+        difficultyWeights.put(Difficulty.MEDIUM, mediumWeight);
+        difficultyWeights.put(Difficulty.HARD, hardWeight);
+        for (int i = 0; i < userLocks.length; i++) {
+            userLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Build every board once the catalog is loaded, and refresh the solvers of a problem
+     * after its difficulty or topic changed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullReload()) {
+            rebuild();
+        } else if (event.isClassificationChange()) {
+            Long problemId = event.getProblemId();
+            refreshExecutor.execute(() -> refreshSolvers(problemId));
+        }
+    }
+
+    /**
+     * Load every board from the database. A read can miss a change committed while it
+     * runs, so users refreshed meanwhile are refreshed again once the new boards are in.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                refreshedDuringRebuild = new HashSet<>();
+            }
+            Set<Long> stale;
+            try {
+                Map<Long, Map<String, Integer>> entries = new HashMap<>();
+                for (Object[] row : userProgressRepository.countSolvedByUserTopicAndDifficulty()) {
+                    addSolved(entries.computeIfAbsent((Long) row[0], id -> new HashMap<>()),
+                            (String) row[1], (Difficulty) row[2], ((Long) row[3]).intValue());
+                }
+                Map<Long, Map<String, Double>> ratings = new HashMap<>();
+                for (Object[] row : userRatingRepository.findAllRatings()) {
+                    ratings.computeIfAbsent((Long) row[0], id -> new HashMap<>()).put(topicKey((String) row[1]), (Double) row[2]);
+                }
+                ratings.forEach((userId, topicRatings) ->
+                        addRatings(entries.computeIfAbsent(userId, id -> new HashMap<>()), topicRatings));
+
+                Map<String, ScoreRankIndex> rebuilt = new HashMap<>();
+                entries.forEach((userId, userEntries) ->
+                        userEntries.forEach((key, score) -> board(rebuilt, key).set(userId, score)));
+                synchronized (this) {
+                    boards = rebuilt;
+                    stale = refreshedDuringRebuild;
+                }
+            } finally {
+                synchronized (this) {
+                    refreshedDuringRebuild = null;
+                }
+            }
+            stale.forEach(this::refreshUser);
+        }
+    }
+
+    /**
+     * Move the user on the boards after a solve (or un-solve) and after a rating match.
+     * After commit, so the rating written by {@link SkillRatingService} is visible.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        if (event.isStatusChange()) {
+            refreshUser(event.getUser().getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * The best {@code limit} users of a board, best first
+     *
+     * @param topic topic name, or null for the global board
+     */
+    public List<LeaderboardEntry> getTop(LeaderboardMetric metric, String topic, int limit) {
+        long[] ids;
+        int[] scores;
+        int count;
+        synchronized (this) {
+            ScoreRankIndex board = boards.get(boardKey(metric, topicKey(topic)));
+            if (board == null) {
+                return new ArrayList<>();
+            }
+            ids = new long[Math.min(limit, board.size())];
+            scores = new int[ids.length];
+            count = board.top(ids, scores);
+        }
+
+        List<Long> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            userIds.add(ids[i]);
+        }
+        Map<Long, String> usernames = new HashMap<>();
+        for (Object[] row : userRepository.findUsernamesByIds(userIds)) {
+            usernames.put((Long) row[0], (String) row[1]);
+        }
+
+        List<LeaderboardEntry> entries = new ArrayList<>(count);
+        int rank = 1;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && scores[i] < scores[i - 1]) {
+                rank = i + 1;
+            }
+            entries.add(new LeaderboardEntry(rank, ids[i], usernames.get(ids[i]), scores[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * The user's place on a board. Users without solves rank after everyone who has
+     * one; users without a rating are not on rating boards (empty result).
+     */
+    public synchronized Optional<LeaderboardEntry> getRank(User user, LeaderboardMetric metric, String topic) {
+        ScoreRankIndex board = boards.get(boardKey(metric, topicKey(topic)));
+        if (board != null && board.contains(user.getId())) {
+            return Optional.of(new LeaderboardEntry(board.rank(user.getId()), user.getId(), user.getUsername(),
+                    board.score(user.getId())));
+        }
+        if (metric == LeaderboardMetric.RATING) {
+            return Optional.empty();
+        }
+        int ranked = board != null ? board.countAbove(0) : 0;
+        return Optional.of(new LeaderboardEntry(ranked + 1, user.getId(), user.getUsername(), 0));
+    }
+
+    /**
+     * The user's place on every global board, keyed by metric
+     */
+    public Map<LeaderboardMetric, LeaderboardEntry> getGlobalRanks(User user) {
+        Map<LeaderboardMetric, LeaderboardEntry> ranks = new EnumMap<>(LeaderboardMetric.class);
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            getRank(user, metric, null).ifPresent(entry -> ranks.put(metric, entry));
+        }
+        return ranks;
+    }
+
+    /**
+     * Number of users on a board
+     */
+    public synchronized int size(LeaderboardMetric metric, String topic) {
+        ScoreRankIndex board = boards.get(boardKey(metric, topicKey(topic)));
+        return board != null ? board.size() : 0;
+    }
+
+    /**
+     * Replace the user's entries on every board with the user's current totals
+     */
+    private void refreshUser(long userId) {
+        synchronized (userLocks[Long.hashCode(userId) & (USER_STRIPES - 1)]) {
+            Map<String, Integer> entries = new HashMap<>();
+            for (Object[] row : userProgressRepository.countSolvedByTopicAndDifficulty(userId)) {
+                addSolved(entries, (String) row[0], (Difficulty) row[1], ((Long) row[2]).intValue());
+            }
+            Map<String, Double> ratings = new HashMap<>();
+            for (Object[] row : userRatingRepository.findRatingsByUserIds(List.of(userId))) {
+                ratings.put(topicKey((String) row[1]), (Double) row[2]);
+            }
+            addRatings(entries, ratings);
+
+            synchronized (this) {
+                for (Map.Entry<String, ScoreRankIndex> board : boards.entrySet()) {
+                    if (!entries.containsKey(board.getKey())) {
+                        board.getValue().remove(userId);
+                    }
+                }
+                entries.forEach((key, score) -> board(boards, key).set(userId, score));
+                if (refreshedDuringRebuild != null) {
+                    refreshedDuringRebuild.add(userId);
+                }
+            }
+        }
+    }
+
+    private void refreshSolvers(Long problemId) {
+        try {
+            for (Long userId : userProgressRepository.findSolvedUserIdsByProblemId(problemId)) {
+                refreshUser(userId);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Refreshing leaderboards after a change of problem {} failed", problemId, e);
+        }
+    }
+
+    private void addSolved(Map<String, Integer> entries, String topic, Difficulty difficulty, int solved) {
+        String topicKey = topicKey(topic);
+        int score = solved * difficultyWeights.get(difficulty);
+        entries.merge(boardKey(LeaderboardMetric.SOLVED, null), solved, Integer::sum);
+        entries.merge(boardKey(LeaderboardMetric.SCORE, null), score, Integer::sum);
+        if (topicKey != null) {
+            entries.merge(boardKey(LeaderboardMetric.SOLVED, topicKey), solved, Integer::sum);
+            entries.merge(boardKey(LeaderboardMetric.SCORE, topicKey), score, Integer::sum);
+        }
+    }
+
+    private static void addRatings(Map<String, Integer> entries, Map<String, Double> ratings) {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        double sum = 0;
+        for (Map.Entry<String, Double> rating : ratings.entrySet()) {
+            if (rating.getKey() != null) {
+                entries.put(boardKey(LeaderboardMetric.RATING, rating.getKey()), points(rating.getValue()));
+            }
+            sum += rating.getValue();
+        }
+        entries.put(boardKey(LeaderboardMetric.RATING, null), points(sum / ratings.size()));
+    }
+
+    private static ScoreRankIndex board(Map<String, ScoreRankIndex> boards, String key) {
+        return boards.computeIfAbsent(key, k -> new ScoreRankIndex());
+    }
+
+    private static String boardKey(LeaderboardMetric metric, String topic) {
+        return topic == null ? metric.name() : metric.name() + ":" + topic;
+    }
+
+    private static int points(double rating) {
+        return (int) Math.max(0, Math.round(rating));
+    }
+
+    private static String topicKey(String topic) {
+        return topic == null || topic.isBlank() ? null : topic.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,151 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.dto.LearningPath;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.exception.ResourceNotFoundException;
+import com.algocoach.util.LruCache;
+import com.algocoach.util.TopicGraph;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plans learning paths over the topic prerequisite graph.
+ *
+ * The graph is loaded once from a properties file (topic = prerequisites) and keeps
+ * its topological order and transitive closure, so a plan is one bitset operation
+ * over the topics the user has not mastered yet (fewer SOLVED problems than the
+ * mastery threshold). Plans are memoized per user and target until the user's
+ * solved set changes.
+ */
+@Service
+public class LearningPathPlanner {
+    
+    @Autowired
+    private UserSkillAggregateService skillAggregates;
+    
+    private final TopicGraph graph;
+    private final int masteryThreshold;
+    
+    // Plans by target topic key ("" for the whole curriculum); invalidation drops a
+    // user's map, so a plan computed from older progress lands in a discarded map
+    private final LruCache<Long, Map<String, LearningPath>> plans;
+    
+    public LearningPathPlanner(@Value("${learning-path.prerequisites:classpath:topic-prerequisites.properties}") Resource prerequisites,
+                               @Value("${learning-path.mastery-solved:3}") int masteryThreshold,
+                               @Value("${learning-path.cache.max-size:10000}") int cacheSize) {
+        this.graph = load(prerequisites);
+        this.masteryThreshold = masteryThreshold;
+        this.plans = new LruCache<>(cacheSize);
+    }
+    
+    /**
+     * Ordered topics to master before (and including) the target topic
+     *
+     * @param targetTopic topic name (case insensitive), or null for the whole curriculum
+     */
+    public LearningPath plan(User user, String targetTopic) {
+        Integer target = null;
+        if (targetTopic != null) {
+            int node = graph.indexOf(targetTopic);
+            if (node < 0) {
+                throw new ResourceNotFoundException("Topic", targetTopic);
+            }
+            target = node;
+        }
+        String key = target == null ? "" : graph.topic(target);
+        
+        Map<String, LearningPath> userPlans;
+        synchronized (plans) {
+            userPlans = plans.get(user.getId());
+            if (userPlans == null) {
+                userPlans = new ConcurrentHashMap<>();
+                plans.put(user.getId(), userPlans);
+            }
+        }
+        LearningPath cached = userPlans.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        LearningPath plan = compute(user, target);
+        userPlans.put(key, plan);
+        return plan;
+    }
+    
+    /**
+     * All topics of the prerequisite graph in study order
+     */
+    public List<String> getTopics() {
+        List<String> topics = new ArrayList<>(graph.size());
+        for (int node = 0; node < graph.size(); node++) {
+            topics.add(graph.topic(node));
+        }
+        return topics;
+    }
+    
+    // After commit, so a re-plan never reads the progress before it is visible
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        if (event.isStatusChange()
+                && (event.getStatus() == ProgressStatus.SOLVED || event.getPreviousStatus() == ProgressStatus.SOLVED)) {
+            plans.remove(event.getUser().getId());
+        }
+    }
+    
+    private LearningPath compute(User user, Integer target) {
+        // Solved counts per graph node; topics outside the graph are ignored
+        long[] solved = new long[graph.size()];
+        for (Map.Entry<String, Long> entry : skillAggregates.getProfile(user).getSolvedByTopic().entrySet()) {
+            int node = graph.indexOf(entry.getKey());
+            if (node >= 0) {
+                solved[node] += entry.getValue();
+            }
+        }
+        long[] mastered = graph.newSet();
+        for (int node = 0; node < solved.length; node++) {
+            if (solved[node] >= masteryThreshold) {
+                TopicGraph.add(mastered, node);
+            }
+        }
+        
+        List<LearningPath.Step> steps = new ArrayList<>();
+        for (int node : graph.pathTo(target, mastered)) {
+            List<String> prerequisites = new ArrayList<>();
+            for (int prerequisite : graph.prerequisitesOf(node)) {
+                prerequisites.add(graph.topic(prerequisite));
+            }
+            steps.add(new LearningPath.Step(graph.topic(node), solved[node], prerequisites));
+        }
+        return new LearningPath(target == null ? null : graph.topic(target), masteryThreshold, List.copyOf(steps));
+    }
+    
+    private static TopicGraph load(Resource resource) {
+        Properties properties = new Properties();
+        try (InputStream in = resource.getInputStream()) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read topic prerequisites from " + resource, e);
+        }
+        TopicGraph.Builder builder = TopicGraph.builder();
+        // Sorted so node numbering does not depend on hash order
+        for (String topic : new TreeSet<>(properties.stringPropertyNames())) {
+            builder.addTopic(topic);
+            for (String prerequisite : properties.getProperty(topic).split(",")) {
+                if (!prerequisite.isBlank()) {
+                    builder.addPrerequisite(topic, prerequisite);
+                }
+            }
+        }
+        return builder.build();
+    }
+}
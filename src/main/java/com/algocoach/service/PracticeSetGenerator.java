@@ -0,0 +1,293 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.dto.PracticeSet;
+import com.algocoach.dto.PracticeSetRequest;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.exception.ValidationException;
+import com.algocoach.util.ProblemIdBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+import java.util.random.RandomGenerator;
+
+/**
+ * Builds practice sets that satisfy size, topic, difficulty mix and total time
+ * constraints in one call.
+ *
+ * The solver is greedy over the in-memory catalog index: first one problem from
+ * each of enough topics, then the difficulty quotas, then the free slots, every
+ * phase preferring topics not yet in the set. A pick is only taken if the time
+ * left still covers the cheapest possible problem for every remaining slot. Lists
+ * are scanned from a random offset, so sets vary unless a seed is given, and the
+ * search stops at a time budget, returning the best set found so far. Constraints
+ * that could not be met are reported rather than failing the request.
+ */
+@Service
+public class PracticeSetGenerator {
+    
+    // Expected solving minutes at 50% acceptance, by difficulty ordinal
+    private static final int[] BASE_MINUTES = {15, 30, 45};
+    
+    private static final int MIN_MINUTES = estimateMinutes(Difficulty.EASY, 100.0);
+    
+    // How often scans check the time budget
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+    
+    @Autowired
+    private ProblemCatalogIndex catalogIndex;
+    
+    @Autowired
+    private ProgressBitmapStore progressBitmaps;
+    
+    private final long timeBudgetNanos;
+    
+    public PracticeSetGenerator(@Value("${practice-set.time-budget-ms:50}") long timeBudgetMs) {
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+    }
+    
+    public PracticeSet generate(User user, PracticeSetRequest request) {
+        int[] quotas = quotas(request);
+        // Problems in progress are excluded with the solved ones, as in recommendations
+        LongPredicate excluded = id -> false;
+        if (request.isExcludeSolved()) {
+            ProblemIdBitmap solved = progressBitmaps.get(user, ProgressStatus.SOLVED);
+            ProblemIdBitmap inProgress = progressBitmaps.get(user, ProgressStatus.IN_PROGRESS);
+            excluded = id -> solved.contains(id) || inProgress.contains(id);
+        }
+        RandomGenerator random = request.getSeed() != null
+                ? new SplittableRandom(request.getSeed()) : ThreadLocalRandom.current();
+        int maxMinutes = request.getMaxMinutes() != null ? request.getMaxMinutes() : Integer.MAX_VALUE;
+        Selection selection = new Selection(request.getSize(), quotas, maxMinutes, excluded,
+                System.nanoTime() + timeBudgetNanos);
+        
+        // 1. Cover the requested number of topics, one problem each
+        for (String topic : shuffledTopics(random)) {
+            if (selection.topicCount() >= request.getMinTopics() || selection.isFull()) {
+                break;
+            }
+            selection.pickFirst(catalogIndex.byTopic(topic), random, true);
+        }
+        
+        // 2. Difficulty quotas, spreading over new topics before repeating one
+        for (Difficulty difficulty : Difficulty.values()) {
+            List<ProblemSummary> problems = catalogIndex.byDifficulty(difficulty);
+            for (boolean newTopicsOnly : new boolean[]{true, false}) {
+                boolean picked = true;
+                while (picked && selection.quota(difficulty) > 0) {
+                    picked = selection.pickFirst(problems, random, newTopicsOnly);
+                }
+            }
+        }
+        
+        // 3. Free slots, round robin over the difficulties
+        fillFreeSlots(selection, random);
+        
+        // 4. Still short (quota or time limit too tight): fit as many problems as possible
+        if (!selection.isFull()) {
+            selection.relax();
+            fillFreeSlots(selection, random);
+        }
+        
+        return new PracticeSet(selection.picks, selection.minutes, selection.topicCount(),
+                selection.unmetConstraints(request));
+    }
+    
+    private void fillFreeSlots(Selection selection, RandomGenerator random) {
+        for (boolean newTopicsOnly : new boolean[]{true, false}) {
+            boolean picked = true;
+            while (picked && !selection.isFull()) {
+                picked = false;
+                for (Difficulty difficulty : Difficulty.values()) {
+                    if (!selection.isFull() && selection.pickFirst(catalogIndex.byDifficulty(difficulty), random, newTopicsOnly)) {
+                        picked = true;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Estimated solving time: the difficulty's base time, longer for problems with a
+     * low acceptance rate (x0.5 at 100% up to x1.5 at 0%)
+     */
+    public static int estimateMinutes(ProblemSummary problem) {
+        return estimateMinutes(problem.difficulty(), problem.acceptanceRate());
+    }
+    
+    private static int estimateMinutes(Difficulty difficulty, double acceptanceRate) {
+        double acceptance = Math.max(0.0, Math.min(100.0, acceptanceRate));
+        return (int) Math.round(BASE_MINUTES[difficulty.ordinal()] * (1.5 - acceptance / 100.0));
+    }
+    
+    private static int[] quotas(PracticeSetRequest request) {
+        int[] quotas = new int[Difficulty.values().length];
+        if (request.getDifficultyPercent() == null) {
+            return quotas;
+        }
+        int totalPercent = 0;
+        for (Map.Entry<Difficulty, Integer> entry : request.getDifficultyPercent().entrySet()) {
+            int percent = entry.getValue() != null ? entry.getValue() : 0;
+            if (percent < 0 || percent > 100) {
+                throw new ValidationException("Percent must be between 0 and 100", "difficultyPercent");
+            }
+            totalPercent += percent;
+            quotas[entry.getKey().ordinal()] = percent * request.getSize() / 100;
+        }
+        if (totalPercent > 100) {
+            throw new ValidationException("Percentages add up to more than 100", "difficultyPercent");
+        }
+        return quotas;
+    }
+    
+    private String[] shuffledTopics(RandomGenerator random) {
+        String[] topics = catalogIndex.topics().toArray(new String[0]);
+        // Sorted first so a seed always sees the same order
+        Arrays.sort(topics);
+        for (int i = topics.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String swap = topics[i];
+            topics[i] = topics[j];
+            topics[j] = swap;
+        }
+        return topics;
+    }
+    
+    /**
+     * The set under construction and its remaining slots, quotas and minutes
+     */
+    private static final class Selection {
+        private final int size;
+        private final int[] quotas;
+        private final int[] requestedQuotas;
+        private int freeSlots;
+        private final int maxMinutes;
+        private final LongPredicate excluded;
+        private final long deadline;
+        
+        private final List<ProblemSummary> picks = new ArrayList<>();
+        private final Set<Long> pickedIds = new HashSet<>();
+        private final Map<String, Integer> topicCounts = new HashMap<>();
+        private int minutes;
+        private boolean timedOut;
+        private boolean reserveMinutes = true;
+        
+        Selection(int size, int[] quotas, int maxMinutes, LongPredicate excluded, long deadline) {
+            this.size = size;
+            this.quotas = quotas.clone();
+            this.requestedQuotas = quotas;
+            this.freeSlots = size - Arrays.stream(quotas).sum();
+            this.maxMinutes = maxMinutes;
+            this.excluded = excluded;
+            this.deadline = deadline;
+        }
+        
+        boolean isFull() {
+            return picks.size() == size || timedOut;
+        }
+        
+        int topicCount() {
+            return topicCounts.size();
+        }
+        
+        /**
+         * Turn unfilled quotas into free slots and stop reserving minutes
+         */
+        void relax() {
+            for (int i = 0; i < quotas.length; i++) {
+                freeSlots += quotas[i];
+                quotas[i] = 0;
+            }
+            reserveMinutes = false;
+        }
+        
+        int quota(Difficulty difficulty) {
+            return timedOut ? 0 : quotas[difficulty.ordinal()];
+        }
+        
+        /**
+         * Take the first fitting problem of the list, scanning from a random offset
+         */
+        boolean pickFirst(List<ProblemSummary> problems, RandomGenerator random, boolean newTopicsOnly) {
+            if (problems.isEmpty() || isFull()) {
+                return false;
+            }
+            int start = random.nextInt(problems.size());
+            for (int i = 0; i < problems.size(); i++) {
+                if (i % DEADLINE_CHECK_INTERVAL == DEADLINE_CHECK_INTERVAL - 1 && System.nanoTime() > deadline) {
+                    timedOut = true;
+                    return false;
+                }
+                ProblemSummary problem = problems.get((start + i) % problems.size());
+                if (fits(problem, newTopicsOnly)) {
+                    add(problem);
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private boolean fits(ProblemSummary problem, boolean newTopicsOnly) {
+            if (excluded.test(problem.id()) || pickedIds.contains(problem.id())) {
+                return false;
+            }
+            if (newTopicsOnly && topicCounts.containsKey(topicKey(problem))) {
+                return false;
+            }
+            if (quotas[problem.difficulty().ordinal()] == 0 && freeSlots == 0) {
+                return false;
+            }
+            // Leave enough minutes for the cheapest possible problem in every other slot
+            long reserve = reserveMinutes ? (long) (size - picks.size() - 1) * MIN_MINUTES : 0;
+            return minutes + estimateMinutes(problem) + reserve <= maxMinutes;
+        }
+        
+        private void add(ProblemSummary problem) {
+            int difficulty = problem.difficulty().ordinal();
+            if (quotas[difficulty] > 0) {
+                quotas[difficulty]--;
+            } else {
+                freeSlots--;
+            }
+            picks.add(problem);
+            pickedIds.add(problem.id());
+            topicCounts.merge(topicKey(problem), 1, Integer::sum);
+            minutes += estimateMinutes(problem);
+        }
+        
+        List<String> unmetConstraints(PracticeSetRequest request) {
+            List<String> unmet = new ArrayList<>();
+            if (picks.size() < size) {
+                unmet.add("Only " + picks.size() + " of " + size + " problems could be selected");
+            }
+            if (topicCount() < request.getMinTopics()) {
+                unmet.add("Only " + topicCount() + " of " + request.getMinTopics() + " topics covered");
+            }
+            int[] picked = new int[requestedQuotas.length];
+            for (ProblemSummary problem : picks) {
+                picked[problem.difficulty().ordinal()]++;
+            }
+            for (Difficulty difficulty : Difficulty.values()) {
+                int requested = requestedQuotas[difficulty.ordinal()];
+                if (picked[difficulty.ordinal()] < requested) {
+                    unmet.add("Only " + picked[difficulty.ordinal()] + " of " + requested + " " + difficulty + " problems");
+                }
+            }
+            if (timedOut) {
+                unmet.add("Search stopped at the time budget");
+            }
+            return unmet;
+        }
+        
+        private static String topicKey(ProblemSummary problem) {
+            return problem.topic().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProblemStats;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.repository.ProblemStatsRepository;
+import com.algocoach.util.AutocompleteIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant title suggestions for search-as-you-type.
+ *
+ * Titles live in an {@link AutocompleteIndex} (a prefix trie, also walked for typos),
+ * updated per problem from {@link CatalogChangedEvent}s and weighted by popularity
+ * (attempts plus solves from problem_stats, refreshed periodically). Prefix matches
+ * come first; queries of five or more characters are completed with fuzzy matches
+ * within one edit, or two from nine characters on.
+ */
+@Service
+public class ProblemAutocompleteService {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int WEIGHT_BATCH_SIZE = 100;
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private ProblemStatsRepository statsRepository;
+
+    @Autowired
+    private ProblemCatalogIndex catalogIndex;
+
+    private final AutocompleteIndex index = new AutocompleteIndex(MAX_SUGGESTIONS);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullReload()) {
+            List<Problem> problems = problemRepository.findAll();
+            Map<Long, Double> popularity = popularity();
+            lock.writeLock().lock();
+            try {
+                index.clear();
+                for (Problem problem : problems) {
+                    index.put(problem.getId(), problem.getTitle(), popularity.getOrDefault(problem.getId(), 0.0));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        long problemId = event.getProblemId();
+        Optional<Problem> problem = problemRepository.findById(problemId);
+        double weight = statsRepository.findById(problemId).map(ProblemAutocompleteService::popularity).orElse(0.0);
+        lock.writeLock().lock();
+        try {
+            if (problem.isPresent()) {
+                index.put(problemId, problem.get().getTitle(), weight);
+            } else {
+                index.remove(problemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Pick up popularity changes flushed to problem_stats
+     */
+    @Scheduled(fixedDelayString = "${autocomplete.popularity-refresh-ms:60000}",
+            initialDelayString = "${autocomplete.popularity-refresh-ms:60000}")
+    public void refreshPopularity() {
+        Map<Long, Double> popularity = popularity();
+        List<Map.Entry<Long, Double>> changed = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, Double> entry : popularity.entrySet()) {
+                Double current = index.getWeight(entry.getKey());
+                if (current != null && !current.equals(entry.getValue())) {
+                    changed.add(entry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Only changed weights, in short batches so suggestions are not held up
+        for (int start = 0; start < changed.size(); start += WEIGHT_BATCH_SIZE) {
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Double> entry : changed.subList(start, Math.min(changed.size(), start + WEIGHT_BATCH_SIZE))) {
+                    index.setWeight(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} problems whose title matches the partially typed query
+     */
+    public List<ProblemSummary> suggest(String query, int limit) {
+        String normalized = AutocompleteIndex.normalize(query);
+        int maxEdits = normalized.length() < 5 ? 0 : normalized.length() < 9 ? 1 : 2;
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            ids = index.suggest(normalized, Math.min(limit, MAX_SUGGESTIONS), maxEdits);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ProblemSummary> suggestions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            catalogIndex.get(id).ifPresent(suggestions::add);
+        }
+        return suggestions;
+    }
+
+    private Map<Long, Double> popularity() {
+        Map<Long, Double> popularity = new HashMap<>();
+        for (ProblemStats stats : statsRepository.findAll()) {
+            popularity.put(stats.getProblemId(), popularity(stats));
+        }
+        return popularity;
+    }
+
+    private static double popularity(ProblemStats stats) {
+        return stats.getAttempts() + stats.getSolves();
+    }
+}
@@ -0,0 +1,292 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.dto.CatalogMetadata;
+import com.algocoach.dto.FacetCounts;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.util.FacetIndex;
+import com.algocoach.util.ProblemIdBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Read-mostly, in-memory index of the problem catalog.
+ *
+ * Problems are kept as compact {@link ProblemSummary} records, bucketed by difficulty
+ * and topic and pre-sorted by acceptance rate (highest first). Readers work on an
+ * immutable snapshot; writers rebuild the snapshot under a lock, which is fine since
+ * catalog changes are rare compared to reads. Every new snapshot is announced with a
+ * {@link CatalogChangedEvent}. Snapshots also carry a {@link FacetIndex} numbered by
+ * problem id for difficulty and topic filter counts, and the precomputed
+ * {@link CatalogMetadata} of their version.
+ */
+@Service
+public class ProblemCatalogIndex {
+
+    private static final String DIFFICULTY_FACET = "difficulty";
+    private static final String TOPIC_FACET = "topic";
+
+    private static final Comparator<ProblemSummary> BY_ACCEPTANCE_DESC =
+            Comparator.comparingDouble(ProblemSummary::acceptanceRate).reversed()
+                    .thenComparingLong(ProblemSummary::id);
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Guarded by "this"; source of truth for rebuilding snapshots
+    private final Map<Long, ProblemSummary> entries = new HashMap<>();
+
+    // Guarded by "this"; starts at the startup time so versions of different runs don't collide
+    private long version = System.currentTimeMillis();
+
+    private volatile Snapshot snapshot = Snapshot.build(Collections.emptyList(), version);
+
+    /**
+     * Load the whole catalog once the application (and any data initializer) is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            entries.clear();
+            for (ProblemSummary summary : problemRepository.findAllSummaries()) {
+                entries.put(summary.id(), summary);
+            }
+            publish();
+        }
+        eventPublisher.publishEvent(new CatalogChangedEvent());
+    }
+
+    /**
+     * Add or replace a problem after it was created or updated
+     */
+    public void upsert(Problem problem) {
+        ProblemSummary current = ProblemSummary.from(problem);
+        ProblemSummary previous;
+        synchronized (this) {
+            previous = entries.put(problem.getId(), current);
+            publish();
+        }
+        eventPublisher.publishEvent(new CatalogChangedEvent(problem.getId(), previous, current));
+    }
+
+    /**
+     * Drop a deleted problem from the index
+     */
+    public void remove(Long problemId) {
+        ProblemSummary previous;
+        synchronized (this) {
+            previous = entries.remove(problemId);
+            if (previous == null) {
+                return;
+            }
+            publish();
+        }
+        eventPublisher.publishEvent(new CatalogChangedEvent(problemId, previous, null));
+    }
+
+    /**
+     * All problems, sorted by acceptance rate (highest first)
+     */
+    public List<ProblemSummary> all() {
+        return snapshot.all;
+    }
+
+    /**
+     * Problems of a difficulty, sorted by acceptance rate (highest first)
+     */
+    public List<ProblemSummary> byDifficulty(Difficulty difficulty) {
+        return snapshot.byDifficulty.getOrDefault(difficulty, Collections.emptyList());
+    }
+
+    /**
+     * Problems of a topic (case insensitive), sorted by acceptance rate (highest first)
+     */
+    public List<ProblemSummary> byTopic(String topic) {
+        return snapshot.byTopic.getOrDefault(topicKey(topic), Collections.emptyList());
+    }
+
+    /**
+     * Problems matching the optional difficulty and topic filters, sorted by acceptance rate
+     */
+    public List<ProblemSummary> find(Difficulty difficulty, String topic) {
+        if (topic == null) {
+            return difficulty == null ? all() : byDifficulty(difficulty);
+        }
+        List<ProblemSummary> topicProblems = byTopic(topic);
+        if (difficulty == null) {
+            return topicProblems;
+        }
+        List<ProblemSummary> result = new ArrayList<>();
+        for (ProblemSummary summary : topicProblems) {
+            if (summary.difficulty() == difficulty) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Distinct topics as lower case keys
+     */
+    public Set<String> topics() {
+        return snapshot.byTopic.keySet();
+    }
+    
+    /**
+     * Problem counts per difficulty and per topic for the optional filters, computed
+     * from the snapshot's bitsets in one pass
+     *
+     * @param excluded problems to leave out of every count (e.g. the user's solved problems), or null
+     */
+    public FacetCounts facetCounts(Difficulty difficulty, String topic, ProblemIdBitmap excluded) {
+        Snapshot current = snapshot;
+        Map<String, String> selected = new HashMap<>();
+        if (difficulty != null) {
+            selected.put(DIFFICULTY_FACET, difficulty.name());
+        }
+        if (topic != null) {
+            selected.put(TOPIC_FACET, topicKey(topic));
+        }
+        long[] excludedBits = null;
+        if (excluded != null && !excluded.isEmpty()) {
+            // Same id space, so no per-id lookups
+            excludedBits = current.facets.newBitSet();
+            excluded.orInto(excludedBits);
+        }
+        FacetIndex.Counts counts = current.facets.count(selected, excludedBits);
+
+        Map<String, Integer> difficulties = new LinkedHashMap<>();
+        for (Difficulty value : Difficulty.values()) {
+            difficulties.put(value.name(), counts.get(DIFFICULTY_FACET).getOrDefault(value.name(), 0));
+        }
+        // Topics by display name (as first seen in the catalog), alphabetically
+        Map<String, Integer> topics = new TreeMap<>();
+        counts.get(TOPIC_FACET).forEach((key, count) ->
+                topics.put(current.byTopic.get(key).get(0).topic(), count));
+        return new FacetCounts(counts.matching(), difficulties, topics);
+    }
+    
+    /**
+     * Filter metadata of the current catalog version (bumped by every rebuild, create,
+     * update and delete), computed once per version
+     */
+    public CatalogMetadata metadata() {
+        return snapshot.metadata;
+    }
+    
+    public Optional<ProblemSummary> get(long problemId) {
+        return Optional.ofNullable(snapshot.byId.get(problemId));
+    }
+
+    public int size() {
+        return snapshot.all.size();
+    }
+
+    /**
+     * Load the full entities for the selected ids, keeping the given order.
+     * Only the final page or top-K goes to the database, by primary key.
+     */
+    public List<Problem> resolve(List<Long> problemIds) {
+        if (problemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Problem> byId = new HashMap<>();
+        for (Problem problem : problemRepository.findAllById(problemIds)) {
+            byId.put(problem.getId(), problem);
+        }
+        List<Problem> result = new ArrayList<>(problemIds.size());
+        for (Long id : problemIds) {
+            Problem problem = byId.get(id);
+            if (problem != null) {
+                result.add(problem);
+            }
+        }
+        return result;
+    }
+
+    private void publish() {
+        snapshot = Snapshot.build(entries.values(), ++version);
+    }
+
+    private static String topicKey(String topic) {
+        return topic.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        final List<ProblemSummary> all;
+        final Map<Long, ProblemSummary> byId;
+        final Map<Difficulty, List<ProblemSummary>> byDifficulty;
+        final Map<String, List<ProblemSummary>> byTopic;
+        // Facet bitsets are indexed by problem id, like ProblemIdBitmap
+        final FacetIndex facets;
+        final CatalogMetadata metadata;
+
+        private Snapshot(List<ProblemSummary> all, Map<Long, ProblemSummary> byId,
+                         Map<Difficulty, List<ProblemSummary>> byDifficulty,
+                         Map<String, List<ProblemSummary>> byTopic,
+                         FacetIndex facets, long version) {
+            this.all = all;
+            this.byId = byId;
+            this.byDifficulty = byDifficulty;
+            this.byTopic = byTopic;
+            this.facets = facets;
+            this.metadata = metadata(version);
+        }
+
+        private CatalogMetadata metadata(long version) {
+            List<String> difficulties = new ArrayList<>();
+            Map<String, Integer> difficultyCounts = new LinkedHashMap<>();
+            for (Difficulty difficulty : Difficulty.values()) {
+                difficulties.add(difficulty.name());
+                difficultyCounts.put(difficulty.name(),
+                        byDifficulty.getOrDefault(difficulty, Collections.emptyList()).size());
+            }
+            Map<String, Integer> topicCounts = new TreeMap<>();
+            for (List<ProblemSummary> topicProblems : byTopic.values()) {
+                topicCounts.put(topicProblems.get(0).topic(), topicProblems.size());
+            }
+            // "all" is sorted by acceptance rate, highest first
+            double max = all.isEmpty() ? 0.0 : all.get(0).acceptanceRate();
+            double min = all.isEmpty() ? 0.0 : all.get(all.size() - 1).acceptanceRate();
+            return new CatalogMetadata(version, List.copyOf(topicCounts.keySet()), List.copyOf(difficulties),
+                    all.size(), Collections.unmodifiableMap(difficultyCounts),
+                    Collections.unmodifiableMap(topicCounts), min, max);
+        }
+
+        static Snapshot build(Collection<ProblemSummary> entries, long version) {
+            ProblemSummary[] sorted = entries.toArray(new ProblemSummary[0]);
+            Arrays.sort(sorted, BY_ACCEPTANCE_DESC);
+
+            Map<Long, ProblemSummary> byId = new HashMap<>(sorted.length * 2);
+            Map<Difficulty, List<ProblemSummary>> byDifficulty = new EnumMap<>(Difficulty.class);
+            Map<String, List<ProblemSummary>> byTopic = new HashMap<>();
+            long maxId = Arrays.stream(sorted).mapToLong(ProblemSummary::id).max().orElse(-1);
+            FacetIndex.Builder facets = FacetIndex.builder(Math.toIntExact(maxId + 1), DIFFICULTY_FACET, TOPIC_FACET);
+            // Buckets stay sorted because they are filled from the sorted array
+            for (int i = 0; i < sorted.length; i++) {
+                ProblemSummary summary = sorted[i];
+                facets.add((int) summary.id(), DIFFICULTY_FACET, summary.difficulty().name());
+                facets.add((int) summary.id(), TOPIC_FACET, topicKey(summary.topic()));
+                byId.put(summary.id(), summary);
+                byDifficulty.computeIfAbsent(summary.difficulty(), d -> new ArrayList<>()).add(summary);
+                byTopic.computeIfAbsent(topicKey(summary.topic()), t -> new ArrayList<>()).add(summary);
+            }
+            byDifficulty.replaceAll((d, list) -> Collections.unmodifiableList(list));
+            byTopic.replaceAll((t, list) -> Collections.unmodifiableList(list));
+
+            return new Snapshot(Collections.unmodifiableList(Arrays.asList(sorted)), byId, byDifficulty,
+                    Collections.unmodifiableMap(byTopic), facets.build(), version);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.dto.ProblemPage;
+import com.algocoach.exception.ValidationException;
+import com.algocoach.repository.ProblemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtered, sorted and paginated problem discovery, done by the database.
+ *
+ * Filters, the solved-problem exclusion (NOT EXISTS against user_progress), the sort
+ * and the LIMIT all run in SQL, so a page costs its own size rather than the catalog.
+ * Offset pages also run one COUNT; keyset pages continue from an opaque cursor (sort
+ * key and id of the previous page's last problem) and skip both the count and the
+ * OFFSET scan, which keeps deep pages as cheap as the first.
+ */
+@Service
+public class ProblemDiscoveryService {
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    /**
+     * Sort orders; every order ends with the id so keyset positions are unique
+     */
+    private enum Sort {
+        ID, ACCEPTANCE, TITLE, DIFFICULTY;
+
+        /**
+         * No sort keeps id order; unknown values fall back to acceptance rate (easiest first)
+         */
+        static Sort parse(String sortBy) {
+            if (sortBy == null) {
+                return ID;
+            }
+            return switch (sortBy.toLowerCase(Locale.ROOT)) {
+                case "difficulty" -> DIFFICULTY;
+                case "title" -> TITLE;
+                default -> ACCEPTANCE;
+            };
+        }
+    }
+
+    /**
+     * One page of problems matching the filters
+     *
+     * @param excludeSolvedBy user whose solved problems are left out, or null
+     * @param cursor          {@code nextCursor} of the previous page for keyset pagination,
+     *                        or null for offset pagination by {@code page}
+     */
+    @Transactional(readOnly = true)
+    public ProblemPage discover(Difficulty difficulty, String topic, String sortBy, Long excludeSolvedBy,
+                                int page, int size, String cursor) {
+        if (size < 1 || size > 100) {
+            throw new ValidationException("Size must be between 1 and 100");
+        }
+        if (page < 0) {
+            throw new ValidationException("Page must not be negative");
+        }
+        Sort sort = Sort.parse(sortBy);
+
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor, sort);
+            Slice<Problem> slice = find(sort, difficulty, topic, excludeSolvedBy, position, PageRequest.of(0, size));
+            return new ProblemPage(slice.getContent(), null, null, size, slice.hasNext(), nextCursor(sort, slice));
+        }
+
+        Slice<Problem> slice = find(sort, difficulty, topic, excludeSolvedBy, null, PageRequest.of(page, size));
+        long total = problemRepository.countDiscover(difficulty, topic, excludeSolvedBy);
+        return new ProblemPage(slice.getContent(), total, page, size, slice.hasNext(), nextCursor(sort, slice));
+    }
+
+    private Slice<Problem> find(Sort sort, Difficulty difficulty, String topic, Long excludeSolvedBy,
+                                String[] position, Pageable pageable) {
+        Long afterId = position != null ? Long.valueOf(position[0]) : null;
+        String afterKey = position != null ? position[1] : null;
+        return switch (sort) {
+            case ID -> problemRepository.findDiscoverPageById(difficulty, topic, excludeSolvedBy, afterId, pageable);
+            case ACCEPTANCE -> problemRepository.findDiscoverPageByAcceptance(difficulty, topic, excludeSolvedBy,
+                    afterKey != null ? Double.valueOf(afterKey) : null, afterId, pageable);
+            case TITLE -> problemRepository.findDiscoverPageByTitle(difficulty, topic, excludeSolvedBy,
+                    afterKey, afterId, pageable);
+            case DIFFICULTY -> problemRepository.findDiscoverPageByDifficulty(difficulty, topic, excludeSolvedBy,
+                    afterKey != null ? Integer.valueOf(afterKey) : null, afterId, pageable);
+        };
+    }
+
+    private static String nextCursor(Sort sort, Slice<Problem> slice) {
+        if (!slice.hasNext()) {
+            return null;
+        }
+        List<Problem> problems = slice.getContent();
+        Problem last = problems.get(problems.size() - 1);
+        String key = switch (sort) {
+            case ID -> "";
+            case ACCEPTANCE -> String.valueOf(last.getAcceptanceRate() != null ? last.getAcceptanceRate() : 0.0);
+            case TITLE -> last.getTitle().toLowerCase(Locale.ROOT);
+            case DIFFICULTY -> String.valueOf(last.getDifficulty().ordinal());
+        };
+        String raw = sort.name() + ":" + last.getId() + ":" + key;
+        return CURSOR_ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Id and sort key of the cursor position
+     */
+    private static String[] decodeCursor(String cursor, Sort sort) {
+        String[] parts;
+        try {
+            parts = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            Long.parseLong(parts[1]);
+            if (parts[0].equals(Sort.ACCEPTANCE.name())) {
+                Double.parseDouble(parts[2]);
+            } else if (parts[0].equals(Sort.DIFFICULTY.name())) {
+                Integer.parseInt(parts[2]);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+        if (!parts[0].equals(sort.name())) {
+            throw new ValidationException("Cursor was issued for a different sort order");
+        }
+        return new String[]{parts[1], parts[2]};
+    }
+}
@@ -2,133 +2,318 @@ package com.algocoach.service;
 
 import com.algocoach.domain.Difficulty;
 import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
 import com.algocoach.domain.User;
-import com.algocoach.domain.UserProgress;
-import com.algocoach.repository.ProblemRepository;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.dto.UserProgressRow;
+import com.algocoach.event.ProgressChangedEvent;
 import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.repository.UserRepository;
+import com.algocoach.service.scoring.CandidateBatch;
+import com.algocoach.service.scoring.ScoringContext;
+import com.algocoach.util.ProblemIdBitmap;
+import com.algocoach.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.LongPredicate;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 @Service
 public class ProblemRecommendationService {
     
     @Autowired
-    private ProblemRepository problemRepository;
+    private UserProgressRepository userProgressRepository;
     
     @Autowired
-    private UserProgressRepository userProgressRepository;
+    private ProblemCatalogIndex catalogIndex;
+    
+    @Autowired
+    private ProgressBitmapStore progressBitmaps;
+    
+    @Autowired
+    private RecommendationScoringEngine scoringEngine;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private UserSkillAggregateService skillAggregates;
+    
+    @Autowired
+    private ProblemSampler problemSampler;
+    
+    @Autowired
+    private SkillRatingService skillRatings;
+    
+    @Autowired
+    private RecommendationExperiment experiment;
+    
+    /**
+     * Max user ids per IN (...) query when loading batch progress
+     */
+    private static final int BATCH_QUERY_SIZE = 500;
+    
+    // Bounded pool for batch ranking; 0 means one worker per core
+    @Value("${recommendation.batch.parallelism:0}")
+    private int batchParallelism;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private ForkJoinPool batchPool;
+    
+    // Concurrent calls for the same user (dashboard, stats and recommendations fired
+    // together, retries) share one computation
+    private final SingleFlight<List<Long>, List<Long>> recommendationFlights = new SingleFlight<>();
+    private final SingleFlight<List<Long>, Map<String, Object>> statsFlights = new SingleFlight<>();
+    
+    private static final int GENERATION_STRIPES = 256;
+    
+    // Progress generation per user id stripe, bumped after every committed change. Flight
+    // keys include it, so a caller never joins a computation that started before a change
+    // it could have seen (such as a cache miss right after the change)
+    private final AtomicLongArray progressGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    
+    @PostConstruct
+    public void init() {
+        this.batchPool = new ForkJoinPool(batchParallelism > 0 ? batchParallelism : Runtime.getRuntime().availableProcessors());
+        
+        FunctionCounter.builder("singleflight.coalesced", recommendationFlights, SingleFlight::coalescedCount)
+                .tag("computation", "recommendations")
+                .description("Calls that joined an in-flight computation for the same user").register(meterRegistry);
+        FunctionCounter.builder("singleflight.coalesced", statsFlights, SingleFlight::coalescedCount)
+                .tag("computation", "progressStats")
+                .description("Calls that joined an in-flight computation for the same user").register(meterRegistry);
+    }
     
     /**
-     * Get personalized problem recommendations for a user
+     * Get personalized problem recommendations for a user.
+     * Read-only transaction so it can also run off the request thread (cache refresh).
      */
+    @Transactional(readOnly = true)
     public List<Problem> getRecommendedProblems(User user, int limit) {
-        // Get user's solved problems
-        List<UserProgress> solvedProblems = userProgressRepository.findSolvedProblemsByUser(user);
-        Set<Long> solvedProblemIds = solvedProblems.stream()
-                .map(up -> up.getProblem().getId())
-                .collect(Collectors.toSet());
-        
-        // Get user's in-progress problems
-        List<UserProgress> inProgressProblems = userProgressRepository.findByUserAndStatus(user, com.algocoach.domain.ProgressStatus.IN_PROGRESS);
-        Set<Long> inProgressProblemIds = inProgressProblems.stream()
-                .map(up -> up.getProblem().getId())
-                .collect(Collectors.toSet());
+        return catalogIndex.resolve(getRecommendedProblemIds(user, limit));
+    }
+    
+    /**
+     * Ids of the user's recommended problems, best first (shared with concurrent callers, do not modify)
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getRecommendedProblemIds(User user, int limit) {
+        return recommendationFlights.execute(List.of(user.getId(), (long) limit, progressGeneration(user.getId())),
+                () -> List.copyOf(computeRecommendedProblemIds(user, limit)));
+    }
+    
+    // After the bitmap store has the change (highest precedence) and before caches drop
+    // their entries (default order), so a cache miss that follows the drop sees the new generation
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        progressGenerations.incrementAndGet(stripe(event.getUser().getId()));
+    }
+    
+    private long progressGeneration(long userId) {
+        return progressGenerations.get(stripe(userId));
+    }
+    
+    private static int stripe(long userId) {
+        return (int) ((userId ^ (userId >>> 32)) & (GENERATION_STRIPES - 1));
+    }
+    
+    private List<Long> computeRecommendedProblemIds(User user, int limit) {
+        // Per-difficulty and per-topic totals from the user's persisted skill aggregate
+        UserSkillProfile profile = skillAggregates.getProfile(user);
+        
+        // Solved and in-progress problem ids come from the cached per-user bitmaps
+        ProblemIdBitmap solvedProblemIds = progressBitmaps.get(user, ProgressStatus.SOLVED);
+        ProblemIdBitmap inProgressProblemIds = progressBitmaps.get(user, ProgressStatus.IN_PROGRESS);
+        
+        return rankRecommendations(profile, solvedProblemIds, inProgressProblemIds,
+                skillRatings.getTopicRatings(user), experiment.assign(user.getId()), limit);
+    }
+    
+    /**
+     * Get recommendations for many users at once (e.g. a bootcamp cohort).
+     *
+     * Progress for all users is loaded with a few set-based queries on the calling thread,
+     * then each user is ranked as a separate task on the bounded batch pool. Results are
+     * handed to {@code onResult} as soon as each user completes, from pool threads.
+     * Unknown user ids are skipped.
+     *
+     * @return a future completing once every user has been delivered
+     */
+    @Transactional(readOnly = true)
+    public CompletableFuture<Void> getRecommendedProblemsForUsers(Collection<Long> userIds, int limit,
+                                                                  BiConsumer<Long, List<ProblemSummary>> onResult) {
+        Map<Long, UserSkillProfile> profiles = new HashMap<>();
+        Map<Long, ProblemIdBitmap.Builder> solved = new HashMap<>();
+        Map<Long, ProblemIdBitmap.Builder> inProgress = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            Long userId = user.getId();
+            profiles.put(userId, new UserSkillProfile());
+            solved.put(userId, new ProblemIdBitmap.Builder());
+            inProgress.put(userId, new ProblemIdBitmap.Builder());
+        }
         
+        List<Long> ids = new ArrayList<>(profiles.keySet());
+        for (int from = 0; from < ids.size(); from += BATCH_QUERY_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_QUERY_SIZE, ids.size()));
+            for (UserProgressRow row : userProgressRepository.findProgressRowsByUserIds(chunk)) {
+                if (row.status() == ProgressStatus.SOLVED) {
+                    profiles.get(row.userId()).addSolved(row.difficulty(), row.topic(), row.confidenceScore(), row.solvedAt());
+                    solved.get(row.userId()).add(row.problemId());
+                } else if (row.status() == ProgressStatus.IN_PROGRESS) {
+                    inProgress.get(row.userId()).add(row.problemId());
+                }
+            }
+        }
+        
+        Map<Long, Map<String, Double>> topicRatings = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += BATCH_QUERY_SIZE) {
+            topicRatings.putAll(skillRatings.getTopicRatings(ids.subList(from, Math.min(from + BATCH_QUERY_SIZE, ids.size()))));
+        }
+        
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(ids.size());
+        for (Long userId : ids) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                List<ProblemSummary> recommendations = new ArrayList<>();
+                for (Long problemId : rankRecommendations(profiles.get(userId), solved.get(userId).build(),
+                        inProgress.get(userId).build(), topicRatings.getOrDefault(userId, Collections.emptyMap()),
+                        experiment.assign(userId), limit)) {
+                    catalogIndex.get(problemId).ifPresent(recommendations::add);
+                }
+                onResult.accept(userId, recommendations);
+            }, batchPool));
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]));
+    }
+    
+    @PreDestroy
+    public void shutdownBatchPool() {
+        batchPool.shutdownNow();
+    }
+    
+    /**
+     * Rank candidate problem ids for a user from in-memory inputs only (thread safe)
+     */
+    private List<Long> rankRecommendations(UserSkillProfile profile, ProblemIdBitmap solvedProblemIds,
+                                           ProblemIdBitmap inProgressProblemIds, Map<String, Double> topicRatings,
+                                           RecommendationExperiment.Variant variant, int limit) {
         // Analyze user's skill level based on solved problems
-        Difficulty recommendedDifficulty = analyzeUserSkillLevel(solvedProblems);
+        Difficulty recommendedDifficulty = analyzeUserSkillLevel(profile);
         
-        // Get problems by difficulty, excluding solved and in-progress ones
-        List<Problem> candidateProblems = problemRepository.findByDifficulty(recommendedDifficulty)
-                .stream()
-                .filter(p -> !solvedProblemIds.contains(p.getId()) && !inProgressProblemIds.contains(p.getId()))
-                .collect(Collectors.toList());
+        // Candidates: problems rated closest to the user's rating in each topic,
+        // excluding solved and in-progress ones
+        LongPredicate excluded = id -> solvedProblemIds.contains(id) || inProgressProblemIds.contains(id);
+        Set<Long> rated = new HashSet<>();
+        CandidateBatch candidates = new CandidateBatch(catalogIndex.topics().size() * limit);
+        for (String topic : catalogIndex.topics()) {
+            double rating = topicRatings.getOrDefault(topic, SkillRatingService.INITIAL_USER_RATING);
+            for (Long problemId : skillRatings.findNearRating(topic, rating, limit, excluded)) {
+                catalogIndex.get(problemId).ifPresent(problem -> {
+                    candidates.add(problem);
+                    rated.add(problemId);
+                });
+            }
+        }
         
-        // If not enough problems at recommended difficulty, get from other difficulties
-        if (candidateProblems.size() < limit) {
+        // If not enough problems near the user's ratings, fall back to the recommended
+        // difficulty, then to the other difficulties
+        LongPredicate fallbackExcluded = id -> excluded.test(id) || rated.contains(id);
+        if (candidates.size() < limit) {
+            addCandidates(candidates, catalogIndex.byDifficulty(recommendedDifficulty), fallbackExcluded);
+        }
+        if (candidates.size() < limit) {
             List<Difficulty> allDifficulties = Arrays.asList(Difficulty.EASY, Difficulty.MEDIUM, Difficulty.HARD);
             for (Difficulty diff : allDifficulties) {
                 if (diff != recommendedDifficulty) {
-                    List<Problem> additionalProblems = problemRepository.findByDifficulty(diff)
-                            .stream()
-                            .filter(p -> !solvedProblemIds.contains(p.getId()) && !inProgressProblemIds.contains(p.getId()))
-                            .collect(Collectors.toList());
-                    candidateProblems.addAll(additionalProblems);
-                    if (candidateProblems.size() >= limit) break;
+                    addCandidates(candidates, catalogIndex.byDifficulty(diff), fallbackExcluded);
+                    if (candidates.size() >= limit) break;
                 }
             }
         }
         
-        // Sort by acceptance rate (higher acceptance rate = easier to solve)
-        candidateProblems.sort((p1, p2) -> Double.compare(p2.getAcceptanceRate(), p1.getAcceptanceRate()));
-        
-        return candidateProblems.stream().limit(limit).collect(Collectors.toList());
+        // Rank by rating fit, topic weakness, confidence gap, acceptance rate and staleness; keep only the top K
+        ScoringContext context = new ScoringContext(recommendedDifficulty, profile.getAverageConfidenceByDifficulty(),
+                profile.getSolvedByTopic(), profile.getLastSolvedByTopic(), LocalDateTime.now(), solvedProblemIds,
+                topicRatings);
+        // The user's experiment variant may scale some scorer weights
+        return scoringEngine.rank(context, candidates, limit, variant.weightMultipliers());
+    }
+    
+    private void addCandidates(CandidateBatch candidates, List<ProblemSummary> problems, LongPredicate excluded) {
+        for (ProblemSummary problem : problems) {
+            if (!excluded.test(problem.id())) {
+                candidates.add(problem);
+            }
+        }
     }
     
     /**
      * Get problems by topic that user hasn't solved yet
      */
     public List<Problem> getProblemsByTopic(User user, String topic, int limit) {
-        List<UserProgress> solvedProblems = userProgressRepository.findSolvedProblemsByUser(user);
-        Set<Long> solvedProblemIds = solvedProblems.stream()
-                .map(up -> up.getProblem().getId())
-                .collect(Collectors.toSet());
+        ProblemIdBitmap solvedProblemIds = progressBitmaps.get(user, ProgressStatus.SOLVED);
         
-        return problemRepository.findByTopicIgnoreCase(topic)
+        return catalogIndex.resolve(catalogIndex.byTopic(topic)
                 .stream()
-                .filter(p -> !solvedProblemIds.contains(p.getId()))
+                .filter(p -> !solvedProblemIds.contains(p.id()))
                 .limit(limit)
-                .collect(Collectors.toList());
+                .map(ProblemSummary::id)
+                .collect(Collectors.toList()));
     }
     
     /**
      * Get random problems for practice
      */
     public List<Problem> getRandomProblems(User user, Difficulty difficulty, int limit) {
-        List<UserProgress> solvedProblems = userProgressRepository.findSolvedProblemsByUser(user);
-        Set<Long> solvedProblemIds = solvedProblems.stream()
-                .map(up -> up.getProblem().getId())
-                .collect(Collectors.toSet());
-        
-        List<Problem> allProblems = problemRepository.findByDifficulty(difficulty);
-        List<Problem> availableProblems = allProblems.stream()
-                .filter(p -> !solvedProblemIds.contains(p.getId()))
-                .collect(Collectors.toList());
-        
-        Collections.shuffle(availableProblems);
-        return availableProblems.stream().limit(limit).collect(Collectors.toList());
+        return getRandomProblems(user, difficulty, limit, false, null);
+    }
+    
+    /**
+     * Get random unsolved problems, optionally weighted by acceptance rate.
+     * A seed makes the draw reproducible for the same catalog and solved problems.
+     */
+    public List<Problem> getRandomProblems(User user, Difficulty difficulty, int limit, boolean weighted, Long seed) {
+        ProblemIdBitmap solvedProblemIds = progressBitmaps.get(user, ProgressStatus.SOLVED);
+        RandomGenerator random = seed != null ? new SplittableRandom(seed) : ThreadLocalRandom.current();
+        return catalogIndex.resolve(problemSampler.sample(difficulty, limit, solvedProblemIds, weighted, random));
     }
     
     /**
      * Analyze user's skill level based on solved problems and confidence scores
      */
-    private Difficulty analyzeUserSkillLevel(List<UserProgress> solvedProblems) {
-        if (solvedProblems.isEmpty()) {
+    private Difficulty analyzeUserSkillLevel(UserSkillProfile profile) {
+        if (profile.getTotalSolved() == 0) {
             return Difficulty.EASY; // Start with easy problems for new users
         }
         
-        Map<Difficulty, Long> difficultyCount = solvedProblems.stream()
-                .collect(Collectors.groupingBy(
-                    up -> up.getProblem().getDifficulty(),
-                    Collectors.counting()
-                ));
+        long easyCount = profile.getSolvedCount(Difficulty.EASY);
+        long mediumCount = profile.getSolvedCount(Difficulty.MEDIUM);
+        long hardCount = profile.getSolvedCount(Difficulty.HARD);
         
-        // Calculate average confidence by difficulty
-        Map<Difficulty, Double> avgConfidenceByDifficulty = solvedProblems.stream()
-                .collect(Collectors.groupingBy(
-                    up -> up.getProblem().getDifficulty(),
-                    Collectors.averagingDouble(UserProgress::getConfidenceScore)
-                ));
-        
-        long easyCount = difficultyCount.getOrDefault(Difficulty.EASY, 0L);
-        long mediumCount = difficultyCount.getOrDefault(Difficulty.MEDIUM, 0L);
-        long hardCount = difficultyCount.getOrDefault(Difficulty.HARD, 0L);
-        
-        double easyConfidence = avgConfidenceByDifficulty.getOrDefault(Difficulty.EASY, 0.0);
-        double mediumConfidence = avgConfidenceByDifficulty.getOrDefault(Difficulty.MEDIUM, 0.0);
-        double hardConfidence = avgConfidenceByDifficulty.getOrDefault(Difficulty.HARD, 0.0);
+        // Average confidence by difficulty (0 when none solved)
+        double easyConfidence = easyCount > 0 ? profile.getAverageConfidence(Difficulty.EASY) : 0.0;
+        double mediumConfidence = mediumCount > 0 ? profile.getAverageConfidence(Difficulty.MEDIUM) : 0.0;
+        double hardConfidence = hardCount > 0 ? profile.getAverageConfidence(Difficulty.HARD) : 0.0;
         
         // Enhanced skill level analysis with confidence scoring
         if (easyCount < 3 || easyConfidence < 0.6) {
@@ -150,58 +335,42 @@ public class ProblemRecommendationService {
     }
     
     /**
-     * Get user's progress statistics
+     * Get user's progress statistics (shared with concurrent callers, do not modify)
      */
     public Map<String, Object> getUserProgressStats(User user) {
-        long totalSolved = userProgressRepository.countSolvedProblemsByUser(user);
-        long inProgress = userProgressRepository.countInProgressProblemsByUser(user);
-        long totalProblems = problemRepository.getTotalProblemCount();
+        return statsFlights.execute(List.of(user.getId(), progressGeneration(user.getId())), () -> Collections.unmodifiableMap(computeUserProgressStats(user)));
+    }
+    
+    private Map<String, Object> computeUserProgressStats(User user) {
+        UserSkillProfile profile = skillAggregates.getProfile(user);
+        long totalSolved = profile.getTotalSolved();
+        long totalProblems = catalogIndex.size();
         
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalSolved", totalSolved);
-        stats.put("inProgress", inProgress);
+        stats.put("inProgress", profile.getInProgressCount());
         stats.put("totalProblems", totalProblems);
         stats.put("completionRate", totalProblems > 0 ? (double) totalSolved / totalProblems * 100 : 0.0);
         
-        // Solved by difficulty
-        List<Object[]> solvedByDifficulty = userProgressRepository.countSolvedProblemsByDifficulty(user);
+        // Solved and average confidence by difficulty
         Map<String, Long> difficultyStats = new HashMap<>();
-        for (Object[] result : solvedByDifficulty) {
-            difficultyStats.put(result[0].toString(), (Long) result[1]);
+        Map<String, Double> confidenceByDifficulty = new HashMap<>();
+        for (Difficulty difficulty : Difficulty.values()) {
+            long solved = profile.getSolvedCount(difficulty);
+            if (solved > 0) {
+                difficultyStats.put(difficulty.toString(), solved);
+                confidenceByDifficulty.put(difficulty.toString(),
+                        Math.round(profile.getAverageConfidence(difficulty) * 100.0) / 100.0);
+            }
         }
         stats.put("solvedByDifficulty", difficultyStats);
         
         // Solved by topic
-        List<Object[]> solvedByTopic = userProgressRepository.countSolvedProblemsByTopic(user);
-        Map<String, Long> topicStats = new HashMap<>();
-        for (Object[] result : solvedByTopic) {
-            topicStats.put(result[0].toString(), (Long) result[1]);
-        }
-        stats.put("solvedByTopic", topicStats);
+        stats.put("solvedByTopic", new HashMap<>(profile.getSolvedByTopic()));
         
         // Add confidence statistics
-        List<UserProgress> solvedProblems = userProgressRepository.findSolvedProblemsByUser(user);
-        double avgConfidence = solvedProblems.stream()
-                .mapToDouble(UserProgress::getConfidenceScore)
-                .average()
-                .orElse(0.0);
+        double avgConfidence = totalSolved > 0 ? profile.getTotalConfidenceSum() / totalSolved : 0.0;
         stats.put("averageConfidence", Math.round(avgConfidence * 100.0) / 100.0);
-        
-        // Confidence by difficulty
-        Map<String, Double> confidenceByDifficulty = new HashMap<>();
-        for (Object[] result : solvedByDifficulty) {
-            String difficulty = result[0].toString();
-            List<UserProgress> problemsOfDifficulty = solvedProblems.stream()
-                    .filter(up -> up.getProblem().getDifficulty().toString().equals(difficulty))
-                    .toList();
-            if (!problemsOfDifficulty.isEmpty()) {
-                double avgConf = problemsOfDifficulty.stream()
-                        .mapToDouble(UserProgress::getConfidenceScore)
-                        .average()
-                        .orElse(0.0);
-                confidenceByDifficulty.put(difficulty, Math.round(avgConf * 100.0) / 100.0);
-            }
-        }
         stats.put("confidenceByDifficulty", confidenceByDifficulty);
         
         return stats;
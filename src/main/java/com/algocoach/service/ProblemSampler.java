@@ -0,0 +1,157 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.util.AliasTable;
+import com.algocoach.util.ProblemIdBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws random problems of a difficulty without building or shuffling candidate lists.
+ *
+ * Per difficulty it keeps the problem ids in catalog order plus an alias table over
+ * their acceptance rates, both rebuilt on every catalog change. A draw picks an index
+ * uniformly (or from the alias table when weighted) and rejects excluded or already
+ * picked problems; if too many draws are rejected (the user solved most of the
+ * difficulty), the remaining picks come from one reservoir-sampling pass instead.
+ * With the same seed, catalog and exclusions the draws are reproducible.
+ */
+@Service
+public class ProblemSampler {
+    
+    private static final int ATTEMPTS_PER_PICK = 16;
+    
+    // Problems with no acceptance rate still get drawn now and then
+    private static final double MIN_WEIGHT = 1.0;
+    
+    @Autowired
+    private ProblemCatalogIndex catalogIndex;
+    
+    private volatile Map<Difficulty, Pool> pools = Collections.emptyMap();
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Map<Difficulty, Pool> rebuilt = new EnumMap<>(Difficulty.class);
+        for (Difficulty difficulty : Difficulty.values()) {
+            List<ProblemSummary> problems = catalogIndex.byDifficulty(difficulty);
+            long[] ids = new long[problems.size()];
+            double[] weights = new double[problems.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = problems.get(i).id();
+                weights[i] = Math.max(MIN_WEIGHT, problems.get(i).acceptanceRate());
+            }
+            rebuilt.put(difficulty, new Pool(ids, weights, new AliasTable(weights)));
+        }
+        pools = rebuilt;
+    }
+    
+    /**
+     * Up to {@code limit} distinct problem ids of the difficulty that are not excluded
+     *
+     * @param weighted draw proportionally to acceptance rate instead of uniformly
+     */
+    public List<Long> sample(Difficulty difficulty, int limit, ProblemIdBitmap excluded,
+                             boolean weighted, RandomGenerator random) {
+        Pool pool = pools.get(difficulty);
+        if (pool == null || pool.ids.length == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        long[] ids = pool.ids;
+        int[] picked = new int[Math.min(limit, ids.length)];
+        int count = 0;
+        
+        for (int attempts = ATTEMPTS_PER_PICK * picked.length; count < picked.length && attempts > 0; attempts--) {
+            int index = weighted ? pool.aliasTable.sample(random) : random.nextInt(ids.length);
+            if (!excluded.contains(ids[index]) && !contains(picked, count, index)) {
+                picked[count++] = index;
+            }
+        }
+        if (count < picked.length) {
+            count = weighted
+                    ? fillWeighted(pool, picked, count, excluded, random)
+                    : fillUniform(pool, picked, count, excluded, random);
+        }
+        
+        List<Long> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(ids[picked[i]]);
+        }
+        return result;
+    }
+    
+    /**
+     * Reservoir sampling (algorithm R) over the eligible problems for the remaining slots
+     */
+    private int fillUniform(Pool pool, int[] picked, int count, ProblemIdBitmap excluded, RandomGenerator random) {
+        int slots = picked.length - count;
+        int filled = 0;
+        int seen = 0;
+        for (int index = 0; index < pool.ids.length; index++) {
+            if (excluded.contains(pool.ids[index]) || contains(picked, count, index)) {
+                continue;
+            }
+            seen++;
+            if (filled < slots) {
+                picked[count + filled++] = index;
+            } else {
+                int slot = random.nextInt(seen);
+                if (slot < slots) {
+                    picked[count + slot] = index;
+                }
+            }
+        }
+        return count + filled;
+    }
+    
+    /**
+     * Weighted reservoir sampling (Efraimidis-Spirakis): keep the largest u^(1/w) keys
+     */
+    private int fillWeighted(Pool pool, int[] picked, int count, ProblemIdBitmap excluded, RandomGenerator random) {
+        int slots = picked.length - count;
+        double[] keys = new double[slots];
+        int filled = 0;
+        for (int index = 0; index < pool.ids.length; index++) {
+            if (excluded.contains(pool.ids[index]) || contains(picked, count, index)) {
+                continue;
+            }
+            double key = Math.pow(random.nextDouble(), 1.0 / pool.weights[index]);
+            if (filled < slots) {
+                keys[filled] = key;
+                picked[count + filled++] = index;
+            } else {
+                int weakest = 0;
+                for (int slot = 1; slot < slots; slot++) {
+                    if (keys[slot] < keys[weakest]) {
+                        weakest = slot;
+                    }
+                }
+                if (key > keys[weakest]) {
+                    keys[weakest] = key;
+                    picked[count + weakest] = index;
+                }
+            }
+        }
+        return count + filled;
+    }
+    
+    private static boolean contains(int[] picked, int count, int index) {
+        for (int i = 0; i < count; i++) {
+            if (picked[i] == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private record Pool(long[] ids, double[] weights, AliasTable aliasTable) {}
+}
@@ -0,0 +1,121 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.util.InvertedIndex;
+import com.algocoach.util.TextTokenizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Full-text search over problem title, topic and description with BM25 ranking.
+ *
+ * Terms are weighted by field (a title occurrence counts three times, a topic
+ * occurrence twice) and kept in one {@link InvertedIndex}, updated per problem from
+ * {@link CatalogChangedEvent}s. Searches share a read lock; the rare catalog changes
+ * take the write lock.
+ */
+@Service
+public class ProblemSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TOPIC_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private ProblemCatalogIndex catalogIndex;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullReload()) {
+            List<Problem> problems = problemRepository.findAll();
+            lock.writeLock().lock();
+            try {
+                index.clear();
+                for (Problem problem : problems) {
+                    index.put(problem.getId(), termFrequencies(problem));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        Optional<Problem> problem = problemRepository.findById(event.getProblemId());
+        lock.writeLock().lock();
+        try {
+            if (problem.isPresent()) {
+                index.put(problem.get().getId(), termFrequencies(problem.get()));
+            } else {
+                index.remove(event.getProblemId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the {@code limit} problems most relevant to the query, best first
+     *
+     * @param difficulty optional difficulty filter
+     * @param topic      optional topic filter (case insensitive)
+     */
+    public List<Long> search(String query, Difficulty difficulty, String topic, int limit) {
+        List<String> terms = TextTokenizer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        LongPredicate accept = null;
+        if (difficulty != null || topic != null) {
+            accept = id -> {
+                Optional<ProblemSummary> summary = catalogIndex.get(id);
+                return summary.isPresent()
+                        && (difficulty == null || summary.get().difficulty() == difficulty)
+                        && (topic == null || summary.get().topic().equalsIgnoreCase(topic));
+            };
+        }
+
+        long[] ids = new long[limit];
+        double[] scores = new double[limit];
+        int count;
+        lock.readLock().lock();
+        try {
+            count = index.search(terms, accept, ids, scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> termFrequencies(Problem problem) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, problem.getTitle(), TITLE_WEIGHT);
+        addTerms(frequencies, problem.getTopic(), TOPIC_WEIGHT);
+        addTerms(frequencies, problem.getDescription(), DESCRIPTION_WEIGHT);
+        return frequencies;
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : TextTokenizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProblemStats;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.dto.ProblemStatsView;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.repository.ProblemStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live per-problem attempt, solve and give-up counters.
+ *
+ * Every committed {@link ProgressChangedEvent} bumps striped {@link LongAdder}s, so
+ * concurrent solves of the same problem never contend on a lock or issue an UPDATE.
+ * A scheduled flush drains the adders and adds the deltas to the problem_stats rows
+ * in one transaction; reads combine the flushed row with the pending deltas.
+ */
+@Service
+public class ProblemStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProblemStatsService.class);
+
+    @Autowired
+    private ProblemStatsRepository statsRepository;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, Counters> pending = new ConcurrentHashMap<>();
+    private final Counter flushedRows;
+
+    public ProblemStatsService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushedRows = Counter.builder("problem.stats.flushed")
+                .description("Problem stats rows updated by the periodic flush").register(meterRegistry);
+    }
+
+    /**
+     * Count a committed progress change: the attempts it added, and the transition to
+     * solved or given up
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        long problemId = event.getProblemId();
+        int attempts = event.getAttemptsAdded();
+        if (attempts > 0) {
+            recordAttempts(problemId, attempts);
+        }
+        if (!event.isStatusChange()) {
+            return;
+        }
+        UserProgress progress = event.getProgress();
+        if (progress.getStatus() == ProgressStatus.SOLVED) {
+            recordSolve(problemId, progress.getTimeSpentMinutes(), progress.getHintsUsed());
+        } else if (progress.getStatus() == ProgressStatus.GAVE_UP) {
+            recordGiveUp(problemId);
+        }
+    }
+
+    void recordAttempts(long problemId, int attempts) {
+        counters(problemId).attempts.add(attempts);
+    }
+
+    /**
+     * Count a solve with its reported time (null if none) and the hints used
+     */
+    void recordSolve(long problemId, Integer timeSpentMinutes, Integer hintsUsed) {
+        Counters counters = counters(problemId);
+        counters.solves.increment();
+        if (timeSpentMinutes != null) {
+            counters.timedSolves.increment();
+            counters.timeSpentMinutes.add(timeSpentMinutes);
+        }
+        if (hintsUsed != null) {
+            counters.hintsUsed.add(hintsUsed);
+        }
+    }
+
+    void recordGiveUp(long problemId) {
+        counters(problemId).giveUps.increment();
+    }
+
+    /**
+     * Flushed totals plus the counts not flushed yet
+     */
+    public ProblemStatsView getStats(long problemId) {
+        long[] totals = new long[Counters.FIELDS];
+        statsRepository.findById(problemId).ifPresent(stats -> {
+            totals[0] = stats.getAttempts();
+            totals[1] = stats.getSolves();
+            totals[2] = stats.getGiveUps();
+            totals[3] = stats.getTimedSolves();
+            totals[4] = stats.getTimeSpentMinutes();
+            totals[5] = stats.getHintsUsed();
+        });
+        Counters counters = pending.get(problemId);
+        if (counters != null) {
+            long[] live = counters.sum();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += live[i];
+            }
+        }
+        long solves = totals[1];
+        long finished = solves + totals[2];
+        return new ProblemStatsView(problemId, totals[0], solves, totals[2],
+                finished > 0 ? (double) solves / finished : 0.0,
+                totals[3] > 0 ? (double) totals[4] / totals[3] : 0.0,
+                solves > 0 ? (double) totals[5] / solves : 0.0);
+    }
+
+    /**
+     * Add the pending deltas to problem_stats. Deltas of a failed flush are put back.
+     */
+    @Scheduled(fixedDelayString = "${problem-stats.flush-interval-ms:10000}",
+            initialDelayString = "${problem-stats.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        Map<Long, long[]> deltas = new HashMap<>();
+        for (Map.Entry<Long, Counters> entry : pending.entrySet()) {
+            long[] delta = entry.getValue().drain();
+            if (!isZero(delta)) {
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, ProblemStats> rows = new HashMap<>();
+                for (ProblemStats stats : statsRepository.findAllById(deltas.keySet())) {
+                    rows.put(stats.getProblemId(), stats);
+                }
+                List<ProblemStats> changed = new ArrayList<>(deltas.size());
+                for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+                    long[] delta = entry.getValue();
+                    ProblemStats stats = rows.computeIfAbsent(entry.getKey(), ProblemStats::new);
+                    stats.add(delta[0], delta[1], delta[2], delta[3], delta[4], delta[5]);
+                    changed.add(stats);
+                }
+                statsRepository.saveAll(changed);
+            });
+            flushedRows.increment(deltas.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to flush stats of {} problems, keeping them for the next flush", deltas.size(), e);
+            deltas.forEach((problemId, delta) -> counters(problemId).restore(delta));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Counters counters(long problemId) {
+        // get() first: the common case is lock-free, computeIfAbsent only for a new problem
+        Counters counters = pending.get(problemId);
+        return counters != null ? counters : pending.computeIfAbsent(problemId, id -> new Counters());
+    }
+
+    private static boolean isZero(long[] values) {
+        for (long value : values) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Counters {
+        static final int FIELDS = 6;
+
+        final LongAdder attempts = new LongAdder();
+        final LongAdder solves = new LongAdder();
+        final LongAdder giveUps = new LongAdder();
+        final LongAdder timedSolves = new LongAdder();
+        final LongAdder timeSpentMinutes = new LongAdder();
+        final LongAdder hintsUsed = new LongAdder();
+
+        private LongAdder[] all() {
+            return new LongAdder[]{attempts, solves, giveUps, timedSolves, timeSpentMinutes, hintsUsed};
+        }
+
+        long[] sum() {
+            LongAdder[] adders = all();
+            long[] values = new long[FIELDS];
+            for (int i = 0; i < FIELDS; i++) {
+                values[i] = adders[i].sum();
+            }
+            return values;
+        }
+
+        /**
+         * Take the current values, leaving the counts recorded meanwhile for the next drain
+         */
+        long[] drain() {
+            LongAdder[] adders = all();
+            long[] values = new long[FIELDS];
+            for (int i = 0; i < FIELDS; i++) {
+                values[i] = adders[i].sum();
+                adders[i].add(-values[i]);
+            }
+            return values;
+        }
+
+        void restore(long[] values) {
+            LongAdder[] adders = all();
+            for (int i = 0; i < FIELDS; i++) {
+                adders[i].add(values[i]);
+            }
+        }
+    }
+}
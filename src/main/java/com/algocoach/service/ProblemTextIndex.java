@@ -0,0 +1,162 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Problem;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.util.SparseVectorIndex;
+import com.algocoach.util.TextTokenizer;
+import com.algocoach.util.TopKSelector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Content similarity between problems from TF-IDF weighted text vectors.
+ *
+ * Title, topic, description, examples and constraints are tokenized and hashed into a
+ * fixed number of features (title and topic terms count double), so no vocabulary has
+ * to be stored. Per-problem term frequencies and per-feature document frequencies are
+ * updated incrementally when a problem changes; the normalized vectors are then
+ * re-weighted and published as one immutable {@link SparseVectorIndex}.
+ */
+@Service
+public class ProblemTextIndex {
+    
+    private static final float TITLE_AND_TOPIC_BOOST = 2.0f;
+    
+    @Autowired
+    private ProblemRepository problemRepository;
+    
+    private final int featureMask;
+    private final boolean quantize;
+    
+    // Guarded by "this"
+    private final Map<Long, TermFrequencies> documents = new HashMap<>();
+    private final int[] documentFrequency;
+    
+    private volatile SparseVectorIndex vectors;
+    
+    public ProblemTextIndex(@Value("${recommendation.text.dimensions:4096}") int dimensions,
+                            @Value("${recommendation.text.quantize:false}") boolean quantize) {
+        if (Integer.bitCount(dimensions) != 1) {
+            throw new IllegalArgumentException("recommendation.text.dimensions must be a power of two: " + dimensions);
+        }
+        this.featureMask = dimensions - 1;
+        this.quantize = quantize;
+        this.documentFrequency = new int[dimensions];
+        this.vectors = new SparseVectorIndex.Builder(0).build(quantize);
+    }
+    
+    /**
+     * Follow the catalog index: full reloads re-read every problem, single changes one
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullReload()) {
+            List<Problem> problems = problemRepository.findAll();
+            synchronized (this) {
+                documents.clear();
+                Arrays.fill(documentFrequency, 0);
+                for (Problem problem : problems) {
+                    addDocument(problem);
+                }
+                publish();
+            }
+            return;
+        }
+        Optional<Problem> problem = problemRepository.findById(event.getProblemId());
+        synchronized (this) {
+            removeDocument(event.getProblemId());
+            problem.ifPresent(this::addDocument);
+            publish();
+        }
+    }
+    
+    /**
+     * Ids of the {@code limit} problems with the most similar text, most similar first
+     */
+    public List<Long> findSimilar(long problemId, int limit) {
+        SparseVectorIndex index = vectors;
+        int row = index.indexOf(problemId);
+        if (row < 0) {
+            return new ArrayList<>();
+        }
+        double[] scores = new double[index.size()];
+        for (int other = 0; other < scores.length; other++) {
+            scores[other] = other == row ? Double.NEGATIVE_INFINITY : index.dot(row, other);
+        }
+        List<Long> result = new ArrayList<>(limit);
+        for (int other : TopKSelector.select(scores, scores.length, limit)) {
+            if (scores[other] > 0) {
+                result.add(index.id(other));
+            }
+        }
+        return result;
+    }
+    
+    public SparseVectorIndex getVectors() {
+        return vectors;
+    }
+    
+    public int getDimensions() {
+        return featureMask + 1;
+    }
+    
+    private void addDocument(Problem problem) {
+        Map<Integer, Float> counts = new HashMap<>();
+        addTerms(counts, problem.getTitle(), TITLE_AND_TOPIC_BOOST);
+        addTerms(counts, problem.getTopic(), TITLE_AND_TOPIC_BOOST);
+        addTerms(counts, problem.getDescription(), 1.0f);
+        addTerms(counts, problem.getExamples(), 1.0f);
+        addTerms(counts, problem.getConstraints(), 1.0f);
+        
+        int[] features = counts.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        float[] frequencies = new float[features.length];
+        for (int i = 0; i < features.length; i++) {
+            frequencies[i] = counts.get(features[i]);
+            documentFrequency[features[i]]++;
+        }
+        documents.put(problem.getId(), new TermFrequencies(features, frequencies));
+    }
+    
+    private void removeDocument(Long problemId) {
+        TermFrequencies removed = documents.remove(problemId);
+        if (removed != null) {
+            for (int feature : removed.features()) {
+                documentFrequency[feature]--;
+            }
+        }
+    }
+    
+    private void addTerms(Map<Integer, Float> counts, String text, float weight) {
+        for (String token : TextTokenizer.tokenize(text)) {
+            counts.merge(feature(token), weight, Float::sum);
+        }
+    }
+    
+    private int feature(String token) {
+        int hash = token.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & featureMask;
+    }
+    
+    private void publish() {
+        int documentCount = documents.size();
+        SparseVectorIndex.Builder builder = new SparseVectorIndex.Builder(documentCount);
+        documents.forEach((id, document) -> {
+            int[] features = document.features();
+            float[] weights = new float[features.length];
+            for (int i = 0; i < features.length; i++) {
+                // Sublinear term frequency times smoothed inverse document frequency
+                double idf = Math.log((documentCount + 1.0) / (documentFrequency[features[i]] + 1.0)) + 1.0;
+                weights[i] = (float) ((1.0 + Math.log(document.frequencies()[i])) * idf);
+            }
+            builder.add(id, features, weights);
+        });
+        vectors = builder.build(quantize);
+    }
+    
+    private record TermFrequencies(int[] features, float[] frequencies) {}
+}
@@ -0,0 +1,152 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.util.LoadingLruCache;
+import com.algocoach.util.ProblemIdBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-user problem id bitmaps, one per {@link ProgressStatus}.
+ *
+ * A user's bitmaps are loaded from a single id/status projection the first time they
+ * are needed and then kept up to date from {@link ProgressChangedEvent}s once the change
+ * has committed. Readers get immutable bitmaps, so exclusion filters never lock or copy.
+ * Only the most recently used users are kept; others are reloaded on their next read.
+ */
+@Service
+public class ProgressBitmapStore {
+
+    private static final ProgressStatus[] STATUSES = ProgressStatus.values();
+
+    @Autowired
+    private UserProgressRepository userProgressRepository;
+
+    private final LoadingLruCache<Long, UserBitmaps> bitmapsByUser;
+
+    public ProgressBitmapStore(@Value("${progress.bitmap-cache-size:10000}") int cacheSize) {
+        this.bitmapsByUser = new LoadingLruCache<>(cacheSize);
+    }
+
+    /**
+     * Problem ids the user currently has in the given status
+     */
+    public ProblemIdBitmap get(User user, ProgressStatus status) {
+        return get(user.getId(), status);
+    }
+
+    public ProblemIdBitmap get(long userId, ProgressStatus status) {
+        return load(userId).byStatus[status.ordinal()];
+    }
+
+    /**
+     * Whether the problem is solved or in progress for the user (recommendation exclusion)
+     */
+    public boolean isSolvedOrInProgress(User user, long problemId) {
+        ProblemIdBitmap[] byStatus = load(user.getId()).byStatus;
+        return byStatus[ProgressStatus.SOLVED.ordinal()].contains(problemId)
+                || byStatus[ProgressStatus.IN_PROGRESS.ordinal()].contains(problemId);
+    }
+
+    // First after commit, so other listeners reading the bitmaps see the change
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        record(event.getUser(), event.getProblemId(), event.getPreviousStatus(), event.getStatus());
+    }
+
+    /**
+     * Apply a committed status change. A no-op for users whose bitmaps are not loaded yet,
+     * since they will read the committed row when they are.
+     */
+    public void record(User user, long problemId, ProgressStatus previous, ProgressStatus current) {
+        if (previous == current) {
+            return;
+        }
+        // A load overlapping the change is not cached, so it cannot shadow the change
+        bitmapsByUser.update(user.getId(), bitmaps -> bitmaps.move(problemId, previous, current));
+    }
+
+    /**
+     * Stream every user's solved problem ids in user id order, one user at a time and
+     * without caching them (index builds)
+     */
+    public void forEachSolvedSet(int chunkSize, BiConsumer<Long, ProblemIdBitmap> consumer) {
+        long afterUserId = 0;
+        long afterProblemId = 0;
+        Long currentUserId = null;
+        ProblemIdBitmap.Builder builder = null;
+        List<Object[]> chunk;
+        do {
+            chunk = userProgressRepository.findSolvedPairsByUserAfter(afterUserId, afterProblemId,
+                    PageRequest.of(0, chunkSize));
+            for (Object[] row : chunk) {
+                afterUserId = (Long) row[0];
+                afterProblemId = (Long) row[1];
+                if (currentUserId == null || currentUserId != afterUserId) {
+                    if (currentUserId != null) {
+                        consumer.accept(currentUserId, builder.build());
+                    }
+                    currentUserId = afterUserId;
+                    builder = new ProblemIdBitmap.Builder();
+                }
+                builder.add(afterProblemId);
+            }
+        } while (chunk.size() == chunkSize);
+        if (currentUserId != null) {
+            consumer.accept(currentUserId, builder.build());
+        }
+    }
+
+    public void evict(Long userId) {
+        bitmapsByUser.remove(userId);
+    }
+
+    private UserBitmaps load(long userId) {
+        return bitmapsByUser.get(userId, id -> {
+            ProblemIdBitmap.Builder[] builders = new ProblemIdBitmap.Builder[STATUSES.length];
+            for (int i = 0; i < builders.length; i++) {
+                builders[i] = new ProblemIdBitmap.Builder();
+            }
+            List<Object[]> rows = userProgressRepository.findProblemStatusesByUserId(id);
+            for (Object[] row : rows) {
+                builders[((ProgressStatus) row[1]).ordinal()].add((Long) row[0]);
+            }
+            ProblemIdBitmap[] byStatus = new ProblemIdBitmap[STATUSES.length];
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = builders[i].build();
+            }
+            return new UserBitmaps(byStatus);
+        });
+    }
+
+    private static final class UserBitmaps {
+        final ProblemIdBitmap[] byStatus;
+
+        UserBitmaps(ProblemIdBitmap[] byStatus) {
+            this.byStatus = byStatus;
+        }
+
+        UserBitmaps move(long problemId, ProgressStatus previous, ProgressStatus current) {
+            ProblemIdBitmap[] updated = byStatus.clone();
+            if (previous != null) {
+                updated[previous.ordinal()] = updated[previous.ordinal()].without(problemId);
+            }
+            if (current != null) {
+                updated[current.ordinal()] = updated[current.ordinal()].with(problemId);
+            }
+            return new UserBitmaps(updated);
+        }
+    }
+}
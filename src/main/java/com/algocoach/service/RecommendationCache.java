@@ -0,0 +1,148 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.util.LoadingLruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Materialized per-user recommendations.
+ *
+ * Entries are kept per user and limit in a bounded LRU map, since the candidate pool
+ * depends on the limit and a shorter list is not a prefix of a longer one. Only problem
+ * ids are cached; reads resolve them with one primary key query, so entries never hold
+ * copies of the problems' text columns. Progress
+ * changes drop the user's entries and recompute them in the background; catalog changes
+ * drop every entry. A computation that overlaps either is returned but not cached
+ * (see {@link LoadingLruCache}), so it never overwrites the fresher state.
+ */
+@Service
+public class RecommendationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationCache.class);
+
+    /**
+     * Largest limit accepted by the recommendation endpoints
+     */
+    public static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private ProblemRecommendationService recommendationService;
+
+    @Autowired
+    private ProblemCatalogIndex catalogIndex;
+
+    private final LoadingLruCache<Key, List<Long>> cache;
+    private final ExecutorService refreshExecutor;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshes;
+
+    public RecommendationCache(@Value("${recommendation.cache.max-size:10000}") int maxSize,
+                               @Value("${recommendation.cache.refresh-queue-size:1000}") int refreshQueueSize,
+                               MeterRegistry meterRegistry) {
+        this.cache = new LoadingLruCache<>(maxSize);
+        // One background thread; when the queue is full the refresh is skipped and the
+        // entry is simply recomputed on the next read
+        this.refreshExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "recommendation-cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+
+        this.hits = Counter.builder("recommendation.cache.gets").tag("result", "hit")
+                .description("Recommendation reads served from the cache").register(meterRegistry);
+        this.misses = Counter.builder("recommendation.cache.gets").tag("result", "miss")
+                .description("Recommendation reads that had to compute").register(meterRegistry);
+        this.refreshes = Counter.builder("recommendation.cache.refreshes")
+                .description("Background recomputations after progress changes").register(meterRegistry);
+        Gauge.builder("recommendation.cache.size", cache, LoadingLruCache::size).register(meterRegistry);
+        FunctionCounter.builder("recommendation.cache.evictions", cache, LoadingLruCache::evictionCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recommendations for the user, best first, at most {@code limit} (capped at {@link #MAX_LIMIT})
+     */
+    public List<Problem> getRecommendations(User user, int limit) {
+        Key key = new Key(user.getId(), Math.min(limit, MAX_LIMIT));
+        List<Long> ids = cache.getIfPresent(key);
+        if (ids != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            ids = cache.get(key, k -> compute(user, k.limit()));
+        }
+        return catalogIndex.resolve(ids);
+    }
+
+    // After commit, so a background refresh never reads the progress before it is visible
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        // Attempts, hints and bookmarks do not affect recommendations
+        if (!event.isStatusChange() && event.getStatus() != ProgressStatus.SOLVED) {
+            return;
+        }
+        User user = event.getUser();
+        for (int limit = 1; limit <= MAX_LIMIT; limit++) {
+            Key key = new Key(user.getId(), limit);
+            if (cache.remove(key) != null) {
+                // Only limits the user actually reads are warmed up eagerly
+                refreshExecutor.execute(() -> refresh(user, key));
+            }
+        }
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        cache.clear();
+    }
+
+    public void evict(Long userId) {
+        for (int limit = 1; limit <= MAX_LIMIT; limit++) {
+            cache.remove(new Key(userId, limit));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void refresh(User user, Key key) {
+        try {
+            cache.get(key, k -> compute(user, k.limit()));
+            refreshes.increment();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh recommendations for user {}", user.getId(), e);
+        }
+    }
+
+    private List<Long> compute(User user, int limit) {
+        return recommendationService.getRecommendedProblemIds(user, limit);
+    }
+
+    private record Key(long userId, int limit) {
+    }
+}
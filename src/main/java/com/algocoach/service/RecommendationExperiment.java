@@ -0,0 +1,124 @@
+package com.algocoach.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A/B experiment over recommendation ranking strategies.
+ *
+ * Users are assigned to variants by hashing their id with the experiment name into
+ * one of 10,000 buckets, so the assignment is stable across requests and restarts
+ * and needs no lookup. A variant is a set of scorer weight multipliers, e.g.
+ * {@code experiment.recommendation.weights.no-rating-fit=ratingFit:0}; the control
+ * variant has none. Renaming the experiment reshuffles all users.
+ */
+@Service
+public class RecommendationExperiment {
+    
+    public static final int BUCKETS = 10_000;
+    
+    private final String name;
+    private final long salt;
+    private final Variant[] variants;
+    private final int[] bucketLimits;
+    
+    /**
+     * @param variants comma separated {@code name:percent} pairs adding up to 100
+     */
+    public RecommendationExperiment(@Value("${experiment.recommendation.name:ranking}") String name,
+                                    @Value("${experiment.recommendation.variants:control:100}") String variants,
+                                    Environment environment) {
+        this.name = name;
+        this.salt = stringHash(name);
+        
+        String[] entries = variants.split(",");
+        this.variants = new Variant[entries.length];
+        this.bucketLimits = new int[entries.length];
+        int percentTotal = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] parts = entries[i].trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Variant must be name:percent, got " + entries[i]);
+            }
+            String variantName = parts[0].trim();
+            percentTotal += Integer.parseInt(parts[1].trim());
+            this.variants[i] = new Variant(variantName, parseWeights(
+                    environment.getProperty("experiment.recommendation.weights." + variantName, "")));
+            this.bucketLimits[i] = percentTotal * (BUCKETS / 100);
+        }
+        if (percentTotal != 100) {
+            throw new IllegalArgumentException("Variant percentages must add up to 100, got " + percentTotal);
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * The user's variant; the same user always gets the same variant for this experiment
+     */
+    public Variant assign(long userId) {
+        int bucket = bucket(userId);
+        for (int i = 0; i < bucketLimits.length; i++) {
+            if (bucket < bucketLimits[i]) {
+                return variants[i];
+            }
+        }
+        return variants[variants.length - 1];
+    }
+    
+    /**
+     * Bucket in [0, {@link #BUCKETS}) of the user for this experiment
+     */
+    public int bucket(long userId) {
+        return (int) Long.remainderUnsigned(mix(userId ^ salt), BUCKETS);
+    }
+    
+    public List<Variant> getVariants() {
+        return List.of(variants);
+    }
+    
+    /**
+     * SplitMix64 finalizer: spreads consecutive ids over all buckets
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+    
+    // FNV-1a of the experiment name
+    private static long stringHash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    private static Map<String, Double> parseWeights(String weights) {
+        Map<String, Double> multipliers = new HashMap<>();
+        for (String entry : weights.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Weight must be scorer:multiplier, got " + entry);
+            }
+            multipliers.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+        return Collections.unmodifiableMap(multipliers);
+    }
+    
+    /**
+     * A ranking strategy: multipliers by scorer name (missing scorers keep their weight)
+     */
+    public record Variant(String name, Map<String, Double> weightMultipliers) {}
+}
@@ -0,0 +1,92 @@
+package com.algocoach.service;
+
+import com.algocoach.service.scoring.CandidateBatch;
+import com.algocoach.service.scoring.CandidateScorer;
+import com.algocoach.service.scoring.ScoringContext;
+import com.algocoach.util.TopKSelector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-factor ranking of recommendation candidates.
+ *
+ * Every registered {@link CandidateScorer} adds its weighted signal into one shared
+ * score array, then the best K candidates are picked with a bounded heap instead of
+ * sorting the whole candidate set.
+ */
+@Service
+public class RecommendationScoringEngine {
+
+    private final List<CandidateScorer> scorers;
+
+    @Autowired
+    public RecommendationScoringEngine(List<CandidateScorer> scorers) {
+        this.scorers = new ArrayList<>(scorers);
+    }
+
+    /**
+     * Ids of the top {@code limit} candidates, best first
+     */
+    public List<Long> rank(ScoringContext context, CandidateBatch candidates, int limit) {
+        return rank(context, candidates, limit, Collections.emptyMap());
+    }
+    
+    /**
+     * Ids of the top {@code limit} candidates with some scorer weights scaled
+     *
+     * @param weightMultipliers multiplier by scorer name (e.g. from an experiment variant)
+     */
+    public List<Long> rank(ScoringContext context, CandidateBatch candidates, int limit,
+                           Map<String, Double> weightMultipliers) {
+        int[] top = TopKSelector.select(score(context, candidates, weightMultipliers), candidates.size(), limit);
+        long[] ids = candidates.ids();
+        List<Long> result = new ArrayList<>(top.length);
+        for (int index : top) {
+            result.add(ids[index]);
+        }
+        return result;
+    }
+
+    /**
+     * Combined score of every candidate, indexed like the batch
+     */
+    public double[] score(ScoringContext context, CandidateBatch candidates) {
+        return score(context, candidates, Collections.emptyMap());
+    }
+    
+    private double[] score(ScoringContext context, CandidateBatch candidates, Map<String, Double> weightMultipliers) {
+        double[] scores = new double[candidates.size()];
+        double[] scaled = null;
+        for (CandidateScorer scorer : scorers) {
+            double multiplier = weightMultipliers.getOrDefault(scorer.getName(), 1.0);
+            if (scorer.getWeight() == 0.0 || multiplier == 0.0) {
+                continue;
+            }
+            if (multiplier == 1.0) {
+                scorer.score(context, candidates, scores);
+            } else {
+                // Scorers add into the array, so score into a scratch array and scale that
+                if (scaled == null) {
+                    scaled = new double[candidates.size()];
+                } else {
+                    Arrays.fill(scaled, 0.0);
+                }
+                scorer.score(context, candidates, scaled);
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] += multiplier * scaled[i];
+                }
+            }
+        }
+        return scores;
+    }
+
+    public List<CandidateScorer> getScorers() {
+        return List.copyOf(scorers);
+    }
+}
@@ -0,0 +1,264 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.ReviewSchedule;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.dto.DueReview;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.exception.ResourceNotFoundException;
+import com.algocoach.repository.ReviewScheduleRepository;
+import com.algocoach.util.IndexedMinHeap;
+import com.algocoach.util.LoadingLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spaced-repetition reviews of solved problems.
+ *
+ * Solving a problem schedules its first review after 1 to 4 days depending on the
+ * confidence score; every review then grows (or resets) the interval SM-2 style.
+ * Schedules are persisted in review_schedules; each user's due times are also kept in
+ * an indexed min-heap, loaded on first use into a bounded LRU, so due reviews are popped
+ * in O(log n) and a reschedule moves a single heap entry once it has committed.
+ * Problems solved before scheduling existed are given their first review by a one-time
+ * backfill at startup.
+ */
+@Service
+public class ReviewScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReviewScheduler.class);
+    
+    private static final double DEFAULT_EASE = 2.5;
+    private static final double MIN_EASE = 1.3;
+    private static final int BACKFILL_PAGE_SIZE = 200;
+    
+    @Autowired
+    private ReviewScheduleRepository reviewScheduleRepository;
+    
+    // Per-user heaps of problem id by due time (epoch millis, UTC); each guarded by itself
+    private final LoadingLruCache<Long, IndexedMinHeap> queues;
+    
+    public ReviewScheduler(@Value("${reviews.queue-cache-size:10000}") int queueCacheSize) {
+        this.queues = new LoadingLruCache<>(queueCacheSize);
+    }
+    
+    /**
+     * Give every solved problem without a review schedule its first review from the solve
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSchedules() {
+        int backfilled = 0;
+        List<Object[]> rows;
+        // Always the first page: scheduled problems no longer match the query
+        while (!(rows = reviewScheduleRepository.findUnscheduledSolved(PageRequest.of(0, BACKFILL_PAGE_SIZE))).isEmpty()) {
+            List<ReviewSchedule> schedules = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                schedules.add(initialSchedule((User) row[0], (Problem) row[1], (Double) row[2], (LocalDateTime) row[3]));
+            }
+            try {
+                for (ReviewSchedule saved : reviewScheduleRepository.saveAll(schedules)) {
+                    enqueue(saved);
+                }
+                backfilled += schedules.size();
+            } catch (DataIntegrityViolationException e) {
+                // A solve scheduled one of them meanwhile; the next page no longer includes it
+                logger.debug("Review backfill page raced a new schedule, retrying", e);
+            }
+        }
+        if (backfilled > 0) {
+            logger.info("Backfilled review schedules for {} solved problems", backfilled);
+        }
+    }
+    
+    /**
+     * Schedule, reschedule or cancel reviews as problems are solved or un-solved.
+     * Runs inside the progress update's transaction; the in-memory queue follows after commit.
+     */
+    @EventListener
+    @Transactional
+    public void onProgressChanged(ProgressChangedEvent event) {
+        UserProgress progress = event.getProgress();
+        if (event.getStatus() == ProgressStatus.SOLVED) {
+            ReviewSchedule schedule = reviewScheduleRepository.findByUserAndProblem(progress.getUser(), progress.getProblem())
+                    .orElse(null);
+            if (schedule == null) {
+                schedule = initialSchedule(progress.getUser(), progress.getProblem(), progress.getConfidenceScore(),
+                        progress.getSolvedAt());
+            } else if (isNewSolve(schedule, progress.getSolvedAt())) {
+                // Solving an already scheduled problem again counts as a review
+                applyReview(schedule, qualityFromConfidence(progress.getConfidenceScore()), LocalDateTime.now());
+            } else {
+                return; // Attempts, hints or bookmarks on a solved problem
+            }
+            save(schedule);
+        } else if (event.getPreviousStatus() == ProgressStatus.SOLVED) {
+            reviewScheduleRepository.deleteByUserAndProblem(progress.getUser(), progress.getProblem());
+            Long userId = progress.getUser().getId();
+            int key = toKey(event.getProblemId());
+            AfterCommit.run(() -> queues.update(userId, queue -> {
+                synchronized (queue) {
+                    queue.remove(key);
+                }
+                return queue;
+            }));
+        }
+    }
+    
+    /**
+     * Up to {@code limit} reviews due at {@code now}, most overdue first
+     */
+    @Transactional
+    public List<DueReview> getDueReviews(User user, LocalDateTime now, int limit) {
+        IndexedMinHeap queue = loadQueue(user);
+        long nowMillis = toMillis(now);
+        List<DueReview> due = new ArrayList<>();
+        synchronized (queue) {
+            // Pop the due prefix, then put it back: reviews stay due until recorded
+            while (due.size() < limit && !queue.isEmpty() && queue.peekPriority() <= nowMillis) {
+                long dueMillis = queue.peekPriority();
+                due.add(new DueReview(queue.poll(), fromMillis(dueMillis)));
+            }
+            for (DueReview review : due) {
+                queue.upsert(toKey(review.problemId()), toMillis(review.dueAt()));
+            }
+        }
+        return due;
+    }
+    
+    /**
+     * When the user's next review is due, or null if nothing is scheduled
+     */
+    @Transactional
+    public LocalDateTime getNextDueAt(User user) {
+        IndexedMinHeap queue = loadQueue(user);
+        synchronized (queue) {
+            return queue.isEmpty() ? null : fromMillis(queue.peekPriority());
+        }
+    }
+    
+    /**
+     * Record a review of a solved problem
+     *
+     * @param quality recall quality from 0 (forgot) to 5 (perfect)
+     */
+    @Transactional
+    public ReviewSchedule recordReview(User user, Problem problem, int quality) {
+        ReviewSchedule schedule = reviewScheduleRepository.findByUserAndProblem(user, problem)
+                .orElseThrow(() -> new ResourceNotFoundException("Review", problem.getId().toString()));
+        applyReview(schedule, quality, LocalDateTime.now());
+        return save(schedule);
+    }
+    
+    static ReviewSchedule initialSchedule(User user, Problem problem, Double confidenceScore, LocalDateTime solvedAt) {
+        double confidence = confidenceScore != null ? confidenceScore : 0.0;
+        ReviewSchedule schedule = new ReviewSchedule(user, problem);
+        schedule.setRepetitions(1);
+        schedule.setIntervalDays(1 + Math.round(confidence * 3));
+        schedule.setEaseFactor(MIN_EASE + confidence * (DEFAULT_EASE - MIN_EASE));
+        LocalDateTime base = solvedAt != null ? solvedAt : LocalDateTime.now();
+        schedule.setDueAt(base.plus(days(schedule.getIntervalDays())));
+        return schedule;
+    }
+    
+    /**
+     * SM-2: failed recalls restart at one day, successful ones multiply the interval by the ease
+     */
+    static void applyReview(ReviewSchedule schedule, int quality, LocalDateTime now) {
+        if (quality < 3) {
+            schedule.setRepetitions(0);
+            schedule.setIntervalDays(1);
+        } else {
+            int repetitions = schedule.getRepetitions() + 1;
+            schedule.setRepetitions(repetitions);
+            if (repetitions == 1) {
+                schedule.setIntervalDays(1);
+            } else if (repetitions == 2) {
+                schedule.setIntervalDays(6);
+            } else {
+                schedule.setIntervalDays(Math.round(schedule.getIntervalDays() * schedule.getEaseFactor()));
+            }
+        }
+        int miss = 5 - quality;
+        schedule.setEaseFactor(Math.max(MIN_EASE, schedule.getEaseFactor() + 0.1 - miss * (0.08 + miss * 0.02)));
+        schedule.setLastReviewedAt(now);
+        schedule.setDueAt(now.plus(days(schedule.getIntervalDays())));
+    }
+    
+    private ReviewSchedule save(ReviewSchedule schedule) {
+        ReviewSchedule saved = reviewScheduleRepository.save(schedule);
+        AfterCommit.run(() -> enqueue(saved));
+        return saved;
+    }
+    
+    /**
+     * Move the committed schedule's entry in its user's queue, if loaded
+     */
+    private void enqueue(ReviewSchedule schedule) {
+        int key = toKey(schedule.getProblem().getId());
+        long dueMillis = toMillis(schedule.getDueAt());
+        queues.update(schedule.getUser().getId(), queue -> {
+            synchronized (queue) {
+                queue.upsert(key, dueMillis);
+            }
+            return queue;
+        });
+    }
+    
+    private IndexedMinHeap loadQueue(User user) {
+        return queues.get(user.getId(), id -> {
+            List<Object[]> dueTimes = reviewScheduleRepository.findDueTimesByUser(user);
+            IndexedMinHeap queue = new IndexedMinHeap(dueTimes.size());
+            for (Object[] row : dueTimes) {
+                queue.upsert(toKey((Long) row[0]), toMillis((LocalDateTime) row[1]));
+            }
+            return queue;
+        });
+    }
+    
+    /**
+     * Whether the problem was solved after the schedule was last updated
+     */
+    static boolean isNewSolve(ReviewSchedule schedule, LocalDateTime solvedAt) {
+        LocalDateTime lastUpdated = schedule.getLastReviewedAt() != null
+                ? schedule.getLastReviewedAt()
+                : schedule.getDueAt().minus(days(schedule.getIntervalDays()));
+        return solvedAt != null && solvedAt.isAfter(lastUpdated);
+    }
+    
+    private static int qualityFromConfidence(Double confidenceScore) {
+        double confidence = confidenceScore != null ? confidenceScore : 0.0;
+        return (int) Math.round(confidence * 5);
+    }
+    
+    private static Duration days(double days) {
+        return Duration.ofMinutes(Math.round(days * 24 * 60));
+    }
+    
+    private static int toKey(long problemId) {
+        return Math.toIntExact(problemId);
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+}
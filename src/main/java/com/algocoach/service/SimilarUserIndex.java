@@ -0,0 +1,83 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.util.MinHashLshIndex;
+import com.algocoach.util.ProblemIdBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Finds users who solved similar sets of problems, via MinHash signatures in a banded
+ * LSH index. Signatures are built at startup from solved sets streamed one user at a
+ * time, then kept current from progress events: a new solve is folded into the
+ * signature directly, an undone solve recomputes the user's signature from the solved
+ * set. Solved sets themselves live in {@link ProgressBitmapStore} only.
+ */
+@Service
+public class SimilarUserIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SimilarUserIndex.class);
+    
+    // Fixed so signatures are comparable across restarts
+    private static final long HASH_SEED = 0x5EEDL;
+    
+    @Autowired
+    private ProgressBitmapStore progressBitmaps;
+    
+    private final MinHashLshIndex lshIndex;
+    private final int chunkSize;
+    private final int maxCandidates;
+    
+    public SimilarUserIndex(@Value("${recommendation.similar-users.bands:16}") int bands,
+                            @Value("${recommendation.similar-users.rows-per-band:4}") int rowsPerBand,
+                            @Value("${recommendation.similar-users.max-candidates:2000}") int maxCandidates,
+                            @Value("${recommendation.similarity.chunk-size:1000}") int chunkSize) {
+        this.lshIndex = new MinHashLshIndex(bands, rowsPerBand, HASH_SEED);
+        this.maxCandidates = maxCandidates;
+        this.chunkSize = chunkSize;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        progressBitmaps.forEachSolvedSet(chunkSize, lshIndex::put);
+        logger.info("Indexed MinHash signatures of {} users", lshIndex.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        if (!event.isStatusChange()) {
+            return;
+        }
+        Long userId = event.getUser().getId();
+        long problemId = event.getProblemId();
+        if (event.getStatus() == ProgressStatus.SOLVED) {
+            lshIndex.add(userId, problemId);
+        } else if (event.getPreviousStatus() == ProgressStatus.SOLVED) {
+            // MinHash minimums cannot be undone incrementally; the store already has the change
+            lshIndex.put(userId, progressBitmaps.get(userId, ProgressStatus.SOLVED));
+        }
+    }
+    
+    /**
+     * Up to {@code k} users whose solved problems best overlap the given set, most similar first
+     */
+    public List<MinHashLshIndex.Neighbor> findSimilarUsers(ProblemIdBitmap solved, int k) {
+        if (solved.isEmpty()) {
+            return List.of();
+        }
+        return lshIndex.query(lshIndex.signature(solved), k, maxCandidates);
+    }
+    
+    public ProblemIdBitmap getSolvedProblemIds(long userId) {
+        return progressBitmaps.get(userId, ProgressStatus.SOLVED);
+    }
+}
@@ -0,0 +1,94 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.User;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.repository.UserRepository;
+import com.algocoach.repository.UserSkillAggregateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates missing {@link com.algocoach.domain.UserSkillAggregate} rows at startup and
+ * recomputes the aggregates that depend on a problem whose difficulty or topic changed.
+ * Those rebuilds run on a background thread after the catalog change committed, so the
+ * admin request does not wait for them. Every user is rebuilt in its own transaction.
+ */
+@Component
+public class SkillAggregateBackfillJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SkillAggregateBackfillJob.class);
+    
+    private static final int PAGE_SIZE = 200;
+    
+    @Autowired
+    private UserSkillAggregateService aggregateService;
+    
+    @Autowired
+    private UserSkillAggregateRepository aggregateRepository;
+    
+    @Autowired
+    private UserProgressRepository userProgressRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "skill-aggregate-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int backfilled = 0;
+        List<User> users;
+        // Always the first page: rebuilt users no longer match the query
+        while (!(users = aggregateRepository.findUsersWithoutAggregate(PageRequest.of(0, PAGE_SIZE))).isEmpty()) {
+            for (User user : users) {
+                aggregateService.rebuild(user);
+            }
+            backfilled += users.size();
+        }
+        if (backfilled > 0) {
+            logger.info("Backfilled skill aggregates for {} users", backfilled);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Title or acceptance rate edits leave every aggregate as it is
+        if (event.isFullReload() || !event.isClassificationChange()) {
+            return;
+        }
+        Long problemId = event.getProblemId();
+        rebuildExecutor.execute(() -> rebuildSolvers(problemId));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+    
+    private void rebuildSolvers(Long problemId) {
+        try {
+            List<Long> userIds = userProgressRepository.findSolvedUserIdsByProblemId(problemId);
+            for (User user : userRepository.findAllById(userIds)) {
+                aggregateService.rebuild(user);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Rebuilding skill aggregates after a change of problem {} failed", problemId, e);
+        }
+    }
+}
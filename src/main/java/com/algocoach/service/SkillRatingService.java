@@ -0,0 +1,382 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProblemRating;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.domain.UserTopicRating;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.repository.ProblemRatingRepository;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.repository.UserRepository;
+import com.algocoach.repository.UserTopicRatingRepository;
+import com.algocoach.util.RatingIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Elo style ratings of users per topic and of problems.
+ *
+ * Every first solve or give-up is a match between the user's topic rating and the
+ * problem's rating: a solve scores 0.5 to 1 depending on its confidence (attempts,
+ * hints and time), a give-up scores 0. Both ratings move by K times the surprise,
+ * with K shrinking as a rating collects matches. One update reads and writes two
+ * rows, whatever the user's history or the catalog size.
+ *
+ * Both rows are read with a row lock (created first if missing), so concurrent
+ * matches on the same problem or user topic never lose an update.
+ *
+ * Problem ratings are also kept in memory, one {@link RatingIndex} per topic, so
+ * problems near a user's rating are found by binary search. The index is updated
+ * after commit; readers share a read lock.
+ */
+@Service
+public class SkillRatingService {
+    
+    public static final double INITIAL_USER_RATING = 1200;
+    
+    private static final double SCALE = 400;
+    private static final double USER_K_MAX = 64;
+    private static final double USER_K_MIN = 16;
+    private static final double PROBLEM_K_MAX = 32;
+    private static final double PROBLEM_K_MIN = 8;
+    // Matches after which K is halfway between its max and min
+    private static final double K_HALF_LIFE_MATCHES = 10;
+    
+    @Autowired
+    private UserTopicRatingRepository userRatingRepository;
+    
+    @Autowired
+    private ProblemRatingRepository problemRatingRepository;
+    
+    @Autowired
+    private ProblemCatalogIndex catalogIndex;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ProblemRepository problemRepository;
+    
+    private final double ratingWindow;
+    
+    // Guarded by "lock"
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RatingIndex> indexesByTopic = new HashMap<>();
+    private final Map<Long, Double> problemRatings = new HashMap<>();
+    // Matches behind each indexed rating, so late after-commit updates never overwrite newer ones
+    private final Map<Long, Integer> problemMatches = new HashMap<>();
+    private final Map<Long, String> problemTopics = new HashMap<>();
+    
+    public SkillRatingService(@Value("${recommendation.rating.window:400}") double ratingWindow) {
+        this.ratingWindow = ratingWindow;
+    }
+    
+    /**
+     * Update both ratings when a problem is solved or given up for the first time.
+     * Runs inside the progress update's transaction, after the skill aggregate row
+     * lock was taken, so updates of the same user are serialized.
+     */
+    @EventListener
+    @Transactional
+    public void onProgressChanged(ProgressChangedEvent event) {
+        if (!event.isStatusChange()) {
+            return;
+        }
+        double outcome;
+        UserProgress progress = event.getProgress();
+        if (event.getStatus() == ProgressStatus.SOLVED) {
+            double confidence = progress.getConfidenceScore() != null ? progress.getConfidenceScore() : 0.0;
+            outcome = 0.5 + 0.5 * confidence;
+        } else if (event.getStatus() == ProgressStatus.GAVE_UP) {
+            outcome = 0.0;
+        } else {
+            return;
+        }
+        Optional<ProblemSummary> problem = catalogIndex.get(event.getProblemId());
+        if (problem.isEmpty()) {
+            return;
+        }
+        recordMatch(event.getUser(), problem.get(), outcome);
+    }
+    
+    /**
+     * Keep problem ratings and the in-memory index in sync with the catalog
+     */
+    @EventListener
+    @Transactional
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullReload()) {
+            reload();
+            return;
+        }
+        Long problemId = event.getProblemId();
+        Optional<ProblemSummary> problem = catalogIndex.get(problemId);
+        if (problem.isEmpty()) {
+            problemRatingRepository.deleteById(problemId);
+            AfterCommit.run(() -> {
+                lock.writeLock().lock();
+                try {
+                    unindex(problemId);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+            return;
+        }
+        ProblemRating rating = lockProblemRating(problem.get());
+        String topic = topicKey(problem.get().topic());
+        double value = rating.getRating();
+        int matches = rating.getMatches();
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(problemId);
+                index(problemId, topic, value, matches);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    /**
+     * The user's rating per topic (lower case topic keys); unrated topics are absent
+     */
+    public Map<String, Double> getTopicRatings(User user) {
+        Map<String, Double> ratings = new HashMap<>();
+        for (UserTopicRating rating : userRatingRepository.findByUser(user)) {
+            ratings.put(rating.getTopic(), rating.getRating());
+        }
+        return ratings;
+    }
+    
+    /**
+     * Topic ratings of many users, keyed by user id
+     */
+    public Map<Long, Map<String, Double>> getTopicRatings(Collection<Long> userIds) {
+        Map<Long, Map<String, Double>> ratings = new HashMap<>();
+        for (Object[] row : userRatingRepository.findRatingsByUserIds(userIds)) {
+            ratings.computeIfAbsent((Long) row[0], id -> new HashMap<>()).put((String) row[1], (Double) row[2]);
+        }
+        return ratings;
+    }
+    
+    /**
+     * Current ratings of the given problems, NaN for unknown ids
+     */
+    public double[] getProblemRatings(long[] problemIds, int count) {
+        double[] ratings = new double[count];
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                ratings[i] = problemRatings.getOrDefault(problemIds[i], Double.NaN);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ratings;
+    }
+    
+    /**
+     * Up to {@code limit} problem ids of the topic rated within the rating window of
+     * {@code rating}, closest first
+     *
+     * @param skip ids to leave out (e.g. solved problems)
+     */
+    public List<Long> findNearRating(String topic, double rating, int limit, LongPredicate skip) {
+        long[] ids;
+        int count;
+        lock.readLock().lock();
+        try {
+            RatingIndex index = indexesByTopic.get(topicKey(topic));
+            if (index == null || limit <= 0) {
+                return new ArrayList<>();
+            }
+            ids = new long[Math.min(limit, index.size())];
+            count = index.nearest(rating, ratingWindow, skip, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+    
+    /**
+     * Rating distance at which a problem no longer counts as a fit for the user
+     */
+    public double getRatingWindow() {
+        return ratingWindow;
+    }
+    
+    /**
+     * Probability that a player rated {@code rating} beats one rated {@code opponentRating}
+     */
+    static double expectedScore(double rating, double opponentRating) {
+        return 1.0 / (1.0 + Math.pow(10, (opponentRating - rating) / SCALE));
+    }
+    
+    /**
+     * Starting rating of a problem: difficulty band moved by how far its acceptance
+     * rate is from 50%
+     */
+    static double seedRating(ProblemSummary problem) {
+        double base = switch (problem.difficulty()) {
+            case EASY -> 1200;
+            case MEDIUM -> 1500;
+            case HARD -> 1800;
+        };
+        double acceptance = Math.max(0, Math.min(100, problem.acceptanceRate()));
+        return base + (50 - acceptance) * 4;
+    }
+    
+    static double kFactor(double max, double min, int matches) {
+        return min + (max - min) / (1 + matches / K_HALF_LIFE_MATCHES);
+    }
+    
+    /**
+     * New user and problem ratings after a match
+     *
+     * @param outcome the user's score: 0 (gave up) to 1 (confident solve)
+     * @return {user rating, problem rating}
+     */
+    static double[] rateMatch(double userRating, int userMatches, double problemRating, int problemMatches,
+                              double outcome) {
+        double surprise = outcome - expectedScore(userRating, problemRating);
+        // The problem "wins" when the user does not
+        return new double[]{
+                userRating + kFactor(USER_K_MAX, USER_K_MIN, userMatches) * surprise,
+                problemRating - kFactor(PROBLEM_K_MAX, PROBLEM_K_MIN, problemMatches) * surprise
+        };
+    }
+    
+    private void recordMatch(User user, ProblemSummary problem, double outcome) {
+        String topic = topicKey(problem.topic());
+        UserTopicRating userRating = lockUserRating(user, topic);
+        ProblemRating problemRating = lockProblemRating(problem);
+        
+        double[] rated = rateMatch(userRating.getRating(), userRating.getMatches(),
+                problemRating.getRating(), problemRating.getMatches(), outcome);
+        userRating.setRating(rated[0]);
+        userRating.setMatches(userRating.getMatches() + 1);
+        userRating.setUpdatedAt(LocalDateTime.now());
+        problemRating.setRating(rated[1]);
+        problemRating.setMatches(problemRating.getMatches() + 1);
+        
+        userRatingRepository.save(userRating);
+        problemRatingRepository.save(problemRating);
+        
+        long problemId = problem.id();
+        int matches = problemRating.getMatches();
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Double indexed = problemRatings.get(problemId);
+                RatingIndex index = indexesByTopic.get(topic);
+                if (indexed == null || index == null || problemMatches.get(problemId) >= matches) {
+                    return;
+                }
+                if (index.update(problemId, indexed, rated[1])) {
+                    problemRatings.put(problemId, rated[1]);
+                    problemMatches.put(problemId, matches);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    /**
+     * The user's rating row of the topic, created if missing, with a row lock
+     */
+    private UserTopicRating lockUserRating(User user, String topic) {
+        Optional<UserTopicRating> rating = userRatingRepository.findByUserAndTopicForUpdate(user, topic);
+        if (rating.isPresent()) {
+            return rating.get();
+        }
+        // First match of the user in the topic: concurrent first matches serialize on the user row
+        userRepository.findByIdForUpdate(user.getId());
+        return userRatingRepository.findByUserAndTopicForUpdate(user, topic)
+                .orElseGet(() -> userRatingRepository.save(new UserTopicRating(user, topic, INITIAL_USER_RATING)));
+    }
+    
+    /**
+     * The problem's rating row, seeded if missing, with a row lock
+     */
+    private ProblemRating lockProblemRating(ProblemSummary problem) {
+        Optional<ProblemRating> rating = problemRatingRepository.findByIdForUpdate(problem.id());
+        if (rating.isPresent()) {
+            return rating.get();
+        }
+        // Unrated problem: concurrent first matches serialize on the problem row
+        problemRepository.findByIdForUpdate(problem.id());
+        return problemRatingRepository.findByIdForUpdate(problem.id())
+                .orElseGet(() -> problemRatingRepository.save(new ProblemRating(problem.id(), seedRating(problem))));
+    }
+    
+    /**
+     * Seed missing problem ratings and rebuild every topic index from the catalog
+     */
+    private void reload() {
+        Map<Long, ProblemRating> stored = new HashMap<>();
+        for (ProblemRating rating : problemRatingRepository.findAll()) {
+            stored.put(rating.getProblemId(), rating);
+        }
+        List<ProblemRating> seeded = new ArrayList<>();
+        for (ProblemSummary problem : catalogIndex.all()) {
+            if (!stored.containsKey(problem.id())) {
+                ProblemRating rating = new ProblemRating(problem.id(), seedRating(problem));
+                seeded.add(rating);
+                stored.put(problem.id(), rating);
+            }
+        }
+        problemRatingRepository.saveAll(seeded);
+        
+        lock.writeLock().lock();
+        try {
+            indexesByTopic.clear();
+            problemRatings.clear();
+            problemMatches.clear();
+            problemTopics.clear();
+            for (ProblemSummary problem : catalogIndex.all()) {
+                ProblemRating rating = stored.get(problem.id());
+                index(problem.id(), topicKey(problem.topic()), rating.getRating(), rating.getMatches());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void index(long problemId, String topic, double rating, int matches) {
+        indexesByTopic.computeIfAbsent(topic, t -> new RatingIndex()).add(problemId, rating);
+        problemRatings.put(problemId, rating);
+        problemMatches.put(problemId, matches);
+        problemTopics.put(problemId, topic);
+    }
+    
+    private void unindex(long problemId) {
+        String topic = problemTopics.remove(problemId);
+        problemMatches.remove(problemId);
+        Double rating = problemRatings.remove(problemId);
+        if (topic != null && rating != null) {
+            indexesByTopic.get(topic).remove(problemId, rating);
+        }
+    }
+    
+    private static String topicKey(String topic) {
+        return topic.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,136 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserActivity;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.repository.UserActivityRepository;
+import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.repository.UserRepository;
+import com.algocoach.util.DailyActivity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Maintains the persisted daily activity rollup ({@link UserActivity}) of every user.
+ *
+ * A problem counts as activity on the day it is started and on the day it is solved,
+ * matching {@code UserProgress.attemptedAt} and {@code solvedAt}. The rollup is built
+ * from those timestamps the first time a user is seen and then updated per progress
+ * event in the progress transaction, so heatmaps and streaks read a single row.
+ */
+@Service
+public class UserActivityService {
+
+    @Autowired
+    private UserActivityRepository activityRepository;
+
+    @Autowired
+    private UserProgressRepository userProgressRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Record the activity of a progress change. Joins the progress update's transaction.
+     */
+    @EventListener
+    @Transactional
+    public void onProgressChanged(ProgressChangedEvent event) {
+        UserProgress progress = event.getProgress();
+        ProgressStatus previous = event.getPreviousStatus();
+        boolean started = previous == null
+                || (previous == ProgressStatus.NOT_STARTED && event.getStatus() == ProgressStatus.IN_PROGRESS);
+        boolean solved = event.isStatusChange() && event.getStatus() == ProgressStatus.SOLVED;
+        if (!started && !solved) {
+            return; // Attempts, hints, bookmarks and give-ups of started problems
+        }
+
+        User user = event.getUser();
+        Optional<UserActivity> existing = lockActivity(user);
+        if (existing.isEmpty()) {
+            // First tracked change of this user: user_progress already includes it
+            activityRepository.save(new UserActivity(user, build(user)));
+            return;
+        }
+        DailyActivity activity = existing.get().getActivity();
+        if (started) {
+            activity.record(dayOf(progress.getAttemptedAt()), 1);
+        }
+        if (solved) {
+            activity.record(dayOf(progress.getSolvedAt()), 1);
+        }
+        existing.get().setActivity(activity);
+    }
+
+    /**
+     * The user's daily activity. Users without a rollup yet are built from
+     * user_progress without persisting.
+     */
+    @Transactional(readOnly = true)
+    public DailyActivity getActivity(User user) {
+        return activityRepository.findByUser(user)
+                .map(UserActivity::getActivity)
+                .orElseGet(() -> build(user));
+    }
+
+    /**
+     * Recompute a user's rollup from the start and solve timestamps (repair)
+     */
+    @Transactional
+    public DailyActivity rebuild(User user) {
+        Optional<UserActivity> existing = lockActivity(user);
+        DailyActivity activity = build(user);
+        if (existing.isPresent()) {
+            existing.get().setActivity(activity);
+        } else {
+            activityRepository.save(new UserActivity(user, activity));
+        }
+        return activity;
+    }
+
+    /**
+     * The user's rollup row, locked. Without one, concurrent first writers serialize on
+     * the user row and re-check, so only the first inserts and the later ones update it.
+     */
+    private Optional<UserActivity> lockActivity(User user) {
+        Optional<UserActivity> existing = activityRepository.findByUserForUpdate(user);
+        if (existing.isEmpty()) {
+            userRepository.findByIdForUpdate(user.getId());
+            existing = activityRepository.findByUserForUpdate(user);
+        }
+        return existing;
+    }
+
+    private DailyActivity build(User user) {
+        List<LocalDate> days = new ArrayList<>();
+        for (Object[] row : userProgressRepository.findActivityTimesByUser(user)) {
+            for (Object time : row) {
+                if (time != null) {
+                    days.add(((LocalDateTime) time).toLocalDate());
+                }
+            }
+        }
+        // In day order every record appends, so streaks never need a rescan
+        Collections.sort(days);
+        DailyActivity activity = new DailyActivity();
+        for (LocalDate day : days) {
+            activity.record(day, 1);
+        }
+        return activity;
+    }
+
+    private static LocalDate dayOf(LocalDateTime time) {
+        return time != null ? time.toLocalDate() : LocalDate.now();
+    }
+}
@@ -4,9 +4,13 @@ import com.algocoach.domain.Problem;
 import com.algocoach.domain.ProgressStatus;
 import com.algocoach.domain.User;
 import com.algocoach.domain.UserProgress;
+import com.algocoach.event.ProgressChangedEvent;
 import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.util.ProblemIdBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,11 +22,22 @@ public class UserProgressService {
     @Autowired
     private UserProgressRepository userProgressRepository;
     
+    @Autowired
+    private ProgressBitmapStore progressBitmaps;
+    
+    @Autowired
+    private UserSkillAggregateService skillAggregates;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Start working on a problem
      */
+    @Transactional
     public UserProgress startProblem(User user, Problem problem) {
         Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndProblem(user, problem);
+        PreviousState previous = PreviousState.of(existingProgress);
         
         if (existingProgress.isPresent()) {
             UserProgress progress = existingProgress.get();
@@ -30,20 +45,22 @@ public class UserProgressService {
                 progress.setStatus(ProgressStatus.IN_PROGRESS);
                 progress.setAttemptedAt(LocalDateTime.now());
                 progress.setAttemptsCount(progress.getAttemptsCount() + 1);
-                return userProgressRepository.save(progress);
+                return saveAndTrack(progress, previous);
             }
             return progress;
         } else {
             UserProgress newProgress = new UserProgress(user, problem, ProgressStatus.IN_PROGRESS);
-            return userProgressRepository.save(newProgress);
+            return saveAndTrack(newProgress, previous);
         }
     }
     
     /**
      * Mark a problem as solved
      */
+    @Transactional
     public UserProgress solveProblem(User user, Problem problem, Integer timeSpentMinutes) {
         Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndProblem(user, problem);
+        PreviousState previous = PreviousState.of(existingProgress);
         
         UserProgress progress;
         if (existingProgress.isPresent()) {
@@ -65,14 +82,16 @@ public class UserProgressService {
         double confidenceScore = calculateConfidenceScore(progress);
         progress.setConfidenceScore(confidenceScore);
         
-        return userProgressRepository.save(progress);
+        return saveAndTrack(progress, previous);
     }
     
     /**
      * Mark a problem as given up
      */
+    @Transactional
     public UserProgress giveUpProblem(User user, Problem problem) {
         Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndProblem(user, problem);
+        PreviousState previous = PreviousState.of(existingProgress);
         
         UserProgress progress;
         if (existingProgress.isPresent()) {
@@ -82,7 +101,7 @@ public class UserProgressService {
             progress = new UserProgress(user, problem, ProgressStatus.GAVE_UP);
         }
         
-        return userProgressRepository.save(progress);
+        return saveAndTrack(progress, previous);
     }
     
     /**
@@ -106,6 +125,13 @@ public class UserProgressService {
         return userProgressRepository.findSolvedProblemsByUser(user);
     }
     
+    /**
+     * Get ids of the problems the user has in the given status
+     */
+    public ProblemIdBitmap getProblemIds(User user, ProgressStatus status) {
+        return progressBitmaps.get(user, status);
+    }
+    
     /**
      * Get user's in-progress problems
      */
@@ -116,8 +142,10 @@ public class UserProgressService {
     /**
      * Update attempt count
      */
+    @Transactional
     public UserProgress recordAttempt(User user, Problem problem) {
         Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndProblem(user, problem);
+        PreviousState previous = PreviousState.of(existingProgress);
         
         UserProgress progress;
         if (existingProgress.isPresent()) {
@@ -127,14 +155,16 @@ public class UserProgressService {
             progress = new UserProgress(user, problem, ProgressStatus.IN_PROGRESS);
         }
         
-        return userProgressRepository.save(progress);
+        return saveAndTrack(progress, previous);
     }
     
     /**
      * Use a hint
      */
+    @Transactional
     public UserProgress useHint(User user, Problem problem) {
         Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndProblem(user, problem);
+        PreviousState previous = PreviousState.of(existingProgress);
         
         UserProgress progress;
         if (existingProgress.isPresent()) {
@@ -145,14 +175,16 @@ public class UserProgressService {
             progress.setHintsUsed(1);
         }
         
-        return userProgressRepository.save(progress);
+        return saveAndTrack(progress, previous);
     }
     
     /**
      * Mark a problem as solved with explicit confidence score
      */
+    @Transactional
     public UserProgress solveProblem(User user, Problem problem, Integer timeSpentMinutes, Double confidenceScore) {
         Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndProblem(user, problem);
+        PreviousState previous = PreviousState.of(existingProgress);
         
         UserProgress progress;
         if (existingProgress.isPresent()) {
@@ -178,7 +210,32 @@ public class UserProgressService {
             progress.setConfidenceScore(calculatedScore);
         }
         
-        return userProgressRepository.save(progress);
+        return saveAndTrack(progress, previous);
+    }
+    
+    /**
+     * Persist a progress change, update the skill aggregate in the same transaction
+     * and notify listeners (status bitmaps and problem counters among them, after commit)
+     */
+    private UserProgress saveAndTrack(UserProgress progress, PreviousState previous) {
+        UserProgress saved = userProgressRepository.save(progress);
+        skillAggregates.record(saved, previous.status(), previous.confidence());
+        eventPublisher.publishEvent(new ProgressChangedEvent(saved.getUser(), saved.getProblem().getId(),
+                previous.status(), previous.attempts(), saved));
+        return saved;
+    }
+    
+    /**
+     * Status, confidence and attempts of a progress row before a change (null, null and 0 for a new row)
+     */
+    private record PreviousState(ProgressStatus status, Double confidence, int attempts) {
+        
+        static PreviousState of(Optional<UserProgress> existing) {
+            return existing
+                    .map(progress -> new PreviousState(progress.getStatus(), progress.getConfidenceScore(),
+                            progress.getAttemptsCount()))
+                    .orElse(new PreviousState(null, null, 0));
+        }
     }
     
     /**
@@ -214,8 +271,10 @@ public class UserProgressService {
     /**
      * Toggle bookmark status for a problem
      */
+    @Transactional
     public UserProgress toggleBookmark(User user, Problem problem) {
         Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndProblem(user, problem);
+        PreviousState previous = PreviousState.of(existingProgress);
         
         UserProgress progress;
         if (existingProgress.isPresent()) {
@@ -226,7 +285,7 @@ public class UserProgressService {
             progress.setIsBookmarked(true);
         }
         
-        return userProgressRepository.save(progress);
+        return saveAndTrack(progress, previous);
     }
     
     /**
@@ -0,0 +1,154 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.TopicSkill;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.domain.UserSkillAggregate;
+import com.algocoach.dto.ProgressTotalsRow;
+import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.repository.UserRepository;
+import com.algocoach.repository.UserSkillAggregateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains the persisted {@link UserSkillAggregate} of every user.
+ *
+ * Each progress change is applied as a delta in the same transaction as the
+ * user_progress write, under a row lock on the user's aggregate. Reads load the
+ * aggregate with its topic totals in one query, independent of how many problems
+ * the user has solved. A user's first aggregate is created under a lock on the user
+ * row, so concurrent first changes don't race the unique user_id.
+ */
+@Service
+public class UserSkillAggregateService {
+    
+    @Autowired
+    private UserSkillAggregateRepository aggregateRepository;
+    
+    @Autowired
+    private UserProgressRepository userProgressRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    /**
+     * Apply a saved progress change to the user's aggregate.
+     * Joins the caller's transaction so both writes commit or roll back together.
+     */
+    @Transactional
+    public void record(UserProgress progress, ProgressStatus previousStatus, Double previousConfidence) {
+        ProgressStatus status = progress.getStatus();
+        boolean solvedChanged = previousStatus == ProgressStatus.SOLVED || status == ProgressStatus.SOLVED;
+        boolean inProgressChanged = (previousStatus == ProgressStatus.IN_PROGRESS) != (status == ProgressStatus.IN_PROGRESS);
+        if (!solvedChanged && !inProgressChanged) {
+            return; // Attempts, hints and bookmarks do not affect the totals
+        }
+        
+        User user = progress.getUser();
+        Optional<UserSkillAggregate> existing = aggregateRepository.findByUserForUpdate(user);
+        if (existing.isEmpty()) {
+            // First tracked change of this user: user_progress already includes it
+            rebuild(user);
+            return;
+        }
+        
+        UserSkillAggregate aggregate = existing.get();
+        Problem problem = progress.getProblem();
+        if (previousStatus == ProgressStatus.SOLVED) {
+            // Re-solving replaces the old confidence score
+            aggregate.removeSolved(problem.getDifficulty(), problem.getTopic(), orZero(previousConfidence));
+        }
+        if (status == ProgressStatus.SOLVED) {
+            aggregate.addSolved(problem.getDifficulty(), problem.getTopic(), orZero(progress.getConfidenceScore()),
+                    progress.getSolvedAt());
+        }
+        if (previousStatus == ProgressStatus.IN_PROGRESS) {
+            aggregate.adjustInProgress(-1);
+        }
+        if (status == ProgressStatus.IN_PROGRESS) {
+            aggregate.adjustInProgress(1);
+        }
+    }
+    
+    /**
+     * Recompute a user's aggregate from user_progress (backfill and repair)
+     */
+    @Transactional
+    public UserSkillAggregate rebuild(User user) {
+        UserSkillAggregate aggregate = aggregateRepository.findByUserForUpdate(user).orElse(null);
+        if (aggregate == null) {
+            // Concurrent first rebuilds serialize on the user row; the later one finds the aggregate
+            userRepository.findByIdForUpdate(user.getId());
+            aggregate = aggregateRepository.findByUserForUpdate(user).orElseGet(() -> new UserSkillAggregate(user));
+        }
+        aggregate.clear();
+        long inProgress = 0;
+        for (ProgressTotalsRow row : userProgressRepository.findProgressTotalsByUser(user)) {
+            if (row.status() == ProgressStatus.SOLVED) {
+                aggregate.addSolvedTotals(row.difficulty(), row.topic(), row.count(), orZero(row.confidenceSum()),
+                        row.lastSolvedAt());
+            } else {
+                inProgress += row.count();
+            }
+        }
+        aggregate.setInProgressCount(inProgress);
+        return aggregateRepository.save(aggregate);
+    }
+    
+    /**
+     * The user's skill profile, read from the persisted aggregate.
+     * Users not backfilled yet are computed from one grouped user_progress query without persisting.
+     */
+    @Transactional(readOnly = true)
+    public UserSkillProfile getProfile(User user) {
+        Optional<UserSkillAggregate> aggregate = aggregateRepository.findByUserWithTopics(user);
+        if (aggregate.isPresent()) {
+            return toProfile(aggregate.get());
+        }
+        return toProfile(userProgressRepository.findProgressTotalsByUser(user));
+    }
+    
+    /**
+     * Profile from grouped progress totals (one statement, one row per status, difficulty and topic)
+     */
+    private UserSkillProfile toProfile(List<ProgressTotalsRow> totals) {
+        UserSkillProfile profile = new UserSkillProfile();
+        long inProgress = 0;
+        for (ProgressTotalsRow row : totals) {
+            if (row.status() == ProgressStatus.SOLVED) {
+                profile.addDifficultyTotals(row.difficulty(), row.count(), orZero(row.confidenceSum()));
+                profile.addTopicTotals(row.topic(), row.count(), orZero(row.confidenceSum()), row.lastSolvedAt());
+            } else {
+                inProgress += row.count();
+            }
+        }
+        profile.setInProgressCount(inProgress);
+        return profile;
+    }
+    
+    private UserSkillProfile toProfile(UserSkillAggregate aggregate) {
+        UserSkillProfile profile = new UserSkillProfile();
+        for (Difficulty difficulty : Difficulty.values()) {
+            profile.addDifficultyTotals(difficulty, aggregate.getSolvedCount(difficulty), aggregate.getConfidenceSum(difficulty));
+        }
+        for (Map.Entry<String, TopicSkill> entry : aggregate.getTopics().entrySet()) {
+            TopicSkill skill = entry.getValue();
+            profile.addTopicTotals(entry.getKey(), skill.getSolvedCount(), skill.getConfidenceSum(), skill.getLastSolvedAt());
+        }
+        profile.setInProgressCount(aggregate.getInProgressCount());
+        return profile;
+    }
+    
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
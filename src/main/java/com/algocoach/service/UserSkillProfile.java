@@ -0,0 +1,102 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Solved-problem aggregates of one user: count and confidence sum per difficulty and
+ * per topic, plus the latest solve per topic. Input to skill analysis, scoring and stats.
+ * Built either row by row from user_progress or from a persisted
+ * {@link com.algocoach.domain.UserSkillAggregate}.
+ */
+public class UserSkillProfile {
+
+    private final long[] solvedByDifficulty = new long[Difficulty.values().length];
+    private final double[] confidenceSumByDifficulty = new double[Difficulty.values().length];
+    private final Map<String, Long> solvedByTopic = new HashMap<>();
+    private final Map<String, Double> confidenceSumByTopic = new HashMap<>();
+    private final Map<String, LocalDateTime> lastSolvedByTopic = new HashMap<>();
+    private long inProgressCount;
+
+    public void addSolved(Difficulty difficulty, String topic, Double confidenceScore, LocalDateTime solvedAt) {
+        double confidence = confidenceScore != null ? confidenceScore : 0.0;
+        addDifficultyTotals(difficulty, 1, confidence);
+        addTopicTotals(topic, 1, confidence, solvedAt);
+    }
+
+    public void addDifficultyTotals(Difficulty difficulty, long solvedCount, double confidenceSum) {
+        solvedByDifficulty[difficulty.ordinal()] += solvedCount;
+        confidenceSumByDifficulty[difficulty.ordinal()] += confidenceSum;
+    }
+
+    public void addTopicTotals(String topic, long solvedCount, double confidenceSum, LocalDateTime lastSolvedAt) {
+        solvedByTopic.merge(topic, solvedCount, Long::sum);
+        confidenceSumByTopic.merge(topic, confidenceSum, Double::sum);
+        if (lastSolvedAt != null) {
+            lastSolvedByTopic.merge(topic, lastSolvedAt, (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    public long getInProgressCount() {
+        return inProgressCount;
+    }
+
+    public void setInProgressCount(long inProgressCount) {
+        this.inProgressCount = inProgressCount;
+    }
+
+    public long getTotalSolved() {
+        long total = 0;
+        for (long count : solvedByDifficulty) {
+            total += count;
+        }
+        return total;
+    }
+
+    public double getTotalConfidenceSum() {
+        double total = 0.0;
+        for (double sum : confidenceSumByDifficulty) {
+            total += sum;
+        }
+        return total;
+    }
+
+    public long getSolvedCount(Difficulty difficulty) {
+        return solvedByDifficulty[difficulty.ordinal()];
+    }
+
+    /**
+     * Average confidence of solved problems of the difficulty, NaN when none were solved
+     */
+    public double getAverageConfidence(Difficulty difficulty) {
+        long count = solvedByDifficulty[difficulty.ordinal()];
+        return count > 0 ? confidenceSumByDifficulty[difficulty.ordinal()] / count : Double.NaN;
+    }
+
+    /**
+     * Average confidence per difficulty ordinal, NaN when none were solved
+     */
+    public double[] getAverageConfidenceByDifficulty() {
+        double[] averages = new double[solvedByDifficulty.length];
+        for (Difficulty difficulty : Difficulty.values()) {
+            averages[difficulty.ordinal()] = getAverageConfidence(difficulty);
+        }
+        return averages;
+    }
+
+    public Map<String, Long> getSolvedByTopic() {
+        return Collections.unmodifiableMap(solvedByTopic);
+    }
+
+    public Map<String, Double> getConfidenceSumByTopic() {
+        return Collections.unmodifiableMap(confidenceSumByTopic);
+    }
+
+    public Map<String, LocalDateTime> getLastSolvedByTopic() {
+        return Collections.unmodifiableMap(lastSolvedByTopic);
+    }
+}
@@ -0,0 +1,36 @@
+package com.algocoach.service.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Favors problems with a higher acceptance rate (percent, 0-100)
+ */
+@Component
+public class AcceptanceRateScorer implements CandidateScorer {
+
+    private final double weight;
+
+    public AcceptanceRateScorer(@Value("${recommendation.scoring.acceptance-rate-weight:0.2}") double weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "acceptanceRate";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public void score(ScoringContext context, CandidateBatch candidates, double[] scores) {
+        double scale = weight / 100.0;
+        double[] acceptanceRates = candidates.acceptanceRates();
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            scores[i] += Math.min(100.0, Math.max(0.0, acceptanceRates[i])) * scale;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.algocoach.service.scoring;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.dto.ProblemSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Candidate problems laid out as parallel primitive arrays so scorers can run tight loops.
+ * Topics are interned to small ints; scorers compute one value per distinct topic and
+ * then look it up by index for every candidate.
+ */
+public final class CandidateBatch {
+
+    private long[] ids;
+    private int[] difficulties;
+    private int[] topicIndexes;
+    private double[] acceptanceRates;
+    private int size;
+
+    private final List<String> topics = new ArrayList<>();
+    private final Map<String, Integer> topicIndexByKey = new HashMap<>();
+
+    public CandidateBatch(int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        ids = new long[capacity];
+        difficulties = new int[capacity];
+        topicIndexes = new int[capacity];
+        acceptanceRates = new double[capacity];
+    }
+
+    public void add(ProblemSummary summary) {
+        add(summary.id(), summary.difficulty(), summary.topic(), summary.acceptanceRate());
+    }
+
+    public void add(long id, Difficulty difficulty, String topic, double acceptanceRate) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            difficulties = Arrays.copyOf(difficulties, capacity);
+            topicIndexes = Arrays.copyOf(topicIndexes, capacity);
+            acceptanceRates = Arrays.copyOf(acceptanceRates, capacity);
+        }
+        ids[size] = id;
+        difficulties[size] = difficulty.ordinal();
+        topicIndexes[size] = internTopic(topic);
+        acceptanceRates[size] = acceptanceRate;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] ids() {
+        return ids;
+    }
+
+    /**
+     * Difficulty ordinals, see {@link Difficulty}
+     */
+    public int[] difficulties() {
+        return difficulties;
+    }
+
+    public int[] topicIndexes() {
+        return topicIndexes;
+    }
+
+    public double[] acceptanceRates() {
+        return acceptanceRates;
+    }
+
+    public int topicCount() {
+        return topics.size();
+    }
+
+    /**
+     * Normalized (lower case) topic key for a topic index
+     */
+    public String topic(int topicIndex) {
+        return topics.get(topicIndex);
+    }
+
+    private int internTopic(String topic) {
+        String key = ScoringContext.topicKey(topic);
+        Integer index = topicIndexByKey.get(key);
+        if (index == null) {
+            index = topics.size();
+            topics.add(key);
+            topicIndexByKey.put(key, index);
+        }
+        return index;
+    }
+}
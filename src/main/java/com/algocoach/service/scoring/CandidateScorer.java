@@ -0,0 +1,18 @@
+package com.algocoach.service.scoring;
+
+/**
+ * One ranking signal for recommendation candidates.
+ *
+ * Implementations are Spring components and are picked up automatically by
+ * {@link com.algocoach.service.RecommendationScoringEngine}. Each call adds the
+ * scorer's weighted contribution, a value in [0, 1] times {@link #getWeight()},
+ * to {@code scores[i]} for every candidate {@code i}.
+ */
+public interface CandidateScorer {
+
+    String getName();
+
+    double getWeight();
+
+    void score(ScoringContext context, CandidateBatch candidates, double[] scores);
+}
@@ -0,0 +1,46 @@
+package com.algocoach.service.scoring;
+
+import com.algocoach.domain.Difficulty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Favors the target difficulty, and within reach of it, difficulties where the user's
+ * average confidence is still low. Each step away from the target halves the fit.
+ */
+@Component
+public class ConfidenceGapScorer implements CandidateScorer {
+
+    private final double weight;
+
+    public ConfidenceGapScorer(@Value("${recommendation.scoring.confidence-gap-weight:0.3}") double weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "confidenceGap";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public void score(ScoringContext context, CandidateBatch candidates, double[] scores) {
+        int levels = Difficulty.values().length;
+        int target = context.getTargetDifficulty().ordinal();
+        double[] byDifficulty = new double[levels];
+        for (int d = 0; d < levels; d++) {
+            double fit = Math.max(0.0, 1.0 - 0.5 * Math.abs(d - target));
+            double confidence = context.getAverageConfidence(d);
+            double gap = Double.isNaN(confidence) ? 1.0 : 1.0 - confidence;
+            byDifficulty[d] = weight * fit * (0.5 + 0.5 * gap);
+        }
+        int[] difficulties = candidates.difficulties();
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            scores[i] += byDifficulty[difficulties[i]];
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.algocoach.service.scoring;
+
+import com.algocoach.service.ProblemTextIndex;
+import com.algocoach.util.ProblemIdBitmap;
+import com.algocoach.util.SparseVectorIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Favors problems whose text resembles what the user already solved: cosine-style
+ * match against the sum of the solved problems' TF-IDF vectors, relative to the best
+ * candidate
+ */
+@Component
+public class ContentSimilarityScorer implements CandidateScorer {
+
+    private final ProblemTextIndex textIndex;
+    private final double weight;
+
+    public ContentSimilarityScorer(ProblemTextIndex textIndex,
+                                   @Value("${recommendation.scoring.content-similarity-weight:0.1}") double weight) {
+        this.textIndex = textIndex;
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "contentSimilarity";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public void score(ScoringContext context, CandidateBatch candidates, double[] scores) {
+        SparseVectorIndex vectors = textIndex.getVectors();
+        ProblemIdBitmap solved = context.getSolvedProblemIds();
+        if (vectors.size() == 0 || solved.isEmpty()) {
+            return;
+        }
+
+        float[] profile = new float[textIndex.getDimensions()];
+        solved.forEach(problemId -> {
+            int row = vectors.indexOf(problemId);
+            if (row >= 0) {
+                vectors.addTo(row, profile, 1f);
+            }
+        });
+
+        long[] ids = candidates.ids();
+        double[] similarity = new double[candidates.size()];
+        double max = 0.0;
+        for (int i = 0; i < similarity.length; i++) {
+            int row = vectors.indexOf(ids[i]);
+            if (row >= 0) {
+                similarity[i] = vectors.dot(row, profile);
+                max = Math.max(max, similarity[i]);
+            }
+        }
+        if (max <= 0.0) {
+            return;
+        }
+        for (int i = 0; i < similarity.length; i++) {
+            scores[i] += weight * Math.max(0.0, similarity[i]) / max;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.algocoach.service.scoring;
+
+import com.algocoach.service.ItemSimilarityIndex;
+import com.algocoach.util.ProblemIdBitmap;
+import com.algocoach.util.SparseSimilarityMatrix;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Favors problems co-solved with the ones the user solved: summed item-to-item
+ * similarity to the user's solved problems, relative to the best candidate
+ */
+@Component
+public class ItemSimilarityScorer implements CandidateScorer {
+
+    private final ItemSimilarityIndex similarityIndex;
+    private final double weight;
+
+    public ItemSimilarityScorer(ItemSimilarityIndex similarityIndex,
+                                @Value("${recommendation.scoring.item-similarity-weight:0.2}") double weight) {
+        this.similarityIndex = similarityIndex;
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "itemSimilarity";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public void score(ScoringContext context, CandidateBatch candidates, double[] scores) {
+        SparseSimilarityMatrix matrix = similarityIndex.getMatrix();
+        ProblemIdBitmap solved = context.getSolvedProblemIds();
+        if (matrix.size() == 0 || solved.isEmpty()) {
+            return;
+        }
+
+        // Affinity of every matrix row to the user's solved problems
+        float[] affinity = new float[matrix.size()];
+        solved.forEach(problemId -> {
+            int row = matrix.indexOf(problemId);
+            if (row >= 0) {
+                for (int position = matrix.rowStart(row); position < matrix.rowEnd(row); position++) {
+                    affinity[matrix.column(position)] += matrix.weight(position);
+                }
+            }
+        });
+
+        long[] ids = candidates.ids();
+        float[] candidateAffinity = new float[candidates.size()];
+        float max = 0f;
+        for (int i = 0; i < candidateAffinity.length; i++) {
+            int row = matrix.indexOf(ids[i]);
+            if (row >= 0) {
+                candidateAffinity[i] = affinity[row];
+                max = Math.max(max, affinity[row]);
+            }
+        }
+        if (max == 0f) {
+            return;
+        }
+        for (int i = 0; i < candidateAffinity.length; i++) {
+            scores[i] += weight * candidateAffinity[i] / max;
+        }
+    }
+}
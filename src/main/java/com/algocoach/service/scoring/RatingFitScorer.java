@@ -0,0 +1,52 @@
+package com.algocoach.service.scoring;
+
+import com.algocoach.service.SkillRatingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Favors problems rated close to the user's rating in their topic: 1 at equal
+ * ratings, falling linearly to 0 at the edge of the rating window
+ */
+@Component
+public class RatingFitScorer implements CandidateScorer {
+
+    private final SkillRatingService skillRatings;
+    private final double weight;
+
+    public RatingFitScorer(SkillRatingService skillRatings,
+                           @Value("${recommendation.scoring.rating-fit-weight:0.25}") double weight) {
+        this.skillRatings = skillRatings;
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "ratingFit";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public void score(ScoringContext context, CandidateBatch candidates, double[] scores) {
+        double[] problemRatings = skillRatings.getProblemRatings(candidates.ids(), candidates.size());
+
+        // One user rating per distinct topic
+        double[] userRatings = new double[candidates.topicCount()];
+        for (int t = 0; t < userRatings.length; t++) {
+            userRatings[t] = context.getTopicRating(candidates.topic(t), SkillRatingService.INITIAL_USER_RATING);
+        }
+
+        double window = skillRatings.getRatingWindow();
+        int[] topicIndexes = candidates.topicIndexes();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (!Double.isNaN(problemRatings[i])) {
+                double distance = Math.abs(problemRatings[i] - userRatings[topicIndexes[i]]);
+                scores[i] += weight * Math.max(0.0, 1.0 - distance / window);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.algocoach.service.scoring;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.util.ProblemIdBitmap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-user inputs shared by all scorers for one ranking call
+ */
+public final class ScoringContext {
+
+    private final Difficulty targetDifficulty;
+    private final double[] averageConfidenceByDifficulty;
+    private final Map<String, Long> solvedCountByTopic;
+    private final Map<String, LocalDateTime> lastSolvedByTopic;
+    private final LocalDateTime now;
+    private final ProblemIdBitmap solvedProblemIds;
+    private final Map<String, Double> topicRatings;
+
+    /**
+     * @param averageConfidenceByDifficulty average confidence per difficulty ordinal, NaN when none solved
+     * @param solvedCountByTopic solved problem count per topic (any case)
+     * @param lastSolvedByTopic most recent solve per topic (any case)
+     * @param solvedProblemIds ids of the problems the user solved (for similarity based scorers)
+     * @param topicRatings the user's skill rating per topic (any case), unrated topics absent
+     */
+    public ScoringContext(Difficulty targetDifficulty,
+                          double[] averageConfidenceByDifficulty,
+                          Map<String, Long> solvedCountByTopic,
+                          Map<String, LocalDateTime> lastSolvedByTopic,
+                          LocalDateTime now,
+                          ProblemIdBitmap solvedProblemIds,
+                          Map<String, Double> topicRatings) {
+        this.targetDifficulty = targetDifficulty;
+        this.averageConfidenceByDifficulty = averageConfidenceByDifficulty;
+        this.solvedCountByTopic = normalize(solvedCountByTopic);
+        this.lastSolvedByTopic = normalize(lastSolvedByTopic);
+        this.now = now;
+        this.solvedProblemIds = solvedProblemIds;
+        this.topicRatings = normalize(topicRatings);
+    }
+
+    /**
+     * Context for a user with no history
+     */
+    public static ScoringContext empty(Difficulty targetDifficulty) {
+        double[] confidence = new double[Difficulty.values().length];
+        Arrays.fill(confidence, Double.NaN);
+        return new ScoringContext(targetDifficulty, confidence, Collections.emptyMap(),
+                Collections.emptyMap(), LocalDateTime.now(), ProblemIdBitmap.EMPTY, Collections.emptyMap());
+    }
+
+    public Difficulty getTargetDifficulty() {
+        return targetDifficulty;
+    }
+
+    public double getAverageConfidence(int difficultyOrdinal) {
+        return averageConfidenceByDifficulty[difficultyOrdinal];
+    }
+
+    public long getSolvedCount(String topicKey) {
+        return solvedCountByTopic.getOrDefault(topicKey, 0L);
+    }
+
+    public ProblemIdBitmap getSolvedProblemIds() {
+        return solvedProblemIds;
+    }
+
+    /**
+     * The user's rating in the topic, or {@code defaultRating} if unrated
+     */
+    public double getTopicRating(String topicKey, double defaultRating) {
+        return topicRatings.getOrDefault(topicKey, defaultRating);
+    }
+
+    /**
+     * Days since the user last solved a problem of the topic, NaN if never
+     */
+    public double getDaysSinceLastSolved(String topicKey) {
+        LocalDateTime lastSolved = lastSolvedByTopic.get(topicKey);
+        if (lastSolved == null) {
+            return Double.NaN;
+        }
+        return Math.max(0, Duration.between(lastSolved, now).toMinutes() / (60.0 * 24.0));
+    }
+
+    static String topicKey(String topic) {
+        return topic.toLowerCase(Locale.ROOT);
+    }
+
+    private static <V> Map<String, V> normalize(Map<String, V> byTopic) {
+        Map<String, V> normalized = new HashMap<>(byTopic.size() * 2);
+        byTopic.forEach((topic, value) -> normalized.put(topicKey(topic), value));
+        return normalized;
+    }
+}
@@ -0,0 +1,70 @@
+package com.algocoach.service.scoring;
+
+import com.algocoach.service.SimilarUserIndex;
+import com.algocoach.util.MinHashLshIndex;
+import com.algocoach.util.ProblemIdBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Favors problems solved by users with similar solve histories: similarity-weighted
+ * share of the nearest users who solved the candidate, relative to the best candidate
+ */
+@Component
+public class SimilarUsersScorer implements CandidateScorer {
+
+    private final SimilarUserIndex similarUserIndex;
+    private final double weight;
+    private final int neighbors;
+
+    public SimilarUsersScorer(SimilarUserIndex similarUserIndex,
+                              @Value("${recommendation.scoring.similar-users-weight:0.15}") double weight,
+                              @Value("${recommendation.similar-users.neighbors:20}") int neighbors) {
+        this.similarUserIndex = similarUserIndex;
+        this.weight = weight;
+        this.neighbors = neighbors;
+    }
+
+    @Override
+    public String getName() {
+        return "similarUsers";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public void score(ScoringContext context, CandidateBatch candidates, double[] scores) {
+        List<MinHashLshIndex.Neighbor> similarUsers =
+                similarUserIndex.findSimilarUsers(context.getSolvedProblemIds(), neighbors);
+        if (similarUsers.isEmpty()) {
+            return;
+        }
+
+        long[] ids = candidates.ids();
+        double[] votes = new double[candidates.size()];
+        double max = 0.0;
+        for (MinHashLshIndex.Neighbor neighbor : similarUsers) {
+            ProblemIdBitmap solved = similarUserIndex.getSolvedProblemIds(neighbor.userId());
+            if (solved.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i < votes.length; i++) {
+                if (solved.contains(ids[i])) {
+                    votes[i] += neighbor.similarity();
+                    max = Math.max(max, votes[i]);
+                }
+            }
+        }
+        if (max == 0.0) {
+            return;
+        }
+        for (int i = 0; i < votes.length; i++) {
+            scores[i] += weight * votes[i] / max;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.algocoach.service.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Favors topics the user has practiced before but not recently: 1 - e^(-days / decayDays).
+ * Topics never solved score 0 here; topic weakness already covers them.
+ */
+@Component
+public class StalenessScorer implements CandidateScorer {
+
+    private final double weight;
+    private final double decayDays;
+
+    public StalenessScorer(@Value("${recommendation.scoring.staleness-weight:0.15}") double weight,
+                           @Value("${recommendation.scoring.staleness-decay-days:14}") double decayDays) {
+        this.weight = weight;
+        this.decayDays = decayDays;
+    }
+
+    @Override
+    public String getName() {
+        return "staleness";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public void score(ScoringContext context, CandidateBatch candidates, double[] scores) {
+        double[] byTopic = new double[candidates.topicCount()];
+        for (int t = 0; t < byTopic.length; t++) {
+            double days = context.getDaysSinceLastSolved(candidates.topic(t));
+            byTopic[t] = Double.isNaN(days) ? 0.0 : weight * (1.0 - Math.exp(-days / decayDays));
+        }
+        int[] topicIndexes = candidates.topicIndexes();
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            scores[i] += byTopic[topicIndexes[i]];
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.algocoach.service.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Favors topics the user has solved few problems in: 1 / (1 + solvedCount)
+ */
+@Component
+public class TopicWeaknessScorer implements CandidateScorer {
+
+    private final double weight;
+
+    public TopicWeaknessScorer(@Value("${recommendation.scoring.topic-weakness-weight:0.35}") double weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "topicWeakness";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public void score(ScoringContext context, CandidateBatch candidates, double[] scores) {
+        double[] byTopic = new double[candidates.topicCount()];
+        for (int t = 0; t < byTopic.length; t++) {
+            byTopic[t] = weight / (1.0 + context.getSolvedCount(candidates.topic(t)));
+        }
+        int[] topicIndexes = candidates.topicIndexes();
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            scores[i] += byTopic[topicIndexes[i]];
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.algocoach.tools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Offline report of solve rates per experiment variant from the experiment log
+ * written by {@link com.algocoach.service.ExperimentLog}.
+ *
+ * Every (user, problem) pair counts once, attributed to the variant of its first
+ * exposure. Its outcome is the first solve or give-up logged after that exposure;
+ * pairs without one count as open. Rates are over all exposed pairs, with a 95%
+ * Wilson interval for the solve rate.
+ *
+ * Run with:
+ *   mvn compile
+ *   java -cp target/classes com.algocoach.tools.ExperimentReport logs/experiments.log
+ */
+public final class ExperimentReport {
+
+    private ExperimentReport() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ExperimentReport <experiment log file>");
+            System.exit(2);
+        }
+        try (BufferedReader in = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            print(aggregate(in), System.out);
+        }
+    }
+
+    /**
+     * Totals per "experiment/variant", sorted by key
+     */
+    public static Map<String, VariantTotals> aggregate(BufferedReader in) throws IOException {
+        // First exposure of each user/problem pair, and its outcome once known
+        Map<String, Exposure> exposures = new HashMap<>();
+        Map<String, VariantTotals> totals = new TreeMap<>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] fields = line.split("\t");
+            if (fields.length == 6 && fields[0].equals("E")) {
+                long timestamp = Long.parseLong(fields[1]);
+                String variantKey = fields[2] + "/" + fields[3];
+                VariantTotals variant = totals.computeIfAbsent(variantKey, k -> new VariantTotals());
+                variant.users.add(Long.parseLong(fields[4]));
+                for (String problemId : fields[5].split(",")) {
+                    if (!problemId.isEmpty() && exposures.putIfAbsent(fields[4] + ":" + problemId,
+                            new Exposure(variantKey, timestamp)) == null) {
+                        variant.exposed++;
+                    }
+                }
+            } else if (fields.length == 5 && fields[0].equals("O")) {
+                Exposure exposure = exposures.get(fields[2] + ":" + fields[3]);
+                if (exposure != null && !exposure.resolved && Long.parseLong(fields[1]) >= exposure.timestamp) {
+                    exposure.resolved = true;
+                    VariantTotals variant = totals.get(exposure.variantKey);
+                    if (fields[4].equals("SOLVED")) {
+                        variant.solved++;
+                    } else {
+                        variant.gaveUp++;
+                    }
+                }
+            }
+        }
+        return totals;
+    }
+
+    static void print(Map<String, VariantTotals> totals, PrintStream out) {
+        out.printf("%-32s %8s %10s %8s %8s %10s %18s%n",
+                "experiment/variant", "users", "exposed", "solved", "gave up", "solve rate", "95% interval");
+        totals.forEach((variant, t) -> {
+            double[] interval = t.solveRateInterval();
+            out.printf("%-32s %8d %10d %8d %8d %9.2f%% %8.2f%% - %6.2f%%%n", variant, t.users.size(), t.exposed,
+                    t.solved, t.gaveUp, 100 * t.solveRate(), 100 * interval[0], 100 * interval[1]);
+        });
+    }
+
+    private static final class Exposure {
+        final String variantKey;
+        final long timestamp;
+        boolean resolved;
+
+        Exposure(String variantKey, long timestamp) {
+            this.variantKey = variantKey;
+            this.timestamp = timestamp;
+        }
+    }
+
+    public static final class VariantTotals {
+        final Set<Long> users = new HashSet<>();
+        long exposed;
+        long solved;
+        long gaveUp;
+
+        public int users() {
+            return users.size();
+        }
+
+        public long exposed() {
+            return exposed;
+        }
+
+        public long solved() {
+            return solved;
+        }
+
+        public long gaveUp() {
+            return gaveUp;
+        }
+
+        public double solveRate() {
+            return exposed == 0 ? 0.0 : (double) solved / exposed;
+        }
+
+        /**
+         * 95% Wilson score interval of the solve rate
+         */
+        public double[] solveRateInterval() {
+            if (exposed == 0) {
+                return new double[]{0.0, 0.0};
+            }
+            double z = 1.96;
+            double p = solveRate();
+            double denominator = 1 + z * z / exposed;
+            double center = (p + z * z / (2.0 * exposed)) / denominator;
+            double margin = z * Math.sqrt(p * (1 - p) / exposed + z * z / (4.0 * exposed * exposed)) / denominator;
+            return new double[]{Math.max(0.0, center - margin), Math.min(1.0, center + margin)};
+        }
+    }
+}
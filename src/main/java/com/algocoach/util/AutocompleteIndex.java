@@ -0,0 +1,470 @@
+package com.algocoach.util;
+
+import java.util.*;
+
+/**
+ * Search-as-you-type over titles: prefix and typo-tolerant matches from one trie,
+ * ranked by a per-id weight (e.g. popularity).
+ *
+ * Titles are normalized (lower case, runs of other characters collapsed to one
+ * space) and indexed from every word start, so "sum" finds "Two Sum". Each trie node
+ * caches the best {@code topK} ids of its subtree, which makes a prefix lookup one
+ * walk down the trie. Inserts and weight increases update those caches along the
+ * entry's path; removals and weight decreases recompute them from the children.
+ * Fuzzy lookups walk the trie with one Damerau-Levenshtein row per node, pruned once
+ * every cell exceeds the allowed edits, and read the cached top ids of the nodes
+ * within the allowed distance of the query. Their cost depends on the trie around
+ * the query, not on the number of titles. Not thread safe.
+ */
+public final class AutocompleteIndex {
+
+    private static final int MAX_ENTRY_LENGTH = 64;
+
+    private final int topK;
+    private final Node root = new Node();
+
+    private final Map<Long, Double> weights = new HashMap<>();
+    // Indexed texts (title suffixes from each word start) by id
+    private final Map<Long, String[]> entriesById = new HashMap<>();
+
+    public AutocompleteIndex(int topK) {
+        this.topK = topK;
+    }
+
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * Index a title, replacing the previous title of the id
+     */
+    public void put(long id, String title, double weight) {
+        remove(id);
+        String normalized = normalize(title);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        weights.put(id, weight);
+        List<String> entries = new ArrayList<>();
+        for (int start = 0; start < normalized.length(); start++) {
+            if (start == 0 || normalized.charAt(start - 1) == ' ') {
+                String text = normalized.substring(start, Math.min(normalized.length(), start + MAX_ENTRY_LENGTH));
+                addEntry(id, text);
+                entries.add(text);
+            }
+        }
+        entriesById.put(id, entries.toArray(new String[0]));
+    }
+
+    /**
+     * Remove a title
+     *
+     * @return false if the id was not indexed
+     */
+    public boolean remove(long id) {
+        String[] entries = entriesById.remove(id);
+        if (entries == null) {
+            return false;
+        }
+        for (String entry : entries) {
+            removeEntry(id, entry);
+        }
+        weights.remove(id);
+        return true;
+    }
+
+    public void clear() {
+        root.labels = new char[0];
+        root.children = new Node[0];
+        root.terminals = new long[0];
+        root.topSize = 0;
+        weights.clear();
+        entriesById.clear();
+    }
+
+    /**
+     * Weight of an indexed id, or null for unknown ids
+     */
+    public Double getWeight(long id) {
+        return weights.get(id);
+    }
+
+    /**
+     * Change the weight of an indexed id (no-op for unknown ids)
+     */
+    public void setWeight(long id, double weight) {
+        Double previous = weights.get(id);
+        if (previous == null || previous == weight) {
+            return;
+        }
+        weights.put(id, weight);
+        for (String entry : entriesById.get(id)) {
+            List<Node> path = path(entry, false);
+            for (int i = path.size() - 1; i >= 0; i--) {
+                if (weight > previous) {
+                    path.get(i).offer(id, weight, topK);
+                } else if (path.get(i).containsTop(id)) {
+                    path.get(i).recompute(topK, weights);
+                }
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} ids for a partially typed query: prefix matches by weight,
+     * then fuzzy matches by edit distance and weight
+     *
+     * @param limit at most {@code topK}, the number of ids each trie node keeps
+     * @param maxEdits edit distance allowed for fuzzy matches (0 disables them)
+     */
+    public List<Long> suggest(String query, int limit, int maxEdits) {
+        String normalized = normalize(query);
+        List<Long> result = new ArrayList<>();
+        if (normalized.isEmpty() || limit <= 0) {
+            return result;
+        }
+        if (normalized.length() > MAX_ENTRY_LENGTH) {
+            normalized = normalized.substring(0, MAX_ENTRY_LENGTH);
+        }
+
+        Node node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            node = node.child(normalized.charAt(i));
+        }
+        if (node != null) {
+            for (int i = 0; i < node.topSize && result.size() < limit; i++) {
+                result.add(node.topIds[i]);
+            }
+        }
+        if (result.size() < limit && maxEdits > 0) {
+            fuzzy(normalized, maxEdits, limit, result);
+        }
+        return result;
+    }
+
+    /**
+     * Lower case, letters and digits only, words separated by single spaces
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private void fuzzy(String query, int maxEdits, int limit, List<Long> result) {
+        // Nodes whose path is within d edits of the query, by d: every entry below them matches
+        List<List<Node>> matches = new ArrayList<>(maxEdits + 1);
+        for (int d = 0; d <= maxEdits; d++) {
+            matches.add(new ArrayList<>());
+        }
+        // One row per depth; paths longer than the query plus maxEdits are never within reach
+        int[][] rows = new int[query.length() + maxEdits + 2][query.length() + 1];
+        for (int i = 0; i <= query.length(); i++) {
+            rows[0][i] = i;
+        }
+        walk(root, (char) 0, 0, rows, query, maxEdits, maxEdits + 1, matches);
+
+        // Per distance, the best ids not listed yet; each node's top list holds enough of them
+        // since fewer than limit <= topK ids are listed
+        Set<Long> seen = new HashSet<>(result);
+        for (List<Node> nodes : matches) {
+            Map<Long, Double> candidates = new HashMap<>();
+            for (Node node : nodes) {
+                for (int i = 0; i < node.topSize; i++) {
+                    if (!seen.contains(node.topIds[i])) {
+                        candidates.put(node.topIds[i], node.topWeights[i]);
+                    }
+                }
+            }
+            List<Long> ranked = new ArrayList<>(candidates.keySet());
+            ranked.sort(Comparator.<Long>comparingDouble(id -> -candidates.get(id))
+                    .thenComparing(Comparator.naturalOrder()));
+            for (Long id : ranked) {
+                if (result.size() >= limit) {
+                    return;
+                }
+                result.add(id);
+                seen.add(id);
+            }
+        }
+    }
+
+    /**
+     * Depth-first walk below a node whose path has the edit distance row {@code rows[depth]}
+     * against the query (cell i: distance between the first i query characters and the path)
+     *
+     * @param best smallest distance recorded on the way here; deeper nodes only count if closer
+     */
+    private void walk(Node node, char label, int depth, int[][] rows, String query, int maxEdits, int best,
+                      List<List<Node>> matches) {
+        int n = query.length();
+        int[] row = rows[depth];
+        int[] parentRow = depth > 0 ? rows[depth - 1] : null;
+        int[] next = rows[depth + 1];
+        // Cells only grow from the next row on, except through a transposition with this row
+        boolean transposable = minOf(row) + 1 <= maxEdits;
+        if (row[n] < best) {
+            best = row[n];
+            matches.get(best).add(node);
+            if (best == 0) {
+                return;
+            }
+        }
+        for (int c = 0; c < node.labels.length; c++) {
+            char childLabel = node.labels[c];
+            next[0] = row[0] + 1;
+            int min = next[0];
+            for (int i = 1; i <= n; i++) {
+                int cost = query.charAt(i - 1) == childLabel ? 0 : 1;
+                int value = Math.min(Math.min(row[i] + 1, next[i - 1] + 1), row[i - 1] + cost);
+                if (parentRow != null && i > 1 && query.charAt(i - 1) == label && query.charAt(i - 2) == childLabel) {
+                    value = Math.min(value, parentRow[i - 2] + 1);
+                }
+                next[i] = value;
+                min = Math.min(min, value);
+            }
+            if (min <= maxEdits || transposable) {
+                walk(node.children[c], childLabel, depth + 1, rows, query, maxEdits, best, matches);
+            }
+        }
+    }
+
+    /**
+     * Smallest optimal-string-alignment distance between the query and any prefix of
+     * the text, or {@code maxEdits + 1} if it exceeds {@code maxEdits}: the distance
+     * fuzzy lookups rank by, computed for a single text
+     */
+    static int prefixDistance(String query, String text, int maxEdits) {
+        int n = query.length();
+        int m = Math.min(text.length(), n + maxEdits);
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = query.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && query.charAt(i - 1) == text.charAt(j - 2)
+                        && query.charAt(i - 2) == text.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = Integer.MAX_VALUE;
+        for (int j = 0; j <= m; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return Math.min(best, maxEdits + 1);
+    }
+
+    private static int minOf(int[] row) {
+        int min = Integer.MAX_VALUE;
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private void addEntry(long id, String text) {
+        List<Node> path = path(text, true);
+        path.get(path.size() - 1).addTerminal(id);
+        double weight = weights.get(id);
+        for (Node node : path) {
+            node.offer(id, weight, topK);
+        }
+    }
+
+    private void removeEntry(long id, String text) {
+        List<Node> path = path(text, false);
+        path.get(path.size() - 1).removeTerminal(id);
+        // Bottom-up so every node recomputes from up to date children; prune empty nodes
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            if (node.containsTop(id)) {
+                node.recompute(topK, weights);
+            }
+            if (i > 0 && node.isEmpty()) {
+                path.get(i - 1).removeChild(text.charAt(i - 1));
+            }
+        }
+    }
+
+    /**
+     * Nodes from the root to the node of the text, root first
+     */
+    private List<Node> path(String text, boolean create) {
+        List<Node> path = new ArrayList<>(text.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < text.length(); i++) {
+            Node child = node.child(text.charAt(i));
+            if (child == null) {
+                if (!create) {
+                    throw new IllegalStateException("Entry not in trie: " + text);
+                }
+                child = node.addChild(text.charAt(i));
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static final class Node {
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        long[] terminals = new long[0];
+
+        long[] topIds = new long[0];
+        double[] topWeights = new double[0];
+        int topSize;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char label) {
+            int index = -Arrays.binarySearch(labels, label) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newLabels[index] = label;
+            newChildren[index] = new Node();
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[index];
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return children.length == 0 && terminals.length == 0;
+        }
+
+        void addTerminal(long id) {
+            terminals = Arrays.copyOf(terminals, terminals.length + 1);
+            terminals[terminals.length - 1] = id;
+        }
+
+        void removeTerminal(long id) {
+            for (int i = 0; i < terminals.length; i++) {
+                if (terminals[i] == id) {
+                    terminals[i] = terminals[terminals.length - 1];
+                    terminals = Arrays.copyOf(terminals, terminals.length - 1);
+                    return;
+                }
+            }
+        }
+
+        boolean containsTop(long id) {
+            for (int i = 0; i < topSize; i++) {
+                if (topIds[i] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Add or raise an id in the cached top list (a lower weight for a listed id is ignored)
+         */
+        void offer(long id, double weight, int k) {
+            int position = -1;
+            for (int i = 0; i < topSize; i++) {
+                if (topIds[i] == id) {
+                    if (topWeights[i] >= weight) {
+                        return;
+                    }
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                if (topSize < k) {
+                    if (topSize == topIds.length) {
+                        topIds = Arrays.copyOf(topIds, Math.min(k, Math.max(2, topSize * 2)));
+                        topWeights = Arrays.copyOf(topWeights, topIds.length);
+                    }
+                    position = topSize++;
+                } else if (better(id, weight, topIds[topSize - 1], topWeights[topSize - 1])) {
+                    position = topSize - 1;
+                } else {
+                    return;
+                }
+            }
+            // Move up to keep the list best first
+            while (position > 0 && better(id, weight, topIds[position - 1], topWeights[position - 1])) {
+                topIds[position] = topIds[position - 1];
+                topWeights[position] = topWeights[position - 1];
+                position--;
+            }
+            topIds[position] = id;
+            topWeights[position] = weight;
+        }
+
+        /**
+         * Rebuild the cached top list from the terminals and the children's lists
+         */
+        void recompute(int k, Map<Long, Double> weights) {
+            topSize = 0;
+            for (long terminal : terminals) {
+                offer(terminal, weights.get(terminal), k);
+            }
+            for (Node child : children) {
+                for (int i = 0; i < child.topSize; i++) {
+                    offer(child.topIds[i], child.topWeights[i], k);
+                }
+            }
+        }
+
+        private static boolean better(long id, double weight, long otherId, double otherWeight) {
+            return weight > otherWeight || (weight == otherWeight && id < otherId);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.algocoach.util;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Activity count per calendar day, one bit per day plus a count per active day.
+ *
+ * Bit i of the bitset marks day {@code firstDay + i} (epoch days, {@code firstDay}
+ * a multiple of 64). Counts are stored only for active days, in day order, so the
+ * count of a day sits at the number of active days before it (a popcount rank).
+ * Recording today's activity appends; older days shift the counts. Current and
+ * longest streaks are updated per recorded day, a rescan only happens when a day
+ * before the latest active day becomes active. A year of history takes about
+ * 50 bytes plus two bytes per active day. Not thread safe.
+ */
+public final class DailyActivity {
+
+    private static final int MAX_COUNT = Character.MAX_VALUE;
+    private static final int FORMAT_VERSION = 1;
+
+    private long firstDay;
+    private long[] words = new long[0];
+    private char[] counts = new char[0];
+    private int activeDays;
+
+    // Latest active day, first day of the run of active days ending at it, longest run
+    private long lastDay = Long.MIN_VALUE;
+    private long runStart = Long.MIN_VALUE;
+    private int longestStreak;
+
+    public int activeDays() {
+        return activeDays;
+    }
+
+    public int longestStreak() {
+        return longestStreak;
+    }
+
+    /**
+     * Consecutive active days ending today, or ending yesterday if today has no activity yet
+     */
+    public int currentStreak(LocalDate today) {
+        if (activeDays == 0 || today.toEpochDay() - lastDay > 1) {
+            return 0;
+        }
+        return (int) (lastDay - runStart + 1);
+    }
+
+    /**
+     * Latest active day, or null if there is none
+     */
+    public LocalDate lastActiveDay() {
+        return activeDays == 0 ? null : LocalDate.ofEpochDay(lastDay);
+    }
+
+    public int count(LocalDate date) {
+        long day = date.toEpochDay();
+        if (!isSet(day)) {
+            return 0;
+        }
+        return counts[rank(day)];
+    }
+
+    /**
+     * Add {@code amount} activity on a day (counts saturate at 65535)
+     */
+    public void record(LocalDate date, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+        long day = date.toEpochDay();
+        if (isSet(day)) {
+            int position = rank(day);
+            counts[position] = (char) Math.min(MAX_COUNT, counts[position] + amount);
+            return;
+        }
+
+        ensureCovers(day);
+        int position = rank(day);
+        if (activeDays == counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(8, activeDays * 2));
+        }
+        System.arraycopy(counts, position, counts, position + 1, activeDays - position);
+        counts[position] = (char) Math.min(MAX_COUNT, amount);
+        long offset = day - firstDay;
+        words[(int) (offset >>> 6)] |= 1L << offset;
+        activeDays++;
+
+        if (activeDays == 1 || day > lastDay + 1) {
+            runStart = day;
+            lastDay = day;
+        } else if (day == lastDay + 1) {
+            lastDay = day;
+        } else {
+            // A gap before the latest day was filled: runs may have merged anywhere
+            rescanStreaks();
+            return;
+        }
+        longestStreak = Math.max(longestStreak, (int) (lastDay - runStart + 1));
+    }
+
+    /**
+     * Counts of the days from {@code from} to {@code to} inclusive, 0 for inactive days
+     */
+    public int[] counts(LocalDate from, LocalDate to) {
+        long start = from.toEpochDay();
+        int length = (int) Math.max(0, to.toEpochDay() - start + 1);
+        int[] result = new int[length];
+        if (activeDays == 0 || length == 0) {
+            return result;
+        }
+        // One rank for the first day, then walk the bits
+        long first = Math.max(start, firstDay);
+        int position = first >= firstDay + 64L * words.length ? activeDays : rank(first);
+        for (long day = first; day < start + length && position < activeDays; day++) {
+            if (isSet(day)) {
+                result[(int) (day - start)] = counts[position++];
+            }
+        }
+        return result;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 * 3 + 4 * 3 + 8 * words.length + 2 * activeDays);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putLong(firstDay).putLong(lastDay).putLong(runStart);
+        buffer.putInt(longestStreak).putInt(activeDays).putInt(words.length);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        for (int i = 0; i < activeDays; i++) {
+            buffer.putChar(counts[i]);
+        }
+        return buffer.array();
+    }
+
+    public static DailyActivity fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown activity format: " + version);
+        }
+        DailyActivity activity = new DailyActivity();
+        activity.firstDay = buffer.getLong();
+        activity.lastDay = buffer.getLong();
+        activity.runStart = buffer.getLong();
+        activity.longestStreak = buffer.getInt();
+        activity.activeDays = buffer.getInt();
+        activity.words = new long[buffer.getInt()];
+        for (int i = 0; i < activity.words.length; i++) {
+            activity.words[i] = buffer.getLong();
+        }
+        activity.counts = new char[activity.activeDays];
+        for (int i = 0; i < activity.activeDays; i++) {
+            activity.counts[i] = buffer.getChar();
+        }
+        return activity;
+    }
+
+    private boolean isSet(long day) {
+        long offset = day - firstDay;
+        if (offset < 0 || offset >= 64L * words.length) {
+            return false;
+        }
+        return (words[(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Number of active days before {@code day} (which must be covered by the bitset)
+     */
+    private int rank(long day) {
+        long offset = day - firstDay;
+        int word = (int) (offset >>> 6);
+        int rank = 0;
+        for (int i = 0; i < word; i++) {
+            rank += Long.bitCount(words[i]);
+        }
+        long below = (1L << (offset & 63)) - 1;
+        return rank + Long.bitCount(words[word] & below);
+    }
+
+    private void ensureCovers(long day) {
+        long alignedDay = Math.floorDiv(day, 64) * 64;
+        if (words.length == 0) {
+            firstDay = alignedDay;
+            words = new long[1];
+            return;
+        }
+        if (alignedDay < firstDay) {
+            int prepend = (int) ((firstDay - alignedDay) >>> 6);
+            long[] grown = new long[words.length + prepend];
+            System.arraycopy(words, 0, grown, prepend, words.length);
+            words = grown;
+            firstDay = alignedDay;
+        } else {
+            int needed = (int) ((alignedDay - firstDay) >>> 6) + 1;
+            if (needed > words.length) {
+                words = Arrays.copyOf(words, Math.max(needed, words.length + words.length / 2));
+            }
+        }
+    }
+
+    private void rescanStreaks() {
+        longestStreak = 0;
+        long run = 0;
+        for (int i = 0; i < words.length; i++) {
+            for (int bit = 0; bit < 64; bit++) {
+                if ((words[i] & (1L << bit)) != 0) {
+                    run++;
+                    longestStreak = (int) Math.max(longestStreak, run);
+                } else {
+                    run = 0;
+                }
+            }
+        }
+        // The latest active day is unchanged; walk back to the start of its run
+        long day = lastDay;
+        while (isSet(day - 1)) {
+            day--;
+        }
+        runStart = day;
+    }
+}
@@ -0,0 +1,172 @@
+package com.algocoach.util;
+
+import java.util.*;
+
+/**
+ * Immutable facet counter over documents numbered 0..n-1, with one bitset per field value.
+ * Numbers may have gaps (e.g. when documents are problem ids): only documents that were
+ * given a value are counted.
+ *
+ * A count query selects at most one value per field and may exclude a set of
+ * documents. Each field's counts apply the selections of every other field (but not
+ * its own), so a client can show how many results each alternative value would give.
+ * All counts come from one pass over the bitset words: AND the selected masks, then
+ * popcount each value's word against the mask that leaves its own field out.
+ */
+public final class FacetIndex {
+
+    private final int documentCount;
+    private final String[] fields;
+    private final String[][] values;
+    private final long[][][] bits; // [field][value][word]
+    private final long[] documents;
+
+    private FacetIndex(int documentCount, String[] fields, String[][] values, long[][][] bits, long[] documents) {
+        this.documentCount = documentCount;
+        this.documents = documents;
+        this.fields = fields;
+        this.values = values;
+        this.bits = bits;
+    }
+
+    public static Builder builder(int documentCount, String... fields) {
+        return new Builder(documentCount, fields);
+    }
+
+    public int documentCount() {
+        return documentCount;
+    }
+
+    /**
+     * Empty bitset sized for this index, e.g. for {@link #count}'s exclusion
+     */
+    public long[] newBitSet() {
+        return new long[words(documentCount)];
+    }
+
+    public static void set(long[] bitSet, int document) {
+        bitSet[document >>> 6] |= 1L << document;
+    }
+
+    /**
+     * Counts per value of every field
+     *
+     * @param selected selected value per field (fields not present are unfiltered);
+     *                 a value that is not indexed matches nothing
+     * @param excluded documents to leave out (see {@link #newBitSet}), or null
+     */
+    public Counts count(Map<String, String> selected, long[] excluded) {
+        int fieldCount = fields.length;
+        int wordCount = words(documentCount);
+
+        // Selected value bitset per field: null if unfiltered, empty if the value is unknown
+        long[][] filters = new long[fieldCount][];
+        for (int f = 0; f < fieldCount; f++) {
+            String value = selected.get(fields[f]);
+            if (value != null) {
+                int index = Arrays.asList(values[f]).indexOf(value);
+                filters[f] = index >= 0 ? bits[f][index] : new long[wordCount];
+            }
+        }
+
+        int[][] counts = new int[fieldCount][];
+        for (int f = 0; f < fieldCount; f++) {
+            counts[f] = new int[values[f].length];
+        }
+        int matching = 0;
+        long[] masks = new long[fieldCount];
+        for (int word = 0; word < wordCount; word++) {
+            long live = documents[word];
+            if (excluded != null) {
+                live &= ~excluded[word];
+            }
+            long all = live;
+            for (int f = 0; f < fieldCount; f++) {
+                masks[f] = filters[f] != null ? filters[f][word] : -1L;
+                all &= masks[f];
+            }
+            matching += Long.bitCount(all);
+
+            for (int f = 0; f < fieldCount; f++) {
+                long others = live;
+                for (int g = 0; g < fieldCount; g++) {
+                    if (g != f) {
+                        others &= masks[g];
+                    }
+                }
+                if (others == 0) {
+                    continue;
+                }
+                long[][] fieldBits = bits[f];
+                for (int v = 0; v < fieldBits.length; v++) {
+                    counts[f][v] += Long.bitCount(fieldBits[v][word] & others);
+                }
+            }
+        }
+
+        Map<String, Map<String, Integer>> byField = new LinkedHashMap<>();
+        for (int f = 0; f < fieldCount; f++) {
+            Map<String, Integer> fieldCounts = new LinkedHashMap<>();
+            for (int v = 0; v < values[f].length; v++) {
+                fieldCounts.put(values[f][v], counts[f][v]);
+            }
+            byField.put(fields[f], fieldCounts);
+        }
+        return new Counts(matching, byField);
+    }
+
+    private static int words(int documentCount) {
+        return (documentCount + 63) >>> 6;
+    }
+
+    /**
+     * Documents matching every selection, and per field the count of each value
+     * (in the order the values were first added)
+     */
+    public record Counts(int matching, Map<String, Map<String, Integer>> byField) {
+
+        public Map<String, Integer> get(String field) {
+            return byField.getOrDefault(field, Collections.emptyMap());
+        }
+    }
+
+    public static final class Builder {
+        private final int documentCount;
+        private final String[] fields;
+        private final List<Map<String, long[]>> bitsByField = new ArrayList<>();
+        private final long[] documents;
+
+        private Builder(int documentCount, String[] fields) {
+            this.documentCount = documentCount;
+            this.documents = new long[words(documentCount)];
+            this.fields = fields.clone();
+            for (int f = 0; f < fields.length; f++) {
+                bitsByField.add(new LinkedHashMap<>());
+            }
+        }
+
+        public Builder add(int document, String field, String value) {
+            if (document < 0 || document >= documentCount) {
+                throw new IndexOutOfBoundsException("Document " + document + " of " + documentCount);
+            }
+            int f = Arrays.asList(fields).indexOf(field);
+            if (f < 0) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            set(bitsByField.get(f).computeIfAbsent(value, v -> new long[words(documentCount)]), document);
+            set(documents, document);
+            return this;
+        }
+
+        public FacetIndex build() {
+            String[][] values = new String[fields.length][];
+            long[][][] bits = new long[fields.length][][];
+            for (int f = 0; f < fields.length; f++) {
+                Map<String, long[]> fieldBits = bitsByField.get(f);
+                values[f] = fieldBits.keySet().toArray(new String[0]);
+                bits[f] = fieldBits.values().toArray(new long[0][]);
+            }
+            return new FacetIndex(documentCount, fields.clone(), values, bits, documents.clone());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.algocoach.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of int keys ordered by a long priority (e.g. a due time in epoch
+ * millis), with a key-to-position index so any key can be re-prioritized or removed
+ * in O(log n). Ties are broken by the smaller key. Not thread safe.
+ */
+public final class IndexedMinHeap {
+
+    private int[] keys;
+    private long[] priorities;
+    private final LongIntHashMap positions;
+    private int size;
+
+    public IndexedMinHeap() {
+        this(8);
+    }
+
+    public IndexedMinHeap(int expectedSize) {
+        int capacity = Math.max(1, expectedSize);
+        keys = new int[capacity];
+        priorities = new long[capacity];
+        positions = new LongIntHashMap(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int key) {
+        return positions.containsKey(key);
+    }
+
+    /**
+     * Priority of the key, or {@code Long.MAX_VALUE} if absent
+     */
+    public long priority(int key) {
+        return contains(key) ? priorities[positions.get(key)] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Insert the key, or move it to its new priority if present
+     */
+    public void upsert(int key, long priority) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative: " + key);
+        }
+        if (contains(key)) {
+            int position = positions.get(key);
+            long previous = priorities[position];
+            priorities[position] = priority;
+            if (priority < previous) {
+                siftUp(position);
+            } else {
+                siftDown(position);
+            }
+            return;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            priorities = Arrays.copyOf(priorities, size * 2);
+        }
+        keys[size] = key;
+        priorities[size] = priority;
+        positions.put(key, size);
+        siftUp(size++);
+    }
+
+    public boolean remove(int key) {
+        if (!contains(key)) {
+            return false;
+        }
+        removeAt(positions.get(key));
+        return true;
+    }
+
+    /**
+     * Key with the smallest priority; the heap must not be empty
+     */
+    public int peekKey() {
+        return keys[0];
+    }
+
+    public long peekPriority() {
+        return size > 0 ? priorities[0] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Remove and return the key with the smallest priority; the heap must not be empty
+     */
+    public int poll() {
+        int key = keys[0];
+        removeAt(0);
+        return key;
+    }
+
+    private void removeAt(int position) {
+        positions.remove(keys[position]);
+        int last = --size;
+        if (position != last) {
+            keys[position] = keys[last];
+            priorities[position] = priorities[last];
+            positions.put(keys[position], position);
+            siftDown(position);
+            siftUp(position);
+        }
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(position, parent)) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+            if (!less(smallest, position)) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return priorities[a] < priorities[b] || (priorities[a] == priorities[b] && keys[a] < keys[b]);
+    }
+
+    private void swap(int a, int b) {
+        int key = keys[a];
+        long priority = priorities[a];
+        keys[a] = keys[b];
+        priorities[a] = priorities[b];
+        keys[b] = key;
+        priorities[b] = priority;
+        positions.put(keys[a], a);
+        positions.put(keys[b], b);
+    }
+}
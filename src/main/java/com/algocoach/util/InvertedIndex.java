@@ -0,0 +1,387 @@
+package com.algocoach.util;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+
+/**
+ * Inverted index with BM25 ranking over documents identified by long ids.
+ *
+ * Every indexed document gets the next internal document number, so posting lists
+ * (parallel sorted int arrays of document numbers and term frequencies) only ever
+ * grow at the end. Updating a document tombstones its old number and appends it
+ * again; tombstones are skipped while searching and dropped by a compaction once
+ * they make up a quarter of the index. A query walks its terms' posting lists
+ * document-at-a-time and keeps the best hits in a bounded heap, so its cost
+ * depends on the query terms' posting lengths, not on the catalog size.
+ *
+ * Searches use MaxScore pruning: each term has an upper bound on its score
+ * contribution, and once the heap is full, terms whose bounds together cannot beat
+ * the worst kept hit stop producing candidates. They are only probed (by binary
+ * search) for documents found through the other terms, and scoring a document
+ * stops as soon as its remaining bound cannot reach the heap.
+ * Not thread safe.
+ */
+public final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Keeps score bounds above the sums of the actual contributions despite rounding
+    private static final double BOUND_SLACK = 1 + 1e-9;
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+
+    // By document number
+    private long[] documentIds = new long[16];
+    private int[] lengths = new int[16];
+    private int[][] documentTerms = new int[16][];
+    private int[][] documentFrequencies = new int[16][];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int documentCount;
+
+    private final Map<Long, Integer> documentsById = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Number of live documents
+     */
+    public int size() {
+        return documentsById.size();
+    }
+
+    public boolean contains(long id) {
+        return documentsById.containsKey(id);
+    }
+
+    /**
+     * Number of live documents containing the term
+     */
+    public int documentFrequency(String term) {
+        Integer termId = termIds.get(term);
+        return termId != null ? postings.get(termId).live : 0;
+    }
+
+    /**
+     * Add a document, replacing any previous version with the same id
+     *
+     * @param termFrequencies (weighted) occurrences per term; terms with a count below 1 are ignored
+     */
+    public void put(long id, Map<String, Integer> termFrequencies) {
+        remove(id);
+        int document = documentCount++;
+        ensureCapacity(documentCount);
+
+        int[] terms = new int[termFrequencies.size()];
+        int[] frequencies = new int[termFrequencies.size()];
+        int count = 0;
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            int frequency = entry.getValue();
+            if (frequency < 1) {
+                continue;
+            }
+            int termId = termIds.computeIfAbsent(entry.getKey(), term -> {
+                postings.add(new Postings());
+                return postings.size() - 1;
+            });
+            postings.get(termId).append(document, frequency);
+            terms[count] = termId;
+            frequencies[count] = frequency;
+            count++;
+            length += frequency;
+        }
+
+        documentIds[document] = id;
+        lengths[document] = length;
+        documentTerms[document] = Arrays.copyOf(terms, count);
+        documentFrequencies[document] = Arrays.copyOf(frequencies, count);
+        documentsById.put(id, document);
+        totalLength += length;
+    }
+
+    /**
+     * Remove a document
+     *
+     * @return false if it was not indexed
+     */
+    public boolean remove(long id) {
+        Integer document = documentsById.remove(id);
+        if (document == null) {
+            return false;
+        }
+        deleted.set(document);
+        deletedCount++;
+        totalLength -= lengths[document];
+        for (int termId : documentTerms[document]) {
+            postings.get(termId).live--;
+        }
+        if (deletedCount > 64 && deletedCount * 4 > documentCount) {
+            compact();
+        }
+        return true;
+    }
+
+    public void clear() {
+        termIds.clear();
+        postings.clear();
+        deleted.clear();
+        deletedCount = 0;
+        documentsById.clear();
+        documentCount = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Best documents matching any of the terms, highest BM25 score first
+     *
+     * @param accept filter on document ids (e.g. difficulty or topic), null for all
+     * @return how many hits were written to {@code ids} and {@code scores}
+     */
+    public int search(Collection<String> terms, LongPredicate accept, long[] ids, double[] scores) {
+        int live = size();
+        if (live == 0 || ids.length == 0) {
+            return 0;
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / live);
+
+        // One cursor per distinct known term, by ascending score bound
+        List<Postings> known = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            Integer termId = termIds.get(term);
+            if (termId != null && postings.get(termId).live > 0) {
+                known.add(postings.get(termId));
+            }
+        }
+        known.sort(Comparator.comparingDouble(list -> scoreBound(list, live)));
+        int termCount = known.size();
+        Postings[] lists = known.toArray(new Postings[0]);
+        double[] idfs = new double[termCount];
+        // boundSums[t]: score bound of the terms before t together
+        double[] boundSums = new double[termCount + 1];
+        for (int t = 0; t < termCount; t++) {
+            idfs[t] = idf(lists[t], live);
+            boundSums[t + 1] = boundSums[t] + scoreBound(lists[t], live);
+        }
+        int[] positions = new int[termCount];
+        // Terms before this one cannot get a document into the full heap on their own
+        int essential = 0;
+
+        int[] heapDocuments = new int[ids.length];
+        double[] heapScores = new double[ids.length];
+        int heapSize = 0;
+        while (essential < termCount) {
+            // Smallest document number under any essential cursor
+            int document = Integer.MAX_VALUE;
+            for (int t = essential; t < termCount; t++) {
+                if (positions[t] < lists[t].size) {
+                    document = Math.min(document, lists[t].documents[positions[t]]);
+                }
+            }
+            if (document == Integer.MAX_VALUE) {
+                break;
+            }
+            boolean candidate = !deleted.get(document) && (accept == null || accept.test(documentIds[document]));
+            double score = 0;
+            double norm = K1 * (1 - B + B * lengths[document] / averageLength);
+            for (int t = essential; t < termCount; t++) {
+                Postings list = lists[t];
+                if (positions[t] < list.size && list.documents[positions[t]] == document) {
+                    if (candidate) {
+                        score += idfs[t] * termScore(list.frequencies[positions[t]], norm);
+                    }
+                    positions[t]++;
+                }
+            }
+            if (!candidate) {
+                continue;
+            }
+            boolean full = heapSize == ids.length;
+            // Probe the other terms, largest bound first, while the document can still make it
+            // (a later document only enters the full heap on a strictly higher score)
+            for (int t = essential - 1; t >= 0; t--) {
+                if (full && score + boundSums[t + 1] <= heapScores[0]) {
+                    break;
+                }
+                Postings list = lists[t];
+                positions[t] = list.seek(positions[t], document);
+                if (positions[t] < list.size && list.documents[positions[t]] == document) {
+                    score += idfs[t] * termScore(list.frequencies[positions[t]], norm);
+                }
+            }
+            heapSize = offer(heapDocuments, heapScores, heapSize, document, score);
+            if (heapSize == ids.length) {
+                while (essential < termCount && boundSums[essential + 1] <= heapScores[0]) {
+                    essential++;
+                }
+            }
+        }
+
+        // Drain the min-heap into best-first order
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ids[i] = documentIds[heapDocuments[0]];
+            scores[i] = heapScores[0];
+            heapDocuments[0] = heapDocuments[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapDocuments, heapScores, i, 0);
+        }
+        return heapSize;
+    }
+
+    private static double idf(Postings list, int live) {
+        return Math.log(1.0 + (live - list.live + 0.5) / (list.live + 0.5));
+    }
+
+    /**
+     * Upper bound of the term's contribution to any score: its highest frequency in the
+     * shortest possible document
+     */
+    private static double scoreBound(Postings list, int live) {
+        return idf(list, live) * termScore(list.maxFrequency, K1 * (1 - B)) * BOUND_SLACK;
+    }
+
+    private static double termScore(int frequency, double norm) {
+        return frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    /**
+     * Add a hit to the bounded min-heap (worst hit at the root; ties keep the lower document number)
+     */
+    private static int offer(int[] documents, double[] scores, int size, int document, double score) {
+        if (size < documents.length) {
+            int i = size++;
+            documents[i] = document;
+            scores[i] = score;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(documents, scores, i, parent)) {
+                    break;
+                }
+                swap(documents, scores, i, parent);
+                i = parent;
+            }
+            return size;
+        }
+        // Later documents only win on a strictly higher score
+        if (score > scores[0]) {
+            documents[0] = document;
+            scores[0] = score;
+            siftDown(documents, scores, size, 0);
+        }
+        return size;
+    }
+
+    private static void siftDown(int[] documents, double[] scores, int size, int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            if (left + 1 < size && worse(documents, scores, left + 1, left)) {
+                worst = left + 1;
+            }
+            if (!worse(documents, scores, worst, i)) {
+                return;
+            }
+            swap(documents, scores, i, worst);
+            i = worst;
+        }
+    }
+
+    private static boolean worse(int[] documents, double[] scores, int a, int b) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && documents[a] > documents[b]);
+    }
+
+    private static void swap(int[] documents, double[] scores, int a, int b) {
+        int document = documents[a];
+        documents[a] = documents[b];
+        documents[b] = document;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > documentIds.length) {
+            int grown = Math.max(capacity, documentIds.length * 2);
+            documentIds = Arrays.copyOf(documentIds, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+            documentTerms = Arrays.copyOf(documentTerms, grown);
+            documentFrequencies = Arrays.copyOf(documentFrequencies, grown);
+        }
+    }
+
+    /**
+     * Renumber the live documents densely and rebuild every posting list without tombstones
+     */
+    private void compact() {
+        for (Postings list : postings) {
+            list.size = 0;
+            list.live = 0;
+            list.maxFrequency = 0;
+        }
+        int next = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (deleted.get(document)) {
+                continue;
+            }
+            int[] terms = documentTerms[document];
+            int[] frequencies = documentFrequencies[document];
+            for (int i = 0; i < terms.length; i++) {
+                postings.get(terms[i]).append(next, frequencies[i]);
+            }
+            documentIds[next] = documentIds[document];
+            lengths[next] = lengths[document];
+            documentTerms[next] = terms;
+            documentFrequencies[next] = frequencies;
+            documentsById.put(documentIds[next], next);
+            next++;
+        }
+        for (int document = next; document < documentCount; document++) {
+            documentTerms[document] = null;
+            documentFrequencies[document] = null;
+        }
+        documentCount = next;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private static final class Postings {
+        int[] documents = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+        int live;
+        // Upper bound of the frequencies (deletions don't lower it until a compaction)
+        int maxFrequency;
+
+        void append(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+            maxFrequency = Math.max(maxFrequency, frequency);
+        }
+
+        /**
+         * First position at or after {@code from} whose document is at least {@code document}
+         */
+        int seek(int from, int document) {
+            int low = from;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (documents[middle] < document) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.algocoach.util;
+
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded {@link LruCache} of per-key state that is loaded on first use and then kept
+ * current by applying committed changes to the cached value.
+ *
+ * Loads run outside the lock. A load that overlaps a change of its key (tracked with
+ * striped change counters) is returned to its caller but not cached, so a value read
+ * before the change committed never shadows it. Changes of keys that are not cached
+ * are dropped: the next load reads the committed state.
+ */
+public final class LoadingLruCache<K, V> {
+
+    private static final int STRIPES = 64;
+
+    private final LruCache<K, V> entries;
+    // Changes per key stripe, guarded by "this"
+    private final long[] changes = new long[STRIPES];
+
+    public LoadingLruCache(int maxSize) {
+        this.entries = new LruCache<>(maxSize);
+    }
+
+    /**
+     * The cached value, or null
+     */
+    public synchronized V getIfPresent(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * The cached value, or the loader's result (cached unless the key changed meanwhile)
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long stamp;
+        synchronized (this) {
+            V cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            stamp = changes[stripe(key)];
+        }
+        V loaded = loader.apply(key);
+        synchronized (this) {
+            V cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            if (changes[stripe(key)] == stamp) {
+                entries.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Apply a committed change to the cached value, if any; the function may update it in place
+     */
+    public synchronized void update(K key, UnaryOperator<V> change) {
+        changes[stripe(key)]++;
+        V cached = entries.get(key);
+        if (cached != null) {
+            entries.put(key, change.apply(cached));
+        }
+    }
+
+    /**
+     * Drop the key's cached value, returning it; loads of the key in flight are not cached
+     */
+    public synchronized V remove(K key) {
+        changes[stripe(key)]++;
+        return entries.remove(key);
+    }
+
+    /**
+     * Drop every cached value; no load in flight is cached
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            changes[i]++;
+        }
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long evictionCount() {
+        return entries.evictionCount();
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
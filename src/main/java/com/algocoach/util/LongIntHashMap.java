@@ -0,0 +1,154 @@
+package com.algocoach.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from non-negative long keys to int values, without boxing.
+ * Used as a counter for large numbers of keys (e.g. problem pair co-occurrences).
+ * Not thread safe.
+ */
+public final class LongIntHashMap {
+
+    private static final long FREE = -1L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Value for the key, 0 if absent
+     */
+    public int get(long key) {
+        if (key < 0) {
+            return 0;
+        }
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    /**
+     * Add {@code delta} to the key's value (starting from 0) and return the new value
+     */
+    public int addTo(long key, int delta) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative: " + key);
+        }
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            values[slot] = delta;
+            if (++size * 4 > keys.length * 3) {
+                rehash();
+            }
+            return delta;
+        }
+        return values[slot] += delta;
+    }
+
+    /**
+     * Remove the key, returning its value (0 if absent)
+     */
+    public int remove(long key) {
+        if (key < 0) {
+            return 0;
+        }
+        int slot = find(key);
+        if (keys[slot] != key) {
+            return 0;
+        }
+        int removed = values[slot];
+        // Backward-shift deletion keeps probe sequences intact without tombstones
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = FREE;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Set the key's value, returning the previous one (0 if absent)
+     */
+    public int put(long key, int value) {
+        int previous = get(key);
+        addTo(key, value - previous);
+        return previous;
+    }
+
+    public boolean containsKey(long key) {
+        return key >= 0 && keys[find(key)] == key;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != FREE) {
+                int target = find(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+}
@@ -0,0 +1,69 @@
+package com.algocoach.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Small thread-safe LRU map on top of an access-ordered {@link LinkedHashMap}.
+ * Once {@code maxSize} entries are reached, the least recently used entry is evicted.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+    private long evictionCount;
+
+    public LruCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized V remove(K key) {
+        return entries.remove(key);
+    }
+
+    public synchronized boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Visit all entries without changing their recency
+     */
+    public synchronized void forEach(BiConsumer<K, V> action) {
+        entries.forEach(action);
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+}
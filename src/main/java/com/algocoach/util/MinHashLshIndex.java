@@ -0,0 +1,214 @@
+package com.algocoach.util;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Locality-sensitive index of users by the set of problems they solved.
+ *
+ * Every user gets a MinHash signature ({@code bands * rowsPerBand} hash minimums over
+ * the solved ids); the fraction of equal signature slots estimates the Jaccard
+ * similarity of two users' solved sets. Signatures are split into bands and each band
+ * is hashed into a bucket, so similar users share at least one bucket with high
+ * probability and a query only compares against users in its own buckets.
+ * Adding a solve updates a signature in O(signature length). Thread safe: queries
+ * share a read lock and only run exclusively against signature and bucket updates.
+ */
+public final class MinHashLshIndex {
+
+    private static final long PRIME = (1L << 31) - 1;
+    private static final int EMPTY_SLOT = Integer.MAX_VALUE;
+
+    private final int bands;
+    private final int rowsPerBand;
+    private final long[] hashA;
+    private final long[] hashB;
+
+    private final Map<Long, int[]> signatures = new HashMap<>();
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MinHashLshIndex(int bands, int rowsPerBand, long seed) {
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+        int length = bands * rowsPerBand;
+        Random random = new Random(seed);
+        this.hashA = new long[length];
+        this.hashB = new long[length];
+        for (int i = 0; i < length; i++) {
+            hashA[i] = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            hashB[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Signature of a set of problem ids (usable as a query for users not in the index)
+     */
+    public int[] signature(ProblemIdBitmap items) {
+        int[] signature = new int[hashA.length];
+        Arrays.fill(signature, EMPTY_SLOT);
+        items.forEach(item -> {
+            for (int i = 0; i < signature.length; i++) {
+                signature[i] = Math.min(signature[i], hash(i, item));
+            }
+        });
+        return signature;
+    }
+
+    /**
+     * Replace a user's signature, e.g. after a solve was undone
+     */
+    public void put(long userId, ProblemIdBitmap solved) {
+        int[] signature = solved.isEmpty() ? null : signature(solved);
+        lock.writeLock().lock();
+        try {
+            if (signature == null) {
+                removeSignature(userId);
+            } else {
+                update(userId, signature);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fold one more solved problem into the user's signature
+     */
+    public void add(long userId, long problemId) {
+        int[] hashes = new int[hashA.length];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hash(i, problemId);
+        }
+        lock.writeLock().lock();
+        try {
+            int[] current = signatures.get(userId);
+            int[] updated = current == null ? hashes : current.clone();
+            boolean changed = current == null;
+            for (int i = 0; current != null && i < updated.length; i++) {
+                if (hashes[i] < updated[i]) {
+                    updated[i] = hashes[i];
+                    changed = true;
+                }
+            }
+            if (changed) {
+                update(userId, updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            removeSignature(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return signatures.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code k} users most similar to the signature, most similar first.
+     * At most {@code maxCandidates} bucket members are compared, so queries stay bounded
+     * even when many users share a bucket.
+     */
+    public List<Neighbor> query(int[] signature, int k, int maxCandidates) {
+        List<Neighbor> neighbors;
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = new HashSet<>();
+            for (int band = 0; band < bands && candidates.size() < maxCandidates; band++) {
+                Set<Long> bucket = buckets.get(bucketKey(band, signature));
+                if (bucket != null) {
+                    for (Long userId : bucket) {
+                        candidates.add(userId);
+                        if (candidates.size() >= maxCandidates) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            neighbors = new ArrayList<>(candidates.size());
+            for (Long userId : candidates) {
+                neighbors.add(new Neighbor(userId, estimateSimilarity(signature, signatures.get(userId))));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        neighbors.sort(Comparator.comparingDouble(Neighbor::similarity).reversed()
+                .thenComparingLong(Neighbor::userId));
+        return neighbors.size() > k ? new ArrayList<>(neighbors.subList(0, k)) : neighbors;
+    }
+
+    /**
+     * Estimated Jaccard similarity: the fraction of equal signature slots
+     */
+    public static double estimateSimilarity(int[] signature, int[] other) {
+        int equal = 0;
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] == other[i] && signature[i] != EMPTY_SLOT) {
+                equal++;
+            }
+        }
+        return (double) equal / signature.length;
+    }
+
+    // Callers hold the write lock
+
+    private void removeSignature(long userId) {
+        int[] signature = signatures.remove(userId);
+        if (signature != null) {
+            for (int band = 0; band < bands; band++) {
+                removeFromBucket(bucketKey(band, signature), userId);
+            }
+        }
+    }
+
+    private void update(long userId, int[] signature) {
+        int[] previous = signatures.put(userId, signature);
+        for (int band = 0; band < bands; band++) {
+            long key = bucketKey(band, signature);
+            if (previous != null) {
+                long previousKey = bucketKey(band, previous);
+                if (previousKey == key) {
+                    continue;
+                }
+                removeFromBucket(previousKey, userId);
+            }
+            buckets.computeIfAbsent(key, b -> new HashSet<>()).add(userId);
+        }
+    }
+
+    private void removeFromBucket(long key, long userId) {
+        Set<Long> bucket = buckets.get(key);
+        if (bucket != null && bucket.remove(userId) && bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    private int hash(int function, long item) {
+        return (int) ((hashA[function] * item + hashB[function]) % PRIME);
+    }
+
+    private long bucketKey(int band, int[] signature) {
+        long key = band;
+        for (int i = band * rowsPerBand, end = i + rowsPerBand; i < end; i++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[i];
+        }
+        return key ^ (key >>> 29);
+    }
+
+    public record Neighbor(long userId, double similarity) {}
+}
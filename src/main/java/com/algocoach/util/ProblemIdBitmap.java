@@ -0,0 +1,322 @@
+package com.algocoach.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable, compressed set of problem ids using roaring-style containers.
+ *
+ * Ids are split into a 16-bit key (high bits) and a 16-bit value (low bits). Each key
+ * owns either a sorted char[] (array container, up to 4096 values) or a long[1024]
+ * bitset (bitmap container). {@link #with} and {@link #without} return a new bitmap
+ * that shares every untouched container with the original, so a single update only
+ * copies one container and the key directory.
+ */
+public final class ProblemIdBitmap {
+
+    public static final ProblemIdBitmap EMPTY = new ProblemIdBitmap(new char[0], new Object[0], 0);
+
+    private static final int ARRAY_CONTAINER_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final char[] keys;
+    private final Object[] containers; // char[] or long[]
+    private final int cardinality;
+
+    private ProblemIdBitmap(char[] keys, Object[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    public static ProblemIdBitmap of(long... ids) {
+        Builder builder = new Builder();
+        for (long id : ids) {
+            builder.add(id);
+        }
+        return builder.build();
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            return false;
+        }
+        int value = (int) id;
+        int index = Arrays.binarySearch(keys, highBits(value));
+        if (index < 0) {
+            return false;
+        }
+        Object container = containers[index];
+        char low = lowBits(value);
+        if (container instanceof char[] array) {
+            return Arrays.binarySearch(array, low) >= 0;
+        }
+        long[] bitmap = (long[]) container;
+        return (bitmap[low >>> 6] & (1L << low)) != 0;
+    }
+
+    /**
+     * Return a bitmap that also contains the id (or this bitmap if it already does)
+     */
+    public ProblemIdBitmap with(long id) {
+        int value = checkId(id);
+        char high = highBits(value);
+        char low = lowBits(value);
+        int index = Arrays.binarySearch(keys, high);
+
+        if (index < 0) {
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Object[] newContainers = new Object[containers.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(containers, 0, newContainers, 0, insertAt);
+            newKeys[insertAt] = high;
+            newContainers[insertAt] = new char[]{low};
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(containers, insertAt, newContainers, insertAt + 1, containers.length - insertAt);
+            return new ProblemIdBitmap(newKeys, newContainers, cardinality + 1);
+        }
+
+        Object container = containers[index];
+        Object updated;
+        if (container instanceof char[] array) {
+            int position = Arrays.binarySearch(array, low);
+            if (position >= 0) {
+                return this;
+            }
+            int insertAt = -position - 1;
+            if (array.length + 1 > ARRAY_CONTAINER_MAX) {
+                long[] bitmap = toBitmap(array);
+                bitmap[low >>> 6] |= 1L << low;
+                updated = bitmap;
+            } else {
+                char[] newArray = new char[array.length + 1];
+                System.arraycopy(array, 0, newArray, 0, insertAt);
+                newArray[insertAt] = low;
+                System.arraycopy(array, insertAt, newArray, insertAt + 1, array.length - insertAt);
+                updated = newArray;
+            }
+        } else {
+            long[] bitmap = (long[]) container;
+            if ((bitmap[low >>> 6] & (1L << low)) != 0) {
+                return this;
+            }
+            long[] newBitmap = bitmap.clone();
+            newBitmap[low >>> 6] |= 1L << low;
+            updated = newBitmap;
+        }
+        Object[] newContainers = containers.clone();
+        newContainers[index] = updated;
+        return new ProblemIdBitmap(keys, newContainers, cardinality + 1);
+    }
+
+    /**
+     * Return a bitmap without the id (or this bitmap if it is not present)
+     */
+    public ProblemIdBitmap without(long id) {
+        if (!contains(id)) {
+            return this;
+        }
+        int value = (int) id;
+        int index = Arrays.binarySearch(keys, highBits(value));
+        char low = lowBits(value);
+        Object container = containers[index];
+
+        Object updated;
+        if (container instanceof char[] array) {
+            if (array.length == 1) {
+                // Last value for this key: drop the container entirely
+                char[] newKeys = new char[keys.length - 1];
+                Object[] newContainers = new Object[containers.length - 1];
+                System.arraycopy(keys, 0, newKeys, 0, index);
+                System.arraycopy(containers, 0, newContainers, 0, index);
+                System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+                System.arraycopy(containers, index + 1, newContainers, index, containers.length - index - 1);
+                return new ProblemIdBitmap(newKeys, newContainers, cardinality - 1);
+            }
+            int position = Arrays.binarySearch(array, low);
+            char[] newArray = new char[array.length - 1];
+            System.arraycopy(array, 0, newArray, 0, position);
+            System.arraycopy(array, position + 1, newArray, position, array.length - position - 1);
+            updated = newArray;
+        } else {
+            long[] newBitmap = ((long[]) container).clone();
+            newBitmap[low >>> 6] &= ~(1L << low);
+            updated = bitmapCardinality(newBitmap) <= ARRAY_CONTAINER_MAX ? toArray(newBitmap) : newBitmap;
+        }
+        Object[] newContainers = containers.clone();
+        newContainers[index] = updated;
+        return new ProblemIdBitmap(keys, newContainers, cardinality - 1);
+    }
+
+    /**
+     * Visit every id in ascending order
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            int base = keys[i] << 16;
+            Object container = containers[i];
+            if (container instanceof char[] array) {
+                for (char low : array) {
+                    consumer.accept(base | low);
+                }
+            } else {
+                long[] bitmap = (long[]) container;
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    long bits = bitmap[word];
+                    while (bits != 0) {
+                        int bit = Long.numberOfTrailingZeros(bits);
+                        consumer.accept(base | (word << 6) | bit);
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the bit of every id below {@code bitSet.length * 64} in a plain bitset indexed
+     * by id; bitmap containers are OR-ed in word by word
+     */
+    public void orInto(long[] bitSet) {
+        for (int i = 0; i < keys.length; i++) {
+            // 1024 words per key
+            int baseWord = keys[i] << 10;
+            if (baseWord >= bitSet.length) {
+                return;
+            }
+            Object container = containers[i];
+            if (container instanceof char[] array) {
+                for (char low : array) {
+                    int word = baseWord + (low >>> 6);
+                    if (word >= bitSet.length) {
+                        break;
+                    }
+                    bitSet[word] |= 1L << low;
+                }
+            } else {
+                long[] bitmap = (long[]) container;
+                int words = Math.min(BITMAP_WORDS, bitSet.length - baseWord);
+                for (int word = 0; word < words; word++) {
+                    bitSet[baseWord + word] |= bitmap[word];
+                }
+            }
+        }
+    }
+
+    /**
+     * All ids in ascending order
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality];
+        int[] position = {0};
+        forEach(id -> result[position[0]++] = id);
+        return result;
+    }
+
+    private static int checkId(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Problem id out of bitmap range: " + id);
+        }
+        return (int) id;
+    }
+
+    private static char highBits(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char lowBits(int value) {
+        return (char) value;
+    }
+
+    private static long[] toBitmap(char[] array) {
+        long[] bitmap = new long[BITMAP_WORDS];
+        for (char low : array) {
+            bitmap[low >>> 6] |= 1L << low;
+        }
+        return bitmap;
+    }
+
+    private static char[] toArray(long[] bitmap) {
+        char[] array = new char[bitmapCardinality(bitmap)];
+        int position = 0;
+        for (int word = 0; word < BITMAP_WORDS; word++) {
+            long bits = bitmap[word];
+            while (bits != 0) {
+                array[position++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return array;
+    }
+
+    private static int bitmapCardinality(long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Mutable builder for loading a whole bitmap at once (e.g. from a query result)
+     */
+    public static final class Builder {
+        private int[] values = new int[16];
+        private int size;
+
+        public Builder add(long id) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = checkId(id);
+            return this;
+        }
+
+        public ProblemIdBitmap build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+
+            char[] keys = new char[size];
+            Object[] containers = new Object[size];
+            int containerCount = 0;
+            int cardinality = 0;
+            int start = 0;
+            while (start < sorted.length) {
+                char high = highBits(sorted[start]);
+                int end = start;
+                while (end < sorted.length && highBits(sorted[end]) == high) {
+                    end++;
+                }
+                // Distinct low bits for this key
+                char[] lows = new char[end - start];
+                int count = 0;
+                for (int i = start; i < end; i++) {
+                    char low = lowBits(sorted[i]);
+                    if (count == 0 || lows[count - 1] != low) {
+                        lows[count++] = low;
+                    }
+                }
+                lows = Arrays.copyOf(lows, count);
+                keys[containerCount] = high;
+                containers[containerCount] = count > ARRAY_CONTAINER_MAX ? toBitmap(lows) : lows;
+                containerCount++;
+                cardinality += count;
+                start = end;
+            }
+            return new ProblemIdBitmap(Arrays.copyOf(keys, containerCount),
+                    Arrays.copyOf(containers, containerCount), cardinality);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.algocoach.util;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Ids kept sorted by a double rating (ties by id) in parallel primitive arrays.
+ *
+ * Lookups are binary searches. A rating update moves the entry with one array copy
+ * over the entries it passes, which stays short for Elo style updates that only
+ * move a rating by a few points. Not thread safe.
+ */
+public final class RatingIndex {
+
+    private double[] ratings;
+    private long[] ids;
+    private int size;
+
+    public RatingIndex() {
+        this(16);
+    }
+
+    public RatingIndex(int expectedSize) {
+        int capacity = Math.max(1, expectedSize);
+        ratings = new double[capacity];
+        ids = new long[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int position) {
+        return ids[position];
+    }
+
+    public double rating(int position) {
+        return ratings[position];
+    }
+
+    /**
+     * Add an id with its rating (the id must not already be present)
+     */
+    public void add(long id, double rating) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ratings = Arrays.copyOf(ratings, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        int position = insertionPoint(rating, id);
+        System.arraycopy(ratings, position, ratings, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ratings[position] = rating;
+        ids[position] = id;
+        size++;
+    }
+
+    /**
+     * Remove an id stored with the given rating
+     *
+     * @return false if no such entry exists
+     */
+    public boolean remove(long id, double rating) {
+        int position = indexOf(id, rating);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ratings, position + 1, ratings, position, size - position - 1);
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Change the rating of an id stored with {@code oldRating}
+     *
+     * @return false if no such entry exists
+     */
+    public boolean update(long id, double oldRating, double newRating) {
+        int from = indexOf(id, oldRating);
+        if (from < 0) {
+            return false;
+        }
+        int to = insertionPoint(newRating, id);
+        if (to > from) {
+            // The entry itself is still in the array, so it counts once before "to"
+            to--;
+            System.arraycopy(ratings, from + 1, ratings, from, to - from);
+            System.arraycopy(ids, from + 1, ids, from, to - from);
+        } else if (to < from) {
+            System.arraycopy(ratings, to, ratings, to + 1, from - to);
+            System.arraycopy(ids, to, ids, to + 1, from - to);
+        }
+        ratings[to] = newRating;
+        ids[to] = id;
+        return true;
+    }
+
+    /**
+     * Number of entries rated within [{@code min}, {@code max}]
+     */
+    public int count(double min, double max) {
+        if (max < min) {
+            return 0;
+        }
+        return insertionPoint(max, Long.MAX_VALUE) - insertionPoint(min, Long.MIN_VALUE);
+    }
+
+    /**
+     * Collect up to {@code out.length} ids closest to {@code target}, nearest first,
+     * rated at most {@code maxDistance} away, walking outwards from the target
+     *
+     * @param skip ids to leave out (e.g. already solved problems)
+     * @return how many ids were written to {@code out}
+     */
+    public int nearest(double target, double maxDistance, LongPredicate skip, long[] out) {
+        int below = insertionPoint(target, Long.MIN_VALUE) - 1;
+        int above = below + 1;
+        int count = 0;
+        while (count < out.length) {
+            double belowDistance = below >= 0 ? target - ratings[below] : Double.POSITIVE_INFINITY;
+            double aboveDistance = above < size ? ratings[above] - target : Double.POSITIVE_INFINITY;
+            int position;
+            if (belowDistance <= aboveDistance) {
+                if (belowDistance > maxDistance) {
+                    break;
+                }
+                position = below--;
+            } else {
+                if (aboveDistance > maxDistance) {
+                    break;
+                }
+                position = above++;
+            }
+            if (!skip.test(ids[position])) {
+                out[count++] = ids[position];
+            }
+        }
+        return count;
+    }
+
+    private int indexOf(long id, double rating) {
+        int position = insertionPoint(rating, id);
+        return position < size && ids[position] == id && Double.compare(ratings[position], rating) == 0 ? position : -1;
+    }
+
+    /**
+     * First position whose (rating, id) is not less than the given pair
+     */
+    private int insertionPoint(double rating, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int compare = Double.compare(ratings[middle], rating);
+            if (compare < 0 || (compare == 0 && ids[middle] < id)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,210 @@
+package com.algocoach.util;
+
+import java.util.Arrays;
+
+/**
+ * Ids ranked by a non-negative int score, with a Fenwick tree over score buckets.
+ *
+ * The tree counts ids per score, so the number of ids above a score (and with it a
+ * rank) is a prefix sum, and the bucket holding the k-th best id is found by a tree
+ * descent, both in O(log maxScore). Each bucket keeps its ids unordered, with the
+ * position of every id in a side map so moving an id between buckets is O(1).
+ * Ties are ranked equally ("1224" ranking) and listed by ascending id. The bucket
+ * range doubles when a higher score shows up. Not thread safe.
+ */
+public final class ScoreRankIndex {
+
+    private int[] tree; // 1-based Fenwick tree, bucket i at tree index i + 1
+    private long[][] buckets;
+    private int[] bucketSizes;
+    private final LongIntHashMap scores = new LongIntHashMap();
+    private final LongIntHashMap positions = new LongIntHashMap();
+
+    public ScoreRankIndex() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedMaxScore initial score range (grows as needed)
+     */
+    public ScoreRankIndex(int expectedMaxScore) {
+        int capacity = Math.max(2, expectedMaxScore + 1);
+        tree = new int[capacity + 1];
+        buckets = new long[capacity][];
+        bucketSizes = new int[capacity];
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    public boolean contains(long id) {
+        return scores.containsKey(id);
+    }
+
+    /**
+     * Score of the id, 0 if absent
+     */
+    public int score(long id) {
+        return scores.get(id);
+    }
+
+    /**
+     * Insert the id or move it to a new score
+     */
+    public void set(long id, int score) {
+        if (score < 0) {
+            throw new IllegalArgumentException("Scores must be non-negative: " + score);
+        }
+        if (scores.containsKey(id)) {
+            int previous = scores.get(id);
+            if (previous == score) {
+                return;
+            }
+            unlink(id, previous);
+        }
+        if (score >= bucketSizes.length) {
+            grow(score);
+        }
+        link(id, score);
+        scores.put(id, score);
+    }
+
+    /**
+     * Remove the id
+     *
+     * @return false if it was not present
+     */
+    public boolean remove(long id) {
+        if (!scores.containsKey(id)) {
+            return false;
+        }
+        unlink(id, scores.remove(id));
+        return true;
+    }
+
+    /**
+     * Number of ids scored strictly higher than {@code score}
+     */
+    public int countAbove(int score) {
+        if (score < 0) {
+            return size();
+        }
+        if (score >= bucketSizes.length) {
+            return 0;
+        }
+        return size() - prefixCount(score);
+    }
+
+    /**
+     * 1-based rank of the id (one more than the number of higher scores), 0 if absent
+     */
+    public int rank(long id) {
+        return contains(id) ? countAbove(scores.get(id)) + 1 : 0;
+    }
+
+    /**
+     * Write the best ids (highest score first, ties by ascending id) and their scores
+     *
+     * @return how many entries were written, at most {@code ids.length}
+     */
+    public int top(long[] ids, int[] topScores) {
+        int limit = Math.min(ids.length, size());
+        int count = 0;
+        while (count < limit) {
+            // Bucket holding the (count + 1)-th best id, i.e. the (size - count)-th lowest
+            int score = findByPrefix(size() - count);
+            int bucketSize = bucketSizes[score];
+            long[] members = Arrays.copyOf(buckets[score], bucketSize);
+            Arrays.sort(members);
+            int take = Math.min(bucketSize, limit - count);
+            for (int i = 0; i < take; i++) {
+                ids[count] = members[i];
+                topScores[count] = score;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void link(long id, int score) {
+        long[] bucket = buckets[score];
+        int size = bucketSizes[score];
+        if (bucket == null) {
+            bucket = new long[4];
+        } else if (size == bucket.length) {
+            bucket = Arrays.copyOf(bucket, size * 2);
+        }
+        bucket[size] = id;
+        buckets[score] = bucket;
+        bucketSizes[score] = size + 1;
+        positions.put(id, size);
+        add(score, 1);
+    }
+
+    private void unlink(long id, int score) {
+        long[] bucket = buckets[score];
+        int position = positions.remove(id);
+        int last = --bucketSizes[score];
+        if (position != last) {
+            // Swap the last id into the hole
+            bucket[position] = bucket[last];
+            positions.put(bucket[position], position);
+        }
+        if (last == 0) {
+            buckets[score] = null;
+        }
+        add(score, -1);
+    }
+
+    private void add(int score, int delta) {
+        for (int i = score + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Number of ids scored at most {@code score}
+     */
+    private int prefixCount(int score) {
+        int sum = 0;
+        for (int i = score + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Lowest score whose prefix count reaches {@code target} (1 <= target <= size)
+     */
+    private int findByPrefix(int target) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] < target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        // position is the last tree index with a prefix below target; the bucket is the next one
+        return position;
+    }
+
+    private void grow(int score) {
+        int capacity = bucketSizes.length;
+        while (capacity <= score) {
+            capacity *= 2;
+        }
+        buckets = Arrays.copyOf(buckets, capacity);
+        bucketSizes = Arrays.copyOf(bucketSizes, capacity);
+        // Rebuild the tree in O(capacity)
+        tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += bucketSizes[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
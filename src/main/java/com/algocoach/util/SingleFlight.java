@@ -0,0 +1,75 @@
+package com.algocoach.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key.
+ *
+ * The first caller for a key runs the computation on its own thread and publishes
+ * a {@link CompletableFuture}; callers arriving while it is in flight wait on that
+ * future instead of computing again. Nothing is cached: once the computation
+ * finishes, the next caller starts a new one. Results are shared, so they should
+ * not be mutated by callers.
+ *
+ * A joining caller gets the result of a computation that may have started before it
+ * arrived. Callers that must see a change of the inputs should put a version of them
+ * in the key, so computations started before the change are not joined.
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Run the computation for the key, or wait for the one already running.
+     * Exceptions of the computation are rethrown to every caller.
+     */
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.increment();
+            return join(running);
+        }
+        try {
+            V value = computation.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Number of calls that joined an in-flight computation instead of running their own
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.algocoach.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, symmetric item-to-item similarity matrix in compressed sparse row (CSR) form.
+ *
+ * Rows are problems that have at least one neighbor, in ascending id order. The neighbors
+ * of row {@code r} occupy positions {@code rowStart(r)} until {@code rowEnd(r)} of the
+ * parallel {@code columns} (row indexes) and {@code weights} arrays, strongest first.
+ * Everything is stored in primitive arrays: roughly 8 bytes per kept neighbor.
+ */
+public final class SparseSimilarityMatrix {
+
+    public static final SparseSimilarityMatrix EMPTY =
+            new SparseSimilarityMatrix(new int[0], new int[]{0}, new int[0], new float[0]);
+
+    private final int[] ids;
+    private final int[] offsets;
+    private final int[] columns;
+    private final float[] weights;
+
+    private SparseSimilarityMatrix(int[] ids, int[] offsets, int[] columns, float[] weights) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.columns = columns;
+        this.weights = weights;
+    }
+
+    /**
+     * Number of rows (problems with at least one neighbor)
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Number of stored neighbor entries
+     */
+    public int nonZeros() {
+        return columns.length;
+    }
+
+    /**
+     * Row index of the problem, -1 if it has no neighbors
+     */
+    public int indexOf(long problemId) {
+        if (problemId < 0 || problemId > Integer.MAX_VALUE) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(ids, (int) problemId);
+        return index >= 0 ? index : -1;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public int rowStart(int row) {
+        return offsets[row];
+    }
+
+    public int rowEnd(int row) {
+        return offsets[row + 1];
+    }
+
+    /**
+     * Row index of the neighbor stored at the position
+     */
+    public int column(int position) {
+        return columns[position];
+    }
+
+    public float weight(int position) {
+        return weights[position];
+    }
+
+    /**
+     * Similarity between two problems, 0 if not among each other's kept neighbors
+     */
+    public float similarity(long problemId, long otherProblemId) {
+        int row = indexOf(problemId);
+        int other = indexOf(otherProblemId);
+        if (row < 0 || other < 0) {
+            return 0f;
+        }
+        for (int position = offsets[row]; position < offsets[row + 1]; position++) {
+            if (columns[position] == other) {
+                return weights[position];
+            }
+        }
+        return 0f;
+    }
+
+    /**
+     * Accumulates symmetric pairs and prunes every row to its strongest neighbors
+     */
+    public static final class Builder {
+        private int[] left = new int[64];
+        private int[] right = new int[64];
+        private float[] pairWeights = new float[64];
+        private int size;
+
+        /**
+         * Add a similarity between two distinct problems (once per pair)
+         */
+        public Builder add(long problemId, long otherProblemId, float weight) {
+            if (problemId == otherProblemId) {
+                throw new IllegalArgumentException("Self similarity is not stored: " + problemId);
+            }
+            if (size == left.length) {
+                left = Arrays.copyOf(left, size * 2);
+                right = Arrays.copyOf(right, size * 2);
+                pairWeights = Arrays.copyOf(pairWeights, size * 2);
+            }
+            left[size] = checkId(problemId);
+            right[size] = checkId(otherProblemId);
+            pairWeights[size] = weight;
+            size++;
+            return this;
+        }
+
+        /**
+         * Build the matrix keeping at most {@code maxNeighbors} entries per row
+         */
+        public SparseSimilarityMatrix build(int maxNeighbors) {
+            if (size == 0 || maxNeighbors <= 0) {
+                return EMPTY;
+            }
+            // Distinct row ids in ascending order
+            int[] all = new int[size * 2];
+            System.arraycopy(left, 0, all, 0, size);
+            System.arraycopy(right, 0, all, size, size);
+            Arrays.sort(all);
+            int distinct = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (distinct == 0 || all[distinct - 1] != all[i]) {
+                    all[distinct++] = all[i];
+                }
+            }
+            int[] ids = Arrays.copyOf(all, distinct);
+
+            // Unpruned CSR of both directions of every pair
+            int[] counts = new int[distinct + 1];
+            int[] leftRows = new int[size];
+            int[] rightRows = new int[size];
+            for (int i = 0; i < size; i++) {
+                leftRows[i] = Arrays.binarySearch(ids, left[i]);
+                rightRows[i] = Arrays.binarySearch(ids, right[i]);
+                counts[leftRows[i] + 1]++;
+                counts[rightRows[i] + 1]++;
+            }
+            for (int row = 0; row < distinct; row++) {
+                counts[row + 1] += counts[row];
+            }
+            int[] fill = Arrays.copyOf(counts, distinct);
+            int[] rawColumns = new int[size * 2];
+            double[] rawWeights = new double[size * 2];
+            for (int i = 0; i < size; i++) {
+                int position = fill[leftRows[i]]++;
+                rawColumns[position] = rightRows[i];
+                rawWeights[position] = pairWeights[i];
+                position = fill[rightRows[i]]++;
+                rawColumns[position] = leftRows[i];
+                rawWeights[position] = pairWeights[i];
+            }
+
+            // Keep the strongest neighbors of each row, best first
+            int[] offsets = new int[distinct + 1];
+            int[] columns = new int[rawColumns.length];
+            float[] weights = new float[columns.length];
+            int written = 0;
+            for (int row = 0; row < distinct; row++) {
+                int start = counts[row];
+                int length = counts[row + 1] - start;
+                double[] rowWeights = Arrays.copyOfRange(rawWeights, start, start + length);
+                for (int index : TopKSelector.select(rowWeights, length, maxNeighbors)) {
+                    columns[written] = rawColumns[start + index];
+                    weights[written] = (float) rowWeights[index];
+                    written++;
+                }
+                offsets[row + 1] = written;
+            }
+            return new SparseSimilarityMatrix(ids, offsets, Arrays.copyOf(columns, written), Arrays.copyOf(weights, written));
+        }
+
+        private static int checkId(long id) {
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Problem id out of matrix range: " + id);
+            }
+            return (int) id;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.algocoach.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of L2-normalized sparse vectors (e.g. TF-IDF of hashed features), one
+ * row per problem, in CSR form with ascending row ids and ascending features per row.
+ *
+ * Weights are kept either as floats or, when quantized, as one signed byte per entry
+ * plus a float scale per row, which cuts weight storage to a quarter at a small loss
+ * of precision in the cosine scores.
+ */
+public final class SparseVectorIndex {
+
+    private final int[] ids;
+    private final int[] offsets;
+    private final int[] features;
+    private final float[] weights;        // null when quantized
+    private final byte[] quantizedWeights; // null when not quantized
+    private final float[] rowScales;
+
+    private SparseVectorIndex(int[] ids, int[] offsets, int[] features, float[] weights,
+                              byte[] quantizedWeights, float[] rowScales) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.features = features;
+        this.weights = weights;
+        this.quantizedWeights = quantizedWeights;
+        this.rowScales = rowScales;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isQuantized() {
+        return quantizedWeights != null;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Row of the problem, -1 if it is not indexed
+     */
+    public int indexOf(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            return -1;
+        }
+        int row = Arrays.binarySearch(ids, (int) id);
+        return row >= 0 ? row : -1;
+    }
+
+    /**
+     * Cosine similarity of two rows (dot product of normalized vectors)
+     */
+    public double dot(int row, int other) {
+        int i = offsets[row];
+        int iEnd = offsets[row + 1];
+        int j = offsets[other];
+        int jEnd = offsets[other + 1];
+        double sum = 0.0;
+        while (i < iEnd && j < jEnd) {
+            int feature = features[i];
+            int otherFeature = features[j];
+            if (feature == otherFeature) {
+                sum += weight(i) * weight(j);
+                i++;
+                j++;
+            } else if (feature < otherFeature) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return isQuantized() ? sum * rowScales[row] * rowScales[other] : sum;
+    }
+
+    /**
+     * Dot product of a row with a dense vector indexed by feature
+     */
+    public double dot(int row, float[] dense) {
+        double sum = 0.0;
+        for (int position = offsets[row]; position < offsets[row + 1]; position++) {
+            sum += weight(position) * dense[features[position]];
+        }
+        return isQuantized() ? sum * rowScales[row] : sum;
+    }
+
+    /**
+     * Add the row, times {@code factor}, into a dense vector indexed by feature
+     */
+    public void addTo(int row, float[] dense, float factor) {
+        float scale = isQuantized() ? rowScales[row] * factor : factor;
+        for (int position = offsets[row]; position < offsets[row + 1]; position++) {
+            dense[features[position]] += weight(position) * scale;
+        }
+    }
+
+    private float weight(int position) {
+        return weights != null ? weights[position] : quantizedWeights[position];
+    }
+
+    /**
+     * Collects rows in any order; every row is L2-normalized when built
+     */
+    public static final class Builder {
+        private int[][] rowFeatures;
+        private float[][] rowWeights;
+        private int[] rowIds;
+        private int size;
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(1, expectedRows);
+            rowFeatures = new int[capacity][];
+            rowWeights = new float[capacity][];
+            rowIds = new int[capacity];
+        }
+
+        /**
+         * @param features distinct features in ascending order
+         * @param weights raw weights matching {@code features}
+         */
+        public Builder add(long id, int[] features, float[] weights) {
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Row id out of range: " + id);
+            }
+            if (size == rowIds.length) {
+                rowFeatures = Arrays.copyOf(rowFeatures, size * 2);
+                rowWeights = Arrays.copyOf(rowWeights, size * 2);
+                rowIds = Arrays.copyOf(rowIds, size * 2);
+            }
+            rowIds[size] = (int) id;
+            rowFeatures[size] = features;
+            rowWeights[size] = weights;
+            size++;
+            return this;
+        }
+
+        public SparseVectorIndex build(boolean quantize) {
+            Integer[] order = new Integer[size];
+            int total = 0;
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+                total += rowFeatures[i].length;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(rowIds[a], rowIds[b]));
+
+            int[] ids = new int[size];
+            int[] offsets = new int[size + 1];
+            int[] features = new int[total];
+            float[] weights = quantize ? null : new float[total];
+            byte[] quantized = quantize ? new byte[total] : null;
+            float[] scales = quantize ? new float[size] : null;
+            int position = 0;
+            for (int row = 0; row < size; row++) {
+                int source = order[row];
+                ids[row] = rowIds[source];
+                float[] raw = rowWeights[source];
+                double norm = 0.0;
+                float max = 0f;
+                for (float weight : raw) {
+                    norm += (double) weight * weight;
+                    max = Math.max(max, Math.abs(weight));
+                }
+                float inverseNorm = norm > 0 ? (float) (1.0 / Math.sqrt(norm)) : 0f;
+                if (quantize) {
+                    // Largest entry maps to 127
+                    scales[row] = max > 0 ? max * inverseNorm / 127f : 0f;
+                }
+                System.arraycopy(rowFeatures[source], 0, features, position, raw.length);
+                for (int i = 0; i < raw.length; i++) {
+                    if (quantize) {
+                        quantized[position + i] = max > 0 ? (byte) Math.round(raw[i] / max * 127f) : 0;
+                    } else {
+                        weights[position + i] = raw[i] * inverseNorm;
+                    }
+                }
+                position += raw.length;
+                offsets[row + 1] = position;
+            }
+            return new SparseVectorIndex(ids, offsets, features, weights, quantized, scales);
+        }
+    }
+}
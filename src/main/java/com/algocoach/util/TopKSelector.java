@@ -0,0 +1,84 @@
+package com.algocoach.util;
+
+/**
+ * Selects the indices of the K highest scores with a bounded min-heap,
+ * in O(n log k) time and O(k) extra space, without sorting the whole input.
+ */
+public final class TopKSelector {
+
+    private TopKSelector() {}
+
+    /**
+     * Indices of the top {@code k} scores among the first {@code size} entries, best first.
+     * Ties keep the lower index first, so callers can pre-order candidates by a tie-breaker.
+     */
+    public static int[] select(double[] scores, int size, int k) {
+        int capacity = Math.min(k, size);
+        if (capacity <= 0) {
+            return new int[0];
+        }
+        // Min-heap of indices: heap[0] is the weakest of the current top K
+        int[] heap = new int[capacity];
+        int heapSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (heapSize < capacity) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, scores);
+            } else if (worse(heap[0], i, scores)) {
+                heap[0] = i;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+        // Pop weakest first, filling the result from the back
+        int[] result = new int[heapSize];
+        for (int position = heapSize - 1; position >= 0; position--) {
+            result[position] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        return result;
+    }
+
+    /**
+     * Whether candidate a ranks below candidate b
+     */
+    private static boolean worse(int a, int b, double[] scores) {
+        int comparison = Double.compare(scores[a], scores[b]);
+        return comparison < 0 || (comparison == 0 && a > b);
+    }
+
+    private static void siftUp(int[] heap, int position, double[] scores) {
+        int item = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!worse(item, heap[parent], scores)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = item;
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int item = heap[0];
+        int position = 0;
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && worse(heap[right], heap[child], scores)) {
+                child = right;
+            }
+            if (!worse(heap[child], item, scores)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = item;
+    }
+}
@@ -0,0 +1,217 @@
+package com.algocoach.util;
+
+import java.util.*;
+
+/**
+ * Immutable prerequisite DAG over topics with its transitive closure.
+ *
+ * Nodes are numbered in topological order (prerequisites first, ties in insertion
+ * order), so any bitset of nodes iterated by ascending bit is already a valid study
+ * order. Each node stores the bitset of all its direct and indirect prerequisites;
+ * reachability is one bit test and a learning path is one OR/AND-NOT over
+ * {@code ceil(n / 64)} words.
+ */
+public final class TopicGraph {
+
+    private final String[] topics;
+    private final Map<String, Integer> indexByKey;
+    private final int[][] prerequisites;
+    private final long[][] ancestors;
+
+    private TopicGraph(String[] topics, int[][] prerequisites) {
+        this.topics = topics;
+        this.prerequisites = prerequisites;
+        this.indexByKey = new HashMap<>(topics.length * 2);
+        for (int i = 0; i < topics.length; i++) {
+            indexByKey.put(key(topics[i]), i);
+        }
+        // Prerequisites have smaller indexes, so their closures are complete when needed
+        this.ancestors = new long[topics.length][];
+        for (int node = 0; node < topics.length; node++) {
+            long[] closure = newSet();
+            for (int prerequisite : prerequisites[node]) {
+                or(closure, ancestors[prerequisite]);
+                add(closure, prerequisite);
+            }
+            ancestors[node] = closure;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return topics.length;
+    }
+
+    /**
+     * Node of a topic (case insensitive), or -1 if unknown
+     */
+    public int indexOf(String topic) {
+        return indexByKey.getOrDefault(key(topic), -1);
+    }
+
+    public String topic(int node) {
+        return topics[node];
+    }
+
+    /**
+     * Direct prerequisites of a node
+     */
+    public int[] prerequisitesOf(int node) {
+        return prerequisites[node].clone();
+    }
+
+    /**
+     * Whether {@code prerequisite} is a direct or indirect prerequisite of {@code node}
+     */
+    public boolean requires(int node, int prerequisite) {
+        return contains(ancestors[node], prerequisite);
+    }
+
+    /**
+     * Empty node set sized for this graph
+     */
+    public long[] newSet() {
+        return new long[(topics.length + 63) >>> 6];
+    }
+
+    /**
+     * The target and all its prerequisites that are not in {@code done}, prerequisites
+     * first. A null target means every topic.
+     */
+    public int[] pathTo(Integer target, long[] done) {
+        long[] path;
+        if (target == null) {
+            path = newSet();
+            for (int node = 0; node < topics.length; node++) {
+                add(path, node);
+            }
+        } else {
+            path = ancestors[target].clone();
+            add(path, target);
+        }
+        int count = 0;
+        for (int word = 0; word < path.length; word++) {
+            path[word] &= ~done[word];
+            count += Long.bitCount(path[word]);
+        }
+        int[] result = new int[count];
+        int position = 0;
+        for (int word = 0; word < path.length; word++) {
+            long bits = path[word];
+            while (bits != 0) {
+                result[position++] = (word << 6) | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    public static void add(long[] set, int node) {
+        set[node >>> 6] |= 1L << node;
+    }
+
+    public static boolean contains(long[] set, int node) {
+        return (set[node >>> 6] & (1L << node)) != 0;
+    }
+
+    private static void or(long[] target, long[] source) {
+        for (int word = 0; word < target.length; word++) {
+            target[word] |= source[word];
+        }
+    }
+
+    private static String key(String topic) {
+        return topic.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects topics and prerequisite edges; {@link #build} sorts them topologically
+     */
+    public static final class Builder {
+        private final Map<String, Integer> idsByKey = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<Set<Integer>> edges = new ArrayList<>();
+
+        public Builder addTopic(String topic) {
+            id(topic);
+            return this;
+        }
+
+        public Builder addPrerequisite(String topic, String prerequisite) {
+            int node = id(topic);
+            int required = id(prerequisite);
+            if (node == required) {
+                throw new IllegalArgumentException("Topic cannot require itself: " + topic);
+            }
+            edges.get(node).add(required);
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the prerequisites contain a cycle
+         */
+        public TopicGraph build() {
+            int n = names.size();
+            int[] missing = new int[n];
+            List<List<Integer>> dependents = new ArrayList<>(n);
+            for (int id = 0; id < n; id++) {
+                dependents.add(new ArrayList<>());
+            }
+            for (int id = 0; id < n; id++) {
+                missing[id] = edges.get(id).size();
+                for (int required : edges.get(id)) {
+                    dependents.get(required).add(id);
+                }
+            }
+
+            // Kahn's algorithm; the smallest insertion id goes first for a stable order
+            PriorityQueue<Integer> ready = new PriorityQueue<>();
+            for (int id = 0; id < n; id++) {
+                if (missing[id] == 0) {
+                    ready.add(id);
+                }
+            }
+            int[] nodeById = new int[n];
+            String[] topics = new String[n];
+            int next = 0;
+            while (!ready.isEmpty()) {
+                int id = ready.poll();
+                nodeById[id] = next;
+                topics[next++] = names.get(id);
+                for (int dependent : dependents.get(id)) {
+                    if (--missing[dependent] == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+            if (next < n) {
+                for (int id = 0; id < n; id++) {
+                    if (missing[id] > 0) {
+                        throw new IllegalArgumentException("Topic prerequisites contain a cycle through: " + names.get(id));
+                    }
+                }
+            }
+
+            int[][] prerequisites = new int[n][];
+            for (int id = 0; id < n; id++) {
+                prerequisites[nodeById[id]] = edges.get(id).stream().mapToInt(required -> nodeById[required]).sorted().toArray();
+            }
+            return new TopicGraph(topics, prerequisites);
+        }
+
+        private int id(String topic) {
+            String name = topic.trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Topic name is empty");
+            }
+            return idsByKey.computeIfAbsent(key(name), k -> {
+                names.add(name);
+                edges.add(new LinkedHashSet<>());
+                return names.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.algocoach.benchmark;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.service.RecommendationScoringEngine;
+import com.algocoach.service.scoring.AcceptanceRateScorer;
+import com.algocoach.service.scoring.CandidateBatch;
+import com.algocoach.service.scoring.ConfidenceGapScorer;
+import com.algocoach.service.scoring.ScoringContext;
+import com.algocoach.service.scoring.StalenessScorer;
+import com.algocoach.service.scoring.TopicWeaknessScorer;
+import com.algocoach.util.ProblemIdBitmap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the old recommendation ranking (full sort by acceptance rate, then limit)
+ * with the scoring engine (four scorers plus bounded top-K heap).
+ *
+ * Run with:
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.algocoach.benchmark.RecommendationRankingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RecommendationRankingBenchmark {
+
+    private static final int LIMIT = 20;
+    private static final int TOPICS = 25;
+
+    @Param({"1000", "10000", "100000"})
+    private int candidates;
+
+    private List<ProblemSummary> problems;
+    private CandidateBatch batch;
+    private ScoringContext context;
+    private RecommendationScoringEngine engine;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Difficulty[] difficulties = Difficulty.values();
+        problems = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            problems.add(new ProblemSummary(i + 1, "Problem " + i, difficulties[random.nextInt(difficulties.length)],
+                    "Topic " + random.nextInt(TOPICS), 20 + random.nextDouble() * 60));
+        }
+
+        batch = new CandidateBatch(candidates);
+        problems.forEach(batch::add);
+
+        Map<String, Long> solvedByTopic = new HashMap<>();
+        Map<String, LocalDateTime> lastSolvedByTopic = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int t = 0; t < TOPICS; t += 2) {
+            solvedByTopic.put("Topic " + t, (long) random.nextInt(30));
+            lastSolvedByTopic.put("Topic " + t, now.minusDays(random.nextInt(60)));
+        }
+        context = new ScoringContext(Difficulty.MEDIUM, new double[]{0.8, 0.55, Double.NaN},
+                solvedByTopic, lastSolvedByTopic, now, ProblemIdBitmap.EMPTY, Collections.emptyMap());
+
+        engine = new RecommendationScoringEngine(List.of(
+                new TopicWeaknessScorer(0.35),
+                new ConfidenceGapScorer(0.3),
+                new AcceptanceRateScorer(0.2),
+                new StalenessScorer(0.15, 14)));
+    }
+
+    @Benchmark
+    public List<Long> fullSortThenLimit() {
+        List<ProblemSummary> sorted = new ArrayList<>(problems);
+        sorted.sort((p1, p2) -> Double.compare(p2.acceptanceRate(), p1.acceptanceRate()));
+        return sorted.stream().limit(LIMIT).map(ProblemSummary::id).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Long> scoringEngineTopK() {
+        CandidateBatch fresh = new CandidateBatch(problems.size());
+        for (ProblemSummary problem : problems) {
+            fresh.add(problem);
+        }
+        return engine.rank(context, fresh, LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> scoringEngineTopKPrebuiltBatch() {
+        return engine.rank(context, batch, LIMIT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RecommendationRankingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,176 @@
+package com.algocoach.benchmark;
+
+import com.algocoach.AlgoCoachApplication;
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.repository.UserRepository;
+import com.algocoach.service.UserSkillAggregateService;
+import com.algocoach.service.UserSkillProfile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the ways of loading the data behind /mvp/stats for one user:
+ * the original six statements (three counts, two GROUP BYs, the solved entity list
+ * plus lazy problem loads for the per-difficulty confidence), one grouped
+ * projection over user_progress (users without an aggregate), and the persisted
+ * skill aggregate. Statement counts are printed once at setup.
+ *
+ * Run with:
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.algocoach.benchmark.UserStatsQueryBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserStatsQueryBenchmark {
+
+    private static final int PROBLEMS = 3000;
+    private static final int TOPICS = 25;
+
+    @Param({"100", "1000"})
+    private int solvedPerUser;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private EntityManager entityManager;
+    private UserSkillAggregateService aggregateService;
+    private User aggregatedUser;
+    private User plainUser;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AlgoCoachApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "spring.datasource.url=jdbc:h2:mem:stats-benchmark",
+                        "logging.level.root=WARN")
+                .run();
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        entityManager = context.getBean(EntityManager.class);
+        aggregateService = context.getBean(UserSkillAggregateService.class);
+
+        Random random = new Random(42);
+        Difficulty[] difficulties = Difficulty.values();
+        List<Problem> problems = new ArrayList<>(PROBLEMS);
+        for (int i = 0; i < PROBLEMS; i++) {
+            problems.add(new Problem("Problem " + i, difficulties[random.nextInt(difficulties.length)],
+                    "Topic " + random.nextInt(TOPICS), 20 + random.nextDouble() * 60, null));
+        }
+        problems = context.getBean(ProblemRepository.class).saveAll(problems);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        aggregatedUser = userRepository.save(new User("bench-a", "a@bench.io", "x", "A", "A"));
+        plainUser = userRepository.save(new User("bench-b", "b@bench.io", "x", "B", "B"));
+        // Saved through the repository: no progress events, so plainUser gets no aggregate
+        UserProgressRepository progressRepository = context.getBean(UserProgressRepository.class);
+        for (User user : List.of(aggregatedUser, plainUser)) {
+            List<UserProgress> rows = new ArrayList<>();
+            for (int i = 0; i < solvedPerUser; i++) {
+                UserProgress progress = new UserProgress(user, problems.get(i), ProgressStatus.SOLVED);
+                progress.setConfidenceScore(random.nextDouble());
+                progress.setSolvedAt(LocalDateTime.now().minusDays(random.nextInt(90)));
+                rows.add(progress);
+            }
+            for (int i = solvedPerUser; i < solvedPerUser + 20; i++) {
+                rows.add(new UserProgress(user, problems.get(i), ProgressStatus.IN_PROGRESS));
+            }
+            progressRepository.saveAll(rows);
+        }
+        aggregateService.rebuild(aggregatedUser);
+
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        report(statistics, "legacySixQueries", this::legacySixQueries);
+        report(statistics, "groupedProjection", this::groupedProjection);
+        report(statistics, "persistedAggregate", this::persistedAggregate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> legacySixQueries() {
+        return readOnly.execute(status -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("totalSolved", entityManager.createQuery(
+                    "SELECT COUNT(up) FROM UserProgress up WHERE up.user = :user AND up.status = 'SOLVED'", Long.class)
+                    .setParameter("user", plainUser).getSingleResult());
+            stats.put("inProgress", entityManager.createQuery(
+                    "SELECT COUNT(up) FROM UserProgress up WHERE up.user = :user AND up.status = 'IN_PROGRESS'", Long.class)
+                    .setParameter("user", plainUser).getSingleResult());
+            stats.put("totalProblems", entityManager.createQuery("SELECT COUNT(p) FROM Problem p", Long.class)
+                    .getSingleResult());
+            List<Object[]> byDifficulty = entityManager.createQuery(
+                    "SELECT up.problem.difficulty, COUNT(up) FROM UserProgress up WHERE up.user = :user AND up.status = 'SOLVED' GROUP BY up.problem.difficulty", Object[].class)
+                    .setParameter("user", plainUser).getResultList();
+            stats.put("solvedByTopic", entityManager.createQuery(
+                    "SELECT up.problem.topic, COUNT(up) FROM UserProgress up WHERE up.user = :user AND up.status = 'SOLVED' GROUP BY up.problem.topic", Object[].class)
+                    .setParameter("user", plainUser).getResultList());
+            List<UserProgress> solved = entityManager.createQuery(
+                    "SELECT up FROM UserProgress up WHERE up.user = :user AND up.status = 'SOLVED' ORDER BY up.solvedAt DESC", UserProgress.class)
+                    .setParameter("user", plainUser).getResultList();
+            Map<String, Double> confidenceByDifficulty = new HashMap<>();
+            for (Object[] row : byDifficulty) {
+                String difficulty = row[0].toString();
+                confidenceByDifficulty.put(difficulty, solved.stream()
+                        .filter(up -> up.getProblem().getDifficulty().toString().equals(difficulty))
+                        .mapToDouble(UserProgress::getConfidenceScore).average().orElse(0.0));
+            }
+            stats.put("confidenceByDifficulty", confidenceByDifficulty);
+            return stats;
+        });
+    }
+
+    @Benchmark
+    public UserSkillProfile groupedProjection() {
+        return readOnly.execute(status -> aggregateService.getProfile(plainUser));
+    }
+
+    @Benchmark
+    public UserSkillProfile persistedAggregate() {
+        return readOnly.execute(status -> aggregateService.getProfile(aggregatedUser));
+    }
+
+    private void report(Statistics statistics, String name, Supplier<?> path) {
+        statistics.clear();
+        path.get();
+        System.out.printf("%s (%d solved): %d statements%n", name, solvedPerUser, statistics.getPrepareStatementCount());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UserStatsQueryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
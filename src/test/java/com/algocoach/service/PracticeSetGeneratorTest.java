@@ -0,0 +1,182 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.dto.PracticeSet;
+import com.algocoach.dto.PracticeSetRequest;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.exception.ValidationException;
+import com.algocoach.util.ProblemIdBitmap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PracticeSetGeneratorTest {
+
+    private static final String[] TOPICS = {"Array", "Graph", "Tree", "String", "Dynamic Programming", "Heap"};
+    private static final Comparator<ProblemSummary> BY_ACCEPTANCE_DESC =
+            Comparator.comparingDouble(ProblemSummary::acceptanceRate).reversed().thenComparingLong(ProblemSummary::id);
+
+    private final List<ProblemSummary> catalog = new ArrayList<>();
+    private final User user = new User();
+    private ProgressBitmapStore progressBitmaps;
+    private PracticeSetGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        // Four problems per topic and difficulty, acceptance rates from 20% to 80%
+        long id = 1;
+        for (String topic : TOPICS) {
+            for (Difficulty difficulty : Difficulty.values()) {
+                for (int i = 0; i < 4; i++) {
+                    catalog.add(new ProblemSummary(id, topic + " " + id, difficulty, topic, 20 + (id * 17) % 61));
+                    id++;
+                }
+            }
+        }
+        ProblemCatalogIndex catalogIndex = mock(ProblemCatalogIndex.class);
+        when(catalogIndex.topics()).thenReturn(Arrays.stream(TOPICS)
+                .map(topic -> topic.toLowerCase(Locale.ROOT)).collect(Collectors.toSet()));
+        when(catalogIndex.byTopic(anyString())).thenAnswer(call -> catalog.stream()
+                .filter(problem -> problem.topic().equalsIgnoreCase(call.getArgument(0)))
+                .sorted(BY_ACCEPTANCE_DESC).toList());
+        when(catalogIndex.byDifficulty(any())).thenAnswer(call -> catalog.stream()
+                .filter(problem -> problem.difficulty() == call.getArgument(0))
+                .sorted(BY_ACCEPTANCE_DESC).toList());
+
+        user.setId(1L);
+        progressBitmaps = mock(ProgressBitmapStore.class);
+        when(progressBitmaps.get(any(User.class), any())).thenReturn(ProblemIdBitmap.EMPTY);
+
+        generator = new PracticeSetGenerator(1000);
+        ReflectionTestUtils.setField(generator, "catalogIndex", catalogIndex);
+        ReflectionTestUtils.setField(generator, "progressBitmaps", progressBitmaps);
+    }
+
+    @Test
+    void meetsSizeTopicAndDifficultyConstraints() {
+        for (long seed = 0; seed < 50; seed++) {
+            PracticeSetRequest request = request(10, 5, seed);
+            request.getDifficultyPercent().put(Difficulty.EASY, 30);
+            request.getDifficultyPercent().put(Difficulty.HARD, 20);
+            PracticeSet set = generator.generate(user, request);
+
+            assertEquals(List.of(), set.unmetConstraints(), "seed " + seed);
+            assertEquals(10, set.problems().size());
+            assertEquals(10, set.problems().stream().map(ProblemSummary::id).distinct().count());
+            assertTrue(set.topicCount() >= 5);
+            assertEquals(topicCount(set), set.topicCount());
+            assertTrue(count(set, Difficulty.EASY) >= 3);
+            assertTrue(count(set, Difficulty.HARD) >= 2);
+            assertEquals(minutes(set), set.estimatedMinutes());
+        }
+    }
+
+    @Test
+    void staysWithinTheTimeBudget() {
+        for (long seed = 0; seed < 50; seed++) {
+            for (int maxMinutes : new int[]{60, 120, 240}) {
+                PracticeSetRequest request = request(6, 3, seed);
+                request.setMaxMinutes(maxMinutes);
+                request.getDifficultyPercent().put(Difficulty.MEDIUM, 50);
+                PracticeSet set = generator.generate(user, request);
+
+                assertTrue(set.estimatedMinutes() <= maxMinutes, "seed " + seed);
+                assertEquals(minutes(set), set.estimatedMinutes());
+                // A short set is always reported
+                assertEquals(set.problems().size() < 6,
+                        set.unmetConstraints().contains("Only " + set.problems().size() + " of 6 problems could be selected"));
+                if (maxMinutes == 240) {
+                    assertEquals(List.of(), set.unmetConstraints(), "seed " + seed);
+                    assertTrue(count(set, Difficulty.MEDIUM) >= 3);
+                }
+            }
+        }
+    }
+
+    @Test
+    void excludesSolvedAndInProgressProblems() {
+        ProblemIdBitmap.Builder solved = new ProblemIdBitmap.Builder();
+        ProblemIdBitmap.Builder inProgress = new ProblemIdBitmap.Builder();
+        for (ProblemSummary problem : catalog) {
+            if (problem.difficulty() == Difficulty.EASY) {
+                (problem.id() % 2 == 0 ? solved : inProgress).add(problem.id());
+            }
+        }
+        when(progressBitmaps.get(user, ProgressStatus.SOLVED)).thenReturn(solved.build());
+        when(progressBitmaps.get(user, ProgressStatus.IN_PROGRESS)).thenReturn(inProgress.build());
+
+        PracticeSetRequest request = request(20, 1, 7L);
+        request.getDifficultyPercent().put(Difficulty.EASY, 50);
+        PracticeSet set = generator.generate(user, request);
+        assertEquals(20, set.problems().size());
+        assertEquals(0, count(set, Difficulty.EASY));
+        assertEquals(List.of("Only 0 of 10 EASY problems"), set.unmetConstraints());
+
+        request.setExcludeSolved(false);
+        assertEquals(List.of(), generator.generate(user, request).unmetConstraints());
+    }
+
+    @Test
+    void reportsConstraintsThatCannotBeMet() {
+        // Six topics, eight hard problems at 30 minutes or more
+        PracticeSetRequest request = request(12, 8, 3L);
+        request.getDifficultyPercent().put(Difficulty.HARD, 100);
+        request.setMaxMinutes(200);
+        PracticeSet set = generator.generate(user, request);
+
+        assertTrue(set.estimatedMinutes() <= 200);
+        assertTrue(set.problems().size() < 12);
+        List<String> unmet = set.unmetConstraints();
+        assertTrue(unmet.contains("Only " + set.problems().size() + " of 12 problems could be selected"), unmet.toString());
+        assertTrue(unmet.contains("Only " + set.topicCount() + " of 8 topics covered"), unmet.toString());
+        assertTrue(unmet.contains("Only " + count(set, Difficulty.HARD) + " of 12 HARD problems"), unmet.toString());
+    }
+
+    @Test
+    void sameSeedGivesTheSameSet() {
+        PracticeSet first = generator.generate(user, request(8, 4, 42L));
+        PracticeSet second = generator.generate(user, request(8, 4, 42L));
+        assertEquals(first.problems(), second.problems());
+    }
+
+    @Test
+    void rejectsInvalidPercentages() {
+        PracticeSetRequest request = request(10, 1, 1L);
+        request.getDifficultyPercent().put(Difficulty.EASY, 70);
+        request.getDifficultyPercent().put(Difficulty.HARD, 40);
+        assertThrows(ValidationException.class, () -> generator.generate(user, request));
+
+        request.getDifficultyPercent().put(Difficulty.HARD, -10);
+        assertThrows(ValidationException.class, () -> generator.generate(user, request));
+    }
+
+    private static PracticeSetRequest request(int size, int minTopics, Long seed) {
+        PracticeSetRequest request = new PracticeSetRequest();
+        request.setSize(size);
+        request.setMinTopics(minTopics);
+        request.setSeed(seed);
+        return request;
+    }
+
+    private static long count(PracticeSet set, Difficulty difficulty) {
+        return set.problems().stream().filter(problem -> problem.difficulty() == difficulty).count();
+    }
+
+    private static long topicCount(PracticeSet set) {
+        return set.problems().stream().map(problem -> problem.topic().toLowerCase(Locale.ROOT)).distinct().count();
+    }
+
+    private static int minutes(PracticeSet set) {
+        return set.problems().stream().mapToInt(PracticeSetGenerator::estimateMinutes).sum();
+    }
+}
@@ -0,0 +1,185 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.dto.ProblemPage;
+import com.algocoach.exception.ValidationException;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ProblemDiscoveryService.class)
+class ProblemDiscoveryServiceTest {
+
+    private static final Comparator<Problem> BY_ID = Comparator.comparing(Problem::getId);
+
+    // Expected order of every sort, each ending with the id
+    private static final Map<String, Comparator<Problem>> ORDERS = new LinkedHashMap<>();
+
+    static {
+        ORDERS.put(null, BY_ID);
+        ORDERS.put("acceptance", Comparator.<Problem>comparingDouble(
+                p -> p.getAcceptanceRate() != null ? p.getAcceptanceRate() : 0.0).reversed().thenComparing(BY_ID));
+        ORDERS.put("title", Comparator.<Problem, String>comparing(
+                p -> p.getTitle().toLowerCase(Locale.ROOT)).thenComparing(BY_ID));
+        ORDERS.put("difficulty", Comparator.<Problem>comparingInt(p -> p.getDifficulty().ordinal()).thenComparing(BY_ID));
+    }
+
+    @Autowired
+    private ProblemDiscoveryService discoveryService;
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserProgressRepository userProgressRepository;
+
+    private List<Problem> problems;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Ties in every sort key, mixed title case and missing acceptance rates
+        String[] titles = {"Two Sum", "two sum", "Add Two Numbers", "3Sum", "Valid Parentheses", "merge intervals",
+                "Merge Intervals", "Climbing Stairs", "Word Ladder", "LRU Cache", "Jump Game", "Coin Change",
+                "Edit Distance", "Course Schedule", "Number of Islands", "Min Stack", "Rotate Image"};
+        Double[] rates = {50.0, 50.0, null, 33.0, 40.0, 50.0, null, 33.0, 40.0, 50.0, 0.0, 33.0, 40.0, 45.5, 45.5, 60.0, 33.0};
+        Difficulty[] difficulties = Difficulty.values();
+        List<Problem> created = new ArrayList<>();
+        for (int i = 0; i < titles.length; i++) {
+            String topic = i % 3 == 0 ? "Array" : "Graph";
+            created.add(new Problem(titles[i], difficulties[(i * 7) % 3], topic, rates[i], (long) i + 1));
+        }
+        problems = problemRepository.saveAll(created);
+
+        user = userRepository.save(new User("discoverer", "discoverer@example.com", "secret", "D", "U"));
+        for (int i : new int[]{1, 4, 9}) {
+            userProgressRepository.save(new UserProgress(user, problems.get(i), ProgressStatus.SOLVED));
+        }
+        userProgressRepository.save(new UserProgress(user, problems.get(2), ProgressStatus.IN_PROGRESS));
+    }
+
+    @Test
+    void pagesConcatenateToTheFullOrder() {
+        for (Map.Entry<String, Comparator<Problem>> order : ORDERS.entrySet()) {
+            String sortBy = order.getKey();
+            List<Long> expected = ids(problems.stream().sorted(order.getValue()).toList());
+
+            assertEquals(expected, keysetIds(null, null, sortBy, null, 4), "keyset " + sortBy);
+            assertEquals(expected, offsetIds(null, null, sortBy, null, 4), "offset " + sortBy);
+            assertEquals(expected, keysetIds(null, null, sortBy, null, 1), "keyset size 1 " + sortBy);
+        }
+    }
+
+    @Test
+    void filtersAndSolvedExclusionApplyToEveryPage() {
+        for (Map.Entry<String, Comparator<Problem>> order : ORDERS.entrySet()) {
+            String sortBy = order.getKey();
+            // Solved problems are excluded, in-progress ones are not
+            List<Long> unsolved = ids(problems.stream()
+                    .filter(p -> !Set.of(1, 4, 9).contains(problems.indexOf(p)))
+                    .sorted(order.getValue()).toList());
+            assertEquals(unsolved, keysetIds(null, null, sortBy, user.getId(), 3), "keyset " + sortBy);
+            assertEquals(unsolved, offsetIds(null, null, sortBy, user.getId(), 3), "offset " + sortBy);
+
+            List<Long> filtered = ids(problems.stream()
+                    .filter(p -> p.getDifficulty() == Difficulty.MEDIUM && p.getTopic().equals("Graph"))
+                    .filter(p -> !Set.of(1, 4, 9).contains(problems.indexOf(p)))
+                    .sorted(order.getValue()).toList());
+            assertEquals(filtered, keysetIds(Difficulty.MEDIUM, "graph", sortBy, user.getId(), 2), "filtered " + sortBy);
+        }
+        ProblemPage first = discoveryService.discover(null, null, null, user.getId(), 0, 5, null);
+        assertEquals(problems.size() - 3, first.totalCount());
+        assertEquals(0, first.page());
+    }
+
+    @Test
+    void difficultySortFollowsEnumOrder() {
+        // DIFFICULTY_RANK in the query hard-codes these ranks
+        assertEquals(List.of(Difficulty.EASY, Difficulty.MEDIUM, Difficulty.HARD), List.of(Difficulty.values()));
+        List<Difficulty> sorted = discoveryService.discover(null, null, "difficulty", null, 0, 100, null)
+                .problems().stream().map(Problem::getDifficulty).toList();
+        List<Difficulty> expected = new ArrayList<>(sorted);
+        expected.sort(Comparator.comparingInt(Difficulty::ordinal));
+        assertEquals(expected, sorted);
+        assertEquals(EnumSet.allOf(Difficulty.class), EnumSet.copyOf(sorted));
+    }
+
+    @Test
+    void keysetPagesHaveNoPageNumberOrCount() {
+        ProblemPage first = discoveryService.discover(null, null, "title", null, 0, 5, null);
+        ProblemPage second = discoveryService.discover(null, null, "title", null, 7, 5, first.nextCursor());
+        assertNull(second.page());
+        assertNull(second.totalCount());
+        assertEquals(5, second.problems().size());
+    }
+
+    @Test
+    void invalidCursorsAreRejected() {
+        String titleCursor = discoveryService.discover(null, null, "title", null, 0, 2, null).nextCursor();
+        String mismatch = assertThrows(ValidationException.class,
+                () -> discoveryService.discover(null, null, "acceptance", null, 0, 2, titleCursor)).getMessage();
+        assertTrue(mismatch.contains("different sort order"));
+
+        for (String garbage : List.of("!!!", "", encode("ID:1"), encode("ID:x:"), encode("ACCEPTANCE:3:high"),
+                encode("DIFFICULTY:3:hard"), encode("UNKNOWN:3:"))) {
+            ValidationException e = assertThrows(ValidationException.class,
+                    () -> discoveryService.discover(null, null, "acceptance", null, 0, 2, garbage), garbage);
+            assertEquals(400, e.getStatusCode());
+        }
+        assertThrows(ValidationException.class, () -> discoveryService.discover(null, null, null, null, -1, 2, null));
+        assertThrows(ValidationException.class, () -> discoveryService.discover(null, null, null, null, 0, 0, null));
+    }
+
+    private List<Long> keysetIds(Difficulty difficulty, String topic, String sortBy, Long excludeSolvedBy, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProblemPage page = discoveryService.discover(difficulty, topic, sortBy, excludeSolvedBy, 0, size, cursor);
+            assertTrue(page.problems().size() <= size);
+            ids.addAll(ids(page.problems()));
+            cursor = page.nextCursor();
+            assertEquals(cursor != null, page.hasNext());
+        } while (cursor != null);
+        assertEquals(ids.size(), new HashSet<>(ids).size(), "duplicates");
+        return ids;
+    }
+
+    private List<Long> offsetIds(Difficulty difficulty, String topic, String sortBy, Long excludeSolvedBy, int size) {
+        List<Long> ids = new ArrayList<>();
+        ProblemPage page;
+        int number = 0;
+        do {
+            page = discoveryService.discover(difficulty, topic, sortBy, excludeSolvedBy, number++, size, null);
+            ids.addAll(ids(page.problems()));
+        } while (page.hasNext());
+        assertEquals(ids.size(), page.totalCount());
+        return ids;
+    }
+
+    private static List<Long> ids(List<Problem> problems) {
+        return problems.stream().map(Problem::getId).collect(Collectors.toList());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,146 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.service.scoring.ScoringContext;
+import com.algocoach.util.ProblemIdBitmap;
+import com.algocoach.util.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProblemRecommendationServiceTest {
+
+    private final User user = new User();
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private ProblemRecommendationService service;
+    private ProgressBitmapStore progressBitmaps;
+    private UserSkillAggregateService skillAggregates;
+
+    // The first load blocks in its read of the user's state until released
+    private final CountDownLatch firstLoadStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstLoad = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        progressBitmaps = mock(ProgressBitmapStore.class);
+        skillAggregates = mock(UserSkillAggregateService.class);
+        RecommendationScoringEngine scoringEngine = mock(RecommendationScoringEngine.class);
+        // Ranks problems 1 to 3, leaving out the solved ones the service read
+        when(scoringEngine.rank(any(ScoringContext.class), any(), anyInt(), any())).thenAnswer(call -> {
+            ProblemIdBitmap solved = call.<ScoringContext>getArgument(0).getSolvedProblemIds();
+            return List.of(1L, 2L, 3L).stream().filter(id -> !solved.contains(id)).toList();
+        });
+        RecommendationExperiment experiment = mock(RecommendationExperiment.class);
+        when(experiment.assign(anyLong())).thenReturn(new RecommendationExperiment.Variant("control", Map.of()));
+        when(skillAggregates.getProfile(any(User.class))).thenReturn(new UserSkillProfile());
+
+        service = new ProblemRecommendationService();
+        ReflectionTestUtils.setField(service, "progressBitmaps", progressBitmaps);
+        ReflectionTestUtils.setField(service, "skillAggregates", skillAggregates);
+        ReflectionTestUtils.setField(service, "scoringEngine", scoringEngine);
+        ReflectionTestUtils.setField(service, "experiment", experiment);
+        ReflectionTestUtils.setField(service, "catalogIndex", mock(ProblemCatalogIndex.class));
+        ReflectionTestUtils.setField(service, "skillRatings", mock(SkillRatingService.class));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstLoad.countDown();
+        callers.shutdownNow();
+        service.shutdownBatchPool();
+    }
+
+    @Test
+    void loadsAfterACommittedSolveDoNotJoinOlderFlights() throws Exception {
+        AtomicReference<ProblemIdBitmap> solved = new AtomicReference<>(ProblemIdBitmap.EMPTY);
+        when(progressBitmaps.get(any(User.class), eq(ProgressStatus.SOLVED))).thenAnswer(call -> blockFirst(solved.get()));
+        when(progressBitmaps.get(any(User.class), eq(ProgressStatus.IN_PROGRESS))).thenReturn(ProblemIdBitmap.EMPTY);
+
+        Future<List<Long>> before = callers.submit(() -> service.getRecommendedProblemIds(user, 3));
+        assertTrue(firstLoadStarted.await(5, TimeUnit.SECONDS));
+
+        // The solve commits while the first load still holds the old bitmap
+        solved.set(ProblemIdBitmap.of(1));
+        service.onProgressChanged(solvedEvent(1));
+        Future<List<Long>> after = callers.submit(() -> service.getRecommendedProblemIds(user, 3));
+
+        assertEquals(List.of(2L, 3L), after.get(5, TimeUnit.SECONDS));
+        releaseFirstLoad.countDown();
+        assertEquals(List.of(1L, 2L, 3L), before.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void statsAfterACommittedSolveDoNotJoinOlderFlights() throws Exception {
+        UserSkillProfile solvedOne = new UserSkillProfile();
+        solvedOne.addDifficultyTotals(Difficulty.EASY, 1, 0.9);
+        AtomicReference<UserSkillProfile> profile = new AtomicReference<>(new UserSkillProfile());
+        when(skillAggregates.getProfile(any(User.class))).thenAnswer(call -> blockFirst(profile.get()));
+
+        Future<Map<String, Object>> before = callers.submit(() -> service.getUserProgressStats(user));
+        assertTrue(firstLoadStarted.await(5, TimeUnit.SECONDS));
+
+        profile.set(solvedOne);
+        service.onProgressChanged(solvedEvent(1));
+        Future<Map<String, Object>> after = callers.submit(() -> service.getUserProgressStats(user));
+
+        assertEquals(1L, after.get(5, TimeUnit.SECONDS).get("totalSolved"));
+        releaseFirstLoad.countDown();
+        assertEquals(0L, before.get(5, TimeUnit.SECONDS).get("totalSolved"));
+    }
+
+    @Test
+    void concurrentLoadsWithoutAChangeShareOneComputation() throws Exception {
+        when(progressBitmaps.get(any(User.class), eq(ProgressStatus.SOLVED))).thenAnswer(call -> blockFirst(ProblemIdBitmap.EMPTY));
+        when(progressBitmaps.get(any(User.class), eq(ProgressStatus.IN_PROGRESS))).thenReturn(ProblemIdBitmap.EMPTY);
+
+        Future<List<Long>> first = callers.submit(() -> service.getRecommendedProblemIds(user, 3));
+        assertTrue(firstLoadStarted.await(5, TimeUnit.SECONDS));
+        Future<List<Long>> second = callers.submit(() -> service.getRecommendedProblemIds(user, 3));
+
+        SingleFlight<?, ?> flights = (SingleFlight<?, ?>) ReflectionTestUtils.getField(service, "recommendationFlights");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flights.coalescedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        releaseFirstLoad.countDown();
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    private <T> T blockFirst(T value) throws InterruptedException {
+        if (loads.incrementAndGet() == 1) {
+            firstLoadStarted.countDown();
+            assertTrue(releaseFirstLoad.await(5, TimeUnit.SECONDS));
+        }
+        return value;
+    }
+
+    private ProgressChangedEvent solvedEvent(long problemId) {
+        Problem problem = new Problem();
+        problem.setId(problemId);
+        return new ProgressChangedEvent(user, problemId, ProgressStatus.IN_PROGRESS, 1,
+                new UserProgress(user, problem, ProgressStatus.SOLVED));
+    }
+}
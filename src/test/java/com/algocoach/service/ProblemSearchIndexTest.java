@@ -0,0 +1,81 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.repository.ProblemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ProblemSearchIndexTest {
+
+    private final Map<Long, Problem> problems = new HashMap<>();
+    private ProblemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        add(1, "Two Sum", Difficulty.EASY, "Array", "Find two numbers that add up to a target");
+        add(2, "Three Sum", Difficulty.MEDIUM, "Array", "Find all triplets that sum to zero");
+        add(3, "Path Sum", Difficulty.EASY, "Tree", "Check whether a root to leaf path adds up to the sum");
+        add(4, "Word Ladder", Difficulty.HARD, "Graph", "Shortest transformation sequence between two words");
+
+        ProblemRepository problemRepository = mock(ProblemRepository.class);
+        when(problemRepository.findAll()).thenAnswer(call -> new ArrayList<>(problems.values()));
+        when(problemRepository.findById(anyLong())).thenAnswer(call -> Optional.ofNullable(problems.get(call.<Long>getArgument(0))));
+        ProblemCatalogIndex catalogIndex = mock(ProblemCatalogIndex.class);
+        when(catalogIndex.get(anyLong())).thenAnswer(call -> Optional.ofNullable(problems.get(call.<Long>getArgument(0)))
+                .map(problem -> new ProblemSummary(problem.getId(), problem.getTitle(), problem.getDifficulty(),
+                        problem.getTopic(), problem.getAcceptanceRate())));
+
+        searchIndex = new ProblemSearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "problemRepository", problemRepository);
+        ReflectionTestUtils.setField(searchIndex, "catalogIndex", catalogIndex);
+        searchIndex.onCatalogChanged(new CatalogChangedEvent());
+    }
+
+    @Test
+    void filtersByDifficultyAndTopic() {
+        assertEquals(Set.of(1L, 2L, 3L), new HashSet<>(searchIndex.search("sum", null, null, 10)));
+        assertEquals(Set.of(1L, 3L), new HashSet<>(searchIndex.search("sum", Difficulty.EASY, null, 10)));
+        assertEquals(Set.of(1L, 2L), new HashSet<>(searchIndex.search("sum", null, "array", 10)));
+        assertEquals(List.of(3L), searchIndex.search("sum", Difficulty.EASY, "TREE", 10));
+        assertEquals(List.of(), searchIndex.search("sum", Difficulty.HARD, null, 10));
+        // Title matches outweigh description matches
+        assertEquals(1L, searchIndex.search("two", null, null, 1).get(0));
+        assertEquals(List.of(), searchIndex.search("  ", null, null, 10));
+    }
+
+    @Test
+    void followsCatalogChanges() {
+        Problem updated = problems.get(4L);
+        updated.setTitle("Word Search");
+        updated.setDescription("Find a word in a grid of letters");
+        searchIndex.onCatalogChanged(new CatalogChangedEvent(4L, null, null));
+        assertEquals(List.of(4L), searchIndex.search("search", null, null, 10));
+        assertEquals(List.of(), searchIndex.search("ladder", null, null, 10));
+
+        add(5, "Subarray Sum Equals K", Difficulty.MEDIUM, "Array", "Count subarrays whose sum equals k");
+        searchIndex.onCatalogChanged(new CatalogChangedEvent(5L, null, null));
+        assertTrue(searchIndex.search("subarray", null, null, 10).contains(5L));
+
+        problems.remove(1L);
+        searchIndex.onCatalogChanged(new CatalogChangedEvent(1L, null, null));
+        assertFalse(searchIndex.search("sum", null, null, 10).contains(1L));
+        assertEquals(Set.of(2L, 3L, 5L), new HashSet<>(searchIndex.search("sum", null, null, 10)));
+    }
+
+    private void add(long id, String title, Difficulty difficulty, String topic, String description) {
+        Problem problem = new Problem(title, difficulty, topic, 50.0, id);
+        problem.setId(id);
+        problem.setDescription(description);
+        problems.put(id, problem);
+    }
+}
@@ -0,0 +1,135 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProblemStats;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.dto.ProblemStatsView;
+import com.algocoach.event.ProgressChangedEvent;
+import com.algocoach.repository.ProblemStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class ProblemStatsServiceTest {
+
+    private static final long PROBLEM_ID = 7;
+
+    private final Map<Long, ProblemStats> rows = new HashMap<>();
+    private ProblemStatsRepository repository;
+    private ProblemStatsService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(ProblemStatsRepository.class);
+        when(repository.findById(any())).thenAnswer(call -> Optional.ofNullable(rows.get((Long) call.getArgument(0))));
+        when(repository.findAllById(anyIterable())).thenAnswer(call -> {
+            List<ProblemStats> found = new ArrayList<>();
+            for (Long id : (Iterable<Long>) call.getArgument(0)) {
+                Optional.ofNullable(rows.get(id)).ifPresent(found::add);
+            }
+            return found;
+        });
+        when(repository.saveAll(anyIterable())).thenAnswer(call -> {
+            for (ProblemStats stats : (Iterable<ProblemStats>) call.getArgument(0)) {
+                rows.put(stats.getProblemId(), stats);
+            }
+            return call.getArgument(0);
+        });
+        service = new ProblemStatsService(mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "statsRepository", repository);
+    }
+
+    @Test
+    void countsAttemptsAndTransitionsFromEvents() {
+        // New row solved right away, then re-solved: one attempt, one solve
+        UserProgress progress = progress(ProgressStatus.SOLVED, 1, 30, 1);
+        service.onProgressChanged(new ProgressChangedEvent(null, PROBLEM_ID, null, 0, progress));
+        service.onProgressChanged(new ProgressChangedEvent(null, PROBLEM_ID, ProgressStatus.SOLVED, 1, progress));
+        // Another user: started, retried, then gave up
+        UserProgress other = progress(ProgressStatus.IN_PROGRESS, 1, null, 0);
+        service.onProgressChanged(new ProgressChangedEvent(null, PROBLEM_ID, null, 0, other));
+        other.setAttemptsCount(2);
+        service.onProgressChanged(new ProgressChangedEvent(null, PROBLEM_ID, ProgressStatus.IN_PROGRESS, 1, other));
+        other.setStatus(ProgressStatus.GAVE_UP);
+        service.onProgressChanged(new ProgressChangedEvent(null, PROBLEM_ID, ProgressStatus.IN_PROGRESS, 2, other));
+
+        ProblemStatsView stats = service.getStats(PROBLEM_ID);
+        assertEquals(3, stats.attempts());
+        assertEquals(1, stats.solves());
+        assertEquals(1, stats.giveUps());
+        assertEquals(0.5, stats.solveRate(), 1e-9);
+        assertEquals(30.0, stats.averageTimeMinutes(), 1e-9);
+        assertEquals(1.0, stats.averageHints(), 1e-9);
+    }
+
+    @Test
+    void flushMovesPendingCountsIntoTheRow() {
+        service.recordAttempts(PROBLEM_ID, 2);
+        service.recordSolve(PROBLEM_ID, 20, 0);
+        service.flush();
+
+        ProblemStats row = rows.get(PROBLEM_ID);
+        assertEquals(2, row.getAttempts());
+        assertEquals(1, row.getSolves());
+        assertEquals(20, row.getTimeSpentMinutes());
+        // Drained: reads don't count the flushed deltas twice, and an idle flush writes nothing
+        assertEquals(2, service.getStats(PROBLEM_ID).attempts());
+        service.flush();
+        verify(repository, times(1)).saveAll(anyIterable());
+
+        service.recordGiveUp(PROBLEM_ID);
+        service.flush();
+        assertEquals(1, rows.get(PROBLEM_ID).getGiveUps());
+        assertEquals(2, rows.get(PROBLEM_ID).getAttempts());
+    }
+
+    @Test
+    void failedFlushRestoresTheDeltas() {
+        service.recordAttempts(PROBLEM_ID, 3);
+        service.recordSolve(PROBLEM_ID, null, 2);
+        doThrow(new IllegalStateException("database down")).when(repository).saveAll(anyIterable());
+        service.flush();
+
+        assertNull(rows.get(PROBLEM_ID));
+        ProblemStatsView pending = service.getStats(PROBLEM_ID);
+        assertEquals(3, pending.attempts());
+        assertEquals(1, pending.solves());
+
+        // Counted while the database was down, then flushed together
+        service.recordAttempts(PROBLEM_ID, 1);
+        doAnswer(call -> {
+            for (ProblemStats stats : call.<Iterable<ProblemStats>>getArgument(0)) {
+                rows.put(stats.getProblemId(), stats);
+            }
+            return call.getArgument(0);
+        }).when(repository).saveAll(anyIterable());
+        service.flush();
+
+        ProblemStats row = rows.get(PROBLEM_ID);
+        assertEquals(4, row.getAttempts());
+        assertEquals(1, row.getSolves());
+        assertEquals(0, row.getTimedSolves());
+        assertEquals(2, row.getHintsUsed());
+        assertEquals(4, service.getStats(PROBLEM_ID).attempts());
+    }
+
+    private static UserProgress progress(ProgressStatus status, int attempts, Integer timeSpentMinutes, int hints) {
+        UserProgress progress = new UserProgress(new User(), new Problem(), status);
+        progress.setAttemptsCount(attempts);
+        progress.setTimeSpentMinutes(timeSpentMinutes);
+        progress.setHintsUsed(hints);
+        return progress;
+    }
+}
@@ -0,0 +1,49 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.repository.UserProgressRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProgressBitmapStoreTest {
+
+    @Test
+    void keepsChangesOfCachedUsersAndReloadsEvictedOnes() {
+        UserProgressRepository repository = mock(UserProgressRepository.class);
+        ProgressBitmapStore store = new ProgressBitmapStore(1);
+        ReflectionTestUtils.setField(store, "userProgressRepository", repository);
+        User alice = user(1);
+        List<Object[]> aliceRows = new ArrayList<>();
+        aliceRows.add(new Object[]{10L, ProgressStatus.SOLVED});
+        aliceRows.add(new Object[]{11L, ProgressStatus.IN_PROGRESS});
+        when(repository.findProblemStatusesByUserId(1L)).thenReturn(aliceRows);
+        when(repository.findProblemStatusesByUserId(2L)).thenReturn(List.of());
+
+        assertTrue(store.get(alice, ProgressStatus.SOLVED).contains(10L));
+        assertTrue(store.isSolvedOrInProgress(alice, 11L));
+
+        // The change moves the problem between the cached bitmaps without a reload
+        store.record(alice, 11L, ProgressStatus.IN_PROGRESS, ProgressStatus.SOLVED);
+        assertTrue(store.get(alice, ProgressStatus.SOLVED).contains(11L));
+        assertFalse(store.get(alice, ProgressStatus.IN_PROGRESS).contains(11L));
+        verify(repository, times(1)).findProblemStatusesByUserId(1L);
+
+        // Loading a second user evicts the first; its next read reloads
+        assertTrue(store.get(2L, ProgressStatus.SOLVED).isEmpty());
+        store.get(alice, ProgressStatus.SOLVED);
+        verify(repository, times(2)).findProblemStatusesByUserId(1L);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,97 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.event.CatalogChangedEvent;
+import com.algocoach.event.ProgressChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RecommendationCacheTest {
+
+    private final User user = new User();
+    private ProblemRecommendationService recommendationService;
+    private ProblemCatalogIndex catalogIndex;
+    private RecommendationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        recommendationService = mock(ProblemRecommendationService.class);
+        // Lists whose content depends on the limit, as the candidate pool does
+        when(recommendationService.getRecommendedProblemIds(any(User.class), anyInt())).thenAnswer(call -> {
+            int limit = call.getArgument(1);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < limit; i++) {
+                ids.add(limit * 100L + i);
+            }
+            return ids;
+        });
+        catalogIndex = mock(ProblemCatalogIndex.class);
+        when(catalogIndex.resolve(anyList())).thenAnswer(call -> call.<List<Long>>getArgument(0).stream()
+                .map(RecommendationCacheTest::problem).toList());
+        cache = new RecommendationCache(100, 10, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "recommendationService", recommendationService);
+        ReflectionTestUtils.setField(cache, "catalogIndex", catalogIndex);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void cachesEachLimitSeparately() {
+        List<Problem> three = cache.getRecommendations(user, 3);
+        List<Problem> five = cache.getRecommendations(user, 5);
+        assertEquals(List.of(300L, 301L, 302L), ids(three));
+        assertEquals(List.of(500L, 501L, 502L, 503L, 504L), ids(five));
+
+        // Cached as ids and resolved on every read
+        assertEquals(ids(three), ids(cache.getRecommendations(user, 3)));
+        verify(catalogIndex, times(2)).resolve(List.of(300L, 301L, 302L));
+        assertEquals(20, cache.getRecommendations(user, 50).size());
+        verify(recommendationService, times(1)).getRecommendedProblemIds(user, 3);
+        verify(recommendationService, times(1)).getRecommendedProblemIds(user, RecommendationCache.MAX_LIMIT);
+    }
+
+    @Test
+    void progressAndCatalogChangesDropEntries() {
+        cache.getRecommendations(user, 3);
+        cache.onProgressChanged(new ProgressChangedEvent(user, 7L, null, 0,
+                new UserProgress(user, problem(7), ProgressStatus.SOLVED)));
+        verify(recommendationService, timeout(1000).times(2)).getRecommendedProblemIds(user, 3);
+
+        cache.onCatalogChanged(new CatalogChangedEvent());
+        cache.getRecommendations(user, 3);
+        verify(recommendationService, times(3)).getRecommendedProblemIds(user, 3);
+
+        cache.evict(user.getId());
+        cache.getRecommendations(user, 3);
+        verify(recommendationService, times(4)).getRecommendedProblemIds(user, 3);
+    }
+
+    private static List<Long> ids(List<Problem> problems) {
+        return problems.stream().map(Problem::getId).toList();
+    }
+
+    private static Problem problem(long id) {
+        Problem problem = new Problem();
+        problem.setId(id);
+        return problem;
+    }
+}
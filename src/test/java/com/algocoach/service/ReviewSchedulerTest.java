@@ -0,0 +1,124 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ReviewSchedule;
+import com.algocoach.domain.User;
+import com.algocoach.dto.DueReview;
+import com.algocoach.repository.ReviewScheduleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReviewSchedulerTest {
+
+    private static final LocalDateTime SOLVED_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Test
+    void firstReviewDependsOnConfidence() {
+        ReviewSchedule confident = ReviewScheduler.initialSchedule(user(1), problem(1), 1.0, SOLVED_AT);
+        assertEquals(4, confident.getIntervalDays());
+        assertEquals(2.5, confident.getEaseFactor(), 1e-9);
+        assertEquals(SOLVED_AT.plusDays(4), confident.getDueAt());
+
+        ReviewSchedule unsure = ReviewScheduler.initialSchedule(user(1), problem(2), null, SOLVED_AT);
+        assertEquals(1, unsure.getIntervalDays());
+        assertEquals(1.3, unsure.getEaseFactor(), 1e-9);
+        assertEquals(SOLVED_AT.plusDays(1), unsure.getDueAt());
+    }
+
+    @Test
+    void reviewsFollowSm2() {
+        ReviewSchedule schedule = new ReviewSchedule(user(1), problem(1));
+        schedule.setEaseFactor(2.5);
+        LocalDateTime now = SOLVED_AT;
+
+        ReviewScheduler.applyReview(schedule, 5, now);
+        assertEquals(1, schedule.getIntervalDays());
+        assertEquals(2.6, schedule.getEaseFactor(), 1e-9);
+        ReviewScheduler.applyReview(schedule, 5, now);
+        assertEquals(6, schedule.getIntervalDays());
+        // From the third repetition on the interval grows by the ease factor
+        ReviewScheduler.applyReview(schedule, 4, now);
+        assertEquals(16, schedule.getIntervalDays());
+        assertEquals(2.7, schedule.getEaseFactor(), 1e-9);
+        assertEquals(3, schedule.getRepetitions());
+        assertEquals(now.plusDays(16), schedule.getDueAt());
+        assertEquals(now, schedule.getLastReviewedAt());
+
+        // A failed recall restarts at one day and lowers the ease, never below its minimum
+        ReviewScheduler.applyReview(schedule, 0, now);
+        assertEquals(0, schedule.getRepetitions());
+        assertEquals(1, schedule.getIntervalDays());
+        assertEquals(1.9, schedule.getEaseFactor(), 1e-9);
+        ReviewScheduler.applyReview(schedule, 0, now);
+        ReviewScheduler.applyReview(schedule, 0, now);
+        assertEquals(1.3, schedule.getEaseFactor(), 1e-9);
+    }
+
+    @Test
+    void onlySolvesAfterTheLastUpdateAreNew() {
+        ReviewSchedule schedule = ReviewScheduler.initialSchedule(user(1), problem(1), 1.0, SOLVED_AT);
+        assertFalse(ReviewScheduler.isNewSolve(schedule, SOLVED_AT));
+        assertFalse(ReviewScheduler.isNewSolve(schedule, null));
+        assertTrue(ReviewScheduler.isNewSolve(schedule, SOLVED_AT.plusHours(1)));
+
+        LocalDateTime reviewedAt = SOLVED_AT.plusDays(5);
+        ReviewScheduler.applyReview(schedule, 5, reviewedAt);
+        assertFalse(ReviewScheduler.isNewSolve(schedule, SOLVED_AT.plusHours(1)));
+        assertTrue(ReviewScheduler.isNewSolve(schedule, reviewedAt.plusMinutes(1)));
+    }
+
+    @Test
+    void queuesReloadFromTheRepositoryAndFollowRecordedReviews() {
+        ReviewScheduleRepository repository = mock(ReviewScheduleRepository.class);
+        ReviewScheduler scheduler = new ReviewScheduler(1);
+        ReflectionTestUtils.setField(scheduler, "reviewScheduleRepository", repository);
+        User alice = user(1);
+        User bob = user(2);
+        LocalDateTime now = SOLVED_AT.plusDays(10);
+        List<Object[]> aliceDueTimes = new ArrayList<>();
+        aliceDueTimes.add(new Object[]{1L, now.minusDays(1)});
+        aliceDueTimes.add(new Object[]{2L, now.plusDays(1)});
+        aliceDueTimes.add(new Object[]{3L, now.minusDays(3)});
+        when(repository.findDueTimesByUser(alice)).thenReturn(aliceDueTimes);
+        when(repository.findDueTimesByUser(bob)).thenReturn(List.of());
+
+        assertEquals(List.of(new DueReview(3, now.minusDays(3)), new DueReview(1, now.minusDays(1))),
+                scheduler.getDueReviews(alice, now, 10));
+        // Due reviews stay due until recorded
+        assertEquals(List.of(new DueReview(3, now.minusDays(3))), scheduler.getDueReviews(alice, now, 1));
+        verify(repository, times(1)).findDueTimesByUser(alice);
+
+        ReviewSchedule schedule = ReviewScheduler.initialSchedule(alice, problem(3), 1.0, SOLVED_AT);
+        when(repository.findByUserAndProblem(alice, schedule.getProblem())).thenReturn(Optional.of(schedule));
+        when(repository.save(any(ReviewSchedule.class))).thenAnswer(call -> call.getArgument(0));
+        scheduler.recordReview(alice, schedule.getProblem(), 5);
+        // No transaction here: the cached queue is updated right away
+        assertEquals(List.of(1L), scheduler.getDueReviews(alice, now, 10).stream().map(DueReview::problemId).toList());
+
+        // Loading another user evicts the only cached queue; the next read reloads it
+        assertNull(scheduler.getNextDueAt(bob));
+        scheduler.getNextDueAt(alice);
+        verify(repository, times(2)).findDueTimesByUser(alice);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static Problem problem(long id) {
+        Problem problem = new Problem();
+        problem.setId(id);
+        return problem;
+    }
+}
@@ -0,0 +1,65 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.dto.ProblemSummary;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkillRatingServiceTest {
+
+    @Test
+    void expectedScoreFollowsTheEloCurve() {
+        assertEquals(0.5, SkillRatingService.expectedScore(1500, 1500), 1e-9);
+        // 400 points ahead wins ten times as often as it loses
+        assertEquals(10.0 / 11.0, SkillRatingService.expectedScore(1900, 1500), 1e-9);
+        assertEquals(1.0, SkillRatingService.expectedScore(1500, 1700) + SkillRatingService.expectedScore(1700, 1500), 1e-9);
+    }
+
+    @Test
+    void solvesRaiseTheUserAndLowerTheProblem() {
+        double[] solved = SkillRatingService.rateMatch(1200, 0, 1200, 0, 1.0);
+        // Even match, full surprise of 0.5 times the maximum K factors (64 and 32)
+        assertEquals(1232, solved[0], 1e-9);
+        assertEquals(1184, solved[1], 1e-9);
+
+        double[] gaveUp = SkillRatingService.rateMatch(1200, 0, 1200, 0, 0.0);
+        assertEquals(1168, gaveUp[0], 1e-9);
+        assertEquals(1216, gaveUp[1], 1e-9);
+
+        // An expected result moves ratings less than an upset
+        double[] expected = SkillRatingService.rateMatch(1600, 0, 1200, 0, 1.0);
+        double[] upset = SkillRatingService.rateMatch(1200, 0, 1600, 0, 1.0);
+        assertTrue(expected[0] - 1600 < upset[0] - 1200);
+
+        // A shaky solve (score 0.5) against an equal problem changes nothing
+        double[] even = SkillRatingService.rateMatch(1500, 3, 1500, 3, 0.5);
+        assertEquals(1500, even[0], 1e-9);
+        assertEquals(1500, even[1], 1e-9);
+    }
+
+    @Test
+    void kFactorShrinksWithMatches() {
+        assertEquals(64, SkillRatingService.kFactor(64, 16, 0), 1e-9);
+        assertEquals(40, SkillRatingService.kFactor(64, 16, 10), 1e-9);
+        assertTrue(SkillRatingService.kFactor(64, 16, 1000) > 16);
+
+        double[] newcomer = SkillRatingService.rateMatch(1200, 0, 1200, 0, 1.0);
+        double[] veteran = SkillRatingService.rateMatch(1200, 100, 1200, 100, 1.0);
+        assertTrue(newcomer[0] - 1200 > veteran[0] - 1200);
+        assertTrue(1200 - newcomer[1] > 1200 - veteran[1]);
+    }
+
+    @Test
+    void seedRatingUsesDifficultyAndAcceptance() {
+        assertEquals(1200, SkillRatingService.seedRating(summary(Difficulty.EASY, 50)), 1e-9);
+        assertEquals(1500 + 80, SkillRatingService.seedRating(summary(Difficulty.MEDIUM, 30)), 1e-9);
+        assertEquals(1800 - 200, SkillRatingService.seedRating(summary(Difficulty.HARD, 100)), 1e-9);
+        // Out of range acceptance rates are clamped
+        assertEquals(1800 - 200, SkillRatingService.seedRating(summary(Difficulty.HARD, 150)), 1e-9);
+    }
+
+    private static ProblemSummary summary(Difficulty difficulty, double acceptanceRate) {
+        return new ProblemSummary(1, "Problem", difficulty, "Array", acceptanceRate);
+    }
+}
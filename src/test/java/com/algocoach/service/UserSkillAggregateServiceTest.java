@@ -0,0 +1,162 @@
+package com.algocoach.service;
+
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.domain.ProgressStatus;
+import com.algocoach.domain.TopicSkill;
+import com.algocoach.domain.User;
+import com.algocoach.domain.UserProgress;
+import com.algocoach.domain.UserSkillAggregate;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.repository.UserProgressRepository;
+import com.algocoach.repository.UserRepository;
+import com.algocoach.repository.UserSkillAggregateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(UserSkillAggregateService.class)
+class UserSkillAggregateServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+    @Autowired
+    private UserSkillAggregateService aggregateService;
+
+    @Autowired
+    private UserSkillAggregateRepository aggregateRepository;
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserProgressRepository userProgressRepository;
+
+    private List<Problem> problems;
+    private User user;
+    private int minutes;
+
+    @BeforeEach
+    void setUp() {
+        String[] topics = {"Array", "Graph", "Tree"};
+        List<Problem> created = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            created.add(new Problem("Problem " + i, Difficulty.values()[i % 3], topics[i / 4], 50.0, (long) i + 1));
+        }
+        problems = problemRepository.saveAll(created);
+        user = userRepository.save(new User("aggregated", "aggregated@example.com", "secret", "A", "U"));
+    }
+
+    @Test
+    void firstChangeCreatesTheAggregateFromUserProgress() {
+        change(problems.get(0), ProgressStatus.SOLVED, 0.8);
+        change(problems.get(1), ProgressStatus.IN_PROGRESS, null);
+
+        UserSkillAggregate aggregate = aggregateRepository.findByUserWithTopics(user).orElseThrow();
+        assertEquals(1, aggregate.getSolvedCount(Difficulty.EASY));
+        assertEquals(0.8, aggregate.getConfidenceSum(Difficulty.EASY), 1e-9);
+        assertEquals(1, aggregate.getInProgressCount());
+        assertEquals(Set.of("Array"), aggregate.getTopics().keySet());
+    }
+
+    @Test
+    void resolvingReplacesTheOldConfidence() {
+        Problem problem = problems.get(4);
+        change(problem, ProgressStatus.SOLVED, 0.4);
+        LocalDateTime resolvedAt = change(problem, ProgressStatus.SOLVED, 0.9).getSolvedAt();
+
+        UserSkillAggregate aggregate = aggregateRepository.findByUserWithTopics(user).orElseThrow();
+        assertEquals(1, aggregate.getSolvedCount(problem.getDifficulty()));
+        assertEquals(0.9, aggregate.getConfidenceSum(problem.getDifficulty()), 1e-9);
+        TopicSkill skill = aggregate.getTopics().get("Graph");
+        assertEquals(1, skill.getSolvedCount());
+        assertEquals(0.9, skill.getConfidenceSum(), 1e-9);
+        assertEquals(resolvedAt, skill.getLastSolvedAt());
+    }
+
+    @Test
+    void leavingSolvedDropsTheLastProblemOfATopic() {
+        change(problems.get(8), ProgressStatus.SOLVED, 0.7);
+        change(problems.get(9), ProgressStatus.SOLVED, 0.5);
+        change(problems.get(8), ProgressStatus.GAVE_UP, null);
+        assertEquals(1, aggregateRepository.findByUserWithTopics(user).orElseThrow().getTopics().get("Tree").getSolvedCount());
+
+        change(problems.get(9), ProgressStatus.IN_PROGRESS, null);
+        UserSkillAggregate aggregate = aggregateRepository.findByUserWithTopics(user).orElseThrow();
+        assertFalse(aggregate.getTopics().containsKey("Tree"));
+        assertEquals(0, aggregate.getSolvedCount(problems.get(9).getDifficulty()));
+        assertEquals(0.0, aggregate.getConfidenceSum(problems.get(9).getDifficulty()), 1e-9);
+        assertEquals(1, aggregate.getInProgressCount());
+    }
+
+    @Test
+    void incrementalTotalsMatchARebuild() {
+        Random random = new Random(11);
+        ProgressStatus[] statuses = ProgressStatus.values();
+        for (int step = 0; step < 120; step++) {
+            Problem problem = problems.get(random.nextInt(problems.size()));
+            ProgressStatus status = statuses[random.nextInt(statuses.length)];
+            Double confidence = random.nextInt(4) == 0 ? null : random.nextInt(11) / 10.0;
+            change(problem, status, confidence);
+
+            if (step % 20 == 19) {
+                Map<String, Object> incremental = totals(aggregateRepository.findByUserWithTopics(user).orElseThrow());
+                Map<String, Object> rebuilt = totals(aggregateService.rebuild(user));
+                assertEquals(rebuilt, incremental, "step " + step);
+            }
+        }
+    }
+
+    /**
+     * Save a progress change and apply it to the aggregate, as UserProgressService does
+     */
+    private UserProgress change(Problem problem, ProgressStatus status, Double confidence) {
+        UserProgress progress = userProgressRepository.findByUserAndProblem(user, problem)
+                .orElseGet(() -> new UserProgress(user, problem, ProgressStatus.NOT_STARTED));
+        ProgressStatus previousStatus = progress.getId() != null ? progress.getStatus() : null;
+        Double previousConfidence = progress.getConfidenceScore();
+
+        progress.setStatus(status);
+        progress.setConfidenceScore(status == ProgressStatus.SOLVED ? confidence : previousConfidence);
+        if (status == ProgressStatus.SOLVED) {
+            progress.setSolvedAt(START.plusMinutes(++minutes));
+        }
+        UserProgress saved = userProgressRepository.saveAndFlush(progress);
+        aggregateService.record(saved, previousStatus, previousConfidence);
+        aggregateRepository.flush();
+        return saved;
+    }
+
+    /**
+     * Counts and confidence sums (rounded) per difficulty and topic. Topic last-solve times
+     * are left out: un-solving keeps them, as documented on removeSolved.
+     */
+    private static Map<String, Object> totals(UserSkillAggregate aggregate) {
+        Map<String, Object> totals = new TreeMap<>();
+        for (Difficulty difficulty : Difficulty.values()) {
+            totals.put(difficulty + ".solved", aggregate.getSolvedCount(difficulty));
+            totals.put(difficulty + ".confidence", round(aggregate.getConfidenceSum(difficulty)));
+        }
+        aggregate.getTopics().forEach((topic, skill) -> {
+            totals.put(topic + ".solved", skill.getSolvedCount());
+            totals.put(topic + ".confidence", round(skill.getConfidenceSum()));
+        });
+        totals.put("inProgress", aggregate.getInProgressCount());
+        return totals;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1e6) / 1e6;
+    }
+}
@@ -0,0 +1,43 @@
+package com.algocoach.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExperimentReportTest {
+
+    @Test
+    void attributesOutcomesToFirstExposure() throws IOException {
+        String log = String.join("\n",
+                "O\t50\t1\t10\tSOLVED",            // before any exposure: ignored
+                "E\t100\tranking\tcontrol\t1\t10,11",
+                "E\t110\tranking\ttreatment\t2\t10",
+                "E\t120\tranking\tcontrol\t1\t10", // repeated exposure counts once
+                "O\t130\t1\t10\tSOLVED",
+                "O\t140\t1\t10\tSOLVED",           // second outcome for the pair: ignored
+                "O\t150\t2\t10\tGAVE_UP",
+                "O\t160\t3\t10\tSOLVED");          // never exposed: ignored
+
+        Map<String, ExperimentReport.VariantTotals> totals =
+                ExperimentReport.aggregate(new BufferedReader(new StringReader(log)));
+
+        ExperimentReport.VariantTotals control = totals.get("ranking/control");
+        assertEquals(1, control.users());
+        assertEquals(2, control.exposed());
+        assertEquals(1, control.solved());
+        assertEquals(0.5, control.solveRate());
+
+        ExperimentReport.VariantTotals treatment = totals.get("ranking/treatment");
+        assertEquals(1, treatment.exposed());
+        assertEquals(0, treatment.solved());
+        assertEquals(1, treatment.gaveUp());
+
+        double[] interval = control.solveRateInterval();
+        assertTrue(interval[0] < 0.5 && interval[1] > 0.5);
+    }
+}
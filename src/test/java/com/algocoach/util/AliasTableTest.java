@@ -0,0 +1,52 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AliasTableTest {
+
+    @Test
+    void drawsProportionallyToWeights() {
+        double[] weights = {1, 0, 3, 6};
+        AliasTable table = new AliasTable(weights);
+        SplittableRandom random = new SplittableRandom(1);
+
+        int draws = 200_000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < draws; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        assertEquals(0, counts[1]);
+        assertEquals(0.1, counts[0] / (double) draws, 0.01);
+        assertEquals(0.3, counts[2] / (double) draws, 0.01);
+        assertEquals(0.6, counts[3] / (double) draws, 0.01);
+    }
+
+    @Test
+    void sameSeedGivesSameDraws() {
+        AliasTable table = new AliasTable(new double[]{2, 5, 1, 1, 8});
+        SplittableRandom first = new SplittableRandom(42);
+        SplittableRandom second = new SplittableRandom(42);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(table.sample(first), table.sample(second));
+        }
+    }
+
+    @Test
+    void allZeroWeightsFallBackToUniformAndNegativeWeightsAreRejected() {
+        AliasTable table = new AliasTable(new double[]{0, 0});
+        SplittableRandom random = new SplittableRandom(3);
+        boolean[] seen = new boolean[2];
+        for (int i = 0; i < 100; i++) {
+            seen[table.sample(random)] = true;
+        }
+
+        assertTrue(seen[0] && seen[1]);
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, -1}));
+    }
+}
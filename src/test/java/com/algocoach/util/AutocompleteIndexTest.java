@@ -0,0 +1,195 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutocompleteIndexTest {
+
+    @Test
+    void completesWordPrefixesByWeight() {
+        AutocompleteIndex index = new AutocompleteIndex(5);
+        index.put(1, "Two Sum", 10);
+        index.put(2, "Three Sum", 50);
+        index.put(3, "Binary Tree Inorder Traversal", 30);
+        index.put(4, "Trapping Rain Water", 20);
+
+        assertEquals(List.of(2L, 3L, 4L, 1L), index.suggest("t", 10, 0));
+        assertEquals(List.of(2L, 1L), index.suggest("sum", 10, 0));
+        assertEquals(List.of(3L), index.suggest("  BINARY-tree ", 10, 0));
+        assertEquals(List.of(2L), index.suggest("t", 1, 0));
+        assertEquals(List.of(), index.suggest("graph", 10, 0));
+
+        index.setWeight(1, 100);
+        assertEquals(List.of(1L, 2L), index.suggest("sum", 10, 0));
+        index.setWeight(1, 0);
+        assertEquals(List.of(2L, 1L), index.suggest("sum", 10, 0));
+
+        assertTrue(index.remove(2));
+        assertFalse(index.remove(2));
+        assertEquals(List.of(3L, 4L, 1L), index.suggest("t", 10, 0));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void toleratesTypos() {
+        AutocompleteIndex index = new AutocompleteIndex(5);
+        index.put(1, "Binary Search", 1);
+        index.put(2, "Binary Tree Level Order", 5);
+        index.put(3, "Longest Palindromic Substring", 3);
+
+        assertEquals(List.of(1L), index.suggest("serach", 10, 1));
+        assertEquals(List.of(2L, 1L), index.suggest("binray", 10, 1));
+        assertEquals(List.of(3L), index.suggest("palindormc", 10, 2));
+        assertEquals(List.of(), index.suggest("palindormc", 10, 1));
+        assertEquals(List.of(), index.suggest("serach", 10, 0));
+    }
+
+    @Test
+    void prefixDistanceAllowsTranspositions() {
+        assertEquals(0, AutocompleteIndex.prefixDistance("bin", "binary", 2));
+        assertEquals(1, AutocompleteIndex.prefixDistance("bnary", "binary", 2));
+        assertEquals(1, AutocompleteIndex.prefixDistance("ibnary", "binary", 2));
+        assertEquals(2, AutocompleteIndex.prefixDistance("bimary tref", "binary tree", 2));
+        assertEquals(3, AutocompleteIndex.prefixDistance("graph", "binary", 2));
+    }
+
+    @Test
+    void fuzzyLookupsStayFastOnALargeCatalog() {
+        // Several thousand titles over a small shared vocabulary, like the real catalog
+        Random random = new Random(11);
+        String[] common = {"two", "sum", "tree", "binary", "search", "array", "string", "number", "maximum",
+                "minimum", "subarray", "substring", "path", "sort", "list", "linked", "matrix", "graph", "valid",
+                "longest", "palindrome", "interval", "merge", "count", "find", "k", "ii", "iii", "of", "the", "in"};
+        List<String> words = new ArrayList<>(Arrays.asList(common));
+        for (int i = 0; i < 600; i++) {
+            words.add(randomWord(random, 3 + random.nextInt(7)));
+        }
+        AutocompleteIndex index = new AutocompleteIndex(10);
+        Map<Long, String> titles = new HashMap<>();
+        Map<Long, Double> weights = new HashMap<>();
+        for (long id = 1; id <= 5000; id++) {
+            String title = random.ints(2 + random.nextInt(4), 0, words.size())
+                    .mapToObj(words::get).collect(Collectors.joining(" "));
+            double weight = random.nextInt(1000);
+            index.put(id, title, weight);
+            titles.put(id, title);
+            weights.put(id, weight);
+        }
+
+        // Title prefixes of 5 to 12 characters with one typo, edits allowed as in the service
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long id = 1 + random.nextInt(titles.size());
+            String title = titles.get(id);
+            String prefix = title.substring(0, Math.min(title.length(), 5 + random.nextInt(8)));
+            if (prefix.length() < 5) {
+                continue;
+            }
+            char[] chars = prefix.toCharArray();
+            int at = 1 + random.nextInt(chars.length - 2);
+            char swapped = chars[at];
+            chars[at] = chars[at + 1];
+            chars[at + 1] = swapped;
+            queries.add(AutocompleteIndex.normalize(new String(chars)));
+        }
+
+        for (String query : queries.subList(0, 300)) {
+            assertEquals(bruteForce(titles, weights, query, 10), index.suggest(query, 10, maxEdits(query)), query);
+        }
+
+        long start = System.nanoTime();
+        for (String query : queries) {
+            index.suggest(query, 10, maxEdits(query));
+        }
+        long micros = (System.nanoTime() - start) / 1000 / queries.size();
+        // Generous bound; the lookup walks the trie around the query, whatever the catalog size
+        assertTrue(micros < 1000, "average " + micros + "us per query");
+    }
+
+    @Test
+    void updatesMatchBruteForce() {
+        Random random = new Random(5);
+        String[] words = {"two", "sum", "tree", "tries", "binary", "search", "path", "paths", "max", "min"};
+        AutocompleteIndex index = new AutocompleteIndex(4);
+        Map<Long, String> titles = new HashMap<>();
+        Map<Long, Double> weights = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            long id = random.nextInt(60);
+            int operation = random.nextInt(4);
+            if (operation == 0) {
+                assertEquals(titles.remove(id) != null, index.remove(id));
+                weights.remove(id);
+            } else if (operation == 1 && titles.containsKey(id)) {
+                double weight = random.nextInt(20);
+                index.setWeight(id, weight);
+                weights.put(id, weight);
+            } else {
+                String title = random.ints(1 + random.nextInt(3), 0, words.length)
+                        .mapToObj(w -> words[w]).collect(Collectors.joining(" "));
+                double weight = random.nextInt(20);
+                index.put(id, title, weight);
+                titles.put(id, title);
+                weights.put(id, weight);
+            }
+        }
+        assertEquals(titles.size(), index.size());
+
+        for (String prefix : List.of("t", "tr", "tri", "p", "path", "m", "s", "sum", "b")) {
+            List<Long> expected = titles.keySet().stream()
+                    .filter(id -> Arrays.stream(titles.get(id).split(" ")).anyMatch(word -> word.startsWith(prefix)))
+                    .sorted(Comparator.<Long>comparingDouble(id -> -weights.get(id)).thenComparing(Comparator.naturalOrder()))
+                    .limit(4)
+                    .collect(Collectors.toList());
+            assertEquals(expected, index.suggest(prefix, 4, 0), prefix);
+        }
+    }
+
+    private static int maxEdits(String query) {
+        return query.length() < 9 ? 1 : 2;
+    }
+
+    /**
+     * Prefix matches by weight, then the others by word prefix distance and weight
+     */
+    private static List<Long> bruteForce(Map<Long, String> titles, Map<Long, Double> weights, String query, int limit) {
+        Map<Long, Integer> distances = new HashMap<>();
+        titles.forEach((id, title) -> {
+            int best = maxEdits(query) + 1;
+            for (String word : wordStarts(title)) {
+                best = Math.min(best, word.startsWith(query) ? 0 : AutocompleteIndex.prefixDistance(query, word, maxEdits(query)));
+            }
+            if (best <= maxEdits(query)) {
+                distances.put(id, best);
+            }
+        });
+        return distances.keySet().stream()
+                .sorted(Comparator.<Long>comparingInt(distances::get)
+                        .thenComparingDouble(id -> -weights.get(id))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> wordStarts(String title) {
+        String normalized = AutocompleteIndex.normalize(title);
+        List<String> starts = new ArrayList<>();
+        for (int start = 0; start < normalized.length(); start++) {
+            if (start == 0 || normalized.charAt(start - 1) == ' ') {
+                starts.add(normalized.substring(start));
+            }
+        }
+        return starts;
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
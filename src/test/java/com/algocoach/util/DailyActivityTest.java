@@ -0,0 +1,79 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyActivityTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 12, 20);
+
+    @Test
+    void tracksStreaksWhileAppending() {
+        DailyActivity activity = new DailyActivity();
+        activity.record(START, 2);
+        activity.record(START.plusDays(1), 1);
+        activity.record(START.plusDays(1), 3);
+        activity.record(START.plusDays(2), 1);
+        activity.record(START.plusDays(5), 1);
+
+        assertEquals(4, activity.activeDays());
+        assertEquals(3, activity.longestStreak());
+        assertEquals(4, activity.count(START.plusDays(1)));
+        assertEquals(0, activity.count(START.plusDays(3)));
+        assertEquals(1, activity.currentStreak(START.plusDays(5)));
+        assertEquals(1, activity.currentStreak(START.plusDays(6)));
+        assertEquals(0, activity.currentStreak(START.plusDays(7)));
+        assertArrayEquals(new int[]{0, 2, 4, 1, 0, 0, 1, 0}, activity.counts(START.minusDays(1), START.plusDays(6)));
+    }
+
+    @Test
+    void fillingGapsMergesRuns() {
+        DailyActivity activity = new DailyActivity();
+        activity.record(START.plusDays(4), 1);
+        activity.record(START.plusDays(5), 1);
+        activity.record(START, 1);
+        activity.record(START.plusDays(2), 1);
+        assertEquals(2, activity.longestStreak());
+
+        activity.record(START.plusDays(1), 1);
+        activity.record(START.plusDays(3), 1);
+        assertEquals(6, activity.longestStreak());
+        assertEquals(6, activity.currentStreak(START.plusDays(5)));
+    }
+
+    @Test
+    void matchesReferenceAcrossWordsAndSerialization() {
+        Random random = new Random(3);
+        DailyActivity activity = new DailyActivity();
+        Map<LocalDate, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 3000; i++) {
+            // Mostly moving forward, sometimes back-filling older days
+            LocalDate date = START.plusDays(random.nextInt(10) == 0 ? random.nextInt(400) - 200 : i / 10);
+            int amount = 1 + random.nextInt(3);
+            activity.record(date, amount);
+            expected.merge(date, amount, Integer::sum);
+        }
+
+        DailyActivity restored = DailyActivity.fromBytes(activity.toBytes());
+        LocalDate first = ((TreeMap<LocalDate, Integer>) expected).firstKey();
+        LocalDate last = ((TreeMap<LocalDate, Integer>) expected).lastKey();
+        int[] counts = restored.counts(first.minusDays(3), last.plusDays(3));
+
+        int longest = 0;
+        int run = 0;
+        for (int i = 0; i < counts.length; i++) {
+            LocalDate date = first.minusDays(3).plusDays(i);
+            assertEquals(expected.getOrDefault(date, 0), counts[i], date.toString());
+            assertEquals(counts[i], restored.count(date));
+            run = counts[i] > 0 ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        assertEquals(expected.size(), restored.activeDays());
+        assertEquals(longest, restored.longestStreak());
+        assertEquals(last, restored.lastActiveDay());
+    }
+}
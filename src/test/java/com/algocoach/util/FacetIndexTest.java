@@ -0,0 +1,115 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest {
+
+    @Test
+    void countsLeaveOutTheirOwnField() {
+        FacetIndex index = FacetIndex.builder(4, "difficulty", "topic")
+                .add(0, "difficulty", "EASY").add(0, "topic", "array")
+                .add(1, "difficulty", "EASY").add(1, "topic", "tree")
+                .add(2, "difficulty", "HARD").add(2, "topic", "array")
+                .add(3, "difficulty", "MEDIUM").add(3, "topic", "array")
+                .build();
+
+        FacetIndex.Counts counts = index.count(Map.of(), null);
+        assertEquals(4, counts.matching());
+        assertEquals(Map.of("EASY", 2, "HARD", 1, "MEDIUM", 1), counts.get("difficulty"));
+        assertEquals(Map.of("array", 3, "tree", 1), counts.get("topic"));
+
+        counts = index.count(Map.of("topic", "array"), null);
+        assertEquals(3, counts.matching());
+        assertEquals(Map.of("EASY", 1, "HARD", 1, "MEDIUM", 1), counts.get("difficulty"));
+        assertEquals(Map.of("array", 3, "tree", 1), counts.get("topic"));
+
+        long[] solved = index.newBitSet();
+        FacetIndex.set(solved, 0);
+        counts = index.count(Map.of("difficulty", "EASY"), solved);
+        assertEquals(1, counts.matching());
+        assertEquals(Map.of("EASY", 1, "HARD", 1, "MEDIUM", 1), counts.get("difficulty"));
+        assertEquals(Map.of("array", 0, "tree", 1), counts.get("topic"));
+
+        counts = index.count(Map.of("topic", "graph"), null);
+        assertEquals(0, counts.matching());
+        assertEquals(Map.of("EASY", 0, "HARD", 0, "MEDIUM", 0), counts.get("difficulty"));
+    }
+
+    @Test
+    void documentsWithoutValuesAreNotCounted() {
+        // Numbered by sparse ids
+        FacetIndex index = FacetIndex.builder(100, "difficulty")
+                .add(5, "difficulty", "EASY").add(64, "difficulty", "HARD").add(99, "difficulty", "EASY")
+                .build();
+        assertEquals(3, index.count(Map.of(), null).matching());
+
+        long[] solved = index.newBitSet();
+        FacetIndex.set(solved, 99);
+        FacetIndex.set(solved, 10);
+        FacetIndex.Counts counts = index.count(Map.of(), solved);
+        assertEquals(2, counts.matching());
+        assertEquals(Map.of("EASY", 1, "HARD", 1), counts.get("difficulty"));
+    }
+
+    @Test
+    void countsMatchBruteForce() {
+        Random random = new Random(17);
+        int documents = 1000;
+        String[] difficulties = {"EASY", "MEDIUM", "HARD"};
+        String[] topics = {"array", "tree", "graph", "dp", "string"};
+        String[][] values = new String[documents][];
+        FacetIndex.Builder builder = FacetIndex.builder(documents, "difficulty", "topic");
+        for (int d = 0; d < documents; d++) {
+            values[d] = new String[]{difficulties[random.nextInt(3)], topics[random.nextInt(5)]};
+            builder.add(d, "difficulty", values[d][0]).add(d, "topic", values[d][1]);
+        }
+        FacetIndex index = builder.build();
+        long[] excluded = index.newBitSet();
+        Set<Integer> excludedSet = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            int d = random.nextInt(documents);
+            FacetIndex.set(excluded, d);
+            excludedSet.add(d);
+        }
+
+        for (String difficulty : new String[]{null, "MEDIUM"}) {
+            for (String topic : new String[]{null, "dp"}) {
+                Map<String, String> selected = new HashMap<>();
+                if (difficulty != null) {
+                    selected.put("difficulty", difficulty);
+                }
+                if (topic != null) {
+                    selected.put("topic", topic);
+                }
+                FacetIndex.Counts counts = index.count(selected, excluded);
+
+                int matching = 0;
+                Map<String, Integer> byDifficulty = new HashMap<>();
+                Map<String, Integer> byTopic = new HashMap<>();
+                for (int d = 0; d < documents; d++) {
+                    if (excludedSet.contains(d)) {
+                        continue;
+                    }
+                    boolean difficultyMatches = difficulty == null || difficulty.equals(values[d][0]);
+                    boolean topicMatches = topic == null || topic.equals(values[d][1]);
+                    if (topicMatches) {
+                        byDifficulty.merge(values[d][0], 1, Integer::sum);
+                    }
+                    if (difficultyMatches) {
+                        byTopic.merge(values[d][1], 1, Integer::sum);
+                    }
+                    if (difficultyMatches && topicMatches) {
+                        matching++;
+                    }
+                }
+                assertEquals(matching, counts.matching());
+                assertEquals(byDifficulty, counts.get("difficulty"));
+                assertEquals(byTopic, counts.get("topic"));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedMinHeapTest {
+
+    @Test
+    void pollsInPriorityOrderWithKeyTieBreak() {
+        IndexedMinHeap heap = new IndexedMinHeap(2);
+        heap.upsert(5, 300);
+        heap.upsert(2, 100);
+        heap.upsert(9, 100);
+        heap.upsert(1, 200);
+
+        assertEquals(2, heap.poll());
+        assertEquals(9, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(5, heap.poll());
+        assertTrue(heap.isEmpty());
+        assertEquals(Long.MAX_VALUE, heap.peekPriority());
+    }
+
+    @Test
+    void upsertAndRemoveMatchSortedSet() {
+        Random random = new Random(5);
+        IndexedMinHeap heap = new IndexedMinHeap();
+        Map<Integer, Long> priorities = new HashMap<>();
+        TreeSet<long[]> expected = new TreeSet<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(500);
+            Long previous = priorities.get(key);
+            if (previous != null) {
+                expected.remove(new long[]{previous, key});
+            }
+            if (random.nextInt(3) == 0) {
+                assertEquals(previous != null, heap.remove(key));
+                priorities.remove(key);
+            } else {
+                long priority = random.nextInt(1000);
+                heap.upsert(key, priority);
+                priorities.put(key, priority);
+                expected.add(new long[]{priority, key});
+            }
+        }
+
+        assertEquals(expected.size(), heap.size());
+        for (long[] entry : expected) {
+            assertEquals(entry[0], heap.peekPriority());
+            assertEquals(entry[1], heap.poll());
+        }
+    }
+}
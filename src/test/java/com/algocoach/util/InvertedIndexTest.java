@@ -0,0 +1,126 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    void ranksRareAndRepeatedTermsHigher() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, Map.of("array", 1, "sum", 1));
+        index.put(2, Map.of("array", 3, "window", 1));
+        index.put(3, Map.of("tree", 2, "array", 1));
+        index.put(4, Map.of("graph", 1));
+
+        long[] ids = new long[10];
+        double[] scores = new double[10];
+        int count = index.search(List.of("array"), null, ids, scores);
+        assertEquals(3, count);
+        assertEquals(2, ids[0]);
+
+        count = index.search(List.of("array", "window"), null, ids, scores);
+        assertEquals(2, ids[0]);
+        assertTrue(scores[0] > scores[1]);
+
+        // "tree" is rarer than "array", so matching it outweighs matching "array"
+        count = index.search(List.of("tree", "sum"), null, ids, scores);
+        assertEquals(2, count);
+        assertEquals(Set.of(1L, 3L), Set.of(ids[0], ids[1]));
+
+        assertEquals(0, index.search(List.of("unknown"), null, ids, scores));
+        assertEquals(1, index.search(List.of("array"), id -> id == 3, ids, scores));
+        assertEquals(3, ids[0]);
+    }
+
+    @Test
+    void updatesAndRemovalsMatchBruteForce() {
+        Random random = new Random(9);
+        InvertedIndex index = new InvertedIndex();
+        Map<Long, Map<String, Integer>> documents = new HashMap<>();
+        String[] vocabulary = {"array", "tree", "graph", "dp", "string", "heap", "sort", "hash"};
+        for (int i = 0; i < 5000; i++) {
+            long id = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                assertEquals(documents.remove(id) != null, index.remove(id));
+                continue;
+            }
+            Map<String, Integer> terms = new HashMap<>();
+            for (int t = 0; t < 1 + random.nextInt(4); t++) {
+                terms.merge(vocabulary[random.nextInt(vocabulary.length)], 1 + random.nextInt(3), Integer::sum);
+            }
+            index.put(id, terms);
+            documents.put(id, terms);
+        }
+        assertEquals(documents.size(), index.size());
+
+        for (String term : vocabulary) {
+            long expected = documents.values().stream().filter(terms -> terms.containsKey(term)).count();
+            assertEquals(expected, index.documentFrequency(term), term);
+
+            long[] ids = new long[300];
+            double[] scores = new double[300];
+            int count = index.search(List.of(term, "missing"), null, ids, scores);
+            assertEquals(expected, count);
+            for (int i = 0; i < count; i++) {
+                assertTrue(documents.get(ids[i]).containsKey(term));
+                if (i > 0) {
+                    assertTrue(scores[i - 1] >= scores[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void prunedTopHitsMatchTheFullRanking() {
+        Random random = new Random(17);
+        InvertedIndex index = new InvertedIndex();
+        String[] vocabulary = new String[40];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = "term" + i;
+        }
+        for (long id = 0; id < 3000; id++) {
+            Map<String, Integer> terms = new HashMap<>();
+            for (int t = 0; t < 1 + random.nextInt(8); t++) {
+                // Skewed, so common and rare terms both occur
+                int term = (int) (vocabulary.length * Math.pow(random.nextDouble(), 2));
+                terms.merge(vocabulary[term], 1 + random.nextInt(3), Integer::sum);
+            }
+            index.put(id, terms);
+        }
+        for (int i = 0; i < 500; i++) {
+            index.remove(random.nextInt(3000));
+        }
+
+        for (int query = 0; query < 200; query++) {
+            List<String> terms = new ArrayList<>();
+            for (int t = 0; t < 1 + random.nextInt(5); t++) {
+                terms.add(vocabulary[random.nextInt(vocabulary.length)]);
+            }
+            LongPredicate accept = query % 2 == 0 ? null : id -> id % 3 != 0;
+
+            // Larger than the number of hits, so nothing is pruned
+            long[] allIds = new long[3000];
+            double[] allScores = new double[3000];
+            int all = index.search(terms, accept, allIds, allScores);
+            Map<Long, Double> fullScores = new HashMap<>();
+            for (int i = 0; i < all; i++) {
+                fullScores.put(allIds[i], allScores[i]);
+            }
+
+            int k = 1 + random.nextInt(10);
+            long[] ids = new long[k];
+            double[] scores = new double[k];
+            int count = index.search(terms, accept, ids, scores);
+            assertEquals(Math.min(k, all), count, terms.toString());
+            for (int i = 0; i < count; i++) {
+                assertEquals(allScores[i], scores[i], 1e-9, terms.toString());
+                assertEquals(fullScores.get(ids[i]), scores[i], 1e-9, terms.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadingLruCacheTest {
+
+    @Test
+    void loadsOnceAndEvictsLeastRecentlyUsed() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("1", cache.get(1L, key -> load(key, loads)));
+        assertEquals("1", cache.get(1L, key -> load(key, loads)));
+        assertEquals(1, loads.get());
+
+        cache.get(2L, key -> load(key, loads));
+        cache.get(1L, key -> load(key, loads));
+        cache.get(3L, key -> load(key, loads));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+
+        // 2 was least recently used
+        cache.get(2L, key -> load(key, loads));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void changesApplyToCachedValuesOnly() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+        cache.get(1L, String::valueOf);
+        cache.update(1L, value -> value + "+");
+        cache.update(2L, value -> value + "+");
+
+        assertEquals("1+", cache.get(1L, String::valueOf));
+        assertEquals("2", cache.get(2L, String::valueOf));
+        assertEquals(2, cache.size());
+
+        cache.remove(1L);
+        assertEquals("1", cache.get(1L, String::valueOf));
+    }
+
+    @Test
+    void loadOverlappingAChangeIsNotCached() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+
+        // The change commits after the loader read the old state
+        String stale = cache.get(1L, key -> {
+            cache.update(key, value -> value + "+");
+            return "old";
+        });
+        assertEquals("old", stale);
+        assertEquals(0, cache.size());
+        assertEquals("new", cache.get(1L, key -> "new"));
+
+        // Changes of other keys don't matter
+        cache.get(2L, key -> {
+            cache.update(3L, value -> value + "+");
+            return "2";
+        });
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void clearDropsEntriesAndLoadsInFlight() {
+        LoadingLruCache<Long, String> cache = new LoadingLruCache<>(10);
+        cache.get(1L, String::valueOf);
+        cache.get(2L, key -> {
+            cache.clear();
+            return "2";
+        });
+        assertEquals(0, cache.size());
+        assertNull(cache.getIfPresent(1L));
+        assertNull(cache.getIfPresent(2L));
+    }
+
+    private static String load(long key, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return String.valueOf(key);
+    }
+}
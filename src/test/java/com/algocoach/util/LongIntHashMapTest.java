@@ -0,0 +1,67 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void countsLikeHashMapAcrossResizes() {
+        Random random = new Random(3);
+        LongIntHashMap counts = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = (long) random.nextInt(5000) << 32 | random.nextInt(50);
+            counts.addTo(key, 1);
+            expected.merge(key, 1, Integer::sum);
+        }
+
+        assertEquals(expected.size(), counts.size());
+        expected.forEach((key, count) -> assertEquals(count, counts.get(key)));
+        Map<Long, Integer> visited = new HashMap<>();
+        counts.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void missingKeysAreZeroAndNegativeKeysRejected() {
+        LongIntHashMap counts = new LongIntHashMap();
+        counts.addTo(0, 2);
+
+        assertEquals(2, counts.get(0));
+        assertEquals(0, counts.get(7));
+        assertThrows(IllegalArgumentException.class, () -> counts.addTo(-1, 1));
+        counts.clear();
+        assertEquals(0, counts.size());
+        assertEquals(0, counts.get(0));
+    }
+
+    @Test
+    void removeKeepsOtherKeysReachable() {
+        Random random = new Random(11);
+        LongIntHashMap map = new LongIntHashMap(8);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            long key = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                int value = random.nextInt(100);
+                assertEquals(expected.getOrDefault(key, 0), map.put(key, value));
+                expected.put(key, value);
+            } else {
+                Integer removed = expected.remove(key);
+                assertEquals(removed != null ? removed : 0, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 2000; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            assertEquals(expected.getOrDefault(key, 0), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashLshIndexTest {
+
+    private static ProblemIdBitmap range(int from, int to) {
+        ProblemIdBitmap.Builder builder = new ProblemIdBitmap.Builder();
+        for (int id = from; id < to; id++) {
+            builder.add(id);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void estimatesJaccardSimilarity() {
+        MinHashLshIndex index = new MinHashLshIndex(32, 4, 1);
+        // |A ∩ B| = 50, |A ∪ B| = 150
+        double estimate = MinHashLshIndex.estimateSimilarity(
+                index.signature(range(0, 100)), index.signature(range(50, 150)));
+
+        assertEquals(1.0 / 3, estimate, 0.12);
+        assertEquals(1.0, MinHashLshIndex.estimateSimilarity(
+                index.signature(range(0, 100)), index.signature(range(0, 100))));
+    }
+
+    @Test
+    void findsOverlappingUsersButNotDisjointOnes() {
+        MinHashLshIndex index = new MinHashLshIndex(16, 4, 1);
+        index.put(1, range(0, 100));
+        index.put(2, range(5, 100));
+        index.put(3, range(1000, 1100));
+
+        List<MinHashLshIndex.Neighbor> neighbors = index.query(index.signature(range(0, 100)), 10, 100);
+
+        assertEquals(1, neighbors.get(0).userId());
+        assertEquals(1.0, neighbors.get(0).similarity());
+        assertTrue(neighbors.stream().anyMatch(n -> n.userId() == 2));
+        assertTrue(neighbors.stream().noneMatch(n -> n.userId() == 3));
+    }
+
+    @Test
+    void incrementalAddMatchesFullSignatureAndRemoveDropsUser() {
+        MinHashLshIndex index = new MinHashLshIndex(8, 4, 1);
+        for (int id = 0; id < 40; id++) {
+            index.add(7, id);
+        }
+        List<MinHashLshIndex.Neighbor> neighbors = index.query(index.signature(range(0, 40)), 1, 10);
+        assertEquals(7, neighbors.get(0).userId());
+        assertEquals(1.0, neighbors.get(0).similarity());
+
+        index.remove(7);
+        assertEquals(0, index.size());
+        assertTrue(index.query(index.signature(range(0, 40)), 1, 10).isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProblemIdBitmapTest {
+
+    @Test
+    void withAndWithoutReturnNewBitmaps() {
+        ProblemIdBitmap empty = ProblemIdBitmap.EMPTY;
+        ProblemIdBitmap one = empty.with(42);
+
+        assertTrue(one.contains(42));
+        assertFalse(empty.contains(42));
+        assertEquals(1, one.cardinality());
+
+        // Adding an existing id or removing a missing one is a no-op
+        assertSame(one, one.with(42));
+        assertSame(one, one.without(7));
+
+        ProblemIdBitmap none = one.without(42);
+        assertTrue(none.isEmpty());
+        assertTrue(one.contains(42));
+    }
+
+    @Test
+    void idsAcrossContainersAreKeptInOrder() {
+        ProblemIdBitmap bitmap = ProblemIdBitmap.of(70_000, 3, 1, 65_536, 3);
+
+        assertEquals(4, bitmap.cardinality());
+        assertArrayEquals(new int[]{1, 3, 65_536, 70_000}, bitmap.toArray());
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(-1));
+    }
+
+    @Test
+    void orIntoSetsIdBitsWithinTheBitset() {
+        ProblemIdBitmap.Builder builder = new ProblemIdBitmap.Builder().add(3).add(65_600).add(200_000);
+        // A bitmap container for the second key
+        for (int id = 70_000; id < 80_000; id += 2) {
+            builder.add(id);
+        }
+        ProblemIdBitmap bitmap = builder.build();
+
+        long[] bits = new long[(75_000 + 63) / 64];
+        bits[0] = 1L;
+        bitmap.orInto(bits);
+        int count = 0;
+        for (int id = 0; id < bits.length * 64; id++) {
+            boolean set = (bits[id >>> 6] & (1L << id)) != 0;
+            assertEquals(id == 0 || bitmap.contains(id), set, "id " + id);
+            count += set ? 1 : 0;
+        }
+        assertEquals(1 + 2 + (75_008 - 70_000) / 2, count);
+    }
+
+    @Test
+    void denseContainersSwitchToBitsetAndBack() {
+        ProblemIdBitmap.Builder builder = new ProblemIdBitmap.Builder();
+        for (int id = 0; id < 5000; id++) {
+            builder.add(id);
+        }
+        ProblemIdBitmap dense = builder.build();
+        assertEquals(5000, dense.cardinality());
+        assertTrue(dense.contains(4999));
+
+        ProblemIdBitmap shrunk = dense;
+        for (int id = 0; id < 1000; id++) {
+            shrunk = shrunk.without(id);
+        }
+        assertEquals(4000, shrunk.cardinality());
+        assertFalse(shrunk.contains(999));
+        assertTrue(shrunk.contains(1000));
+        assertEquals(5000, dense.cardinality());
+
+        ProblemIdBitmap grown = shrunk.with(5000);
+        assertTrue(grown.contains(5000));
+        assertEquals(4001, grown.toArray().length);
+    }
+}
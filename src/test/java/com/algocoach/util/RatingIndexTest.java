@@ -0,0 +1,68 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingIndexTest {
+
+    @Test
+    void nearestWalksOutwardsWithinDistance() {
+        RatingIndex index = new RatingIndex(2);
+        index.add(1, 1000);
+        index.add(2, 1190);
+        index.add(3, 1210);
+        index.add(4, 1300);
+        index.add(5, 1500);
+
+        long[] out = new long[5];
+        int count = index.nearest(1200, 250, id -> id == 3, out);
+
+        assertEquals(3, count);
+        assertArrayEquals(new long[]{2, 4, 1}, Arrays.copyOf(out, count));
+        assertEquals(2, index.count(1150, 1250));
+        assertEquals(0, index.count(1250, 1150));
+    }
+
+    @Test
+    void updatesAndRemovesMatchSortedSet() {
+        Random random = new Random(11);
+        RatingIndex index = new RatingIndex();
+        Map<Long, Double> ratings = new HashMap<>();
+        TreeSet<double[]> expected = new TreeSet<>((a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+        for (int i = 0; i < 20000; i++) {
+            long id = random.nextInt(300);
+            Double previous = ratings.get(id);
+            double rating = 1000 + random.nextInt(200);
+            if (previous == null) {
+                index.add(id, rating);
+            } else if (random.nextInt(4) == 0) {
+                assertTrue(index.remove(id, previous));
+                expected.remove(new double[]{previous, id});
+                ratings.remove(id);
+                continue;
+            } else {
+                assertTrue(index.update(id, previous, rating));
+                expected.remove(new double[]{previous, id});
+            }
+            ratings.put(id, rating);
+            expected.add(new double[]{rating, id});
+        }
+
+        assertEquals(expected.size(), index.size());
+        int position = 0;
+        for (double[] entry : expected) {
+            assertEquals(entry[0], index.rating(position));
+            assertEquals((long) entry[1], index.id(position));
+            position++;
+        }
+        assertFalse(index.update(999, 1000, 1100));
+        assertFalse(index.remove(999, 1000));
+    }
+}
@@ -0,0 +1,70 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreRankIndexTest {
+
+    @Test
+    void ranksTiesEquallyAndListsThemById() {
+        ScoreRankIndex index = new ScoreRankIndex(4);
+        index.set(7, 10);
+        index.set(3, 25);
+        index.set(5, 10);
+        index.set(9, 2);
+
+        assertEquals(1, index.rank(3));
+        assertEquals(2, index.rank(5));
+        assertEquals(2, index.rank(7));
+        assertEquals(4, index.rank(9));
+        assertEquals(0, index.rank(42));
+        assertEquals(4, index.countAbove(0));
+        assertEquals(0, index.countAbove(100));
+
+        long[] ids = new long[3];
+        int[] scores = new int[3];
+        assertEquals(3, index.top(ids, scores));
+        assertArrayEquals(new long[]{3, 5, 7}, ids);
+        assertArrayEquals(new int[]{25, 10, 10}, scores);
+    }
+
+    @Test
+    void movesAndRemovalsMatchSortedReference() {
+        Random random = new Random(5);
+        ScoreRankIndex index = new ScoreRankIndex(8);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long id = random.nextInt(500);
+            if (random.nextInt(5) == 0) {
+                assertEquals(expected.remove(id) != null, index.remove(id));
+            } else {
+                int score = random.nextInt(random.nextBoolean() ? 20 : 3000);
+                index.set(id, score);
+                expected.put(id, score);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        List<Map.Entry<Long, Integer>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        long[] ids = new long[sorted.size() + 5];
+        int[] scores = new int[ids.length];
+        assertEquals(sorted.size(), index.top(ids, scores));
+        for (int i = 0; i < sorted.size(); i++) {
+            Map.Entry<Long, Integer> entry = sorted.get(i);
+            assertEquals(entry.getKey(), ids[i]);
+            assertEquals(entry.getValue(), scores[i]);
+            long higher = expected.values().stream().filter(score -> score > entry.getValue()).count();
+            assertEquals(higher + 1, index.rank(entry.getKey()));
+        }
+    }
+
+    @Test
+    void rejectsNegativeScores() {
+        assertThrows(IllegalArgumentException.class, () -> new ScoreRankIndex().set(1, -1));
+    }
+}
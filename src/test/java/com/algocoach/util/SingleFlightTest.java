@@ -0,0 +1,75 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(executor.submit(() -> flight.execute("user-1", () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                await(release);
+                return 42;
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> flight.execute("user-1", runs::incrementAndGet)));
+            }
+            // Let the followers reach the in-flight future before releasing the leader
+            while (flight.coalescedCount() < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, runs.get());
+            assertEquals(callers - 1, flight.coalescedCount());
+            assertEquals(0, flight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Nothing is cached once the flight has landed
+        assertEquals(7, flight.execute("user-1", () -> 7));
+    }
+
+    @Test
+    void failuresReachEveryCallerAndAreNotRemembered() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        assertThrows(IllegalStateException.class, () -> flight.execute("k", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(0, flight.inFlightCount());
+        assertEquals(1, flight.execute("k", () -> 1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
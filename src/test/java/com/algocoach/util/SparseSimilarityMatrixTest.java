@@ -0,0 +1,52 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseSimilarityMatrixTest {
+
+    @Test
+    void storesPairsSymmetricallyStrongestFirst() {
+        SparseSimilarityMatrix matrix = new SparseSimilarityMatrix.Builder()
+                .add(1, 2, 0.5f)
+                .add(3, 1, 0.9f)
+                .add(2, 3, 0.1f)
+                .build(10);
+
+        assertEquals(3, matrix.size());
+        assertEquals(6, matrix.nonZeros());
+        assertEquals(0.5f, matrix.similarity(2, 1));
+        assertEquals(0.9f, matrix.similarity(1, 3));
+        assertEquals(0f, matrix.similarity(1, 4));
+
+        int row = matrix.indexOf(1);
+        assertEquals(3, matrix.id(matrix.column(matrix.rowStart(row))));
+        assertEquals(2, matrix.id(matrix.column(matrix.rowStart(row) + 1)));
+    }
+
+    @Test
+    void prunesRowsToMaxNeighbors() {
+        SparseSimilarityMatrix.Builder builder = new SparseSimilarityMatrix.Builder();
+        for (int other = 2; other <= 20; other++) {
+            builder.add(1, other, other / 100f);
+        }
+        SparseSimilarityMatrix matrix = builder.build(3);
+
+        int row = matrix.indexOf(1);
+        assertEquals(3, matrix.rowEnd(row) - matrix.rowStart(row));
+        assertEquals(0.2f, matrix.similarity(1, 20));
+        assertEquals(0f, matrix.similarity(1, 2));
+        // Leaf rows keep their only neighbor
+        assertEquals(0.02f, matrix.similarity(2, 1));
+    }
+
+    @Test
+    void emptyBuilderGivesEmptyMatrix() {
+        SparseSimilarityMatrix matrix = new SparseSimilarityMatrix.Builder().build(5);
+
+        assertEquals(0, matrix.size());
+        assertEquals(-1, matrix.indexOf(1));
+        assertThrows(IllegalArgumentException.class, () -> new SparseSimilarityMatrix.Builder().add(4, 4, 1f));
+    }
+}
@@ -0,0 +1,52 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseVectorIndexTest {
+
+    private static SparseVectorIndex sample(boolean quantize) {
+        return new SparseVectorIndex.Builder(1)
+                .add(30, new int[]{1, 4}, new float[]{3f, 4f})
+                .add(10, new int[]{1, 2, 4}, new float[]{1f, 1f, 1f})
+                .add(20, new int[]{7}, new float[]{2f})
+                .build(quantize);
+    }
+
+    @Test
+    void rowsAreSortedByIdAndNormalized() {
+        SparseVectorIndex index = sample(false);
+
+        assertEquals(3, index.size());
+        assertEquals(10, index.id(0));
+        assertEquals(2, index.indexOf(30));
+        assertEquals(-1, index.indexOf(40));
+        assertEquals(1.0, index.dot(2, 2), 1e-6);
+        // (3*1 + 4*1) / (5 * sqrt(3))
+        assertEquals(7 / (5 * Math.sqrt(3)), index.dot(index.indexOf(30), index.indexOf(10)), 1e-6);
+        assertEquals(0.0, index.dot(index.indexOf(20), index.indexOf(10)));
+    }
+
+    @Test
+    void denseProfileMatchesPairwiseDot() {
+        SparseVectorIndex index = sample(false);
+        float[] profile = new float[8];
+        index.addTo(index.indexOf(10), profile, 1f);
+
+        assertEquals(index.dot(index.indexOf(30), index.indexOf(10)), index.dot(index.indexOf(30), profile), 1e-6);
+    }
+
+    @Test
+    void quantizedScoresStayCloseToExact() {
+        SparseVectorIndex exact = sample(false);
+        SparseVectorIndex quantized = sample(true);
+
+        assertTrue(quantized.isQuantized());
+        for (int row = 0; row < exact.size(); row++) {
+            for (int other = 0; other < exact.size(); other++) {
+                assertEquals(exact.dot(row, other), quantized.dot(row, other), 0.02);
+            }
+        }
+    }
+}
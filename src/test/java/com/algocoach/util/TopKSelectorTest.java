@@ -0,0 +1,48 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKSelectorTest {
+
+    @Test
+    void returnsHighestScoresBestFirst() {
+        double[] scores = {0.2, 0.9, 0.5, 0.9, 0.1, 0.7};
+
+        // Equal scores keep the lower index first
+        assertArrayEquals(new int[]{1, 3, 5}, TopKSelector.select(scores, scores.length, 3));
+    }
+
+    @Test
+    void handlesKLargerThanInputAndEmptyInput() {
+        double[] scores = {0.3, 0.1};
+
+        assertArrayEquals(new int[]{0, 1}, TopKSelector.select(scores, scores.length, 10));
+        assertEquals(0, TopKSelector.select(new double[0], 0, 5).length);
+        assertEquals(0, TopKSelector.select(scores, scores.length, 0).length);
+    }
+
+    @Test
+    void matchesFullSortOnRandomInput() {
+        Random random = new Random(7);
+        double[] scores = new double[5000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(1000) / 1000.0;
+        }
+
+        int[] expected = IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> scores[i]).reversed().thenComparing(i -> i))
+                .limit(20)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        assertArrayEquals(expected, TopKSelector.select(scores, scores.length, 20));
+        assertEquals(20, Arrays.stream(TopKSelector.select(scores, scores.length, 20)).distinct().count());
+    }
+}
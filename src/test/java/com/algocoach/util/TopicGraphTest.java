@@ -0,0 +1,68 @@
+package com.algocoach.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopicGraphTest {
+
+    private static TopicGraph sampleGraph() {
+        return TopicGraph.builder()
+                .addPrerequisite("Dynamic Programming", "Recursion")
+                .addPrerequisite("Dynamic Programming", "Array")
+                .addPrerequisite("Tree", "Recursion")
+                .addPrerequisite("Tree", "Linked List")
+                .addPrerequisite("Linked List", "Array")
+                .addPrerequisite("Graph", "Tree")
+                .addTopic("String")
+                .build();
+    }
+
+    @Test
+    void pathListsMissingPrerequisitesFirst() {
+        TopicGraph graph = sampleGraph();
+        int graphNode = graph.indexOf("graph");
+
+        long[] done = graph.newSet();
+        TopicGraph.add(done, graph.indexOf("Array"));
+        String[] path = Arrays.stream(graph.pathTo(graphNode, done)).mapToObj(graph::topic).toArray(String[]::new);
+
+        assertEquals(4, path.length);
+        assertEquals("Graph", path[3]);
+        assertTrue(indexOf(path, "Recursion") < indexOf(path, "Tree"));
+        assertTrue(indexOf(path, "Linked List") < indexOf(path, "Tree"));
+        assertEquals(-1, indexOf(path, "Array"));
+        assertEquals(-1, indexOf(path, "Dynamic Programming"));
+
+        assertTrue(graph.requires(graphNode, graph.indexOf("Array")));
+        assertFalse(graph.requires(graph.indexOf("Array"), graphNode));
+        assertEquals(graph.size(), graph.pathTo(null, graph.newSet()).length);
+        assertEquals(-1, graph.indexOf("Unknown"));
+    }
+
+    @Test
+    void nodesAreNumberedTopologically() {
+        TopicGraph graph = sampleGraph();
+        for (int node = 0; node < graph.size(); node++) {
+            for (int prerequisite : graph.prerequisitesOf(node)) {
+                assertTrue(prerequisite < node);
+            }
+        }
+    }
+
+    @Test
+    void rejectsCycles() {
+        TopicGraph.Builder builder = TopicGraph.builder()
+                .addPrerequisite("A", "B")
+                .addPrerequisite("B", "C")
+                .addPrerequisite("C", "A");
+        assertThrows(IllegalArgumentException.class, builder::build);
+        assertThrows(IllegalArgumentException.class, () -> TopicGraph.builder().addPrerequisite("A", "a"));
+    }
+
+    private static int indexOf(String[] values, String value) {
+        return Arrays.asList(values).indexOf(value);
+    }
+}
@@ -0,0 +1,167 @@
+package com.algocoach.web;
+
+import com.algocoach.controller.ProblemController;
+import com.algocoach.domain.Difficulty;
+import com.algocoach.domain.Problem;
+import com.algocoach.dto.ProblemSummary;
+import com.algocoach.repository.ProblemRepository;
+import com.algocoach.service.ProblemCatalogIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProblemFiltersWebTest {
+
+    private final Map<Long, Problem> problems = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private ProblemCatalogIndex catalogIndex;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        save(new Problem("Two Sum", Difficulty.EASY, "Array", 49.5, 1L));
+        save(new Problem("Course Schedule", Difficulty.MEDIUM, "Graph", 45.0, 207L));
+        save(new Problem("Word Ladder", Difficulty.HARD, "Graph", 36.5, 127L));
+        save(new Problem("Merge Intervals", Difficulty.MEDIUM, "Array", 46.0, 56L));
+
+        // The repository is backed by the map above, for both the controller and the index
+        ProblemRepository problemRepository = mock(ProblemRepository.class);
+        when(problemRepository.findAllSummaries()).thenAnswer(call ->
+                problems.values().stream().map(ProblemSummary::from).toList());
+        when(problemRepository.findById(anyLong())).thenAnswer(call ->
+                Optional.ofNullable(problems.get(call.<Long>getArgument(0))));
+        when(problemRepository.save(any(Problem.class))).thenAnswer(call -> save(call.getArgument(0)));
+        doAnswer(call -> problems.remove(call.<Problem>getArgument(0).getId()))
+                .when(problemRepository).delete(any(Problem.class));
+
+        catalogIndex = new ProblemCatalogIndex();
+        ReflectionTestUtils.setField(catalogIndex, "problemRepository", problemRepository);
+        ReflectionTestUtils.setField(catalogIndex, "eventPublisher", mock(ApplicationEventPublisher.class));
+        catalogIndex.rebuild();
+
+        ProblemController controller = new ProblemController();
+        ReflectionTestUtils.setField(controller, "problemRepository", problemRepository);
+        ReflectionTestUtils.setField(controller, "catalogIndex", catalogIndex);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void describesTheCatalog() throws Exception {
+        mockMvc.perform(get("/problems/filters"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.topics", contains("Array", "Graph")))
+                .andExpect(jsonPath("$.difficulties", contains("EASY", "MEDIUM", "HARD")))
+                .andExpect(jsonPath("$.problemCount").value(4))
+                .andExpect(jsonPath("$.acceptanceRate.min").value(36.5))
+                .andExpect(jsonPath("$.acceptanceRate.max").value(49.5))
+                .andExpect(jsonPath("$.counts.matching").value(4))
+                .andExpect(jsonPath("$.counts.difficulties.EASY").value(1))
+                .andExpect(jsonPath("$.counts.difficulties.MEDIUM").value(2))
+                .andExpect(jsonPath("$.counts.difficulties.HARD").value(1))
+                .andExpect(jsonPath("$.counts.topics.Array").value(2))
+                .andExpect(jsonPath("$.counts.topics.Graph").value(2));
+
+        mockMvc.perform(get("/problems/filters").param("topic", "graph"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.problemCount").value(4))
+                .andExpect(jsonPath("$.counts.matching").value(2))
+                .andExpect(jsonPath("$.counts.difficulties.EASY").value(0))
+                .andExpect(jsonPath("$.counts.difficulties.HARD").value(1));
+    }
+
+    @Test
+    void unchangedCatalogIsNotModified() throws Exception {
+        String eTag = eTag();
+        assertEquals("\"catalog-" + version() + "\"", eTag);
+
+        mockMvc.perform(get("/problems/filters").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/problems/filters").header(HttpHeaders.IF_NONE_MATCH, "\"catalog-0\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createUpdateAndDeleteChangeTheETag() throws Exception {
+        String initial = eTag();
+
+        mockMvc.perform(post("/problems").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Binary Tree Paths\",\"difficulty\":\"EASY\",\"topic\":\"Tree\",\"acceptanceRate\":62.0}"))
+                .andExpect(status().isOk());
+        String created = revalidate(initial)
+                .andExpect(jsonPath("$.topics", contains("Array", "Graph", "Tree")))
+                .andExpect(jsonPath("$.problemCount").value(5))
+                .andExpect(jsonPath("$.acceptanceRate.max").value(62.0))
+                .andExpect(jsonPath("$.counts.difficulties.EASY").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/problems/2").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Course Schedule\",\"difficulty\":\"HARD\",\"topic\":\"Tree\",\"acceptanceRate\":30.0}"))
+                .andExpect(status().isOk());
+        String updated = revalidate(created)
+                .andExpect(jsonPath("$.problemCount").value(5))
+                .andExpect(jsonPath("$.acceptanceRate.min").value(30.0))
+                .andExpect(jsonPath("$.counts.difficulties.MEDIUM").value(1))
+                .andExpect(jsonPath("$.counts.difficulties.HARD").value(2))
+                .andExpect(jsonPath("$.counts.topics.Graph").value(1))
+                .andExpect(jsonPath("$.counts.topics.Tree").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(delete("/problems/3")).andExpect(status().isOk());
+        String deleted = revalidate(updated)
+                .andExpect(jsonPath("$.topics", contains("Array", "Tree")))
+                .andExpect(jsonPath("$.problemCount").value(4))
+                .andExpect(jsonPath("$.counts.difficulties.HARD").value(1))
+                .andExpect(jsonPath("$.counts.topics.Graph").doesNotExist())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals(4, new HashSet<>(List.of(initial, created, updated, deleted)).size());
+        mockMvc.perform(get("/problems/filters").header(HttpHeaders.IF_NONE_MATCH, deleted))
+                .andExpect(status().isNotModified());
+    }
+
+    /**
+     * Revalidate with an ETag the catalog has moved past, expecting a fresh 200
+     */
+    private ResultActions revalidate(String staleETag) throws Exception {
+        return mockMvc.perform(get("/problems/filters").header(HttpHeaders.IF_NONE_MATCH, staleETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-" + version() + "\""));
+    }
+
+    private String eTag() throws Exception {
+        return mockMvc.perform(get("/problems/filters"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private long version() {
+        return catalogIndex.metadata().version();
+    }
+
+    private Problem save(Problem problem) {
+        if (problem.getId() == null) {
+            problem.setId(ids.incrementAndGet());
+        }
+        problems.put(problem.getId(), problem);
+        return problem;
+    }
+}